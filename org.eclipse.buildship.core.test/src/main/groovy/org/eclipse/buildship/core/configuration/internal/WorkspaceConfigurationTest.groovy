@@ -15,8 +15,24 @@ class WorkspaceConfigurationTest extends WorkspaceSpecification {
         configuration.offline == false
         configuration.buildScansEnabled == false
         configuration.autoSync == false
+        configuration.autoSyncDelay == WorkspaceConfiguration.DEFAULT_AUTO_SYNC_DELAY
 
     }
+
+    def "Can save auto sync delay"() {
+        setup:
+        WorkspaceConfiguration orignalConfiguration = configurationManager.loadWorkspaceConfiguration()
+
+        when:
+        configurationManager.saveWorkspaceConfiguration(new WorkspaceConfiguration(GradleDistribution.fromBuild(), null, false, false, true, 250))
+
+        then:
+        configurationManager.loadWorkspaceConfiguration().autoSyncDelay == 250
+
+        cleanup:
+        configurationManager.saveWorkspaceConfiguration(orignalConfiguration)
+    }
+
     def "Can save workpsace configuration"(GradleDistribution distribution, String gradleUserHome, boolean offlineMode, boolean buildScansEnabled, boolean autoSync) {
         setup:
         WorkspaceConfiguration orignalConfiguration = configurationManager.loadWorkspaceConfiguration()
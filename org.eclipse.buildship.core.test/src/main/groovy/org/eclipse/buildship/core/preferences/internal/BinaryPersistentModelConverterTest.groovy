@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.preferences.internal
+
+import org.eclipse.core.resources.ICommand
+import org.eclipse.core.resources.IProject
+import org.eclipse.core.runtime.IPath
+import org.eclipse.core.runtime.Path
+import org.eclipse.jdt.core.IAccessRule
+import org.eclipse.jdt.core.IClasspathAttribute
+import org.eclipse.jdt.core.IClasspathEntry
+import org.eclipse.jdt.core.JavaCore
+
+import org.eclipse.buildship.core.Logger
+import org.eclipse.buildship.core.preferences.PersistentModel
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class BinaryPersistentModelConverterTest extends WorkspaceSpecification {
+
+    IProject project
+
+    def setup() {
+        project = newProject('sample-project')
+    }
+
+    def "Can convert a model"() {
+        setup:
+        ICommand command = project.description.newCommand()
+        command.builderName = 'custom-builder'
+        command.arguments = ['key': 'value']
+        IAccessRule[] accessRules = [JavaCore.newAccessRule(new Path('com/example/internal/**'), IAccessRule.K_DISCOURAGED | IAccessRule.IGNORE_IF_BETTER)]
+        IClasspathAttribute[] attributes = [JavaCore.newClasspathAttribute('gradle_used_by_scope', 'main,test')]
+        IPath[] inclusionPatterns = [new Path('**/*.java')]
+        IPath[] exclusionPatterns = [new Path('generated/**')]
+        List<IClasspathEntry> classpath = [
+            JavaCore.newSourceEntry(project.fullPath.append('src/main/java'), inclusionPatterns, exclusionPatterns, project.fullPath.append('bin/main'), attributes),
+            JavaCore.newLibraryEntry(new Path('/gradle/caches/lib.jar'), new Path('/gradle/caches/lib-sources.jar'), null, accessRules, attributes, true),
+            JavaCore.newProjectEntry(new Path('/other-project'), accessRules, false, attributes, true),
+            JavaCore.newContainerEntry(new Path('org.eclipse.jdt.launching.JRE_CONTAINER'), accessRules, attributes, false),
+            JavaCore.newVariableEntry(new Path('GRADLE_HOME/lib.jar'), null, null)
+        ]
+        PersistentModel model = new DefaultPersistentModel(project, new Path('build'), new Path('build.gradle'), [new Path('sub')], classpath,
+            [new Path('build'), new Path('.gradle')], [new Path('linked')], ['org.eclipse.pde.UpdateSiteNature'], [command], 'fingerprint')
+
+        when:
+        PersistentModel result = convert(model)
+
+        then:
+        result.project == project
+        result.buildDir == model.buildDir
+        result.getbuildScriptPath() == model.getbuildScriptPath()
+        result.subprojectPaths == model.subprojectPaths
+        result.classpath == model.classpath
+        result.derivedResources == model.derivedResources
+        result.linkedResources == model.linkedResources
+        result.managedNatures == model.managedNatures
+        result.managedBuilders == model.managedBuilders
+        result.fingerprint == 'fingerprint'
+    }
+
+    def "Absent fingerprint is converted"() {
+        setup:
+        PersistentModel model = new DefaultPersistentModel(project, new Path('build'), new Path('build.gradle'), [], [], [], [], [], [], null)
+
+        expect:
+        convert(model).fingerprint == null
+    }
+
+    def "Paths inside the project are stored relative to the project"() {
+        setup:
+        List<IClasspathEntry> classpath = [JavaCore.newSourceEntry(project.fullPath.append('src'))]
+        PersistentModel model = new DefaultPersistentModel(project, new Path('build'), new Path('build.gradle'), [], classpath, [], [], [], [], null)
+        ByteArrayOutputStream output = new ByteArrayOutputStream()
+        BinaryPersistentModelConverter.write(model, output)
+        IProject renamedProject = newProject('renamed-project')
+
+        when:
+        PersistentModel result = BinaryPersistentModelConverter.read(renamedProject, new ByteArrayInputStream(output.toByteArray()))
+
+        then:
+        result.classpath[0].path == new Path('/renamed-project/src')
+    }
+
+    def "File system paths starting with the project name are not stored relative to the project"() {
+        setup:
+        List<IClasspathEntry> classpath = [JavaCore.newLibraryEntry(new Path('/sample-project/libs/lib.jar'), new Path('/sample-project/libs/lib-sources.jar'), null)]
+        PersistentModel model = new DefaultPersistentModel(project, new Path('build'), new Path('build.gradle'), [], classpath, [], [], [], [], null)
+        ByteArrayOutputStream output = new ByteArrayOutputStream()
+        BinaryPersistentModelConverter.write(model, output)
+        IProject renamedProject = newProject('renamed-project')
+
+        when:
+        PersistentModel result = BinaryPersistentModelConverter.read(renamedProject, new ByteArrayInputStream(output.toByteArray()))
+
+        then:
+        result.classpath[0].path == new Path('/sample-project/libs/lib.jar')
+        result.classpath[0].sourceAttachmentPath == new Path('/sample-project/libs/lib-sources.jar')
+    }
+
+    def "Libraries inside the project are stored relative to the project"() {
+        setup:
+        project.getFolder('libs').create(true, true, null)
+        project.getFile('libs/lib.jar').create(new ByteArrayInputStream(new byte[0]), true, null)
+        List<IClasspathEntry> classpath = [JavaCore.newLibraryEntry(project.fullPath.append('libs/lib.jar'), null, null)]
+        PersistentModel model = new DefaultPersistentModel(project, new Path('build'), new Path('build.gradle'), [], classpath, [], [], [], [], null)
+        ByteArrayOutputStream output = new ByteArrayOutputStream()
+        BinaryPersistentModelConverter.write(model, output)
+        IProject renamedProject = newProject('renamed-project')
+
+        when:
+        PersistentModel result = BinaryPersistentModelConverter.read(renamedProject, new ByteArrayInputStream(output.toByteArray()))
+
+        then:
+        result.classpath[0].path == new Path('/renamed-project/libs/lib.jar')
+    }
+
+    def "Shared paths are stored once"() {
+        setup:
+        List<IClasspathEntry> classpath = (1..100).collect { JavaCore.newLibraryEntry(new Path("/gradle/caches/lib-${it}.jar"), new Path('/gradle/caches/sources.jar'), null) }
+        PersistentModel model = new DefaultPersistentModel(project, new Path('build'), new Path('build.gradle'), [], classpath, [], [], [], [], null)
+        ByteArrayOutputStream output = new ByteArrayOutputStream()
+
+        when:
+        BinaryPersistentModelConverter.write(model, output)
+
+        then:
+        new String(output.toByteArray(), 'UTF-8').count('/gradle/caches/sources.jar') == 1
+    }
+
+    def "Classpath is decoded when it is first requested"() {
+        setup:
+        Logger logger = Mock(Logger)
+        registerService(Logger, logger)
+        IClasspathEntry unknownEntry = Stub(IClasspathEntry) {
+            getEntryKind() >> 99
+            getPath() >> new Path('/unknown')
+        }
+        PersistentModel model = new DefaultPersistentModel(project, new Path('build'), new Path('build.gradle'), [], [unknownEntry], [], [], [], [], 'fingerprint')
+
+        when:
+        PersistentModel result = convert(model)
+
+        then:
+        result.fingerprint == 'fingerprint'
+        0 * logger.warn(*_)
+
+        when:
+        List<IClasspathEntry> classpath = result.classpath
+
+        then:
+        classpath.empty
+        1 * logger.warn(*_)
+    }
+
+    def "Properties content is not detected as binary format"() {
+        setup:
+        Properties properties = new Properties()
+        properties.put('buildDir', 'build')
+        ByteArrayOutputStream output = new ByteArrayOutputStream()
+        properties.store(output, '')
+
+        expect:
+        !BinaryPersistentModelConverter.isBinaryFormat(output.toByteArray())
+        !BinaryPersistentModelConverter.isBinaryFormat(new byte[0])
+    }
+
+    def "Unsupported versions are rejected"() {
+        setup:
+        byte[] content = ['B', 'S', 'P', 'M'].collect { it as char as byte } + [99 as byte]
+
+        when:
+        BinaryPersistentModelConverter.read(project, new ByteArrayInputStream(content as byte[]))
+
+        then:
+        thrown(IOException)
+    }
+
+    private PersistentModel convert(PersistentModel model) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream()
+        BinaryPersistentModelConverter.write(model, output)
+        BinaryPersistentModelConverter.read(project, new ByteArrayInputStream(output.toByteArray()))
+    }
+}
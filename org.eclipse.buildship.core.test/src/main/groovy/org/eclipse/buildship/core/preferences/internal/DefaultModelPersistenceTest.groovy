@@ -10,6 +10,7 @@ import org.eclipse.jdt.core.JavaCore
 import org.eclipse.buildship.core.CorePlugin
 import org.eclipse.buildship.core.preferences.PersistentModel
 import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+import org.eclipse.buildship.core.workspace.ProjectMovedEvent
 
 class DefaultModelPersistenceTest extends WorkspaceSpecification {
 
@@ -70,6 +71,20 @@ class DefaultModelPersistenceTest extends WorkspaceSpecification {
         model.linkedResources == linkedResources
     }
 
+    def "Can store and load the model fingerprint"() {
+        setup:
+        def command = project.description.newCommand()
+        command.setBuilderName('custom-command')
+        PersistentModel model = new DefaultPersistentModel(project, new Path('buildDir'), new Path('build.gradle'), [], [], [], [], [], [command], 'fingerprint')
+
+        when:
+        CorePlugin.modelPersistence().saveModel(model)
+        model = CorePlugin.modelPersistence().loadModel(project)
+
+        then:
+        model.fingerprint == 'fingerprint'
+    }
+
     def "Can delete a model"() {
         setup:
         def buildDir = new Path('buildDir')
@@ -123,6 +138,115 @@ class DefaultModelPersistenceTest extends WorkspaceSpecification {
         model.linkedResources == linkedResources
     }
 
+    def "Models saved in separate files are moved to the model store"(boolean binaryFormat) {
+        setup:
+        def command = project.description.newCommand()
+        command.setBuilderName('custom-command')
+        def classpath = [JavaCore.newProjectEntry(new Path('/project-path'))]
+        PersistentModel model = new DefaultPersistentModel(project, new Path('buildDir'), new Path('build.gradle'), [new Path('subproject')], classpath, [new Path('derived')], [], [], [command], 'fingerprint')
+        File preferencesFile = DefaultModelPersistence.preferencesFile(project)
+        preferencesFile.parentFile.mkdirs()
+        preferencesFile.withOutputStream {
+            if (binaryFormat) {
+                BinaryPersistentModelConverter.write(model, it)
+            } else {
+                PersistentModelConverter.toProperties(model).store(it, '')
+            }
+        }
+        File storeFile = new File(testDir, 'project-models.bin')
+        ModelStore store = ModelStore.open(storeFile)
+
+        when:
+        PersistentModel loaded = new DefaultModelPersistence(store).loadModel(project)
+
+        then:
+        loaded.present
+        loaded.buildDir == model.buildDir
+        loaded.subprojectPaths == model.subprojectPaths
+        loaded.classpath == model.classpath
+        loaded.fingerprint == 'fingerprint'
+        !preferencesFile.exists()
+        store.keys == ['sample-project'] as Set
+
+        when:
+        store.close()
+        store = ModelStore.open(storeFile)
+
+        then:
+        new DefaultModelPersistence(store).loadModel(project).classpath == model.classpath
+
+        cleanup:
+        store.close()
+
+        where:
+        binaryFormat << [false, true]
+    }
+
+    def "Persisted model is moved in the model store when the project is renamed"() {
+        setup:
+        File storeFile = new File(testDir, 'project-models.bin')
+        ModelStore store = ModelStore.open(storeFile)
+        DefaultModelPersistence persistence = new DefaultModelPersistence(store)
+        PersistentModel model = new DefaultPersistentModel(project, new Path('buildDir'), new Path('build.gradle'), [], [], [], [], [], [], 'fingerprint')
+        persistence.saveModel(model)
+        persistence.persistAllProjectPrefs()
+
+        when:
+        project = CorePlugin.workspaceOperations().renameProject(project, 'new-project-name', new NullProgressMonitor())
+        persistence.onEvent(new ProjectMovedEvent(project, 'sample-project'))
+
+        then:
+        store.keys == ['new-project-name'] as Set
+        new DefaultModelPersistence(store).loadModel(project).fingerprint == 'fingerprint'
+
+        cleanup:
+        store.close()
+    }
+
+    def "Saved models are written to the store in the background"() {
+        setup:
+        File storeFile = new File(testDir, 'project-models.bin')
+        ModelStore store = ModelStore.open(storeFile)
+        DefaultModelPersistence persistence = new DefaultModelPersistence(store)
+        PersistentModel model = new DefaultPersistentModel(project, new Path('buildDir'), new Path('build.gradle'), [], [], [], [], [], [], 'fingerprint')
+
+        when:
+        persistence.saveModel(model)
+
+        then:
+        store.keys.empty
+
+        when:
+        persistence.flushJob.join()
+        store.close()
+        store = ModelStore.open(storeFile)
+
+        then:
+        new DefaultModelPersistence(store).loadModel(project).fingerprint == 'fingerprint'
+
+        cleanup:
+        store.close()
+    }
+
+    def "Only dirty models are written to the store"() {
+        setup:
+        ModelStore store = ModelStore.open(new File(testDir, 'project-models.bin'))
+        DefaultModelPersistence persistence = new DefaultModelPersistence(store)
+        IProject other = newProject('other-project')
+        persistence.saveModel(new DefaultPersistentModel(project, new Path('buildDir'), new Path('build.gradle'), [], [], [], [], [], [], null))
+        persistence.loadModel(other)
+
+        when:
+        persistence.persistAllProjectPrefs()
+
+        then:
+        store.keys == ['sample-project'] as Set
+        persistence.dirtyProjects.empty
+
+        cleanup:
+        store.close()
+    }
+
     @Issue('https://github.com/eclipse/buildship/issues/404')
     def "Cached absent model is not persisted"() {
         setup:
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.preferences.internal
+
+import org.eclipse.buildship.core.Logger
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class ModelStoreTest extends WorkspaceSpecification {
+
+    File storeFile
+    ModelStore store
+
+    def setup() {
+        storeFile = new File(testDir, 'models.bin')
+        store = ModelStore.open(storeFile)
+    }
+
+    def cleanup() {
+        store.close()
+    }
+
+    def "Can store, replace and delete records"() {
+        when:
+        store.put('first', bytes('one'))
+        store.put('second', bytes('two'))
+        store.put('first', bytes('three'))
+        store.delete('second')
+
+        then:
+        store.keys == ['first'] as Set
+        new String(store.get('first').get(), 'UTF-8') == 'three'
+        !store.get('second').present
+    }
+
+    def "Records are loaded when the store is reopened"() {
+        setup:
+        store.put('first', bytes('one'))
+        store.put('second', bytes('two'))
+        store.delete('first')
+
+        when:
+        reopen()
+
+        then:
+        store.keys == ['second'] as Set
+        new String(store.get('second').get(), 'UTF-8') == 'two'
+    }
+
+    def "Can rename records"() {
+        setup:
+        store.put('old', bytes('content'))
+
+        when:
+        store.rename('old', 'new')
+        reopen()
+
+        then:
+        store.keys == ['new'] as Set
+        new String(store.get('new').get(), 'UTF-8') == 'content'
+    }
+
+    def "Incomplete record at the end of the file is discarded"() {
+        setup:
+        store.put('first', bytes('one'))
+        store.put('second', bytes('two'))
+        store.close()
+        long length = storeFile.length()
+        RandomAccessFile file = new RandomAccessFile(storeFile, 'rw')
+        file.setLength(length - 3)
+        file.close()
+
+        when:
+        store = ModelStore.open(storeFile)
+        store.put('third', bytes('three'))
+        reopen()
+
+        then:
+        store.keys == ['first', 'third'] as Set
+    }
+
+    def "Corrupt record doesn't discard the following records"() {
+        setup:
+        store.put('first', bytes('one'))
+        store.put('second', bytes('two'))
+        store.put('third', bytes('three'))
+        store.close()
+        // header (8 bytes), first record (21 bytes), kind and key of the second record (11 bytes) and its data length (4 bytes)
+        RandomAccessFile file = new RandomAccessFile(storeFile, 'rw')
+        file.seek(8 + 21 + 11 + 4)
+        file.write('x'.getBytes('UTF-8'))
+        file.close()
+
+        when:
+        store = ModelStore.open(storeFile)
+
+        then:
+        store.keys == ['first', 'third'] as Set
+        new String(store.get('third').get(), 'UTF-8') == 'three'
+
+        when:
+        store.put('fourth', bytes('four'))
+        reopen()
+
+        then:
+        store.keys == ['first', 'third', 'fourth'] as Set
+    }
+
+    def "Invalid store file is replaced"() {
+        setup:
+        store.close()
+        storeFile.text = 'invalid content'
+
+        when:
+        store = ModelStore.open(storeFile)
+        store.put('first', bytes('one'))
+        reopen()
+
+        then:
+        store.keys == ['first'] as Set
+    }
+
+    def "Store is compacted if it contains mostly garbage"() {
+        setup:
+        byte[] content = new byte[64 * 1024]
+
+        when:
+        50.times { store.put('record', content) }
+
+        then:
+        storeFile.length() < ModelStore.MIN_COMPACTION_SIZE
+        store.get('record').get() == content
+
+        when:
+        reopen()
+
+        then:
+        store.keys == ['record'] as Set
+        store.get('record').get() == content
+    }
+
+    def "Store keeps its file and stays usable if it can't be compacted"() {
+        setup:
+        store.put('record', bytes('content'))
+        // a directory in place of the temporary file makes the compaction fail
+        new File(storeFile.path + '.tmp', 'blocker').mkdirs()
+
+        when:
+        store.compact()
+
+        then:
+        thrown(IOException)
+
+        when:
+        store.put('other', bytes('more content'))
+
+        then:
+        new String(store.get('record').get(), 'UTF-8') == 'content'
+        new String(store.get('other').get(), 'UTF-8') == 'more content'
+
+        when:
+        reopen()
+
+        then:
+        store.keys == ['record', 'other'] as Set
+    }
+
+    def "Store restores its file if the compacted file can't be put in place"() {
+        setup:
+        store.put('record', bytes('content'))
+        // a directory in place of the backup file makes the swap fail
+        new File(storeFile.path + '.bak', 'blocker').mkdirs()
+
+        when:
+        store.compact()
+
+        then:
+        thrown(IOException)
+        !new File(storeFile.path + '.tmp').exists()
+
+        when:
+        store.put('other', bytes('more content'))
+        reopen()
+
+        then:
+        store.keys == ['record', 'other'] as Set
+        new String(store.get('record').get(), 'UTF-8') == 'content'
+    }
+
+    def "Failed compaction is not retried with every update"() {
+        setup:
+        Logger logger = Mock(Logger)
+        registerService(Logger, logger)
+        new File(storeFile.path + '.tmp', 'blocker').mkdirs()
+        byte[] content = new byte[64 * 1024]
+
+        when:
+        50.times { store.put('record', content) }
+
+        then:
+        // the compaction is attempted at 1 MB and again once the file doubled in size
+        2 * logger.warn({ it.startsWith("Can't compact model store") }, _)
+        store.get('record').get() == content
+    }
+
+    private void reopen() {
+        store.close()
+        store = ModelStore.open(storeFile)
+    }
+
+    private static byte[] bytes(String content) {
+        content.getBytes('UTF-8')
+    }
+}
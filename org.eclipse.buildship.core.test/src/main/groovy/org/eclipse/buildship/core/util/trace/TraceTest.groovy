@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.util.trace
+
+import groovy.json.JsonSlurper
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import org.eclipse.buildship.core.util.trace.Trace.Span
+
+class TraceTest extends Specification {
+
+    @Rule
+    TemporaryFolder tempFolder
+
+    def "Closed spans are written in the Chrome trace event format"() {
+        setup:
+        Trace trace = new Trace('sample')
+        Span outer = trace.begin('job', 'outer')
+        Span inner = trace.begin('updater', 'inner "quoted"').argument('project', 'a\\b')
+        inner.close()
+        outer.close()
+        trace.begin('job', 'not closed')
+
+        when:
+        StringWriter writer = new StringWriter()
+        trace.writeTo(writer)
+        def json = new JsonSlurper().parseText(writer.toString())
+        def spans = json.traceEvents.findAll { it.ph == 'X' }
+
+        then:
+        spans.collect { it.name } == ['inner "quoted"', 'outer']
+        spans[0].cat == 'updater'
+        spans[0].args.project == 'a\\b'
+        spans[0].ts >= spans[1].ts
+        spans[0].ts + spans[0].dur <= spans[1].ts + spans[1].dur
+        json.traceEvents.find { it.ph == 'M' }.args.name == Thread.currentThread().name
+    }
+
+    def "Closing a span twice records it once"() {
+        setup:
+        Trace trace = new Trace('sample')
+        Span span = trace.begin('job', 'span')
+
+        when:
+        span.close()
+        span.close()
+
+        then:
+        trace.spans.size() == 1
+    }
+
+    def "Only the latest traces are kept"() {
+        setup:
+        File directory = tempFolder.newFolder('traces')
+
+        when:
+        (TraceFiles.MAX_TRACES + 2).times {
+            TraceFiles.save(new Trace("trace$it"), directory)
+            Thread.sleep(2)
+        }
+
+        then:
+        directory.listFiles().length == TraceFiles.MAX_TRACES
+        TraceFiles.findLatest(directory).get().name.endsWith("-trace${TraceFiles.MAX_TRACES + 1}.json")
+    }
+
+    def "No latest trace if the directory does not exist"() {
+        expect:
+        !TraceFiles.findLatest(new File(tempFolder.root, 'missing')).present
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.OperationCanceledException
+
+import spock.lang.Specification
+
+class ApplyOrderTest extends Specification {
+
+    ApplyOrder applyOrder = new ApplyOrder()
+    File firstBuild = new File('first')
+    File secondBuild = new File('second')
+
+    def "A build is applied after the earlier synchronizations of the same build"() {
+        setup:
+        long first = applyOrder.register([firstBuild])
+        long second = applyOrder.register([firstBuild, secondBuild])
+        CountDownLatch applied = new CountDownLatch(1)
+        Thread thread = Thread.start {
+            applyOrder.awaitTurn(firstBuild, second, new NullProgressMonitor())
+            applied.countDown()
+        }
+
+        expect:
+        !applied.await(200, TimeUnit.MILLISECONDS)
+
+        when:
+        applyOrder.release([firstBuild], first)
+
+        then:
+        applied.await(5, TimeUnit.SECONDS)
+
+        cleanup:
+        thread.join()
+    }
+
+    def "Synchronizations of different builds don't wait for each other"() {
+        setup:
+        applyOrder.register([firstBuild])
+        long second = applyOrder.register([secondBuild])
+
+        when:
+        applyOrder.awaitTurn(secondBuild, second, new NullProgressMonitor())
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "Waiting can be cancelled"() {
+        setup:
+        applyOrder.register([firstBuild])
+        long second = applyOrder.register([firstBuild])
+        NullProgressMonitor monitor = new NullProgressMonitor()
+        monitor.canceled = true
+
+        when:
+        applyOrder.awaitTurn(firstBuild, second, monitor)
+
+        then:
+        thrown(OperationCanceledException)
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject
+import com.gradleware.tooling.toolingmodel.OmniGradleProject
+import com.gradleware.tooling.toolingmodel.OmniGradleScript
+import com.gradleware.tooling.toolingmodel.util.Maybe
+
+import org.eclipse.core.runtime.Path
+
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class BuildFileHashesTest extends WorkspaceSpecification {
+
+    File rootDir
+    File storage
+    BuildFileHashes hashes
+
+    def setup() {
+        rootDir = dir('sample') {
+            file 'settings.gradle', "include 'sub'"
+            file 'build.gradle', ''
+            dir('sub') {
+                file 'build.gradle', ''
+            }
+            dir('buildSrc/src/main/groovy') {
+                file 'Plugin.groovy', 'class Plugin {}'
+            }
+        }
+        storage = new File(testDir, 'hashes.properties')
+        hashes = new BuildFileHashes(storage)
+        // the build scripts become part of the snapshot after the first synchronization
+        synchronize()
+        synchronize()
+    }
+
+    private void synchronize() {
+        hashes.record(hashes.snapshot(rootDir), [project(rootDir), project(new File(rootDir, 'sub'))] as Set)
+    }
+
+    def "Unchanged content is not reported as change"() {
+        when:
+        new File(rootDir, 'build.gradle').text = ''
+
+        then:
+        !hashes.hasChanged(new File(rootDir, 'build.gradle'))
+        !hashes.hasChanged(new File(rootDir, 'sub/build.gradle'))
+        !hashes.hasChanged(new File(rootDir, 'settings.gradle'))
+        !hashes.hasChanged(new File(rootDir, 'buildSrc'))
+    }
+
+    def "Modified content is reported as change until it is recorded"() {
+        when:
+        new File(rootDir, 'settings.gradle').text = "include 'sub', 'other'"
+
+        then:
+        hashes.hasChanged(new File(rootDir, 'settings.gradle'))
+        hashes.hasChanged(new File(rootDir, 'settings.gradle'))
+
+        when:
+        hashes.record(hashes.snapshot(rootDir), [] as Set)
+
+        then:
+        !hashes.hasChanged(new File(rootDir, 'settings.gradle'))
+    }
+
+    def "Changes made after the snapshot are reported as change after recording"() {
+        setup:
+        BuildFileHashes.Snapshot snapshot = hashes.snapshot(rootDir)
+
+        when:
+        new File(rootDir, 'settings.gradle').text = "include 'sub', 'other'"
+        new File(rootDir, 'sub/build.gradle').text = "apply plugin: 'java'"
+        hashes.record(snapshot, [project(rootDir), project(new File(rootDir, 'sub'))] as Set)
+
+        then:
+        hashes.hasChanged(new File(rootDir, 'settings.gradle'))
+        hashes.hasChanged(new File(rootDir, 'sub/build.gradle'))
+        !hashes.hasChanged(new File(rootDir, 'build.gradle'))
+    }
+
+    def "Build scripts missing from the snapshot are reported as change until the next synchronization"() {
+        setup:
+        File otherDir = dir('sample/other') {
+            file 'build.gradle', ''
+        }
+        Set<OmniEclipseProject> projects = [project(rootDir), project(otherDir)] as Set
+
+        when:
+        hashes.record(hashes.snapshot(rootDir), projects)
+
+        then:
+        hashes.hasChanged(new File(otherDir, 'build.gradle'))
+
+        when:
+        hashes.record(hashes.snapshot(rootDir), projects)
+
+        then:
+        !hashes.hasChanged(new File(otherDir, 'build.gradle'))
+    }
+
+    def "Checking for changes doesn't modify the stored hashes"() {
+        setup:
+        new File(rootDir, 'sub/build.gradle').text = "apply plugin: 'java'"
+        long lastModified = storage.lastModified()
+
+        when:
+        hashes.hasChanged(new File(rootDir, 'sub/build.gradle'))
+
+        then:
+        storage.lastModified() == lastModified
+        new BuildFileHashes(storage).hasChanged(new File(rootDir, 'sub/build.gradle'))
+    }
+
+    def "Created and deleted files are reported as change"() {
+        when:
+        new File(rootDir, 'gradle.properties').text = 'org.gradle.jvmargs=-Xmx1g'
+
+        then:
+        hashes.hasChanged(new File(rootDir, 'gradle.properties'))
+
+        when:
+        new File(rootDir, 'sub/build.gradle').delete()
+
+        then:
+        hashes.hasChanged(new File(rootDir, 'sub/build.gradle'))
+    }
+
+    def "Files without recorded hash are reported as change"() {
+        expect:
+        hashes.hasChanged(new File(rootDir, 'unknown.gradle'))
+    }
+
+    def "buildSrc hash ignores the build output"() {
+        when:
+        fileTree(new File(rootDir, 'buildSrc')) {
+            dir('build/classes') {
+                file 'Plugin.class', 'binary'
+            }
+            dir('.gradle') {
+                file 'cache.bin', 'binary'
+            }
+        }
+
+        then:
+        !hashes.hasChanged(new File(rootDir, 'buildSrc'))
+
+        when:
+        new File(rootDir, 'buildSrc/src/main/groovy/Plugin.groovy').text = 'class Plugin { void apply() {} }'
+
+        then:
+        hashes.hasChanged(new File(rootDir, 'buildSrc'))
+    }
+
+    def "Hashes are persisted"() {
+        setup:
+        BuildFileHashes reloaded = new BuildFileHashes(storage)
+
+        expect:
+        storage.exists()
+        !reloaded.hasChanged(new File(rootDir, 'build.gradle'))
+        !reloaded.hasChanged(new File(rootDir, 'buildSrc'))
+    }
+
+    def "Root project files are recognized"(String path, boolean rootProjectFile) {
+        expect:
+        BuildFileHashes.isRootProjectFile(new Path(path)) == rootProjectFile
+
+        where:
+        path                                          | rootProjectFile
+        'settings.gradle'                             | true
+        'settings.gradle.kts'                         | true
+        'gradle.properties'                           | true
+        'gradle/wrapper/gradle-wrapper.properties'    | true
+        'buildSrc/build.gradle'                       | true
+        'buildSrc/src/main/groovy/Plugin.groovy'      | true
+        'buildSrc/build/classes/Plugin.class'         | false
+        'buildSrc/.gradle/cache.bin'                  | false
+        'build.gradle'                                | false
+        'src/main/java/Foo.java'                      | false
+    }
+
+    private OmniEclipseProject project(File projectDir) {
+        OmniGradleScript buildScript = Mock(OmniGradleScript)
+        buildScript.sourceFile >> new File(projectDir, 'build.gradle')
+        OmniGradleProject gradleProject = Mock(OmniGradleProject)
+        gradleProject.buildScript >> Maybe.of(buildScript)
+        OmniEclipseProject project = Mock(OmniEclipseProject)
+        project.projectDirectory >> projectDir
+        project.gradleProject >> gradleProject
+        project
+    }
+}
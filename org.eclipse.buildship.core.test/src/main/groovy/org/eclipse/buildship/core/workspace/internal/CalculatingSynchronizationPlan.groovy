@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import org.gradle.tooling.GradleConnector
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject
+import com.gradleware.tooling.toolingmodel.repository.FetchStrategy
+
+import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.Path
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecification
+import org.eclipse.buildship.core.workspace.GradleBuild
+import org.eclipse.buildship.core.workspace.NewProjectHandler
+import org.eclipse.buildship.core.workspace.internal.SynchronizationPlan.Action
+import org.eclipse.buildship.core.workspace.internal.SynchronizationPlan.Difference
+import org.eclipse.buildship.core.workspace.internal.SynchronizationPlan.ProjectChange
+
+class CalculatingSynchronizationPlan extends ProjectSynchronizationSpecification {
+
+    def "Report lists the new projects to import"() {
+        setup:
+        def projectDir = dir('sample-project') {
+            file 'build.gradle', 'apply plugin: "java"'
+        }
+
+        when:
+        String report = createReport(projectDir, NewProjectHandler.IMPORT_AND_MERGE)
+
+        then:
+        report.contains('create          sample-project')
+        !findProject('sample-project')
+    }
+
+    def "Report does not list changes for an up-to-date project"() {
+        setup:
+        def projectDir = dir('sample-project') {
+            file 'build.gradle', 'apply plugin: "java"'
+        }
+        importAndWait(projectDir)
+
+        when:
+        String report = createReport(projectDir, NewProjectHandler.NO_OP)
+
+        then:
+        report.contains('up to date      sample-project')
+    }
+
+    def "Report respects the new project handler"() {
+        setup:
+        def projectDir = dir('sample-project') {
+            file 'build.gradle', 'apply plugin: "java"'
+        }
+
+        when:
+        String report = createReport(projectDir, NewProjectHandler.NO_OP)
+
+        then:
+        report.contains('ignore          sample-project (not imported)')
+    }
+
+    def "Report lists the source folders of new projects"() {
+        setup:
+        def projectDir = dir('sample-project') {
+            file 'build.gradle', 'apply plugin: "java"'
+            dir 'src/main/java'
+        }
+
+        when:
+        String report = createReport(projectDir, NewProjectHandler.IMPORT_AND_MERGE)
+
+        then:
+        report.contains('+ source folder /sample-project/src/main/java')
+    }
+
+    def "Plan contains the dependency, source folder and linked resource differences"() {
+        setup:
+        def projectDir = dir('sample-project') {
+            file 'build.gradle', 'apply plugin: "java"'
+            dir 'src/main/java'
+        }
+        importAndWait(projectDir)
+
+        fileTree(projectDir) {
+            file 'build.gradle', """
+                apply plugin: 'java'
+                apply plugin: 'eclipse'
+                sourceSets.main.java.srcDir 'src/generated/java'
+                dependencies { compile files('libs/library.jar') }
+                eclipse.project.linkedResource name: 'linked', type: '2', location: file('../linked-folder').path
+            """
+            dir 'src/generated/java'
+            file 'libs/library.jar', ''
+        }
+        dir('linked-folder')
+
+        when:
+        ProjectChange change = createPlan(projectDir, NewProjectHandler.NO_OP).projectChanges[0]
+
+        then:
+        change.action == Action.SYNCHRONIZE
+        change.classpathDifference.added == [new Path(new File(projectDir, 'libs/library.jar').absolutePath).toPortableString()] as Set
+        change.classpathDifference.removed.empty
+        change.sourceFolderDifference.added == ['/sample-project/src/generated/java'] as Set
+        change.sourceFolderDifference.removed.empty
+        change.linkedResourceDifference.added == ['linked'] as Set
+        change.linkedResourceDifference.removed.empty
+    }
+
+    def "Plan contains the removed source folders"() {
+        setup:
+        def projectDir = dir('sample-project') {
+            file 'build.gradle', """
+                apply plugin: 'java'
+                sourceSets.main.java.srcDir 'src/generated/java'
+            """
+            dir 'src/main/java'
+            dir 'src/generated/java'
+        }
+        importAndWait(projectDir)
+        fileTree(projectDir) {
+            file 'build.gradle', 'apply plugin: "java"'
+        }
+
+        when:
+        ProjectChange change = createPlan(projectDir, NewProjectHandler.NO_OP).projectChanges[0]
+
+        then:
+        change.sourceFolderDifference.added.empty
+        change.sourceFolderDifference.removed == ['/sample-project/src/generated/java'] as Set
+    }
+
+    def "Difference contains the added and removed entries"() {
+        when:
+        Difference difference = Difference.between(['a', 'b'] as Set, ['b', 'c'] as Set)
+
+        then:
+        difference.added == ['c'] as Set
+        difference.removed == ['a'] as Set
+        !difference.empty
+        Difference.between(['a'] as Set, ['a'] as Set).empty
+    }
+
+    private SynchronizationPlan createPlan(File projectDir, NewProjectHandler newProjectHandler) {
+        GradleBuild gradleBuild = CorePlugin.gradleWorkspaceManager().getGradleBuild(createOverridingBuildConfiguration(projectDir))
+        Set<OmniEclipseProject> projects = gradleBuild.modelProvider.fetchEclipseGradleProjects(FetchStrategy.FORCE_RELOAD, GradleConnector.newCancellationTokenSource().token(), new NullProgressMonitor())
+        new SynchronizationPlanner(projects, projects, gradleBuild.buildConfig, newProjectHandler).plan(new NullProgressMonitor())
+    }
+
+    private String createReport(File projectDir, NewProjectHandler newProjectHandler) {
+        GradleBuild gradleBuild = CorePlugin.gradleWorkspaceManager().getGradleBuild(createOverridingBuildConfiguration(projectDir))
+        gradleBuild.createSynchronizationReport(newProjectHandler, GradleConnector.newCancellationTokenSource().token(), new NullProgressMonitor())
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import org.gradle.tooling.BuildAction
+import org.gradle.tooling.BuildController
+import org.gradle.tooling.GradleConnector
+import org.gradle.tooling.ProjectConnection
+import org.gradle.tooling.model.DomainObjectSet
+import org.gradle.tooling.model.Model
+import org.gradle.tooling.model.eclipse.EclipseProject
+import org.gradle.tooling.model.gradle.BasicGradleProject
+import org.gradle.tooling.model.gradle.GradleBuild
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class CompositeModelQueryTest extends Specification {
+
+    @Rule
+    TemporaryFolder tempFolder
+
+    def "Composite is queried serially by the build controller of the current Tooling API"() {
+        setup:
+        File rootDir = tempFolder.newFolder('root')
+        new File(rootDir, 'settings.gradle') << "rootProject.name = 'root'\nincludeBuild 'included'"
+        new File(rootDir, 'build.gradle') << "apply plugin: 'java'"
+        File includedDir = new File(rootDir, 'included')
+        includedDir.mkdirs()
+        new File(includedDir, 'settings.gradle') << "rootProject.name = 'included'"
+        new File(includedDir, 'build.gradle') << "apply plugin: 'java'"
+        ProjectConnection connection = GradleConnector.newConnector().forProjectDirectory(rootDir).connect()
+
+        when:
+        Map<String, List<Object>> result = connection.action(new CompositeModelQuery([EclipseProject])).run()
+
+        then:
+        result[CompositeModelQuery.STRATEGY_KEY] == [CompositeModelQuery.STRATEGY_SERIAL]
+        result[CompositeModelQuery.SERIAL_REASON_KEY][0].startsWith("build controller doesn't support nested actions")
+        result[GradleBuild.name].collect { it.rootProject.name } == ['root', 'included']
+        result[EclipseProject.name].collect { it.name } == ['root', 'included']
+
+        cleanup:
+        connection?.close()
+    }
+
+    def "Included builds are queried serially if the controller does not support parallel actions"() {
+        setup:
+        GradleBuild included = gradleBuild([])
+        GradleBuild root = gradleBuild([included])
+        BuildController controller = Mock(BuildController)
+        controller.buildModel >> root
+        controller.getModel(_, EclipseProject) >> { Model project, Class type -> eclipseProject(project) }
+
+        when:
+        Map<String, List<Object>> result = new CompositeModelQuery([EclipseProject]).execute(controller)
+
+        then:
+        result[CompositeModelQuery.STRATEGY_KEY] == [CompositeModelQuery.STRATEGY_SERIAL]
+        result[CompositeModelQuery.SERIAL_REASON_KEY] != null
+        result[GradleBuild.name] == [root, included]
+        result[EclipseProject.name].collect { it.name } == [root.rootProject.name, included.rootProject.name]
+    }
+
+    def "Included builds are queried in parallel if the controller supports it"() {
+        setup:
+        GradleBuild included = gradleBuild([])
+        GradleBuild root = gradleBuild([included])
+        ParallelBuildController controller = new ParallelBuildController(root)
+
+        when:
+        Map<String, List<Object>> result = new CompositeModelQuery([EclipseProject]).execute(controller)
+
+        then:
+        controller.nestedActionCount == 2
+        result[CompositeModelQuery.STRATEGY_KEY] == [CompositeModelQuery.STRATEGY_PARALLEL]
+        result[CompositeModelQuery.SERIAL_REASON_KEY] == null
+        result[GradleBuild.name] == [root, included]
+        result[EclipseProject.name].collect { it.name } == [root.rootProject.name, included.rootProject.name]
+    }
+
+    private GradleBuild gradleBuild(List<GradleBuild> includedBuilds) {
+        BasicGradleProject rootProject = Mock(BasicGradleProject)
+        rootProject.name >> "project-${UUID.randomUUID()}"
+        DomainObjectSet<GradleBuild> included = Mock(DomainObjectSet)
+        included.iterator() >> { includedBuilds.iterator() }
+        GradleBuild build = Mock(GradleBuild)
+        build.rootProject >> rootProject
+        build.includedBuilds >> included
+        build
+    }
+
+    private static EclipseProject eclipseProject(Model project) {
+        EclipseProject eclipseProject = [getName: { project.name }] as EclipseProject
+        eclipseProject
+    }
+
+    static class ParallelBuildController implements BuildController {
+
+        final GradleBuild buildModel
+        int nestedActionCount
+
+        ParallelBuildController(GradleBuild buildModel) {
+            this.buildModel = buildModel
+        }
+
+        public boolean getCanQueryProjectModelInParallel(Class<?> modelType) {
+            true
+        }
+
+        public <T> List<T> run(Collection<? extends BuildAction<? extends T>> actions) {
+            nestedActionCount += actions.size()
+            actions.collect { it.execute(this) }
+        }
+
+        <T> T getModel(Class<T> modelType) {
+            throw new UnsupportedOperationException()
+        }
+
+        <T> T findModel(Class<T> modelType) {
+            throw new UnsupportedOperationException()
+        }
+
+        <T> T getModel(Model target, Class<T> modelType) {
+            eclipseProject(target)
+        }
+
+        <T> T findModel(Model target, Class<T> modelType) {
+            eclipseProject(target)
+        }
+    }
+}
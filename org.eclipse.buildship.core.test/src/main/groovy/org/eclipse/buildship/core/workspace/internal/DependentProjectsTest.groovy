@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import spock.lang.Specification
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject
+import com.gradleware.tooling.toolingmodel.OmniEclipseProjectDependency
+
+class DependentProjectsTest extends Specification {
+
+    def "Direct and transitive dependents are included"() {
+        setup:
+        OmniEclipseProject api = project('api')
+        OmniEclipseProject impl = project('impl', 'api')
+        OmniEclipseProject app = project('app', 'impl')
+        OmniEclipseProject other = project('other')
+
+        expect:
+        DependentProjects.withDependents([api, impl, app, other] as Set, [new File('api')] as Set) == [new File('api'), new File('impl'), new File('app')] as Set
+    }
+
+    def "Projects without dependents are returned unchanged"() {
+        setup:
+        OmniEclipseProject api = project('api')
+        OmniEclipseProject impl = project('impl', 'api')
+
+        expect:
+        DependentProjects.withDependents([api, impl] as Set, [new File('impl')] as Set) == [new File('impl')] as Set
+    }
+
+    private OmniEclipseProject project(String name, String... dependencies) {
+        OmniEclipseProject project = Mock(OmniEclipseProject)
+        project.name >> name
+        project.projectDirectory >> new File(name)
+        project.projectDependencies >> dependencies.collect { String dependency ->
+            OmniEclipseProjectDependency projectDependency = Mock(OmniEclipseProjectDependency)
+            projectDependency.path >> dependency
+            projectDependency
+        }
+        project
+    }
+}
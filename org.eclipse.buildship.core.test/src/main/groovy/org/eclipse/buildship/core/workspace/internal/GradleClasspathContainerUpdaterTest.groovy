@@ -127,6 +127,30 @@ class GradleClasspathContainerUpdaterTest extends WorkspaceSpecification {
         modifiedContainer.is(gradleClasspathContainer)
     }
 
+    def "Containers of multiple projects are set when the batch is applied"() {
+        given:
+        IJavaProject otherProject = newJavaProject("other")
+        otherProject.setRawClasspath([JavaCore.newContainerEntry(GradleClasspathContainer.CONTAINER_PATH)] as IClasspathEntry[], null)
+        def gradleProject = gradleProjectWithClasspath(externalDependency(dir("foo")))
+        def otherGradleProject = gradleProjectWithClasspath(externalDependency(dir("bar")))
+        def batch = new GradleClasspathContainerUpdater.Batch()
+
+        when:
+        GradleClasspathContainerUpdater.collectFromModel(project, gradleProject, gradleProject.all.toSet(), persistentModelBuilder(project.project), batch)
+        GradleClasspathContainerUpdater.collectFromModel(otherProject, otherGradleProject, otherGradleProject.all.toSet(), persistentModelBuilder(otherProject.project), batch)
+
+        then:
+        !resolvedClasspath.find { it.path.toFile() == dir("foo") }
+
+        when:
+        batch.apply(null)
+
+        then:
+        batch.isEmpty()
+        resolvedClasspath[0].path.toFile() == dir("foo")
+        otherProject.getResolvedClasspath(false)[0].path.toFile() == dir("bar")
+    }
+
     OmniEclipseProject gradleProjectWithClasspath(Object... dependencies) {
         Stub(OmniEclipseProject) {
             getExternalDependencies() >> dependencies.findAll { it instanceof OmniExternalDependency }
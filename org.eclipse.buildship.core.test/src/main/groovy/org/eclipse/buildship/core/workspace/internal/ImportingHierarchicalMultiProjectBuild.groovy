@@ -33,6 +33,19 @@ class ImportingHierarchicalMultiProjectBuild extends ProjectSynchronizationSpeci
         root.getFolder('moduleA/moduleAsub/build').isDerived()
     }
 
+    def "Build folder recreated outside of Eclipse is marked as derived again"() {
+        setup:
+        File buildDir = new File(rootDir, 'build')
+        buildDir.deleteDir()
+        buildDir.mkdirs()
+
+        when:
+        synchronizeAndWait(rootDir)
+
+        then:
+        findProject("sample").getFolder('build').isDerived()
+    }
+
     def "If a new project is added to the Gradle build, it is imported into the workspace"() {
         setup:
         fileTree(rootDir) {
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import com.google.common.base.Function
+import org.gradle.tooling.BuildCancelledException
+import org.gradle.tooling.CancellationToken
+import org.gradle.tooling.GradleConnector
+import spock.lang.Specification
+
+class InFlightRequestsTest extends Specification {
+
+    InFlightRequests<String> requests = new InFlightRequests<String>()
+
+    def cleanup() {
+        requests.close()
+    }
+
+    def "Concurrent requests with the same key share one execution"() {
+        setup:
+        CountDownLatch started = new CountDownLatch(1)
+        CountDownLatch release = new CountDownLatch(1)
+        AtomicInteger executions = new AtomicInteger()
+        Function<CancellationToken, String> operation = { CancellationToken token ->
+            executions.incrementAndGet()
+            started.countDown()
+            release.await()
+            'model'
+        } as Function
+        def executor = Executors.newFixedThreadPool(2)
+
+        when:
+        def first = executor.submit({ requests.execute('key', null, operation) } as java.util.concurrent.Callable)
+        started.await()
+        def second = executor.submit({ requests.execute('key', null, operation) } as java.util.concurrent.Callable)
+        Thread.sleep(200)
+        release.countDown()
+
+        then:
+        first.get() == 'model'
+        second.get() == 'model'
+        executions.get() == 1
+        requests.inFlightCount == 0
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def "Requests with different keys are executed separately"() {
+        setup:
+        AtomicInteger executions = new AtomicInteger()
+        Function<CancellationToken, String> operation = { CancellationToken token -> executions.incrementAndGet(); 'model' } as Function
+
+        when:
+        requests.execute('first', null, operation)
+        requests.execute('second', null, operation)
+
+        then:
+        executions.get() == 2
+    }
+
+    def "Execution is cancelled when all requests are cancelled"() {
+        setup:
+        def tokenSource = GradleConnector.newCancellationTokenSource()
+        CountDownLatch cancelled = new CountDownLatch(1)
+        Function<CancellationToken, String> operation = { CancellationToken token ->
+            while (!token.isCancellationRequested()) {
+                Thread.sleep(10)
+            }
+            cancelled.countDown()
+            throw new BuildCancelledException('cancelled')
+        } as Function
+
+        when:
+        Thread.start {
+            Thread.sleep(200)
+            tokenSource.cancel()
+        }
+        requests.execute('key', tokenSource.token(), operation)
+
+        then:
+        thrown(BuildCancelledException)
+        cancelled.await(5, TimeUnit.SECONDS)
+    }
+
+    def "Request arriving after all waiting requests were cancelled starts a new execution"() {
+        setup:
+        def tokenSource = GradleConnector.newCancellationTokenSource()
+        CountDownLatch started = new CountDownLatch(1)
+        AtomicInteger executions = new AtomicInteger()
+        Function<CancellationToken, String> operation = { CancellationToken token ->
+            int execution = executions.incrementAndGet()
+            started.countDown()
+            while (execution == 1 && !token.isCancellationRequested()) {
+                Thread.sleep(10)
+            }
+            "model $execution".toString()
+        } as Function
+        def executor = Executors.newFixedThreadPool(1)
+
+        when:
+        def first = executor.submit({ requests.execute('key', tokenSource.token(), operation) } as java.util.concurrent.Callable)
+        started.await()
+        tokenSource.cancel()
+        String second = requests.execute('key', null, operation)
+
+        then:
+        second == 'model 2'
+        executions.get() == 2
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def "Forced reload arriving during an older load doesn't join it"() {
+        setup:
+        CountDownLatch started = new CountDownLatch(1)
+        CountDownLatch olderCancelled = new CountDownLatch(1)
+        AtomicInteger executions = new AtomicInteger()
+        Function<CancellationToken, String> operation = { CancellationToken token ->
+            int execution = executions.incrementAndGet()
+            if (execution == 1) {
+                started.countDown()
+                while (!token.isCancellationRequested()) {
+                    Thread.sleep(10)
+                }
+                olderCancelled.countDown()
+                throw new BuildCancelledException('cancelled')
+            }
+            "model $execution".toString()
+        } as Function
+        def executor = Executors.newFixedThreadPool(1)
+
+        when:
+        def older = executor.submit({ requests.execute('key', null, operation) } as java.util.concurrent.Callable)
+        started.await()
+        String reloaded = requests.executeSuperseding('key', null, operation)
+
+        then:
+        reloaded == 'model 2'
+        older.get() == 'model 2'
+        olderCancelled.await(5, TimeUnit.SECONDS)
+        executions.get() == 2
+        requests.inFlightCount == 0
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def "Requests arriving after a forced reload join the new execution"() {
+        setup:
+        CountDownLatch olderStarted = new CountDownLatch(1)
+        CountDownLatch reloadStarted = new CountDownLatch(1)
+        CountDownLatch release = new CountDownLatch(1)
+        AtomicInteger executions = new AtomicInteger()
+        Function<CancellationToken, String> operation = { CancellationToken token ->
+            int execution = executions.incrementAndGet()
+            if (execution == 1) {
+                olderStarted.countDown()
+                while (!token.isCancellationRequested()) {
+                    Thread.sleep(10)
+                }
+                throw new BuildCancelledException('cancelled')
+            }
+            reloadStarted.countDown()
+            release.await()
+            "model $execution".toString()
+        } as Function
+        def executor = Executors.newFixedThreadPool(3)
+
+        when:
+        def older = executor.submit({ requests.execute('key', null, operation) } as java.util.concurrent.Callable)
+        olderStarted.await()
+        def reloaded = executor.submit({ requests.executeSuperseding('key', null, operation) } as java.util.concurrent.Callable)
+        reloadStarted.await()
+        def later = executor.submit({ requests.execute('key', null, operation) } as java.util.concurrent.Callable)
+        Thread.sleep(200)
+        release.countDown()
+
+        then:
+        reloaded.get() == 'model 2'
+        older.get() == 'model 2'
+        later.get() == 'model 2'
+        executions.get() == 2
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def "Failures are propagated to all requests"() {
+        setup:
+        Function<CancellationToken, String> operation = { CancellationToken token -> throw new IllegalStateException('failed') } as Function
+
+        when:
+        requests.execute('key', null, operation)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "Closing cancels the running executions"() {
+        setup:
+        CountDownLatch started = new CountDownLatch(1)
+        CountDownLatch cancelled = new CountDownLatch(1)
+        Function<CancellationToken, String> operation = { CancellationToken token ->
+            started.countDown()
+            while (!token.isCancellationRequested()) {
+                Thread.sleep(10)
+            }
+            cancelled.countDown()
+            throw new BuildCancelledException('cancelled')
+        } as Function
+        def executor = Executors.newFixedThreadPool(1)
+        executor.submit({ requests.execute('key', null, operation) } as java.util.concurrent.Callable)
+        started.await()
+
+        when:
+        requests.close()
+
+        then:
+        cancelled.await(5, TimeUnit.SECONDS)
+        requests.inFlightCount == 0
+
+        cleanup:
+        executor.shutdownNow()
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import org.gradle.tooling.CancellationToken
+import org.gradle.tooling.GradleConnector
+import org.gradle.tooling.model.eclipse.EclipseProject
+import org.gradle.tooling.model.gradle.GradleBuild
+
+import com.gradleware.tooling.toolingmodel.repository.FetchStrategy
+
+import org.eclipse.core.runtime.NullProgressMonitor
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecification
+import org.eclipse.buildship.core.workspace.ModelProvider
+
+class LoadingCompositeModels extends ProjectSynchronizationSpecification {
+
+    CancellationToken token = GradleConnector.newCancellationTokenSource().token()
+
+    def "Build structure and build environment are loaded along with the Eclipse projects"() {
+        setup:
+        File projectDir = dir('sample-project') {
+            file 'settings.gradle', "rootProject.name = 'sample-project'"
+        }
+        ModelProvider modelProvider = modelProvider(projectDir)
+
+        when:
+        modelProvider.fetchEclipseGradleProjects(FetchStrategy.FORCE_RELOAD, token, new NullProgressMonitor())
+
+        then:
+        modelProvider.fetchGradleBuild(FetchStrategy.FROM_CACHE_ONLY, token, new NullProgressMonitor()).rootProject.name == 'sample-project'
+        modelProvider.fetchBuildEnvironment(FetchStrategy.FROM_CACHE_ONLY, token, new NullProgressMonitor()).gradle.gradleVersion
+        modelProvider.fetchModel(EclipseProject, FetchStrategy.FROM_CACHE_ONLY, token, new NullProgressMonitor()).name == 'sample-project'
+    }
+
+    def "Eclipse projects are loaded along with the build structure of all builds"() {
+        setup:
+        File projectDir = dir('root') {
+            file 'settings.gradle', "rootProject.name = 'root'\nincludeBuild 'included'"
+            dir('included') {
+                file 'settings.gradle', "rootProject.name = 'included'"
+            }
+        }
+        ModelProvider modelProvider = modelProvider(projectDir)
+
+        when:
+        modelProvider.fetchGradleBuild(FetchStrategy.FORCE_RELOAD, token, new NullProgressMonitor())
+
+        then:
+        modelProvider.fetchModels(GradleBuild, FetchStrategy.FROM_CACHE_ONLY, token, new NullProgressMonitor()).collect { it.rootProject.name } == ['root', 'included']
+        modelProvider.fetchModels(EclipseProject, FetchStrategy.FROM_CACHE_ONLY, token, new NullProgressMonitor()).collect { it.name } == ['root', 'included']
+    }
+
+    def "Projects merged by a partial reload are discarded when the whole build is loaded again"() {
+        setup:
+        File projectDir = dir('root') {
+            file 'settings.gradle', "rootProject.name = 'root'\ninclude 'a'"
+            dir('a')
+        }
+        ModelProvider modelProvider = modelProvider(projectDir)
+        modelProvider.fetchEclipseGradleProjects(FetchStrategy.FORCE_RELOAD, token, new NullProgressMonitor())
+        modelProvider.fetchEclipseGradleProjects([new File(projectDir, 'a')] as Set, token, new NullProgressMonitor())
+
+        when:
+        new File(projectDir, 'b').mkdirs()
+        new File(projectDir, 'settings.gradle').text = "rootProject.name = 'root'\ninclude 'a', 'b'"
+        modelProvider.fetchGradleBuild(FetchStrategy.FORCE_RELOAD, token, new NullProgressMonitor())
+
+        then:
+        modelProvider.fetchEclipseGradleProjects(FetchStrategy.FROM_CACHE_ONLY, token, new NullProgressMonitor()).collect { it.name } as Set == ['root', 'a', 'b'] as Set
+    }
+
+    private ModelProvider modelProvider(File projectDir) {
+        CorePlugin.gradleWorkspaceManager().getGradleBuild(createOverridingBuildConfiguration(projectDir)).modelProvider
+    }
+}
@@ -2,6 +2,8 @@ package org.eclipse.buildship.core.workspace.internal
 
 import com.gradleware.tooling.toolingclient.GradleDistribution
 
+import org.eclipse.core.runtime.jobs.Job
+
 import org.eclipse.buildship.core.CorePlugin
 import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecification
 import org.eclipse.buildship.core.util.progress.AsyncHandler
@@ -27,7 +29,7 @@ class MergingSynchronizeGradleBuildsJobs extends ProjectSynchronizationSpecifica
         waitForGradleJobsToFinish()
 
         then:
-        jobs.findAll { it.result != null }.size() == 1
+        jobs.findAll { it.result != null && !it.superseded }.size() == 1
     }
 
     def "A no-op new project handler is covered by any other"() {
@@ -47,7 +49,7 @@ class MergingSynchronizeGradleBuildsJobs extends ProjectSynchronizationSpecifica
         waitForGradleJobsToFinish()
 
         then:
-        jobs.findAll { it.result != null }.size() == 1
+        jobs.findAll { it.result != null && !it.superseded }.size() == 1
     }
 
     def "A job with a different new project handler is not covered"() {
@@ -67,7 +69,7 @@ class MergingSynchronizeGradleBuildsJobs extends ProjectSynchronizationSpecifica
         waitForGradleJobsToFinish()
 
         then:
-        jobs.findAll { it.result != null }.size() == 2
+        jobs.findAll { it.result != null && !it.superseded }.size() == 2
     }
 
     def "A no-op initializer is covered by any other"() {
@@ -87,7 +89,7 @@ class MergingSynchronizeGradleBuildsJobs extends ProjectSynchronizationSpecifica
         waitForGradleJobsToFinish()
 
         then:
-        jobs.findAll { it.result != null }.size() == 1
+        jobs.findAll { it.result != null && !it.superseded }.size() == 1
     }
 
     def "A job with a different initializer is not covered"() {
@@ -107,7 +109,7 @@ class MergingSynchronizeGradleBuildsJobs extends ProjectSynchronizationSpecifica
         waitForGradleJobsToFinish()
 
         then:
-        jobs.findAll { it.result != null }.size() == 2
+        jobs.findAll { it.result != null && !it.superseded }.size() == 2
     }
 
     def "A job for a different set of projects is not covered"() {
@@ -128,6 +130,34 @@ class MergingSynchronizeGradleBuildsJobs extends ProjectSynchronizationSpecifica
         waitForGradleJobsToFinish()
 
         then:
-        jobs.findAll { it.result != null }.size() == 2
+        jobs.findAll { it.result != null && !it.superseded }.size() == 2
+    }
+
+    def "A job still loading the models is superseded by a newer job covering it"() {
+        setup:
+        File projectLocation = dir("sample-project") {
+            file 'slow'
+            file 'settings.gradle', "if (new File(settingsDir, 'slow').exists()) { Thread.sleep(5000) }"
+        }
+        def buildConfiguration = createOverridingBuildConfiguration(projectLocation)
+        def gradleBuild = new DefaultGradleBuild(buildConfiguration)
+        def oldJob = SynchronizeGradleBuildsJob.forSingleGradleBuild(gradleBuild, NewProjectHandler.IMPORT_AND_MERGE, AsyncHandler.NO_OP)
+        def newJob = SynchronizeGradleBuildsJob.forSingleGradleBuild(gradleBuild, NewProjectHandler.IMPORT_AND_MERGE, AsyncHandler.NO_OP)
+
+        when:
+        oldJob.schedule()
+        while (oldJob.state != Job.RUNNING) {
+            Thread.sleep(10)
+        }
+        Thread.sleep(500)
+        new File(projectLocation, 'slow').delete()
+        newJob.schedule()
+        oldJob.join()
+
+        then:
+        oldJob.superseded
+        oldJob.result.OK
+        newJob.result.OK
+        findProject('sample-project')
     }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import com.gradleware.tooling.toolingclient.GradleDistribution
+
+import org.eclipse.buildship.core.configuration.GradleArguments
+
+class ModelCacheTest extends Specification {
+
+    @Rule
+    TemporaryFolder tempFolder
+
+    File snapshotDir
+    ModelCache cache
+
+    def setup() {
+        snapshotDir = tempFolder.newFolder('snapshots')
+        cache = new ModelCache(100, new ModelSnapshotStore(snapshotDir))
+    }
+
+    def "Entries are separated by Gradle arguments"() {
+        setup:
+        GradleArguments online = arguments(false)
+        GradleArguments offline = arguments(true)
+
+        when:
+        cache.put(online, 'model', 'online model')
+
+        then:
+        cache.get(online, 'model') == 'online model'
+        cache.get(arguments(false), 'model') == 'online model'
+        cache.get(offline, 'model') == null
+    }
+
+    def "Entries loaded with previous arguments are discarded when the arguments change"() {
+        setup:
+        cache.put(arguments(false), 'model', 'online model')
+
+        when:
+        cache.invalidateIfChanged(arguments(false))
+
+        then:
+        cache.get(arguments(false), 'model') == 'online model'
+
+        when:
+        cache.invalidateIfChanged(arguments(true))
+
+        then:
+        cache.get(arguments(false), 'model') == null
+    }
+
+    def "Snapshots stored with previous arguments are discarded when the arguments change"() {
+        setup:
+        cache.invalidateIfChanged(arguments(false))
+
+        when:
+        cache.snapshotStore.store(arguments(false), 'GradleBuild', [], Object, [])
+        cache.snapshotStore.flush()
+
+        then:
+        new ModelSnapshotStore(snapshotDir).load(arguments(false), 'GradleBuild').present
+
+        when:
+        cache.invalidateIfChanged(arguments(true))
+        cache.snapshotStore.flush()
+
+        then:
+        !new ModelSnapshotStore(snapshotDir).load(arguments(false), 'GradleBuild').present
+    }
+
+    def "Cache size is bounded"() {
+        when:
+        150.times { cache.put(arguments(false), it, 'model') }
+
+        then:
+        cache.stats.evictionCount() > 0
+    }
+
+    def "Statistics are recorded"() {
+        setup:
+        cache.put(arguments(false), 'model', 'value')
+
+        when:
+        cache.get(arguments(false), 'model')
+        cache.get(arguments(false), 'other')
+
+        then:
+        cache.stats.hitCount() == 1
+        cache.stats.missCount() == 1
+    }
+
+    private static GradleArguments arguments(boolean offline) {
+        GradleArguments.from(new File('root'), GradleDistribution.fromBuild(), null, null, false, offline, [], [])
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import org.gradle.tooling.model.DomainObjectSet
+import org.gradle.tooling.model.UnsupportedMethodException
+import org.gradle.tooling.model.eclipse.EclipseProject
+
+import com.gradleware.tooling.toolingclient.GradleDistribution
+
+import org.eclipse.buildship.core.configuration.GradleArguments
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class ModelSnapshotStoreTest extends WorkspaceSpecification {
+
+    File buildDir
+    File snapshotDir
+    GradleArguments arguments
+    ModelSnapshotStore store
+
+    def setup() {
+        buildDir = dir('sample-build') {
+            file 'settings.gradle', "include 'sub'"
+            file 'build.gradle'
+        }
+        snapshotDir = dir('snapshots')
+        arguments = arguments(false)
+        store = new ModelSnapshotStore(snapshotDir)
+    }
+
+    def "Missing snapshot is not loaded"() {
+        expect:
+        !store.load(arguments, 'EclipseProject-all').present
+    }
+
+    def "Stored models can be loaded"() {
+        setup:
+        EclipseProject child = eclipseProject('sub', [])
+        EclipseProject root = eclipseProject('sample-build', [child])
+        store.store(arguments, 'EclipseProject-all', [root], EclipseProject, buildFiles())
+        store.flush()
+
+        when:
+        List<EclipseProject> models = new ModelSnapshotStore(snapshotDir).load(arguments, 'EclipseProject-all').get()
+
+        then:
+        models.size() == 1
+        models[0].name == 'sample-build'
+        models[0].projectDirectory == new File(buildDir, 'sample-build')
+        models[0].children.size() == 1
+        models[0].children.getAt(0).name == 'sub'
+        models[0].children.all[0].is(models[0].children.getAt(0))
+    }
+
+    def "Getters unsupported by the original model are unsupported in the restored model"() {
+        setup:
+        store.store(arguments, 'EclipseProject-all', [eclipseProject('sample-build', [])], EclipseProject, buildFiles())
+        store.flush()
+
+        when:
+        List<EclipseProject> models = new ModelSnapshotStore(snapshotDir).load(arguments, 'EclipseProject-all').get()
+        models[0].description
+
+        then:
+        thrown(UnsupportedMethodException)
+    }
+
+    def "Snapshot is discarded when a build file changes"() {
+        setup:
+        store.store(arguments, 'EclipseProject-all', [eclipseProject('sample-build', [])], EclipseProject, buildFiles())
+        store.flush()
+
+        when:
+        new File(buildDir, 'build.gradle') << "apply plugin: 'java'"
+
+        then:
+        !store.load(arguments, 'EclipseProject-all').present
+    }
+
+    def "Snapshot is discarded when the buildSrc sources change but not when its output changes"() {
+        setup:
+        File buildSrc = dir('sample-build/buildSrc/src/main/groovy') {
+            file 'Plugin.groovy', 'class Plugin {}'
+        }
+        store.store(arguments, 'EclipseProject-all', [eclipseProject('sample-build', [])], EclipseProject, buildFiles() + [new File(buildDir, 'buildSrc')])
+        store.flush()
+
+        when:
+        dir('sample-build/buildSrc/build/classes') {
+            file 'Plugin.class', 'binary'
+        }
+
+        then:
+        store.load(arguments, 'EclipseProject-all').present
+
+        when:
+        new File(buildSrc, 'Other.groovy').text = 'class Other {}'
+
+        then:
+        !store.load(arguments, 'EclipseProject-all').present
+    }
+
+    def "Snapshots are separated by Gradle arguments"() {
+        setup:
+        store.store(arguments, 'EclipseProject-all', [eclipseProject('sample-build', [])], EclipseProject, buildFiles())
+        store.flush()
+
+        expect:
+        !store.load(arguments(true), 'EclipseProject-all').present
+    }
+
+    def "Snapshots stored with other arguments are discarded"() {
+        setup:
+        store.store(arguments, 'EclipseProject-all', [eclipseProject('sample-build', [])], EclipseProject, buildFiles())
+        store.flush()
+        store.store(arguments, 'GradleBuild', [eclipseProject('sample-build', [])], EclipseProject, buildFiles())
+
+        when:
+        store.discardOtherThan(arguments(true))
+        store.flush()
+
+        then:
+        !store.load(arguments, 'EclipseProject-all').present
+        !store.load(arguments, 'GradleBuild').present
+    }
+
+    private GradleArguments arguments(boolean offline) {
+        GradleArguments.from(buildDir, GradleDistribution.fromBuild(), null, null, false, offline, [], [])
+    }
+
+    private List<File> buildFiles() {
+        [new File(buildDir, 'settings.gradle'), new File(buildDir, 'build.gradle'), new File(buildDir, 'gradle.properties')]
+    }
+
+    private EclipseProject eclipseProject(String name, List<EclipseProject> children) {
+        DomainObjectSet<EclipseProject> childSet = [
+            iterator: { children.iterator() },
+            getAll: { children },
+            getAt: { int index -> children[index] },
+            size: { children.size() },
+            isEmpty: { children.isEmpty() }
+        ] as DomainObjectSet
+        [
+            getName: { name },
+            getProjectDirectory: { new File(buildDir, name) },
+            getChildren: { childSet }
+        ] as EclipseProject
+    }
+}
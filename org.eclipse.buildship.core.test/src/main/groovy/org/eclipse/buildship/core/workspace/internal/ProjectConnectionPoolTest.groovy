@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+
+import org.gradle.tooling.GradleConnector
+import org.gradle.tooling.model.build.BuildEnvironment
+
+import com.google.common.collect.ImmutableList
+
+import com.gradleware.tooling.toolingclient.GradleDistribution
+import com.gradleware.tooling.toolingmodel.repository.TransientRequestAttributes
+
+import org.eclipse.buildship.core.CorePlugin
+import org.eclipse.buildship.core.configuration.GradleArguments
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+import org.eclipse.buildship.core.util.preference.EclipsePreferencesUtils
+
+class ProjectConnectionPoolTest extends WorkspaceSpecification {
+
+    ProjectConnectionPool pool
+
+    def setup() {
+        pool = ProjectConnectionPool.createAndRegister()
+    }
+
+    def cleanup() {
+        pool.close()
+    }
+
+    def "Connections are reused for the same build"() {
+        setup:
+        GradleArguments arguments = gradleArguments(dir('sample-project'))
+
+        when:
+        def first = pool.acquire(arguments)
+        pool.release(first)
+        def second = pool.acquire(arguments)
+        pool.release(second)
+
+        then:
+        first.is(second)
+        pool.missCount == 1
+        pool.hitCount == 1
+        pool.openConnectionCount == 1
+    }
+
+    def "Different builds use different connections"() {
+        when:
+        def first = pool.acquire(gradleArguments(dir('project1')))
+        def second = pool.acquire(gradleArguments(dir('project2')))
+
+        then:
+        !first.is(second)
+        pool.missCount == 2
+        pool.hitCount == 0
+        pool.openConnectionCount == 2
+    }
+
+    def "Leased connections are not evicted"() {
+        setup:
+        def connection = pool.acquire(gradleArguments(dir('sample-project')))
+
+        when:
+        pool.evictIdleConnections()
+
+        then:
+        pool.openConnectionCount == 1
+
+        cleanup:
+        pool.release(connection)
+    }
+
+    def "All connections are discarded when the pool is closed"() {
+        setup:
+        pool.acquire(gradleArguments(dir('project1')))
+        pool.release(pool.acquire(gradleArguments(dir('project2'))))
+
+        when:
+        pool.closeAll()
+
+        then:
+        pool.openConnectionCount == 0
+    }
+
+    def "Build environment is fetched once per build"() {
+        setup:
+        GradleArguments arguments = gradleArguments(dir('sample-project') { file 'settings.gradle' })
+        def connection = pool.acquire(arguments)
+
+        when:
+        def first = pool.getBuildEnvironment(connection, arguments, transientAttributes())
+        def second = pool.getBuildEnvironment(connection, arguments, transientAttributes())
+
+        then:
+        first.is(second)
+
+        cleanup:
+        pool.release(connection)
+    }
+
+    def "Build environment is fetched again for different JVM arguments"() {
+        setup:
+        File rootDir = dir('sample-project') { file 'settings.gradle' }
+        GradleArguments arguments = gradleArguments(rootDir)
+        GradleArguments otherArguments = GradleArguments.from(rootDir, GradleDistribution.fromBuild(), null, null, false, false, [], ['-Xmx256m'])
+        def connection = pool.acquire(arguments)
+
+        when:
+        def first = pool.getBuildEnvironment(connection, arguments, transientAttributes())
+        def second = pool.getBuildEnvironment(connection, otherArguments, transientAttributes())
+
+        then:
+        !first.is(second)
+        second.java.jvmArguments.contains('-Xmx256m')
+
+        cleanup:
+        pool.release(connection)
+    }
+
+    def "Concurrent requests for the same build environment share one fetch"() {
+        setup:
+        GradleArguments arguments = gradleArguments(dir('sample-project') { file 'settings.gradle' })
+        def connection = pool.acquire(arguments)
+        def executor = Executors.newFixedThreadPool(4)
+        def start = new CountDownLatch(1)
+        def request = new Callable<BuildEnvironment>() {
+            BuildEnvironment call() {
+                start.await()
+                pool.getBuildEnvironment(connection, arguments, transientAttributes())
+            }
+        }
+
+        when:
+        def results = (1..4).collect { executor.submit(request) }
+        start.countDown()
+        def buildEnvironments = results.collect { it.get() }
+
+        then:
+        buildEnvironments.every { it.is(buildEnvironments[0]) }
+
+        cleanup:
+        executor.shutdownNow()
+        pool.release(connection)
+    }
+
+    def "Build environments are discarded with their evicted connection"() {
+        setup:
+        EclipsePreferencesUtils.getInstanceScope().getNode(CorePlugin.PLUGIN_ID).putLong(ProjectConnectionPool.IDLE_TIMEOUT_PREFERENCE, 0)
+        GradleArguments arguments = gradleArguments(dir('sample-project') { file 'settings.gradle' })
+        def connection = pool.acquire(arguments)
+        pool.getBuildEnvironment(connection, arguments, transientAttributes())
+        pool.release(connection)
+
+        expect:
+        pool.cachedBuildEnvironmentCount == 1
+
+        when:
+        pool.evictIdleConnections()
+
+        then:
+        pool.openConnectionCount == 0
+        pool.cachedBuildEnvironmentCount == 0
+
+        cleanup:
+        EclipsePreferencesUtils.getInstanceScope().getNode(CorePlugin.PLUGIN_ID).remove(ProjectConnectionPool.IDLE_TIMEOUT_PREFERENCE)
+    }
+
+    private static TransientRequestAttributes transientAttributes() {
+        new TransientRequestAttributes(false, null, null, null, ImmutableList.of(), ImmutableList.of(), GradleConnector.newCancellationTokenSource().token())
+    }
+
+    private static GradleArguments gradleArguments(File rootDir) {
+        GradleArguments.from(rootDir, GradleDistribution.fromBuild(), null, null, false, false, [], [])
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import org.eclipse.core.resources.IProject
+import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.jdt.core.JavaCore
+
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class ProjectDescriptionSessionTest extends WorkspaceSpecification {
+
+    def "Unchanged description is not written"() {
+        setup:
+        IProject project = newProject('sample')
+        long modificationStamp = project.getFile('.project').modificationStamp
+
+        when:
+        ProjectDescriptionSession session = ProjectDescriptionSession.open(project)
+        session.removeNature(JavaCore.NATURE_ID)
+        session.commit(new NullProgressMonitor())
+
+        then:
+        !session.changed
+        project.getFile('.project').modificationStamp == modificationStamp
+    }
+
+    def "Natures and build commands are written together"() {
+        setup:
+        IProject project = newProject('sample')
+
+        when:
+        ProjectDescriptionSession session = ProjectDescriptionSession.open(project)
+        session.addNature(JavaCore.NATURE_ID)
+        session.addBuildCommand('customBuildCommand', ['key' : 'value'])
+        session.commit(new NullProgressMonitor())
+
+        then:
+        project.hasNature(JavaCore.NATURE_ID)
+        project.description.buildSpec.find { it.builderName == 'customBuildCommand' && it.arguments == ['key' : 'value'] }
+    }
+
+    def "Unknown natures are not added"() {
+        setup:
+        IProject project = newProject('sample')
+
+        when:
+        ProjectDescriptionSession session = ProjectDescriptionSession.open(project)
+        session.addNature('unknown.nature')
+
+        then:
+        !session.changed
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import com.google.common.base.Optional
+
+import org.eclipse.core.resources.IProject
+import org.eclipse.core.resources.IProjectDescription
+import org.eclipse.core.resources.IWorkspaceRunnable
+import org.eclipse.core.runtime.IProgressMonitor
+import org.eclipse.core.runtime.Path
+
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class ProjectLocationIndexTest extends WorkspaceSpecification {
+
+    ProjectLocationIndex index
+
+    def setup() {
+        index = ProjectLocationIndex.createAndRegister()
+    }
+
+    def cleanup() {
+        index.close()
+    }
+
+    def "Projects created without notifying the index are found"() {
+        setup:
+        File location = dir('sample')
+        // builds the index before the project exists
+        assert !index.find(location).present
+        Optional<IProject> found = null
+
+        when:
+        workspace.run({ IProgressMonitor monitor ->
+            IProjectDescription description = workspace.newProjectDescription('sample')
+            description.location = new Path(location.absolutePath)
+            workspace.root.getProject('sample').create(description, monitor)
+            // the project created event is only sent after the operation
+            found = index.find(location)
+        } as IWorkspaceRunnable, null)
+
+        then:
+        found.present
+        found.get().name == 'sample'
+    }
+
+    def "Missing projects are not found"() {
+        expect:
+        !index.find(dir('missing')).present
+    }
+
+    def "Misses don't scan the workspace again if the index is up-to-date"() {
+        setup:
+        newProject('sample')
+        index.find(dir('missing'))
+        int scanCount = index.scanCount
+
+        when:
+        index.find(dir('missing'))
+        index.find(dir('other'))
+
+        then:
+        index.scanCount == scanCount
+    }
+
+    def "Projects created and deleted after the first lookup are indexed from the change events"() {
+        setup:
+        index.find(dir('missing'))
+        int scanCount = index.scanCount
+
+        when:
+        IProject project = newProject('sample')
+        File location = project.location.toFile()
+
+        then:
+        index.find(location).get() == project
+
+        when:
+        project.delete(false, null)
+
+        then:
+        !index.find(location).present
+        index.scanCount == scanCount
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject
+import com.gradleware.tooling.toolingmodel.OmniEclipseSourceDirectory
+import com.gradleware.tooling.toolingmodel.OmniExternalDependency
+import com.gradleware.tooling.toolingmodel.OmniGradleProject
+import com.gradleware.tooling.toolingmodel.util.Maybe
+
+import org.eclipse.core.resources.IProject
+import org.eclipse.core.runtime.NullProgressMonitor
+
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class ProjectRefresherTest extends WorkspaceSpecification {
+
+    IProject project
+
+    def setup() {
+        project = newProject('sample')
+        fileTree(project.location.toFile()) {
+            dir('src/main/java') {
+                file 'Foo.java', 'class Foo {}'
+            }
+            dir('build/classes') {
+                file 'Foo.class', ''
+            }
+            dir('node_modules/module') {
+                file 'index.js', ''
+            }
+            dir('.settings') {
+                file 'custom.prefs', ''
+            }
+            dir('libs') {
+                file 'lib.jar', ''
+                file 'lib-sources.jar', ''
+            }
+        }
+    }
+
+    def "Targeted refresh synchronizes source folders and metadata"() {
+        when:
+        ProjectRefresher.refresh(project, model(), new NullProgressMonitor())
+
+        then:
+        project.getFile('src/main/java/Foo.java').exists()
+        project.getFile('.settings/custom.prefs').exists()
+    }
+
+    def "Targeted refresh does not descend into derived and unrelated folders"() {
+        when:
+        ProjectRefresher.refresh(project, model(), new NullProgressMonitor())
+
+        then:
+        project.getFolder('build').exists()
+        !project.getFile('build/classes/Foo.class').exists()
+        project.getFolder('node_modules').exists()
+        !project.getFile('node_modules/module/index.js').exists()
+    }
+
+    def "Targeted refresh synchronizes libraries stored in the project"() {
+        when:
+        ProjectRefresher.refresh(project, model(), new NullProgressMonitor())
+
+        then:
+        project.getFile('libs/lib.jar').exists()
+        project.getFile('libs/lib-sources.jar').exists()
+    }
+
+    def "Metadata refresh synchronizes the project preferences"() {
+        when:
+        ProjectRefresher.refreshMetadata(project, new NullProgressMonitor())
+
+        then:
+        project.getFile('.settings/custom.prefs').exists()
+        !project.getFile('src/main/java/Foo.java').exists()
+    }
+
+    private OmniEclipseProject model() {
+        OmniEclipseSourceDirectory sourceDirectory = Mock(OmniEclipseSourceDirectory)
+        sourceDirectory.path >> 'src/main/java'
+        OmniExternalDependency library = Mock(OmniExternalDependency)
+        library.file >> new File(project.location.toFile(), 'libs/lib.jar')
+        library.source >> new File(project.location.toFile(), 'libs/lib-sources.jar')
+        OmniGradleProject gradleProject = Mock(OmniGradleProject)
+        gradleProject.buildDirectory >> Maybe.of(new File(project.location.toFile(), 'build'))
+        OmniEclipseProject eclipseProject = Mock(OmniEclipseProject)
+        eclipseProject.gradleProject >> gradleProject
+        eclipseProject.projectDirectory >> project.location.toFile()
+        eclipseProject.sourceDirectories >> [sourceDirectory]
+        eclipseProject.externalDependencies >> [library]
+        eclipseProject.all >> [eclipseProject]
+        eclipseProject
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.Path
+import org.eclipse.jdt.core.IClasspathEntry
+import org.eclipse.jdt.core.IJavaProject
+import org.eclipse.jdt.core.JavaCore
+
+import org.eclipse.buildship.core.test.fixtures.WorkspaceSpecification
+
+class RawClasspathTest extends WorkspaceSpecification {
+
+    def "Unchanged classpath is not written"() {
+        setup:
+        IJavaProject project = newJavaProject('sample')
+        long modificationStamp = project.project.getFile('.classpath').modificationStamp
+
+        when:
+        RawClasspath classpath = RawClasspath.load(project)
+        classpath.save(new NullProgressMonitor())
+
+        then:
+        !classpath.changed
+        project.project.getFile('.classpath').modificationStamp == modificationStamp
+    }
+
+    def "Entries and output location are written together"() {
+        setup:
+        IJavaProject project = newJavaProject('sample')
+        project.project.getFolder('src').create(true, true, null)
+        IClasspathEntry sourceEntry = JavaCore.newSourceEntry(new Path('/sample/src'))
+
+        when:
+        RawClasspath classpath = RawClasspath.load(project)
+        classpath.entries.clear()
+        classpath.entries.add(sourceEntry)
+        classpath.outputLocation = new Path('/sample/target')
+        classpath.save(new NullProgressMonitor())
+
+        then:
+        project.rawClasspath as List == [sourceEntry]
+        project.outputLocation == new Path('/sample/target')
+    }
+}
@@ -2,6 +2,9 @@ package org.eclipse.buildship.core.workspace.internal
 
 import org.eclipse.core.resources.IProject
 import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.core.runtime.jobs.IJobChangeEvent
+import org.eclipse.core.runtime.jobs.Job
+import org.eclipse.core.runtime.jobs.JobChangeAdapter
 import org.eclipse.jdt.core.JavaCore
 
 import org.eclipse.buildship.core.configuration.BuildConfiguration
@@ -127,6 +130,179 @@ class SynchronizingBuildScriptUpdateListenerTest extends ProjectSynchronizationS
         JavaCore.create(project).getResolvedClasspath(false).find { it.path.toPortableString().endsWith('spring-beans-1.2.8.jar') }
     }
 
+    def "Execute project synchronization when subproject build script changes"() {
+        setup:
+        File projectDir = dir('auto-sync-test-project') {
+            file 'settings.gradle', "include 'sub1', 'sub2'"
+            file 'build.gradle', """
+                allprojects {
+                    apply plugin: 'java'
+                    ${jcenterRepositoryBlock}
+                }
+            """
+            dir('sub1') {
+                dir('src/main/java')
+                file 'build.gradle', ''
+            }
+            dir('sub2') {
+                dir('src/main/java')
+                file 'build.gradle', ''
+            }
+        }
+        importAndWait(projectDir)
+        IProject project = findProject('sub1')
+        enableProjectAutoSync(project)
+
+        when:
+        String buildScript = 'dependencies { compile "org.springframework:spring-beans:1.2.8" }'
+        project.getFile('build.gradle').setContents(new ByteArrayInputStream(buildScript.bytes), 0, new NullProgressMonitor())
+        waitForResourceChangeEvents()
+        waitForGradleJobsToFinish()
+
+        then:
+        JavaCore.create(project).getResolvedClasspath(false).find { it.path.toPortableString().endsWith('spring-beans-1.2.8.jar') }
+        findProject('sub2')
+        findProject('auto-sync-test-project')
+    }
+
+    def "Projects depending on a changed subproject are synchronized as well"() {
+        setup:
+        File projectDir = dir('auto-sync-test-project') {
+            file 'settings.gradle', "include 'sub1', 'sub2'"
+            file 'build.gradle', """
+                allprojects {
+                    apply plugin: 'java'
+                    ${jcenterRepositoryBlock}
+                }
+            """
+            dir('sub1') {
+                dir('src/main/java')
+                file 'build.gradle', ''
+            }
+            dir('sub2') {
+                dir('src/main/java')
+                file 'build.gradle', "dependencies { compile project(':sub1') }"
+            }
+        }
+        importAndWait(projectDir)
+        IProject project = findProject('sub1')
+        enableProjectAutoSync(project)
+
+        when:
+        String buildScript = 'dependencies { compile "org.springframework:spring-beans:1.2.8" }'
+        project.getFile('build.gradle').setContents(new ByteArrayInputStream(buildScript.bytes), 0, new NullProgressMonitor())
+        waitForResourceChangeEvents()
+        waitForGradleJobsToFinish()
+
+        then:
+        JavaCore.create(findProject('sub2')).getResolvedClasspath(false).find { it.path.toPortableString().endsWith('spring-beans-1.2.8.jar') }
+    }
+
+    def "Build script changes within the delay are synchronized with a single job"() {
+        setup:
+        File firstProjectDir = dir('first') {
+            file 'build.gradle', ''
+        }
+        File secondProjectDir = dir('second') {
+            file 'build.gradle', ''
+        }
+        importAndWait(firstProjectDir)
+        importAndWait(secondProjectDir)
+        IProject first = findProject('first')
+        IProject second = findProject('second')
+        enableProjectAutoSync(first)
+        enableProjectAutoSync(second)
+        setWorkspaceAutoSync(workspaceConfig.autoSync, 1000)
+
+        List<SynchronizeGradleBuildsJob> scheduledJobs = [].asSynchronized()
+        def listener = new JobChangeAdapter() {
+            void scheduled(IJobChangeEvent event) {
+                if (event.job instanceof SynchronizeGradleBuildsJob) {
+                    scheduledJobs << event.job
+                }
+            }
+        }
+        Job.jobManager.addJobChangeListener(listener)
+
+        when:
+        first.getFile('build.gradle').setContents(new ByteArrayInputStream('apply plugin: "base"'.bytes), 0, new NullProgressMonitor())
+        waitForResourceChangeEvents()
+        Thread.sleep(600)
+        first.getFile('build.gradle').setContents(new ByteArrayInputStream('apply plugin: "java"'.bytes), 0, new NullProgressMonitor())
+        waitForResourceChangeEvents()
+        // the delay would have expired by now if it was measured from the first change
+        Thread.sleep(600)
+        second.getFile('build.gradle').setContents(new ByteArrayInputStream('apply plugin: "java"'.bytes), 0, new NullProgressMonitor())
+        waitForResourceChangeEvents()
+        waitForGradleJobsToFinish()
+
+        then:
+        scheduledJobs.size() == 1
+        scheduledJobs[0].builds.collect { it.buildConfig.rootProjectDirectory } as Set == [firstProjectDir, secondProjectDir] as Set
+        JavaCore.create(first).exists()
+        JavaCore.create(second).exists()
+
+        cleanup:
+        Job.jobManager.removeJobChangeListener(listener)
+    }
+
+    def "Execute project synchronization when settings.gradle file changes"() {
+        setup:
+        File projectDir = dir('auto-sync-test-project') {
+            file 'settings.gradle', ''
+            file 'build.gradle', ''
+            dir('sub') {
+                file 'build.gradle', ''
+            }
+        }
+        importAndWait(projectDir)
+        IProject project = findProject('auto-sync-test-project')
+        enableProjectAutoSync(project)
+
+        expect:
+        !findProject('sub')
+
+        when:
+        project.getFile('settings.gradle').setContents(new ByteArrayInputStream("include 'sub'".bytes), 0, new NullProgressMonitor())
+        waitForResourceChangeEvents()
+        waitForGradleJobsToFinish()
+
+        then:
+        findProject('sub')
+    }
+
+    def "Saving a build script without changing its content doesn't execute project synchronization"() {
+        setup:
+        String buildScript = 'apply plugin: "java"'
+        File projectDir = dir('auto-sync-test-project') {
+            file 'build.gradle', buildScript
+        }
+        importAndWait(projectDir)
+        IProject project = findProject('auto-sync-test-project')
+        enableProjectAutoSync(project)
+
+        List<SynchronizeGradleBuildsJob> scheduledJobs = [].asSynchronized()
+        def listener = new JobChangeAdapter() {
+            void scheduled(IJobChangeEvent event) {
+                if (event.job instanceof SynchronizeGradleBuildsJob) {
+                    scheduledJobs << event.job
+                }
+            }
+        }
+        Job.jobManager.addJobChangeListener(listener)
+
+        when:
+        project.getFile('build.gradle').setContents(new ByteArrayInputStream(buildScript.bytes), 0, new NullProgressMonitor())
+        waitForResourceChangeEvents()
+        waitForGradleJobsToFinish()
+
+        then:
+        scheduledJobs.empty
+
+        cleanup:
+        Job.jobManager.removeJobChangeListener(listener)
+    }
+
     def "Synchronization can be disabled for the entire workspace"() {
         setup:
         File projectDir = dir('auto-sync-test-project') {
@@ -186,12 +362,13 @@ class SynchronizingBuildScriptUpdateListenerTest extends ProjectSynchronizationS
         setWorkspaceAutoSync(true)
     }
 
-    private void setWorkspaceAutoSync(boolean autoSync) {
+    private void setWorkspaceAutoSync(boolean autoSync, long autoSyncDelay = workspaceConfig.autoSyncDelay) {
         WorkspaceConfiguration workspaceConfig = new WorkspaceConfiguration(workspaceConfig.gradleDistribution,
             workspaceConfig.gradleUserHome,
             workspaceConfig.gradleIsOffline,
             workspaceConfig.buildScansEnabled,
-            autoSync)
+            autoSync,
+            autoSyncDelay)
         configurationManager.saveWorkspaceConfiguration(workspaceConfig)
     }
 
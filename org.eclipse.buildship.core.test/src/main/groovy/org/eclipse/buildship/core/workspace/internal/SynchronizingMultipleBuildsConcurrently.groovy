@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal
+
+import org.eclipse.buildship.core.test.fixtures.ProjectSynchronizationSpecification
+import org.eclipse.buildship.core.util.progress.AsyncHandler
+import org.eclipse.buildship.core.workspace.NewProjectHandler
+
+class SynchronizingMultipleBuildsConcurrently extends ProjectSynchronizationSpecification {
+
+    def "Models of multiple builds are loaded concurrently"() {
+        setup:
+        // each build waits until the other one started loading, so a serial load fails
+        File firstBuild = dir('first') {
+            file 'settings.gradle', awaitOtherBuild('first', 'second')
+        }
+        File secondBuild = dir('second') {
+            file 'settings.gradle', awaitOtherBuild('second', 'first')
+        }
+        def builds = new DefaultGradleBuilds([createOverridingBuildConfiguration(firstBuild), createOverridingBuildConfiguration(secondBuild)] as Set)
+        def job = SynchronizeGradleBuildsJob.forMultipleGradleBuilds(builds, NewProjectHandler.IMPORT_AND_MERGE, AsyncHandler.NO_OP)
+
+        when:
+        job.schedule()
+        job.join()
+
+        then:
+        job.result.OK
+        findProject('first')
+        findProject('second')
+    }
+
+    private static String awaitOtherBuild(String name, String otherName) {
+        """
+            new File(settingsDir.parentFile, '${name}.marker').createNewFile()
+            long deadline = System.currentTimeMillis() + 60000
+            while (!new File(settingsDir.parentFile, '${otherName}.marker').exists()) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new RuntimeException('${otherName} is not loaded concurrently')
+                }
+                Thread.sleep(10)
+            }
+        """
+    }
+}
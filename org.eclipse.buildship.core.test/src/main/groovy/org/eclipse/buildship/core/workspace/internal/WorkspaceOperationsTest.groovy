@@ -425,6 +425,42 @@ class WorkspaceOperationsTest extends WorkspaceSpecification {
         thrown(GradlePluginsRuntimeException)
     }
 
+    def "Can find a project by location"() {
+        setup:
+        IProject sampleProject = createSampleProject()
+
+        expect:
+        workspaceOperations.findProjectByLocation(sampleProject.location.toFile()).get() == sampleProject
+        !workspaceOperations.findProjectByLocation(dir('other')).isPresent()
+    }
+
+    def "Renamed project can be found by location"() {
+        setup:
+        IProject sampleProject = createSampleProject()
+        File location = sampleProject.location.toFile()
+        workspaceOperations.findProjectByLocation(location)
+
+        when:
+        IProject renamedProject = workspaceOperations.renameProject(sampleProject, 'new-name', new NullProgressMonitor())
+
+        then:
+        workspaceOperations.findProjectByLocation(location).get() == renamedProject
+    }
+
+    def "Deleted project is not found by location"() {
+        setup:
+        IProject sampleProject = createSampleProject()
+        File location = sampleProject.location.toFile()
+        workspaceOperations.findProjectByLocation(location)
+
+        when:
+        sampleProject.delete(false, true, new NullProgressMonitor())
+
+        then:
+        !workspaceOperations.findProjectByLocation(location).isPresent()
+        !workspaceOperations.findProjectByName('sample-project').isPresent()
+    }
+
     private IProject createSampleProject() {
         newProject("sample-project")
     }
@@ -47,11 +47,17 @@ import org.eclipse.buildship.core.preferences.internal.DefaultModelPersistence;
 import org.eclipse.buildship.core.util.extension.InvocationCustomizerCollector;
 import org.eclipse.buildship.core.util.gradle.PublishedGradleVersionsWrapper;
 import org.eclipse.buildship.core.util.logging.EclipseLogger;
+import org.eclipse.buildship.core.workspace.DaemonWarmUp;
 import org.eclipse.buildship.core.workspace.GradleWorkspaceManager;
 import org.eclipse.buildship.core.workspace.WorkspaceOperations;
 import org.eclipse.buildship.core.workspace.internal.DefaultGradleWorkspaceManager;
 import org.eclipse.buildship.core.workspace.internal.DefaultWorkspaceOperations;
 import org.eclipse.buildship.core.workspace.internal.ProjectChangeListener;
+import org.eclipse.buildship.core.workspace.internal.DefaultDaemonWarmUp;
+import org.eclipse.buildship.core.workspace.internal.ModelCache;
+import org.eclipse.buildship.core.workspace.internal.BuildFileHashes;
+import org.eclipse.buildship.core.workspace.internal.ProjectLocationIndex;
+import org.eclipse.buildship.core.workspace.internal.ProjectConnectionPool;
 import org.eclipse.buildship.core.workspace.internal.SynchronizingBuildScriptUpdateListener;
 
 /**
@@ -103,6 +109,11 @@ public final class CorePlugin extends Plugin {
     private ServiceTracker userNotificationServiceTracker;
 
     private DefaultModelPersistence modelPersistence;
+    private ProjectConnectionPool connectionPool;
+    private ModelCache modelCache;
+    private ProjectLocationIndex projectLocationIndex;
+    private BuildFileHashes buildFileHashes;
+    private DefaultDaemonWarmUp daemonWarmUp;
     private ProjectChangeListener projectChangeListener;
     private SynchronizingBuildScriptUpdateListener buildScriptUpdateListener;
     private InvocationCustomizer invocationCustomizer;
@@ -161,11 +172,16 @@ public final class CorePlugin extends Plugin {
         this.userNotificationService = registerService(context, UserNotification.class, createUserNotification(), preferences);
 
         this.modelPersistence = DefaultModelPersistence.createAndRegister();
+        this.connectionPool = ProjectConnectionPool.createAndRegister();
+        this.modelCache = ModelCache.create();
+        this.projectLocationIndex = ProjectLocationIndex.createAndRegister();
+        this.buildFileHashes = BuildFileHashes.create();
         this.projectChangeListener = ProjectChangeListener.createAndRegister();
         this.buildScriptUpdateListener = SynchronizingBuildScriptUpdateListener.createAndRegister();
         this.invocationCustomizer = new InvocationCustomizerCollector();
         this.configurationManager = new DefaultConfigurationManager();
         this.externalLaunchConfigurationManager = DefaultExternalLaunchConfigurationManager.createAndRegister();
+        this.daemonWarmUp = DefaultDaemonWarmUp.createAndRegister();
     }
 
     private ServiceTracker createServiceTracker(BundleContext context, Class<?> clazz) {
@@ -220,9 +236,13 @@ public final class CorePlugin extends Plugin {
     }
 
     private void unregisterServices() {
+        this.daemonWarmUp.close();
         this.externalLaunchConfigurationManager.unregister();
         this.buildScriptUpdateListener.close();
         this.projectChangeListener.close();
+        this.projectLocationIndex.close();
+        this.modelCache.close();
+        this.connectionPool.close();
         this.modelPersistence.close();
         this.userNotificationService.unregister();
         this.listenerRegistryService.unregister();
@@ -295,6 +315,26 @@ public final class CorePlugin extends Plugin {
         return getInstance().modelPersistence;
     }
 
+    public static ProjectConnectionPool connectionPool() {
+        return getInstance().connectionPool;
+    }
+
+    public static ModelCache modelCache() {
+        return getInstance().modelCache;
+    }
+
+    public static ProjectLocationIndex projectLocationIndex() {
+        return getInstance().projectLocationIndex;
+    }
+
+    public static BuildFileHashes buildFileHashes() {
+        return getInstance().buildFileHashes;
+    }
+
+    public static DaemonWarmUp daemonWarmUp() {
+        return getInstance().daemonWarmUp;
+    }
+
     public static InvocationCustomizer invocationCustomizer() {
         return getInstance().invocationCustomizer;
     }
@@ -20,10 +20,14 @@ import org.gradle.tooling.model.build.GradleEnvironment;
 import org.gradle.tooling.model.build.JavaEnvironment;
 import org.gradle.util.GradleVersion;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 import com.gradleware.tooling.toolingclient.GradleDistribution;
 
@@ -32,6 +36,7 @@ import org.eclipse.buildship.core.i18n.CoreMessages;
 import org.eclipse.buildship.core.util.collections.CollectionsUtils;
 import org.eclipse.buildship.core.util.file.FileUtils;
 import org.eclipse.buildship.core.util.gradle.GradleDistributionFormatter;
+import org.eclipse.buildship.core.util.gradle.GradleDistributionSerializer;
 
 /**
  * Holds configuration values to apply on Tooling API objects.
@@ -89,6 +94,57 @@ public final class GradleArguments {
         return string != null ? string : defaultMessage;
     }
 
+    public File getRootDir() {
+        return this.rootDir;
+    }
+
+    public GradleDistribution getGradleDistribution() {
+        return this.gradleDistribution;
+    }
+
+    public File getGradleUserHome() {
+        return this.gradleUserHome;
+    }
+
+    public File getJavaHome() {
+        return this.javaHome;
+    }
+
+    public List<String> getJvmArguments() {
+        return this.jvmArguments;
+    }
+
+    /**
+     * Returns a hash of the arguments which, unlike {@link #hashCode()}, doesn't change between
+     * Eclipse sessions.
+     *
+     * @return the hexadecimal representation of the hash
+     */
+    public String getDigest() {
+        Hasher hasher = Hashing.sha1().newHasher();
+        putString(hasher, this.rootDir.getAbsolutePath());
+        putString(hasher, GradleDistributionSerializer.INSTANCE.serializeToString(this.gradleDistribution));
+        putString(hasher, FileUtils.getAbsolutePath(this.gradleUserHome).or(""));
+        putString(hasher, FileUtils.getAbsolutePath(this.javaHome).or(""));
+        hasher.putBoolean(this.buildScansEnabled);
+        hasher.putBoolean(this.offlineMode);
+        putStrings(hasher, this.arguments);
+        putStrings(hasher, this.jvmArguments);
+        return hasher.hash().toString();
+    }
+
+    private static void putStrings(Hasher hasher, List<String> values) {
+        hasher.putInt(values.size());
+        for (String value : values) {
+            putString(hasher, value);
+        }
+    }
+
+    private static void putString(Hasher hasher, String value) {
+        hasher.putInt(value.length());
+        hasher.putString(value, Charsets.UTF_8);
+    }
+
     public void applyTo(GradleConnector connector) {
         connector.forProjectDirectory(this.rootDir);
         connector.useGradleUserHomeDir(this.gradleUserHome);
@@ -110,6 +166,27 @@ public final class GradleArguments {
         return new GradleArguments(rootDir, gradleDistribution, gradleUserHome, javaHome, buildScansEnabled, offlineMode, arguments, jvmArguments);
     }
 
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof GradleArguments) {
+            GradleArguments other = (GradleArguments) obj;
+            return Objects.equal(this.rootDir, other.rootDir)
+                    && Objects.equal(this.gradleDistribution, other.gradleDistribution)
+                    && Objects.equal(this.gradleUserHome, other.gradleUserHome)
+                    && Objects.equal(this.javaHome, other.javaHome)
+                    && Objects.equal(this.buildScansEnabled, other.buildScansEnabled)
+                    && Objects.equal(this.offlineMode, other.offlineMode)
+                    && Objects.equal(this.arguments, other.arguments)
+                    && Objects.equal(this.jvmArguments, other.jvmArguments);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.rootDir, this.gradleDistribution, this.gradleUserHome, this.javaHome, this.buildScansEnabled, this.offlineMode, this.arguments, this.jvmArguments);
+    }
+
 
     private static List<String> collectArguments(List<String> baseArgs, boolean buildScansEnabled, boolean offlineMode, BuildEnvironment buildEnvironment) {
         List<String> arguments = Lists.newArrayList(baseArgs);
@@ -10,6 +10,7 @@ package org.eclipse.buildship.core.configuration;
 import java.io.File;
 
 import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
 
 import com.gradleware.tooling.toolingclient.GradleDistribution;
 
@@ -21,18 +22,31 @@ import com.gradleware.tooling.toolingclient.GradleDistribution;
  */
 public final class WorkspaceConfiguration {
 
+    /**
+     * The default time in milliseconds the automatic project synchronization waits for further
+     * build script changes before it starts.
+     */
+    public static final long DEFAULT_AUTO_SYNC_DELAY = 1000;
+
     private final GradleDistribution gradleDistribution;
     private final File gradleUserHome;
     private final boolean gradleIsOffline;
     private final boolean buildScansEnabled;
     private final boolean autoSync;
+    private final long autoSyncDelay;
 
     public WorkspaceConfiguration(GradleDistribution gradleDistribution, File gradleUserHome, boolean gradleIsOffline, boolean buildScansEnabled, boolean autoSync) {
+        this(gradleDistribution, gradleUserHome, gradleIsOffline, buildScansEnabled, autoSync, DEFAULT_AUTO_SYNC_DELAY);
+    }
+
+    public WorkspaceConfiguration(GradleDistribution gradleDistribution, File gradleUserHome, boolean gradleIsOffline, boolean buildScansEnabled, boolean autoSync, long autoSyncDelay) {
+        Preconditions.checkArgument(autoSyncDelay >= 0, "Auto sync delay must not be negative");
         this.gradleDistribution = gradleDistribution;
         this.gradleUserHome = gradleUserHome;
         this.gradleIsOffline = gradleIsOffline;
         this.buildScansEnabled = buildScansEnabled;
         this.autoSync = autoSync;
+        this.autoSyncDelay = autoSyncDelay;
     }
 
     public GradleDistribution getGradleDistribution() {
@@ -55,6 +69,17 @@ public final class WorkspaceConfiguration {
         return this.autoSync;
     }
 
+    /**
+     * Returns the time in milliseconds the automatic project synchronization waits after the last
+     * build script change before it starts. All changes within that period are synchronized
+     * together.
+     *
+     * @return the delay in milliseconds
+     */
+    public long getAutoSyncDelay() {
+        return this.autoSyncDelay;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof WorkspaceConfiguration) {
@@ -63,13 +88,14 @@ public final class WorkspaceConfiguration {
                     && Objects.equal(this.gradleUserHome, other.gradleUserHome)
                     && Objects.equal(this.gradleIsOffline, other.gradleIsOffline)
                     && Objects.equal(this.buildScansEnabled, other.buildScansEnabled)
-                    && Objects.equal(this.autoSync, other.autoSync);
+                    && Objects.equal(this.autoSync, other.autoSync)
+                    && Objects.equal(this.autoSyncDelay, other.autoSyncDelay);
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.gradleDistribution, this.gradleUserHome, this.gradleIsOffline, this.buildScansEnabled, this.autoSync);
+        return Objects.hashCode(this.gradleDistribution, this.gradleUserHome, this.gradleIsOffline, this.buildScansEnabled, this.autoSync, this.autoSyncDelay);
     }
 }
\ No newline at end of file
@@ -97,6 +97,7 @@ public class DefaultConfigurationManager implements ConfigurationManager {
         } else {
             this.buildConfigurationPersistence.saveBuildConfiguration(rootDir, properties);
         }
+        CorePlugin.modelCache().invalidateIfChanged(configuration.toGradleArguments());
     }
 
     @Override
@@ -37,6 +37,7 @@ public final class WorkspaceConfigurationPersistence {
     private static final String GRADLE_OFFLINE_MODE = "gradle.offline.mode";
     private static final String GRADLE_BUILD_SCANS = "gradle.build.scans";
     private static final String GRADLE_AUTO_SYNC = "auto.sync";
+    private static final String GRADLE_AUTO_SYNC_DELAY = "auto.sync.delay";
 
     public WorkspaceConfiguration readWorkspaceConfig() {
         IEclipsePreferences preferences = getPreferences();
@@ -51,8 +52,9 @@ public final class WorkspaceConfigurationPersistence {
         boolean offlineMode = preferences.getBoolean(GRADLE_OFFLINE_MODE, false);
         boolean buildScansEnabled = preferences.getBoolean(GRADLE_BUILD_SCANS, false);
         boolean autoSyncEnabled = preferences.getBoolean(GRADLE_AUTO_SYNC, false);
+        long autoSyncDelay = Math.max(0, preferences.getLong(GRADLE_AUTO_SYNC_DELAY, WorkspaceConfiguration.DEFAULT_AUTO_SYNC_DELAY));
 
-        return new WorkspaceConfiguration(distribution, gradleUserHome, offlineMode, buildScansEnabled, autoSyncEnabled);
+        return new WorkspaceConfiguration(distribution, gradleUserHome, offlineMode, buildScansEnabled, autoSyncEnabled, autoSyncDelay);
     }
 
     public void saveWorkspaceConfiguration(WorkspaceConfiguration config) {
@@ -67,6 +69,7 @@ public final class WorkspaceConfigurationPersistence {
         preferences.putBoolean(GRADLE_OFFLINE_MODE, config.isOffline());
         preferences.putBoolean(GRADLE_BUILD_SCANS, config.isBuildScansEnabled());
         preferences.putBoolean(GRADLE_AUTO_SYNC, config.isAutoSync());
+        preferences.putLong(GRADLE_AUTO_SYNC_DELAY, config.getAutoSyncDelay());
         try {
             preferences.flush();
         } catch (BackingStoreException e) {
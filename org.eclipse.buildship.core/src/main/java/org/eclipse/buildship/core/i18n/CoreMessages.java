@@ -72,6 +72,11 @@ public final class CoreMessages extends NLS {
     public static String Preference_Label_BuildScansHover;
     public static String Preference_Label_AutoSync;
     public static String Preference_Label_AutoSyncHover;
+    public static String Preference_Label_AutoSyncDelay;
+    public static String Preference_Label_AutoSyncDelayHover;
+    public static String Preference_Label_AutoSyncDelayInvalid;
+    public static String Preference_Label_DaemonWarmUp;
+    public static String Preference_Label_DaemonWarmUpHover;
 
     static {
         // initialize resource bundle
@@ -0,0 +1,468 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.preferences.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.eclipse.core.resources.ICommand;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IAccessRule;
+import org.eclipse.jdt.core.IClasspathAttribute;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.preferences.PersistentModel;
+
+/**
+ * Contains helper methods for the {@link PersistentModel} <-> binary format conversion.
+ * <p/>
+ * The format starts with a magic number and a version, followed by a table of all strings used in
+ * the model. The model attributes reference the strings by their index, so paths shared by several
+ * entries, e.g. the folders of the Gradle cache, are only stored once. Numbers are stored as
+ * variable-length integers. The classpath entries are stored field by field, instead of the XML
+ * representation used by {@link ClasspathConverter}. Workspace paths inside the project are stored
+ * relative to the project, so the model stays valid if the project is renamed. Library paths are
+ * only treated as workspace paths if they point to a workspace resource, otherwise a file system
+ * path starting with a folder named like the project would be mistaken for a project path.
+ * <p/>
+ * Since version 2 the classpath section is prefixed with its length. The section is kept in its
+ * encoded form when the model is read and the entries are only created when the classpath is first
+ * requested, so loading the models of all projects on startup doesn't build the classpath of
+ * projects which are never opened.
+ */
+final class BinaryPersistentModelConverter {
+
+    private static final byte[] MAGIC = { 'B', 'S', 'P', 'M' };
+    static final int HEADER_LENGTH = MAGIC.length;
+    private static final int VERSION = 2;
+    private static final int VERSION_EAGER_CLASSPATH = 1;
+
+    private static final int PATH_ABSENT = 0;
+    private static final int PATH_ABSOLUTE = 1;
+    private static final int PATH_PROJECT_RELATIVE = 2;
+
+    private BinaryPersistentModelConverter() {
+    }
+
+    /**
+     * Returns {@code true} if the content starts with the header of the binary format.
+     *
+     * @param header the first bytes of the content
+     * @return whether the content is in the binary format
+     */
+    static boolean isBinaryFormat(byte[] header) {
+        return header.length >= MAGIC.length && Arrays.equals(MAGIC, Arrays.copyOf(header, MAGIC.length));
+    }
+
+    static void write(PersistentModel model, OutputStream output) throws IOException {
+        StringTable strings = new StringTable();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        new Writer(model.getProject(), strings, new DataOutputStream(body)).writeModel(model);
+
+        DataOutputStream out = new DataOutputStream(output);
+        out.write(MAGIC);
+        writeVarInt(out, VERSION);
+        strings.writeTo(out);
+        body.writeTo(out);
+        out.flush();
+    }
+
+    static PersistentModel read(IProject project, InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!isBinaryFormat(magic)) {
+            throw new IOException("Not a binary persistent model");
+        }
+        int version = readVarInt(in);
+        if (version != VERSION && version != VERSION_EAGER_CLASSPATH) {
+            throw new IOException("Unsupported persistent model version " + version);
+        }
+        int stringCount = readVarInt(in);
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            byte[] bytes = new byte[readVarInt(in)];
+            in.readFully(bytes);
+            strings[i] = new String(bytes, Charsets.UTF_8);
+        }
+        return new Reader(project, strings, in).readModel(version == VERSION);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    /**
+     * Assigns indices to the strings in the order of their first use.
+     */
+    private static final class StringTable {
+
+        private final Map<String, Integer> indices = Maps.newHashMap();
+        private final List<String> strings = Lists.newArrayList();
+
+        int indexOf(String string) {
+            Integer index = this.indices.get(string);
+            if (index == null) {
+                index = this.strings.size();
+                this.indices.put(string, index);
+                this.strings.add(string);
+            }
+            return index;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            writeVarInt(out, this.strings.size());
+            for (String string : this.strings) {
+                byte[] bytes = string.getBytes(Charsets.UTF_8);
+                writeVarInt(out, bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Writes the model attributes, referencing the strings via the string table.
+     */
+    private static final class Writer {
+
+        private final IProject project;
+        private final StringTable strings;
+        private final DataOutputStream out;
+
+        private Writer(IProject project, StringTable strings, DataOutputStream out) {
+            this.project = project;
+            this.strings = strings;
+            this.out = out;
+        }
+
+        void writeModel(PersistentModel model) throws IOException {
+            writePath(model.getBuildDir());
+            writePath(model.getbuildScriptPath());
+            writePaths(model.getSubprojectPaths());
+            ByteArrayOutputStream classpath = new ByteArrayOutputStream();
+            new Writer(this.project, this.strings, new DataOutputStream(classpath)).writeClasspath(model.getClasspath());
+            writeVarInt(this.out, classpath.size());
+            classpath.writeTo(this.out);
+            writePaths(model.getDerivedResources());
+            writePaths(model.getLinkedResources());
+            writeStrings(model.getManagedNatures());
+            writeVarInt(this.out, model.getManagedBuilders().size());
+            for (ICommand command : model.getManagedBuilders()) {
+                writeString(command.getBuilderName());
+                Map<String, String> arguments = command.getArguments();
+                writeVarInt(this.out, arguments.size());
+                for (Map.Entry<String, String> argument : arguments.entrySet()) {
+                    writeString(argument.getKey());
+                    writeString(argument.getValue());
+                }
+            }
+            writeString(model.getFingerprint());
+        }
+
+        private void writeClasspath(List<IClasspathEntry> classpath) throws IOException {
+            writeVarInt(this.out, classpath.size());
+            for (IClasspathEntry entry : classpath) {
+                writeClasspathEntry(entry);
+            }
+        }
+
+        private void writeClasspathEntry(IClasspathEntry entry) throws IOException {
+            writeVarInt(this.out, entry.getEntryKind());
+            writeVarInt(this.out, entry.getContentKind());
+            IPath path = entry.getPath();
+            IPath sourceAttachmentPath = entry.getSourceAttachmentPath();
+            writePath(path, entry.getEntryKind() == IClasspathEntry.CPE_SOURCE || (entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY && isWorkspaceResource(path)));
+            writePath(sourceAttachmentPath, isWorkspaceResource(sourceAttachmentPath));
+            writePath(entry.getSourceAttachmentRootPath());
+            writePath(entry.getOutputLocation(), true);
+            writePaths(Arrays.asList(entry.getInclusionPatterns()));
+            writePaths(Arrays.asList(entry.getExclusionPatterns()));
+
+            IAccessRule[] accessRules = entry.getAccessRules();
+            writeVarInt(this.out, accessRules.length);
+            for (IAccessRule rule : accessRules) {
+                writePath(rule.getPattern());
+                writeVarInt(this.out, rule.ignoreIfBetter() ? rule.getKind() | IAccessRule.IGNORE_IF_BETTER : rule.getKind());
+            }
+
+            IClasspathAttribute[] attributes = entry.getExtraAttributes();
+            writeVarInt(this.out, attributes.length);
+            for (IClasspathAttribute attribute : attributes) {
+                writeString(attribute.getName());
+                writeString(attribute.getValue());
+            }
+
+            this.out.writeBoolean(entry.isExported());
+            this.out.writeBoolean(entry.combineAccessRules());
+        }
+
+        private void writePaths(Collection<IPath> paths) throws IOException {
+            writeVarInt(this.out, paths.size());
+            for (IPath path : paths) {
+                writePath(path);
+            }
+        }
+
+        private boolean isWorkspaceResource(IPath path) {
+            return path != null && path.isAbsolute() && path.getDevice() == null && this.project.getWorkspace().getRoot().findMember(path) != null;
+        }
+
+        private void writePath(IPath path) throws IOException {
+            writePath(path, false);
+        }
+
+        private void writePath(IPath path, boolean workspacePath) throws IOException {
+            if (path == null) {
+                writeVarInt(this.out, PATH_ABSENT);
+            } else if (workspacePath && path.isAbsolute() && path.getDevice() == null && path.segmentCount() > 0 && path.segment(0).equals(this.project.getName())) {
+                writeVarInt(this.out, PATH_PROJECT_RELATIVE);
+                writeVarInt(this.out, this.strings.indexOf(path.removeFirstSegments(1).makeRelative().toPortableString()));
+            } else {
+                writeVarInt(this.out, PATH_ABSOLUTE);
+                writeVarInt(this.out, this.strings.indexOf(path.toPortableString()));
+            }
+        }
+
+        private void writeStrings(Collection<String> values) throws IOException {
+            writeVarInt(this.out, values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            // zero marks an absent value
+            writeVarInt(this.out, value == null ? 0 : this.strings.indexOf(value) + 1);
+        }
+    }
+
+    /**
+     * Reads the model attributes in the order they were written by the {@link Writer}.
+     */
+    private static final class Reader {
+
+        private final IProject project;
+        private final String[] strings;
+        private final DataInputStream in;
+
+        private Reader(IProject project, String[] strings, DataInputStream in) {
+            this.project = project;
+            this.strings = strings;
+            this.in = in;
+        }
+
+        PersistentModel readModel(boolean lazyClasspath) throws IOException {
+            IPath buildDir = readPath();
+            IPath buildScriptPath = readPath();
+            List<IPath> subprojectPaths = readPaths();
+            Supplier<List<IClasspathEntry>> classpath;
+            if (lazyClasspath) {
+                byte[] encodedClasspath = new byte[readVarInt(this.in)];
+                this.in.readFully(encodedClasspath);
+                classpath = new LazyClasspath(this.project, this.strings, encodedClasspath);
+            } else {
+                classpath = Suppliers.ofInstance(readClasspath());
+            }
+            List<IPath> derivedResources = readPaths();
+            List<IPath> linkedResources = readPaths();
+            List<String> managedNatures = readStrings();
+            int builderCount = readVarInt(this.in);
+            List<ICommand> managedBuilders = Lists.newArrayListWithCapacity(builderCount);
+            for (int i = 0; i < builderCount; i++) {
+                managedBuilders.add(readCommand());
+            }
+            String fingerprint = readString();
+            return new DefaultPersistentModel(classpath, this.project, buildDir, buildScriptPath, subprojectPaths, derivedResources, linkedResources, managedNatures, managedBuilders, fingerprint);
+        }
+
+        private List<IClasspathEntry> readClasspath() throws IOException {
+            int size = readVarInt(this.in);
+            ImmutableList.Builder<IClasspathEntry> classpath = ImmutableList.builder();
+            for (int i = 0; i < size; i++) {
+                classpath.add(readClasspathEntry());
+            }
+            return classpath.build();
+        }
+
+        private IClasspathEntry readClasspathEntry() throws IOException {
+            int entryKind = readVarInt(this.in);
+            int contentKind = readVarInt(this.in);
+            IPath path = readPath();
+            IPath sourceAttachmentPath = readPath();
+            IPath sourceAttachmentRootPath = readPath();
+            IPath outputLocation = readPath();
+            IPath[] inclusionPatterns = readPaths().toArray(new IPath[0]);
+            IPath[] exclusionPatterns = readPaths().toArray(new IPath[0]);
+
+            IAccessRule[] accessRules = new IAccessRule[readVarInt(this.in)];
+            for (int i = 0; i < accessRules.length; i++) {
+                IPath pattern = readPath();
+                accessRules[i] = JavaCore.newAccessRule(pattern, readVarInt(this.in));
+            }
+
+            IClasspathAttribute[] attributes = new IClasspathAttribute[readVarInt(this.in)];
+            for (int i = 0; i < attributes.length; i++) {
+                String name = readString();
+                attributes[i] = JavaCore.newClasspathAttribute(name, readString());
+            }
+
+            boolean exported = this.in.readBoolean();
+            boolean combineAccessRules = this.in.readBoolean();
+
+            switch (entryKind) {
+                case IClasspathEntry.CPE_LIBRARY:
+                    return JavaCore.newLibraryEntry(path, sourceAttachmentPath, sourceAttachmentRootPath, accessRules, attributes, exported);
+                case IClasspathEntry.CPE_PROJECT:
+                    return JavaCore.newProjectEntry(path, accessRules, combineAccessRules, attributes, exported);
+                case IClasspathEntry.CPE_SOURCE:
+                    return JavaCore.newSourceEntry(path, inclusionPatterns, exclusionPatterns, outputLocation, attributes);
+                case IClasspathEntry.CPE_VARIABLE:
+                    return JavaCore.newVariableEntry(path, sourceAttachmentPath, sourceAttachmentRootPath, accessRules, attributes, exported);
+                case IClasspathEntry.CPE_CONTAINER:
+                    return JavaCore.newContainerEntry(path, accessRules, attributes, exported);
+                default:
+                    throw new IOException(String.format("Unknown kind %d of classpath entry %s with content kind %d", entryKind, path, contentKind));
+            }
+        }
+
+        private ICommand readCommand() throws IOException {
+            ICommand command;
+            try {
+                command = this.project.getDescription().newCommand();
+            } catch (CoreException e) {
+                throw new IOException("Can't create build command for project " + this.project.getName(), e);
+            }
+            command.setBuilderName(readString());
+            int argumentCount = readVarInt(this.in);
+            Map<String, String> arguments = Maps.newHashMap();
+            for (int i = 0; i < argumentCount; i++) {
+                String key = readString();
+                arguments.put(key, readString());
+            }
+            command.setArguments(arguments);
+            return command;
+        }
+
+        private List<IPath> readPaths() throws IOException {
+            int size = readVarInt(this.in);
+            List<IPath> result = Lists.newArrayListWithCapacity(size);
+            for (int i = 0; i < size; i++) {
+                result.add(readPath());
+            }
+            return result;
+        }
+
+        private IPath readPath() throws IOException {
+            int kind = readVarInt(this.in);
+            switch (kind) {
+                case PATH_ABSENT:
+                    return null;
+                case PATH_ABSOLUTE:
+                    return Path.fromPortableString(string(readVarInt(this.in)));
+                case PATH_PROJECT_RELATIVE:
+                    return this.project.getFullPath().append(Path.fromPortableString(string(readVarInt(this.in))));
+                default:
+                    throw new IOException("Unknown path kind " + kind);
+            }
+        }
+
+        private List<String> readStrings() throws IOException {
+            int size = readVarInt(this.in);
+            List<String> result = Lists.newArrayListWithCapacity(size);
+            for (int i = 0; i < size; i++) {
+                result.add(readString());
+            }
+            return result;
+        }
+
+        private String readString() throws IOException {
+            int index = readVarInt(this.in);
+            return index == 0 ? null : string(index - 1);
+        }
+
+        private String string(int index) throws IOException {
+            if (index < 0 || index >= this.strings.length) {
+                throw new IOException("Invalid string index " + index);
+            }
+            return this.strings[index];
+        }
+    }
+
+    /**
+     * Decodes the classpath section when the classpath is first requested and releases the encoded
+     * content afterwards. If the section can't be decoded then an empty classpath is returned.
+     */
+    private static final class LazyClasspath implements Supplier<List<IClasspathEntry>> {
+
+        private final IProject project;
+        private String[] strings;
+        private byte[] encodedClasspath;
+        private List<IClasspathEntry> classpath;
+
+        private LazyClasspath(IProject project, String[] strings, byte[] encodedClasspath) {
+            this.project = project;
+            this.strings = strings;
+            this.encodedClasspath = encodedClasspath;
+        }
+
+        @Override
+        public synchronized List<IClasspathEntry> get() {
+            if (this.classpath == null) {
+                try {
+                    DataInputStream in = new DataInputStream(new ByteArrayInputStream(this.encodedClasspath));
+                    this.classpath = new Reader(this.project, this.strings, in).readClasspath();
+                } catch (IOException e) {
+                    CorePlugin.logger().warn("Can't read persisted classpath of project " + this.project.getName(), e);
+                    this.classpath = ImmutableList.of();
+                }
+                this.strings = null;
+                this.encodedClasspath = null;
+            }
+            return this.classpath;
+        }
+    }
+}
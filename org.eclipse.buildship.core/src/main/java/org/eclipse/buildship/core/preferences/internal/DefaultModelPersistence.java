@@ -8,26 +8,32 @@
 
 package org.eclipse.buildship.core.preferences.internal;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Reader;
-import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 import org.gradle.internal.UncheckedException;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
 
 import org.eclipse.core.resources.IProject;
@@ -37,6 +43,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.configuration.GradleProjectNature;
 import org.eclipse.buildship.core.event.Event;
 import org.eclipse.buildship.core.event.EventListener;
@@ -48,14 +55,31 @@ import org.eclipse.buildship.core.workspace.WorkbenchShutdownEvent;
 
 /**
  * Default implementation for {@link MutablePersistentModel}.
+ * <p/>
+ * The models of all projects are stored in a single {@link ModelStore} in the plugin state
+ * location, keyed by the project name. Models saved by earlier versions in separate files under
+ * {@code project-preferences} are moved to the store when they are first loaded.
+ * <p/>
+ * Saved models are marked dirty and written to the store in batches by a background job, at most
+ * {@link #FLUSH_DELAY_MILLIS} milliseconds after they were saved. This limits the models lost when
+ * Eclipse terminates abnormally, and only the models not yet written have to be persisted on
+ * shutdown.
  *
  * @author Donat Csikos
  */
 public final class DefaultModelPersistence implements ModelPersistence, EventListener {
 
+    public static final Object PREFETCH_JOB_FAMILY = new Object();
+    public static final long FLUSH_DELAY_MILLIS = 2000;
+
+    private final ModelStore store;
     private final LoadingCache<IProject, PersistentModel> modelCache;
+    private final Set<IProject> dirtyProjects = Sets.newLinkedHashSet();
+    private final Object storeLock = new Object();
+    private final FlushJob flushJob = new FlushJob();
 
-    private DefaultModelPersistence() {
+    DefaultModelPersistence(ModelStore store) {
+        this.store = store;
         this.modelCache = CacheBuilder.newBuilder().build(new CacheLoader<IProject, PersistentModel>() {
 
             @Override
@@ -73,12 +97,28 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
     @Override
     public void saveModel(PersistentModel model) {
         this.modelCache.put(model.getProject(), model);
+        synchronized (this.dirtyProjects) {
+            this.dirtyProjects.add(model.getProject());
+        }
+        // a pending flush is not postponed, so models are written at most FLUSH_DELAY_MILLIS after
+        // the first unsaved change; schedule() leaves a waiting or sleeping job untouched
+        this.flushJob.schedule(FLUSH_DELAY_MILLIS);
     }
 
     @Override
     public void deleteModel(IProject project) {
-        preferencesFile(project).delete();
-        this.modelCache.invalidate(project);
+        synchronized (this.storeLock) {
+            synchronized (this.dirtyProjects) {
+                this.dirtyProjects.remove(project);
+            }
+            try {
+                this.store.delete(project.getName());
+            } catch (IOException e) {
+                CorePlugin.logger().warn("Can't delete persistent model for project " + project.getName(), e);
+            }
+            preferencesFile(project).delete();
+            this.modelCache.invalidate(project);
+        }
     }
 
     @Override
@@ -97,18 +137,26 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
     }
 
     private void movePreferencesFile(ProjectMovedEvent event) throws IOException {
-        String previousName = event.getPreviousName();
-        for (IProject cached : this.modelCache.asMap().keySet()) {
-            if (cached.getName().equals(previousName)) {
-                PersistentModel model = this.modelCache.getUnchecked(cached);
-                this.modelCache.put(event.getProject(), model);
-                this.modelCache.invalidate(cached);
+        synchronized (this.storeLock) {
+            String previousName = event.getPreviousName();
+            for (IProject cached : this.modelCache.asMap().keySet()) {
+                if (cached.getName().equals(previousName)) {
+                    PersistentModel model = this.modelCache.getUnchecked(cached);
+                    this.modelCache.put(event.getProject(), model);
+                    this.modelCache.invalidate(cached);
+                    synchronized (this.dirtyProjects) {
+                        if (this.dirtyProjects.remove(cached)) {
+                            this.dirtyProjects.add(event.getProject());
+                        }
+                    }
+                }
             }
-        }
 
-        File preferencesFile = preferencesFile(event.getPreviousName());
-        if (preferencesFile.exists()) {
-            Files.move(preferencesFile, preferencesFile(event.getProject().getName()));
+            this.store.rename(previousName, event.getProject().getName());
+            File preferencesFile = preferencesFile(event.getPreviousName());
+            if (preferencesFile.exists()) {
+                Files.move(preferencesFile, preferencesFile(event.getProject().getName()));
+            }
         }
     }
 
@@ -116,31 +164,86 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
         deleteModel(event.getProject());
     }
 
-    private static PersistentModel doLoadModel(IProject project) throws IOException, FileNotFoundException {
+    private PersistentModel doLoadModel(IProject project) {
         String projectName = project.getName();
+        try {
+            Optional<byte[]> data = this.store.get(projectName);
+            if (data.isPresent()) {
+                return BinaryPersistentModelConverter.read(project, new ByteArrayInputStream(data.get()));
+            }
+        } catch (IOException e) {
+            CorePlugin.logger().warn("Can't load persistent model for project " + projectName, e);
+            return new AbsentPersistentModel(project);
+        }
+
         File preferencesFile = preferencesFile(projectName);
         if (preferencesFile.exists()) {
-            try (Reader reader = new InputStreamReader(new FileInputStream(preferencesFile(projectName)), Charsets.UTF_8)) {
+            PersistentModel model = loadLegacyModel(project, preferencesFile);
+            if (model.isPresent()) {
+                persistPrefs(project, model);
+            }
+            preferencesFile.delete();
+            return model;
+        } else {
+            return new AbsentPersistentModel(project);
+        }
+    }
+
+    private static PersistentModel loadLegacyModel(IProject project, File preferencesFile) {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(preferencesFile))) {
+            if (isBinaryFormat(input)) {
+                return BinaryPersistentModelConverter.read(project, input);
+            } else {
+                // models saved by earlier versions are stored as properties
                 Properties props = new Properties();
-                props.load(reader);
+                props.load(new InputStreamReader(input, Charsets.UTF_8));
                 return PersistentModelConverter.toModel(project, props);
             }
-        } else {
+        } catch (IOException e) {
+            CorePlugin.logger().warn("Can't load persistent model for project " + project.getName(), e);
             return new AbsentPersistentModel(project);
         }
     }
 
+    private static boolean isBinaryFormat(InputStream input) throws IOException {
+        byte[] header = new byte[BinaryPersistentModelConverter.HEADER_LENGTH];
+        input.mark(BinaryPersistentModelConverter.HEADER_LENGTH);
+        int length = ByteStreams.read(input, header, 0, BinaryPersistentModelConverter.HEADER_LENGTH);
+        input.reset();
+        return BinaryPersistentModelConverter.isBinaryFormat(Arrays.copyOf(header, length));
+    }
+
     private void persistAllProjectPrefs() {
-        Map<IProject, PersistentModel> modelCacheMap = this.modelCache.asMap();
-        for (Entry<IProject, PersistentModel> entry : modelCacheMap.entrySet()) {
-            PersistentModel model = entry.getValue();
-            if (model.isPresent()) {
-                persistPrefs(entry.getKey(), model);
+        synchronized (this.storeLock) {
+            List<IProject> projects;
+            synchronized (this.dirtyProjects) {
+                projects = ImmutableList.copyOf(this.dirtyProjects);
+                this.dirtyProjects.clear();
+            }
+
+            Map<String, byte[]> records = Maps.newLinkedHashMap();
+            for (IProject project : projects) {
+                PersistentModel model = this.modelCache.getIfPresent(project);
+                if (model != null && model.isPresent()) {
+                    try {
+                        ByteArrayOutputStream output = new ByteArrayOutputStream();
+                        BinaryPersistentModelConverter.write(model, output);
+                        records.put(project.getName(), output.toByteArray());
+                    } catch (IOException e) {
+                        CorePlugin.logger().warn("Can't save persistent model for project " + project.getName(), e);
+                    }
+                }
+            }
+
+            try {
+                this.store.putAll(records);
+            } catch (IOException e) {
+                CorePlugin.logger().warn("Can't save persistent models", e);
             }
         }
     }
 
-    private static void persistPrefs(IProject project, PersistentModel model) {
+    private void persistPrefs(IProject project, PersistentModel model) {
         try {
             persistPrefsChecked(project, model);
         } catch (IOException e) {
@@ -148,19 +251,10 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
         }
     }
 
-    private static void persistPrefsChecked(IProject project, PersistentModel model) throws IOException {
-        File preferencesFile = preferencesFile(project);
-
-        if (!preferencesFile.exists()) {
-            Files.createParentDirs(preferencesFile);
-            Files.touch(preferencesFile);
-        }
-
-        Properties props = PersistentModelConverter.toProperties(model);
-
-        try (Writer writer = new OutputStreamWriter(new FileOutputStream(preferencesFile), Charsets.UTF_8)) {
-            props.store(writer, "");
-        }
+    private void persistPrefsChecked(IProject project, PersistentModel model) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryPersistentModelConverter.write(model, output);
+        this.store.put(project.getName(), output.toByteArray());
     }
 
     private static File preferencesFile(IProject project) {
@@ -172,7 +266,13 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
     }
 
     public static DefaultModelPersistence createAndRegister() {
-        DefaultModelPersistence persistence = new DefaultModelPersistence();
+        ModelStore store;
+        try {
+            store = ModelStore.open(CorePlugin.getInstance().getStateLocation().append("project-models.bin").toFile());
+        } catch (IOException e) {
+            throw new GradlePluginsRuntimeException(e);
+        }
+        DefaultModelPersistence persistence = new DefaultModelPersistence(store);
         CorePlugin.listenerRegistry().addEventListener(persistence);
         persistence.prefetchCacheAsync();
         return persistence;
@@ -194,6 +294,11 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
                 }
                 return Status.OK_STATUS;
             }
+
+            @Override
+            public boolean belongsTo(Object family) {
+                return PREFETCH_JOB_FAMILY == family;
+            }
         };
         job.setSystem(true);
         job.schedule();
@@ -201,5 +306,29 @@ public final class DefaultModelPersistence implements ModelPersistence, EventLis
 
     public void close() {
         CorePlugin.listenerRegistry().removeEventListener(this);
+        this.flushJob.cancel();
+        persistAllProjectPrefs();
+        try {
+            this.store.close();
+        } catch (IOException e) {
+            CorePlugin.logger().warn("Can't close the persistent model store", e);
+        }
+    }
+
+    /**
+     * Writes the dirty models to the store.
+     */
+    private final class FlushJob extends Job {
+
+        private FlushJob() {
+            super("Save persistent model of Gradle projects");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            persistAllProjectPrefs();
+            return Status.OK_STATUS;
+        }
     }
 }
@@ -13,6 +13,8 @@ import java.util.List;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 
 import org.eclipse.core.resources.ICommand;
@@ -33,25 +35,45 @@ public final class DefaultPersistentModel implements PersistentModel {
     private final IPath buildDir;
     private final IPath buildScriptPath;
     private final Collection<IPath> subprojectPaths;
-    private final List<IClasspathEntry> classpath;
+    private final Supplier<List<IClasspathEntry>> classpath;
     private final Collection<IPath> derivedResources;
     private final Collection<IPath> linkedResources;
     private final List<String> managedNatures;
     private final List<ICommand> managedBuilders;
+    private final String fingerprint;
 
     public DefaultPersistentModel(IProject project, IPath buildDir, IPath buildScriptPath,
                                   Collection<IPath> subprojectPaths, List<IClasspathEntry> classpath,
                                   Collection<IPath> derivedResources, Collection<IPath> linkedResources,
                                   Collection<String> managedNatures, Collection<ICommand> managedBuilders) {
+        this(project, buildDir, buildScriptPath, subprojectPaths, classpath, derivedResources, linkedResources, managedNatures, managedBuilders, null);
+    }
+
+    public DefaultPersistentModel(IProject project, IPath buildDir, IPath buildScriptPath,
+                                  Collection<IPath> subprojectPaths, List<IClasspathEntry> classpath,
+                                  Collection<IPath> derivedResources, Collection<IPath> linkedResources,
+                                  Collection<String> managedNatures, Collection<ICommand> managedBuilders,
+                                  String fingerprint) {
+        this(Suppliers.<List<IClasspathEntry>>ofInstance(ImmutableList.copyOf(classpath)), project, buildDir, buildScriptPath, subprojectPaths, derivedResources, linkedResources, managedNatures, managedBuilders, fingerprint);
+    }
+
+    /**
+     * Creates a model whose classpath is only computed when it is first requested. The supplier
+     * is called at most once.
+     */
+    DefaultPersistentModel(Supplier<List<IClasspathEntry>> classpath, IProject project, IPath buildDir, IPath buildScriptPath,
+                           Collection<IPath> subprojectPaths, Collection<IPath> derivedResources, Collection<IPath> linkedResources,
+                           Collection<String> managedNatures, Collection<ICommand> managedBuilders, String fingerprint) {
         this.project = Preconditions.checkNotNull(project);
         this.buildDir = Preconditions.checkNotNull(buildDir);
         this.buildScriptPath = Preconditions.checkNotNull(buildScriptPath);
         this.subprojectPaths = ImmutableList.copyOf(subprojectPaths);
-        this.classpath = ImmutableList.copyOf(classpath);
+        this.classpath = Suppliers.memoize(Preconditions.checkNotNull(classpath));
         this.derivedResources = ImmutableList.copyOf(derivedResources);
         this.linkedResources = ImmutableList.copyOf(linkedResources);
         this.managedNatures = ImmutableList.copyOf(managedNatures);
         this.managedBuilders = ImmutableList.copyOf(managedBuilders);
+        this.fingerprint = fingerprint;
     }
 
     @Override
@@ -81,7 +103,7 @@ public final class DefaultPersistentModel implements PersistentModel {
 
     @Override
     public List<IClasspathEntry> getClasspath() {
-        return this.classpath;
+        return this.classpath.get();
     }
 
     @Override
@@ -104,6 +126,11 @@ public final class DefaultPersistentModel implements PersistentModel {
         return this.managedBuilders;
     }
 
+    @Override
+    public String getFingerprint() {
+        return this.fingerprint;
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (!(obj instanceof DefaultPersistentModel)) {
@@ -113,16 +140,17 @@ public final class DefaultPersistentModel implements PersistentModel {
         return Objects.equal(this.project, that.project)
                 && Objects.equal(this.buildDir, that.buildDir)
                 && Objects.equal(this.subprojectPaths, that.subprojectPaths)
-                && Objects.equal(this.classpath, that.classpath)
+                && Objects.equal(getClasspath(), that.getClasspath())
                 && Objects.equal(this.derivedResources, that.derivedResources)
                 && Objects.equal(this.linkedResources, that.linkedResources)
                 && Objects.equal(this.managedNatures, that.managedNatures)
-                && Objects.equal(this.managedBuilders, that.managedBuilders);
+                && Objects.equal(this.managedBuilders, that.managedBuilders)
+                && Objects.equal(this.fingerprint, that.fingerprint);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.project, this.buildDir, this.subprojectPaths, this.classpath, this.derivedResources, this.linkedResources, this.managedNatures, this.managedBuilders);
+        return Objects.hashCode(this.project, this.buildDir, this.subprojectPaths, getClasspath(), this.derivedResources, this.linkedResources, this.managedNatures, this.managedBuilders, this.fingerprint);
     }
 
 }
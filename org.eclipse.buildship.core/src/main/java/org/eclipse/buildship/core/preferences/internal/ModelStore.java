@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.preferences.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * Stores binary records by key in a single append-only file.
+ * <p/>
+ * Every update appends a record to the end of the file, deleting a key appends a tombstone. When
+ * the store is opened, the file is read once and an in-memory index of the latest record for each
+ * key is built. Records are checksummed; a record with a wrong checksum is skipped and treated as
+ * garbage, a partially written record at the end of the file, e.g. after a crash, is discarded.
+ * <p/>
+ * Since replaced and deleted records remain in the file, the store is compacted when the file is
+ * at least {@link #MIN_COMPACTION_SIZE} bytes large and more than half of it is garbage. Compaction
+ * writes the live records to a temporary file which then replaces the store file. The old file is
+ * kept as a backup until the new one is opened; if the compaction fails at any point, the backup is
+ * restored and the store keeps using it. After a failed compaction, the next attempt is postponed
+ * until the file doubled in size.
+ * <p/>
+ * This class is thread-safe.
+ */
+final class ModelStore {
+
+    static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+
+    private static final byte[] MAGIC = { 'B', 'S', 'M', 'S' };
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = MAGIC.length + 4;
+
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_DELETE = 2;
+
+    private final File file;
+    private final Map<String, Location> index = Maps.newHashMap();
+    private RandomAccessFile storage;
+    private long liveBytes;
+    private long compactionRetrySize;
+
+    private ModelStore(File file) {
+        this.file = file;
+    }
+
+    synchronized Set<String> getKeys() {
+        return ImmutableSet.copyOf(this.index.keySet());
+    }
+
+    synchronized Optional<byte[]> get(String key) throws IOException {
+        Location location = this.index.get(key);
+        return location == null ? Optional.<byte[]>absent() : Optional.of(read(location));
+    }
+
+    synchronized void put(String key, byte[] data) throws IOException {
+        append(RECORD_PUT, key, data);
+        compactIfNecessary();
+    }
+
+    /**
+     * Appends the records with a single write and forces them to the disk.
+     *
+     * @param records the data to store by key
+     * @throws IOException if the records can't be written
+     */
+    synchronized void putAll(Map<String, byte[]> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        List<Integer> recordLengths = Lists.newArrayListWithCapacity(records.size());
+        for (Map.Entry<String, byte[]> record : records.entrySet()) {
+            byte[] encoded = encodeRecord(RECORD_PUT, record.getKey(), record.getValue());
+            batch.write(encoded);
+            recordLengths.add(encoded.length);
+        }
+
+        long offset = this.storage.length();
+        this.storage.seek(offset);
+        this.storage.write(batch.toByteArray());
+        this.storage.getFD().sync();
+
+        int i = 0;
+        for (Map.Entry<String, byte[]> record : records.entrySet()) {
+            int recordLength = recordLengths.get(i++);
+            updateIndex(RECORD_PUT, record.getKey(), offset, recordLength, record.getValue().length);
+            offset += recordLength;
+        }
+        compactIfNecessary();
+    }
+
+    synchronized void delete(String key) throws IOException {
+        if (this.index.containsKey(key)) {
+            append(RECORD_DELETE, key, new byte[0]);
+            compactIfNecessary();
+        }
+    }
+
+    synchronized void rename(String oldKey, String newKey) throws IOException {
+        Optional<byte[]> data = get(oldKey);
+        if (data.isPresent()) {
+            append(RECORD_PUT, newKey, data.get());
+            append(RECORD_DELETE, oldKey, new byte[0]);
+            compactIfNecessary();
+        }
+    }
+
+    synchronized void close() throws IOException {
+        this.storage.close();
+    }
+
+    private byte[] read(Location location) throws IOException {
+        byte[] data = new byte[location.length];
+        this.storage.seek(location.dataOffset);
+        this.storage.readFully(data);
+        return data;
+    }
+
+    private void append(byte kind, String key, byte[] data) throws IOException {
+        byte[] record = encodeRecord(kind, key, data);
+        long offset = this.storage.length();
+        this.storage.seek(offset);
+        this.storage.write(record);
+        updateIndex(kind, key, offset, record.length, data.length);
+    }
+
+    private void updateIndex(byte kind, String key, long recordOffset, int recordLength, int dataLength) {
+        Location previous = this.index.remove(key);
+        if (previous != null) {
+            this.liveBytes -= previous.recordLength;
+        }
+        if (kind == RECORD_PUT) {
+            this.index.put(key, new Location(recordOffset + recordLength - 4 - dataLength, dataLength, recordLength));
+            this.liveBytes += recordLength;
+        }
+    }
+
+    private void compactIfNecessary() throws IOException {
+        long size = this.storage.length();
+        if (size >= Math.max(MIN_COMPACTION_SIZE, this.compactionRetrySize) && (size - HEADER_LENGTH) > 2 * this.liveBytes) {
+            try {
+                compact();
+                this.compactionRetrySize = 0;
+            } catch (IOException e) {
+                // the records are already stored; don't pay for another failing compaction with every update
+                this.compactionRetrySize = 2 * size;
+                CorePlugin.logger().warn("Can't compact model store " + this.file, e);
+            }
+        }
+    }
+
+    /**
+     * Rewrites the store file so that it only contains the latest record for each key.
+     *
+     * @throws IOException if the store can't be compacted
+     */
+    synchronized void compact() throws IOException {
+        File tempFile = new File(this.file.getPath() + ".tmp");
+        try {
+            try (FileOutputStream fileOutput = new FileOutputStream(tempFile)) {
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput));
+                writeHeader(output);
+                for (Map.Entry<String, Location> entry : this.index.entrySet()) {
+                    output.write(encodeRecord(RECORD_PUT, entry.getKey(), read(entry.getValue())));
+                }
+                output.flush();
+                // the store file is only replaced once the compacted content is on the disk
+                fileOutput.getFD().sync();
+            }
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        }
+
+        // some platforms can't replace an open file, so the store is closed while the files are
+        // swapped; if anything fails until the new file is opened, the old file is opened again
+        File backupFile = getBackupFile(this.file);
+        boolean backedUp = false;
+        this.storage.close();
+        try {
+            java.nio.file.Files.move(this.file.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            backedUp = true;
+            java.nio.file.Files.move(tempFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            open();
+        } catch (IOException e) {
+            tempFile.delete();
+            try {
+                if (backedUp) {
+                    restoreBackup(this.file);
+                }
+            } finally {
+                openOrRecreate();
+            }
+            throw e;
+        }
+        backupFile.delete();
+    }
+
+    private static File getBackupFile(File file) {
+        return new File(file.getPath() + ".bak");
+    }
+
+    /**
+     * Puts the backup of the store file back in place, if a compaction failed or was interrupted
+     * before the new file was opened.
+     */
+    private static void restoreBackup(File file) throws IOException {
+        File backupFile = getBackupFile(file);
+        if (backupFile.exists()) {
+            java.nio.file.Files.move(backupFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void openOrRecreate() throws IOException {
+        try {
+            open();
+        } catch (IOException e) {
+            CorePlugin.logger().warn("Can't read model store " + this.file + ", creating a new one", e);
+            this.file.delete();
+            open();
+        }
+    }
+
+    private void open() throws IOException {
+        this.index.clear();
+        this.liveBytes = 0;
+        if (!this.file.exists() || this.file.length() < HEADER_LENGTH) {
+            Files.createParentDirs(this.file);
+            try (DataOutputStream output = new DataOutputStream(new FileOutputStream(this.file))) {
+                writeHeader(output);
+            }
+        }
+        long validLength = readIndex();
+        this.storage = new RandomAccessFile(this.file, "rw");
+        if (validLength < this.storage.length()) {
+            CorePlugin.logger().warn(String.format("Discarding %d bytes of incomplete records from %s", this.storage.length() - validLength, this.file));
+            this.storage.setLength(validLength);
+        }
+    }
+
+    private long readIndex() throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+            byte[] magic = new byte[MAGIC.length];
+            input.readFully(magic);
+            int version = input.readInt();
+            if (!Arrays.equals(MAGIC, magic) || version != VERSION) {
+                throw new IOException(String.format("%s is not a model store of version %d", this.file, VERSION));
+            }
+
+            long position = HEADER_LENGTH;
+            long fileLength = this.file.length();
+            int corruptRecords = 0;
+            try {
+                while (true) {
+                    byte kind = input.readByte();
+                    byte[] key = readBytes(input, fileLength - position);
+                    byte[] data = readBytes(input, fileLength - position - key.length);
+                    int checksum = input.readInt();
+                    int recordLength = 1 + 4 + key.length + 4 + data.length + 4;
+                    if ((kind == RECORD_PUT || kind == RECORD_DELETE) && checksum == checksum(kind, key, data)) {
+                        updateIndex(kind, new String(key, Charsets.UTF_8), position, recordLength, data.length);
+                    } else {
+                        // the length fields are intact, so the following records can still be read;
+                        // the skipped bytes count as garbage and are dropped by the next compaction
+                        corruptRecords++;
+                    }
+                    position += recordLength;
+                }
+            } catch (EOFException e) {
+                // end of the file or an incomplete record
+            }
+            if (corruptRecords > 0) {
+                CorePlugin.logger().warn(String.format("Skipped %d corrupt records in %s", corruptRecords, this.file));
+            }
+            return position;
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream input, long maxLength) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > maxLength) {
+            // a corrupt length field, treated like the end of the file
+            throw new EOFException();
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeHeader(DataOutputStream output) throws IOException {
+        output.write(MAGIC);
+        output.writeInt(VERSION);
+    }
+
+    private static byte[] encodeRecord(byte kind, String key, byte[] data) throws IOException {
+        byte[] keyBytes = key.getBytes(Charsets.UTF_8);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 + 4 + keyBytes.length + 4 + data.length + 4);
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeByte(kind);
+        output.writeInt(keyBytes.length);
+        output.write(keyBytes);
+        output.writeInt(data.length);
+        output.write(data);
+        output.writeInt(checksum(kind, keyBytes, data));
+        return bytes.toByteArray();
+    }
+
+    private static int checksum(byte kind, byte[] key, byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(kind);
+        crc.update(key);
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Opens the store, creating the file if it doesn't exist yet. If the file is not a valid store
+     * then it is replaced with an empty one.
+     *
+     * @param file the store file
+     * @return the opened store
+     * @throws IOException if the store can't be opened
+     */
+    static ModelStore open(File file) throws IOException {
+        if (file.exists()) {
+            // a compaction was interrupted after the new file was in place
+            getBackupFile(file).delete();
+        } else {
+            restoreBackup(file);
+        }
+        ModelStore store = new ModelStore(file);
+        store.openOrRecreate();
+        store.compactIfNecessary();
+        return store;
+    }
+
+    /**
+     * The position of the latest record of a key.
+     */
+    private static final class Location {
+
+        private final long dataOffset;
+        private final int length;
+        private final int recordLength;
+
+        private Location(long dataOffset, int length, int recordLength) {
+            this.dataOffset = dataOffset;
+            this.length = length;
+            this.recordLength = recordLength;
+        }
+    }
+}
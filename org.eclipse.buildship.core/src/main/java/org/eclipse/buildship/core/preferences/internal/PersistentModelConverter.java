@@ -44,6 +44,7 @@ final class PersistentModelConverter {
     private static final String PROPERTY_LINKED_RESOURCES = "linkedResources";
     private static final String PROPERTY_MANAGED_NATURES = "managedNatures";
     private static final String PROPERTY_MANAGED_BUILDERS = "managedBuilders";
+    private static final String PROPERTY_FINGERPRINT = "fingerprint";
 
     public static Properties toProperties(final PersistentModel model) {
         Properties properties = new Properties();
@@ -103,6 +104,10 @@ final class PersistentModelConverter {
             }
         });
 
+        if (model.getFingerprint() != null) {
+            storeValue(properties, PROPERTY_FINGERPRINT, model.getFingerprint(), Functions.<String>identity());
+        }
+
         return properties;
     }
 
@@ -160,7 +165,9 @@ final class PersistentModelConverter {
                 return BuildCommandConverter.toEntries(project, commands);
             }
         });
-        return new DefaultPersistentModel(project, buildDir, buildScriptPath, subprojects, classpath, derivedResources, linkedResources, managedNatures, managedBuilders);
+
+        String fingerprint = loadValue(properties, PROPERTY_FINGERPRINT, null, Functions.<String>identity());
+        return new DefaultPersistentModel(project, buildDir, buildScriptPath, subprojects, classpath, derivedResources, linkedResources, managedNatures, managedBuilders, fingerprint);
     }
 
     private static <T> T loadValue(Properties properties, String key, T defaultValue, Function<String, T> conversion) {
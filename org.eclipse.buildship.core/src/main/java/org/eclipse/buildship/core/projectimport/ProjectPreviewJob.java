@@ -71,14 +71,15 @@ public final class ProjectPreviewJob extends ToolingApiWorkspaceJob {
     protected void runToolingApiJobInWorkspace(IProgressMonitor monitor) throws Exception {
         SubMonitor progress = SubMonitor.convert(monitor, 20);
         this.initializer.run(progress.newChild(10), getToken());
-        OmniBuildEnvironment buildEnvironment = fetchBuildEnvironment(progress.newChild(2));
         OmniGradleBuild gradleBuild = fetchGradleBuildStructure(progress.newChild(8));
+        // loaded along with the build structure
+        OmniBuildEnvironment buildEnvironment = fetchBuildEnvironment(progress.newChild(2));
         this.result = new Pair<OmniBuildEnvironment, OmniGradleBuild>(buildEnvironment, gradleBuild);
     }
 
     private OmniBuildEnvironment fetchBuildEnvironment(IProgressMonitor monitor) {
         ModelProvider modelProvider = CorePlugin.gradleWorkspaceManager().getGradleBuild(this.buildConfig).getModelProvider();
-        return modelProvider.fetchBuildEnvironment(FetchStrategy.FORCE_RELOAD, getToken(), monitor);
+        return modelProvider.fetchBuildEnvironment(FetchStrategy.LOAD_IF_NOT_CACHED, getToken(), monitor);
     }
 
     private OmniGradleBuild fetchGradleBuildStructure(IProgressMonitor monitor) {
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.util.progress;
+
+import com.google.common.base.Preconditions;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * A progress monitor which serializes all calls to the wrapped monitor, so that it can be used
+ * from several threads at once.
+ * <p/>
+ * Concurrent operations should each report to their own monitor created with
+ * {@link #newChild(int)}, since {@link org.eclipse.core.runtime.SubMonitor} and most other
+ * monitors are not thread-safe.
+ */
+public final class ThreadSafeProgressMonitor implements IProgressMonitor {
+
+    private final IProgressMonitor delegate;
+
+    public ThreadSafeProgressMonitor(IProgressMonitor delegate) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+    }
+
+    /**
+     * Creates a monitor which reports its progress as the given amount of work of this monitor.
+     * The child monitor itself must only be used by a single thread.
+     *
+     * @param ticks the work of this monitor to consume
+     * @return the child monitor
+     */
+    public IProgressMonitor newChild(int ticks) {
+        return new ChildMonitor(this, ticks);
+    }
+
+    @Override
+    public synchronized void beginTask(String name, int totalWork) {
+        this.delegate.beginTask(name, totalWork);
+    }
+
+    @Override
+    public synchronized void done() {
+        this.delegate.done();
+    }
+
+    @Override
+    public synchronized void internalWorked(double work) {
+        this.delegate.internalWorked(work);
+    }
+
+    @Override
+    public synchronized boolean isCanceled() {
+        return this.delegate.isCanceled();
+    }
+
+    @Override
+    public synchronized void setCanceled(boolean value) {
+        this.delegate.setCanceled(value);
+    }
+
+    @Override
+    public synchronized void setTaskName(String name) {
+        this.delegate.setTaskName(name);
+    }
+
+    @Override
+    public synchronized void subTask(String name) {
+        this.delegate.subTask(name);
+    }
+
+    @Override
+    public synchronized void worked(int work) {
+        this.delegate.worked(work);
+    }
+
+    /**
+     * Scales the work reported by a single operation to its share of the parent monitor. The task
+     * names are reported as sub tasks, so that concurrent operations don't replace the task name of
+     * the parent.
+     */
+    private static final class ChildMonitor implements IProgressMonitor {
+
+        private final ThreadSafeProgressMonitor parent;
+        private final int ticks;
+        private double scale;
+        private double reported;
+
+        private ChildMonitor(ThreadSafeProgressMonitor parent, int ticks) {
+            this.parent = parent;
+            this.ticks = ticks;
+        }
+
+        @Override
+        public void beginTask(String name, int totalWork) {
+            this.scale = totalWork > 0 ? (double) this.ticks / totalWork : 0;
+            if (name != null && !name.isEmpty()) {
+                this.parent.subTask(name);
+            }
+        }
+
+        @Override
+        public void done() {
+            report(this.ticks - this.reported);
+        }
+
+        @Override
+        public void internalWorked(double work) {
+            report(work * this.scale);
+        }
+
+        @Override
+        public void worked(int work) {
+            internalWorked(work);
+        }
+
+        private void report(double work) {
+            double remaining = this.ticks - this.reported;
+            double amount = Math.min(work, remaining);
+            if (amount > 0) {
+                this.reported += amount;
+                this.parent.internalWorked(amount);
+            }
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return this.parent.isCanceled();
+        }
+
+        @Override
+        public void setCanceled(boolean value) {
+            this.parent.setCanceled(value);
+        }
+
+        @Override
+        public void setTaskName(String name) {
+            this.parent.subTask(name);
+        }
+
+        @Override
+        public void subTask(String name) {
+            this.parent.subTask(name);
+        }
+    }
+}
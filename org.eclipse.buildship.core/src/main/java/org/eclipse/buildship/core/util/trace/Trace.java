@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.util.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Records timed, possibly nested spans of an operation.
+ * <p/>
+ * Spans are nested by time on the thread they were started on, so a span started while another one
+ * is open on the same thread appears as its child. The trace can be written in the
+ * <a href="https://github.com/catapult-project/catapult/wiki/Trace-Event-Format">Chrome trace event
+ * format</a>, which can be loaded in {@code chrome://tracing} or in similar tools.
+ * <p/>
+ * This class is thread-safe.
+ */
+public final class Trace {
+
+    private final String name;
+    private final long startNanos;
+    private final List<Span> spans = Lists.newArrayList();
+    private final Map<Long, String> threadNames = Maps.newLinkedHashMap();
+
+    public Trace(String name) {
+        this.name = Preconditions.checkNotNull(name);
+        this.startNanos = System.nanoTime();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Starts a new span on the current thread. The span must be closed on the same thread.
+     *
+     * @param category the category of the span, e.g. the phase of the operation
+     * @param name the name of the span
+     * @return the started span
+     */
+    public Span begin(String category, String name) {
+        Thread thread = Thread.currentThread();
+        Span span = new Span(this, category, name, thread.getId(), System.nanoTime());
+        synchronized (this) {
+            if (!this.threadNames.containsKey(thread.getId())) {
+                this.threadNames.put(thread.getId(), thread.getName());
+            }
+        }
+        return span;
+    }
+
+    private synchronized void add(Span span) {
+        this.spans.add(span);
+    }
+
+    /**
+     * Returns the closed spans in the order they were closed.
+     *
+     * @return the closed spans
+     */
+    public synchronized List<Span> getSpans() {
+        return ImmutableList.copyOf(this.spans);
+    }
+
+    /**
+     * Writes the closed spans in the Chrome trace event format.
+     *
+     * @param writer the target writer
+     * @throws IOException if the trace can't be written
+     */
+    public synchronized void writeTo(Writer writer) throws IOException {
+        writer.write("{\"traceEvents\":[");
+        boolean first = true;
+        for (Map.Entry<Long, String> thread : this.threadNames.entrySet()) {
+            first = writeSeparator(writer, first);
+            writer.write(String.format("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":%d,\"args\":{\"name\":%s}}", thread.getKey(), quote(thread.getValue())));
+        }
+        for (Span span : this.spans) {
+            first = writeSeparator(writer, first);
+            writer.write(String.format("{\"name\":%s,\"cat\":%s,\"ph\":\"X\",\"pid\":1,\"tid\":%d,\"ts\":%d,\"dur\":%d,\"args\":{",
+                    quote(span.name), quote(span.category), span.threadId, toMicros(span.startNanos - this.startNanos), toMicros(span.endNanos - span.startNanos)));
+            boolean firstArgument = true;
+            for (Map.Entry<String, String> argument : span.arguments.entrySet()) {
+                firstArgument = writeSeparator(writer, firstArgument);
+                writer.write(quote(argument.getKey()) + ":" + quote(argument.getValue()));
+            }
+            writer.write("}}");
+        }
+        writer.write(String.format("],\"displayTimeUnit\":\"ms\",\"otherData\":{\"name\":%s}}", quote(this.name)));
+        writer.flush();
+    }
+
+    private static boolean writeSeparator(Writer writer, boolean first) throws IOException {
+        if (!first) {
+            writer.write(',');
+        }
+        return false;
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static String quote(String value) {
+        StringBuilder result = new StringBuilder(value.length() + 2);
+        result.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /**
+     * A timed section of the traced operation. The span is recorded in the trace when it is closed.
+     */
+    public static final class Span implements AutoCloseable {
+
+        private final Trace trace;
+        private final String category;
+        private final String name;
+        private final long threadId;
+        private final long startNanos;
+        private final Map<String, String> arguments = Maps.newLinkedHashMap();
+        private long endNanos = -1;
+
+        private Span(Trace trace, String category, String name, long threadId, long startNanos) {
+            this.trace = trace;
+            this.category = Preconditions.checkNotNull(category);
+            this.name = Preconditions.checkNotNull(name);
+            this.threadId = threadId;
+            this.startNanos = startNanos;
+        }
+
+        public String getCategory() {
+            return this.category;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Attaches an argument to the span which is shown in the details of the span.
+         *
+         * @param key the name of the argument
+         * @param value the value of the argument
+         * @return this span
+         */
+        public Span argument(String key, Object value) {
+            this.arguments.put(key, String.valueOf(value));
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (this.endNanos < 0) {
+                this.endNanos = System.nanoTime();
+                this.trace.add(this);
+            }
+        }
+    }
+}
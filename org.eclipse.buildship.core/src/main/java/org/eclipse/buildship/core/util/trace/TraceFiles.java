@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.util.trace;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.io.Files;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * Stores {@link Trace} files in the plugin state location.
+ * <p/>
+ * Only the most recent {@link #MAX_TRACES} traces are kept, older ones are deleted when a new trace
+ * is saved.
+ */
+public final class TraceFiles {
+
+    public static final int MAX_TRACES = 10;
+
+    private static final String FILE_EXTENSION = ".json";
+
+    private TraceFiles() {
+    }
+
+    /**
+     * Writes the trace in the Chrome trace event format to a new file in the trace directory.
+     *
+     * @param trace the trace to save
+     * @return the written file or {@link Optional#absent()} if the trace can't be written
+     */
+    public static Optional<File> save(Trace trace) {
+        return save(trace, getTraceDirectory());
+    }
+
+    static Optional<File> save(Trace trace, File directory) {
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        File file = new File(directory, timestamp + "-" + trace.getName() + FILE_EXTENSION);
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            Files.createParentDirs(tempFile);
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), Charsets.UTF_8)) {
+                trace.writeTo(writer);
+            }
+            Files.move(tempFile, file);
+            deleteOldTraces(directory);
+            return Optional.of(file);
+        } catch (IOException e) {
+            CorePlugin.logger().warn("Can't write trace " + file, e);
+            tempFile.delete();
+            return Optional.absent();
+        }
+    }
+
+    /**
+     * Returns the most recently written trace file.
+     *
+     * @return the latest trace or {@link Optional#absent()} if no trace was written yet
+     */
+    public static Optional<File> findLatest() {
+        return findLatest(getTraceDirectory());
+    }
+
+    static Optional<File> findLatest(File directory) {
+        File[] traces = listTraces(directory);
+        return traces.length == 0 ? Optional.<File>absent() : Optional.of(traces[traces.length - 1]);
+    }
+
+    private static void deleteOldTraces(File directory) {
+        File[] traces = listTraces(directory);
+        for (int i = 0; i < traces.length - MAX_TRACES; i++) {
+            traces[i].delete();
+        }
+    }
+
+    private static File[] listTraces(File directory) {
+        File[] traces = directory.listFiles(new FileFilter() {
+
+            @Override
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().endsWith(FILE_EXTENSION);
+            }
+        });
+        if (traces == null) {
+            return new File[0];
+        }
+        // the file names start with the timestamp of the trace
+        Arrays.sort(traces, new Comparator<File>() {
+
+            @Override
+            public int compare(File first, File second) {
+                return first.getName().compareTo(second.getName());
+            }
+        });
+        return traces;
+    }
+
+    private static File getTraceDirectory() {
+        return CorePlugin.getInstance().getStateLocation().append("traces").toFile();
+    }
+}
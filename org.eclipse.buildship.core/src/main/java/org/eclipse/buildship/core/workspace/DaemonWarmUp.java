@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace;
+
+import org.eclipse.debug.core.ILaunchConfiguration;
+
+/**
+ * Starts Gradle daemons in the background before they are needed.
+ * <p/>
+ * The warm-up is opt-in; if it is disabled, the methods of this interface don't do anything.
+ */
+public interface DaemonWarmUp {
+
+    /**
+     * Asynchronously starts the daemons of all Gradle builds in the workspace.
+     */
+    void warmUpWorkspaceBuilds();
+
+    /**
+     * Asynchronously starts the daemon used by the target launch configuration.
+     *
+     * @param launchConfiguration the launch configuration, must not be null
+     */
+    void warmUp(ILaunchConfiguration launchConfiguration);
+
+    /**
+     * Returns whether the warm-up is enabled.
+     *
+     * @return {@code true} if the daemons are started in the background
+     */
+    boolean isEnabled();
+
+    /**
+     * Enables or disables the warm-up. Enabling the warm-up starts the daemons of the workspace
+     * builds, disabling it cancels the running warm-ups.
+     *
+     * @param enabled whether the daemons should be started in the background
+     */
+    void setEnabled(boolean enabled);
+}
@@ -11,10 +11,13 @@ package org.eclipse.buildship.core.workspace;
 import java.io.Writer;
 
 import org.gradle.tooling.BuildLauncher;
+import org.gradle.tooling.CancellationToken;
 import org.gradle.tooling.TestLauncher;
 
 import com.gradleware.tooling.toolingmodel.repository.TransientRequestAttributes;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+
 import org.eclipse.buildship.core.configuration.BuildConfiguration;
 import org.eclipse.buildship.core.configuration.RunConfiguration;
 //TODO this should eventually also contain the methods to launch tasks etc.
@@ -71,6 +74,20 @@ public interface GradleBuild {
      */
     void synchronize(NewProjectHandler newProjectHandler, AsyncHandler initializer);
 
+    /**
+     * Calculates the changes a synchronization would apply to the workspace, without applying
+     * them.
+     * <p/>
+     * The method blocks until the models are loaded and the changes are calculated. It doesn't
+     * acquire any scheduling rule and doesn't modify the workspace.
+     *
+     * @param newProjectHandler how to handle newly added projects
+     * @param token the cancellation token
+     * @param monitor the monitor to report progress on
+     * @return the human-readable report of the changes
+     */
+    String createSynchronizationReport(NewProjectHandler newProjectHandler, CancellationToken token, IProgressMonitor monitor);
+
     /**
      * Returns {@code true} if a synchronization job is already running for the same root project.
      *
@@ -86,8 +103,8 @@ public interface GradleBuild {
     ModelProvider getModelProvider();
 
     /**
-     * Creates a new Gradle build launcher. The method automatically opens a new Tooling API
-     * connection which is closed after the {@code run()} method is finished.
+     * Creates a new Gradle build launcher. The method automatically leases a pooled Tooling API
+     * connection which is handed back after the {@code run()} method is finished.
      *
      * @param runConfiguration the run configuration to configure the connection with
      * @param configWriter the writer to which the build launcher configuration should be printed
@@ -97,8 +114,8 @@ public interface GradleBuild {
     BuildLauncher newBuildLauncher(RunConfiguration runConfiguration, Writer configWriter, TransientRequestAttributes transientAttributes);
 
     /**
-     * Creates a new Gradle test launcher. The method automatically opens a new Tooling API
-     * connection which is closed after the {@code run()} method is finished.
+     * Creates a new Gradle test launcher. The method automatically leases a pooled Tooling API
+     * connection which is handed back after the {@code run()} method is finished.
      *
      * @param runConfiguration the run configuration to configure the connection with
      * @param configWriter the writer to which the build launcher configuration should be printed
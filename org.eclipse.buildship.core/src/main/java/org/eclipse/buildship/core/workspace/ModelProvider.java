@@ -8,11 +8,14 @@
  */
 package org.eclipse.buildship.core.workspace;
 
+import java.io.File;
 import java.util.Collection;
 import java.util.Set;
 
 import org.gradle.tooling.CancellationToken;
 
+import com.google.common.base.Optional;
+
 import com.gradleware.tooling.toolingmodel.OmniBuildEnvironment;
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
 import com.gradleware.tooling.toolingmodel.OmniGradleBuild;
@@ -78,4 +81,20 @@ public interface ModelProvider {
      * @return the returned model
      */
     Set<OmniEclipseProject> fetchEclipseGradleProjects(FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor);
-}
\ No newline at end of file
+
+    /**
+     * Synchronously queries the {@link OmniEclipseProject} models of the selected projects and of
+     * the projects depending on them, and merges them with the models previously loaded from this
+     * build.
+     * <p/>
+     * Only these projects are updated, so this is only applicable when the changes are confined to
+     * the build scripts of the selected projects.
+     *
+     * @param projectDirectories the directories of the projects to reload
+     * @param token the cancellation token
+     * @param monitor the monitor to report the progress on
+     * @return the models of all projects or {@link Optional#absent()} if the projects can't be
+     *         reloaded individually, e.g. because the build was not loaded before
+     */
+    Optional<Set<OmniEclipseProject>> fetchEclipseGradleProjects(Set<File> projectDirectories, CancellationToken token, IProgressMonitor monitor);
+}
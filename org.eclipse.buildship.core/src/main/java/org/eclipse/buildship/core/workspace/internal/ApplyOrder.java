@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+import java.util.SortedSet;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Orders the apply phases of synchronizations which target the same Gradle build.
+ * <p/>
+ * The synchronization jobs load their models concurrently, so their loads can finish in any order.
+ * To make sure that an older model is never applied after a newer one, a job registers the root
+ * directories of its builds when it is scheduled and receives a ticket. Before it applies a build,
+ * it waits until every job registered earlier for the same build has applied or released it.
+ * <p/>
+ * This class is thread-safe.
+ */
+final class ApplyOrder {
+
+    private static final long CANCELLATION_POLL_INTERVAL_MILLIS = 100;
+
+    private final Map<File, SortedSet<Long>> pendingTickets = Maps.newHashMap();
+    private long nextTicket;
+
+    /**
+     * Registers a synchronization of the given builds.
+     *
+     * @param rootDirs the root directories of the builds
+     * @return the ticket to pass to the other methods
+     */
+    synchronized long register(Collection<File> rootDirs) {
+        long ticket = this.nextTicket++;
+        for (File rootDir : rootDirs) {
+            SortedSet<Long> tickets = this.pendingTickets.get(rootDir);
+            if (tickets == null) {
+                tickets = Sets.newTreeSet();
+                this.pendingTickets.put(rootDir, tickets);
+            }
+            tickets.add(ticket);
+        }
+        return ticket;
+    }
+
+    /**
+     * Blocks until all synchronizations of the build registered before the given ticket are
+     * finished.
+     *
+     * @param rootDir the root directory of the build to apply
+     * @param ticket the ticket of the waiting synchronization
+     * @param monitor the monitor to check for cancellation
+     * @throws OperationCanceledException if the monitor is cancelled while waiting
+     */
+    synchronized void awaitTurn(File rootDir, long ticket, IProgressMonitor monitor) {
+        while (!isTurnOf(rootDir, ticket)) {
+            if (monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            try {
+                wait(CANCELLATION_POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OperationCanceledException();
+            }
+        }
+    }
+
+    private boolean isTurnOf(File rootDir, long ticket) {
+        SortedSet<Long> tickets = this.pendingTickets.get(rootDir);
+        return tickets == null || !tickets.contains(ticket) || tickets.first() == ticket;
+    }
+
+    /**
+     * Lets the synchronizations registered later apply the given builds.
+     *
+     * @param rootDirs the root directories of the builds
+     * @param ticket the ticket of the finished synchronization
+     */
+    synchronized void release(Collection<File> rootDirs, long ticket) {
+        for (File rootDir : rootDirs) {
+            SortedSet<Long> tickets = this.pendingTickets.get(rootDir);
+            if (tickets != null) {
+                tickets.remove(ticket);
+                if (tickets.isEmpty()) {
+                    this.pendingTickets.remove(rootDir);
+                }
+            }
+        }
+        notifyAll();
+    }
+}
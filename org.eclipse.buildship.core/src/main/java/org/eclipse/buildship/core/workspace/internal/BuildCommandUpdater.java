@@ -38,7 +38,13 @@ import org.eclipse.buildship.core.workspace.internal.ManagedModelMergingStrategy
 final class BuildCommandUpdater {
 
     public static void update(IProject project, Optional<List<OmniEclipseBuildCommand>> buildCommands, PersistentModelBuilder persistentModel, IProgressMonitor monitor) throws CoreException {
-        IProjectDescription description = project.getDescription();
+        ProjectDescriptionSession session = ProjectDescriptionSession.open(project);
+        update(session, buildCommands, persistentModel);
+        session.commit(monitor);
+    }
+
+    public static void update(ProjectDescriptionSession session, Optional<List<OmniEclipseBuildCommand>> buildCommands, PersistentModelBuilder persistentModel) {
+        IProjectDescription description = session.getDescription();
 
         Set<ICommand> current = ImmutableSet.copyOf(description.getBuildSpec());
         Set<ICommand> model = toCommands(buildCommands, description);
@@ -46,8 +52,7 @@ final class BuildCommandUpdater {
         Set<ICommand> managed = previousModel.isPresent() ? Sets.newLinkedHashSet(previousModel.getManagedBuilders()) : Sets.<ICommand>newLinkedHashSet();
 
         Result<ICommand> result = ManagedModelMergingStrategy.calculate(current, model, managed);
-        description.setBuildSpec(result.getNextElements().toArray(new ICommand[0]));
-        project.setDescription(description, monitor);
+        session.setBuildSpec(result.getNextElements().toArray(new ICommand[0]));
         persistentModel.managedBuilders(result.getNextManaged());
     }
 
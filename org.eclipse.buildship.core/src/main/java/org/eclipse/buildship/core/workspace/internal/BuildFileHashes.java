@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+import com.gradleware.tooling.toolingmodel.OmniGradleScript;
+import com.gradleware.tooling.toolingmodel.util.Maybe;
+
+import org.eclipse.core.runtime.IPath;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * Stores the content hashes of the files which define the configuration of the Gradle builds.
+ * <p/>
+ * The tracked files are the settings files, the {@code gradle.properties} file, the wrapper
+ * properties and the {@code buildSrc} sources of the root project, plus the build script of every
+ * project. The hashes are taken with {@link #snapshot(File)} before the models are fetched and they
+ * are only recorded after a successful synchronization, so that changes made while a
+ * synchronization is running are still detected afterwards. The hashes are persisted in the plugin
+ * state location. The automatic project synchronization compares against them to ignore changes
+ * which don't modify the content of these files, e.g. saving an unchanged file.
+ */
+public final class BuildFileHashes {
+
+    static final String BUILD_SRC = "buildSrc";
+    static final List<String> ROOT_PROJECT_FILES = ImmutableList.of("settings.gradle", "settings.gradle.kts", "gradle.properties", "gradle/wrapper/gradle-wrapper.properties");
+
+    static final Set<String> EXCLUDED_BUILD_SRC_FOLDERS = ImmutableSet.of("build", ".gradle");
+    private static final String ABSENT = "";
+    // marks build scripts which were not part of the snapshot; never equals a real hash
+    private static final String PENDING = "pending";
+
+    private final File storage;
+    private Properties hashes;
+
+    BuildFileHashes(File storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Calculates the current hashes of the configuration files of a Gradle build. The snapshot
+     * contains the root project files and all build scripts recorded for the build so far.
+     *
+     * @param rootProjectDirectory the root project directory of the build
+     * @return the snapshot to record after a successful synchronization
+     */
+    public Snapshot snapshot(File rootProjectDirectory) {
+        Set<File> files = Sets.newLinkedHashSet(rootProjectFiles(rootProjectDirectory));
+        String prefix = rootProjectDirectory.getAbsolutePath() + File.separator;
+        synchronized (this) {
+            for (String key : getHashes().stringPropertyNames()) {
+                if (key.startsWith(prefix)) {
+                    files.add(new File(key));
+                }
+            }
+        }
+
+        Map<String, String> result = Maps.newLinkedHashMap();
+        for (File file : files) {
+            result.put(file.getAbsolutePath(), hash(file));
+        }
+        return new Snapshot(result);
+    }
+
+    /**
+     * Records the hashes of a snapshot taken before the synchronization of a Gradle build.
+     * <p/>
+     * Build scripts of the given projects which are not part of the snapshot, e.g. the ones of
+     * newly added projects, are marked as changed. They become part of the next snapshot.
+     *
+     * @param snapshot the snapshot taken before the models of the build were fetched
+     * @param projects the synchronized projects of the build
+     */
+    public synchronized void record(Snapshot snapshot, Set<OmniEclipseProject> projects) {
+        boolean changed = false;
+        for (Map.Entry<String, String> entry : snapshot.hashes.entrySet()) {
+            changed |= updateHash(entry.getKey(), entry.getValue());
+        }
+        for (OmniEclipseProject project : projects) {
+            Maybe<OmniGradleScript> buildScript = project.getGradleProject().getBuildScript();
+            if (buildScript.isPresent() && buildScript.get() != null && buildScript.get().getSourceFile() != null) {
+                String key = buildScript.get().getSourceFile().getAbsolutePath();
+                if (!snapshot.hashes.containsKey(key)) {
+                    changed |= updateHash(key, PENDING);
+                }
+            }
+        }
+        if (changed) {
+            save();
+        }
+    }
+
+    /**
+     * Checks whether the content of a build file or of the {@code buildSrc} folder differs from
+     * the recorded hash. The recorded hashes are not modified.
+     *
+     * @param file the file or the {@code buildSrc} folder
+     * @return {@code true} if the content changed since the last recorded hash or if there was no
+     *         hash recorded for the file
+     */
+    public boolean hasChanged(File file) {
+        String previousHash;
+        synchronized (this) {
+            previousHash = getHashes().getProperty(file.getAbsolutePath());
+        }
+        return !Objects.equal(previousHash, hash(file));
+    }
+
+    private boolean updateHash(String key, String hash) {
+        String previousHash = getHashes().getProperty(key);
+        getHashes().setProperty(key, hash);
+        return !Objects.equal(previousHash, hash);
+    }
+
+    /**
+     * Returns {@code true} if the given path, relative to the root project, points to a file
+     * tracked for the root project.
+     *
+     * @param path the path relative to the root project directory
+     * @return whether the path is a tracked root project file
+     */
+    static boolean isRootProjectFile(IPath path) {
+        return ROOT_PROJECT_FILES.contains(path.toPortableString()) || isBuildSrcFile(path);
+    }
+
+    static boolean isBuildSrcFile(IPath path) {
+        return path.segmentCount() > 1 && BUILD_SRC.equals(path.segment(0)) && !EXCLUDED_BUILD_SRC_FOLDERS.contains(path.segment(1));
+    }
+
+    static List<File> rootProjectFiles(File rootProjectDirectory) {
+        List<File> result = Lists.newArrayList();
+        for (String path : ROOT_PROJECT_FILES) {
+            result.add(new File(rootProjectDirectory, path));
+        }
+        result.add(new File(rootProjectDirectory, BUILD_SRC));
+        return result;
+    }
+
+    private static String hash(File file) {
+        try {
+            if (file.isFile()) {
+                return Files.hash(file, Hashing.sha1()).toString();
+            } else if (file.isDirectory()) {
+                Hasher hasher = Hashing.sha1().newHasher();
+                hashDirectory(file, "", hasher, true);
+                return hasher.hash().toString();
+            } else {
+                return ABSENT;
+            }
+        } catch (IOException e) {
+            CorePlugin.logger().debug("Can't calculate hash of " + file, e);
+            return ABSENT;
+        }
+    }
+
+    private static void hashDirectory(File directory, String relativePath, Hasher hasher, boolean isBuildSrcRoot) throws IOException {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            String childPath = relativePath + "/" + child.getName();
+            if (child.isDirectory()) {
+                if (!(isBuildSrcRoot && EXCLUDED_BUILD_SRC_FOLDERS.contains(child.getName()))) {
+                    hashDirectory(child, childPath, hasher, false);
+                }
+            } else {
+                hasher.putString(childPath, Charsets.UTF_8);
+                hasher.putBytes(Files.hash(child, Hashing.sha1()).asBytes());
+            }
+        }
+    }
+
+    private Properties getHashes() {
+        if (this.hashes == null) {
+            this.hashes = new Properties();
+            if (this.storage.isFile()) {
+                try (InputStream input = new FileInputStream(this.storage)) {
+                    this.hashes.load(input);
+                } catch (IOException e) {
+                    CorePlugin.logger().warn("Can't load build file hashes from " + this.storage, e);
+                    this.hashes.clear();
+                }
+            }
+        }
+        return this.hashes;
+    }
+
+    private void save() {
+        File tempFile = new File(this.storage.getPath() + ".tmp");
+        try {
+            Files.createParentDirs(tempFile);
+            try (OutputStream output = new FileOutputStream(tempFile)) {
+                this.hashes.store(output, null);
+            }
+            Files.move(tempFile, this.storage);
+        } catch (IOException e) {
+            CorePlugin.logger().warn("Can't save build file hashes to " + this.storage, e);
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * The hashes of the configuration files of a Gradle build at a given point in time.
+     */
+    public static final class Snapshot {
+
+        private final Map<String, String> hashes;
+
+        private Snapshot(Map<String, String> hashes) {
+            this.hashes = ImmutableMap.copyOf(hashes);
+        }
+    }
+
+    public static BuildFileHashes create() {
+        return new BuildFileHashes(CorePlugin.getInstance().getStateLocation().append("build-file-hashes.properties").toFile());
+    }
+}
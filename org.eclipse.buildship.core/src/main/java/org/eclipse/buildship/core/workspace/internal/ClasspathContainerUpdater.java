@@ -16,7 +16,6 @@ import java.util.ListIterator;
 import java.util.Map;
 
 import com.google.common.base.Optional;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseClasspathContainer;
@@ -31,7 +30,6 @@ import org.eclipse.jdt.core.IClasspathAttribute;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.launching.IVMInstall;
 import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jdt.launching.environments.IExecutionEnvironment;
@@ -71,13 +69,7 @@ final class ClasspathContainerUpdater {
         this.sourceSettings = sourceSettings;
     }
 
-    private void updateContainers(IProgressMonitor monitor) throws CoreException {
-        List<IClasspathEntry> classpath = Lists.newArrayList(this.project.getRawClasspath());
-        updateContainers(classpath);
-        this.project.setRawClasspath(classpath.toArray(new IClasspathEntry[classpath.size()]), monitor);
-    }
-
-    private void updateContainers(List<IClasspathEntry> classpath) throws JavaModelException {
+    private void updateContainers(List<IClasspathEntry> classpath) {
         if (this.gradleSupportsContainers) {
             overWriteContainers(classpath);
         } else {
@@ -167,7 +159,13 @@ final class ClasspathContainerUpdater {
 
     public static void update(IJavaProject project, Optional<List<OmniEclipseClasspathContainer>> containers, OmniJavaSourceSettings omniJavaSourceSettings,
             IProgressMonitor monitor) throws CoreException {
-        new ClasspathContainerUpdater(project, containers, omniJavaSourceSettings).updateContainers(monitor);
+        RawClasspath classpath = RawClasspath.load(project);
+        update(classpath, containers, omniJavaSourceSettings);
+        classpath.save(monitor);
+    }
+
+    public static void update(RawClasspath classpath, Optional<List<OmniEclipseClasspathContainer>> containers, OmniJavaSourceSettings omniJavaSourceSettings) {
+        new ClasspathContainerUpdater(classpath.getProject(), containers, omniJavaSourceSettings).updateContainers(classpath.getEntries());
     }
 
 }
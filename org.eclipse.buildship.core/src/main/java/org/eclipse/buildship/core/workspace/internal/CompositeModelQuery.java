@@ -8,41 +8,168 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.gradle.tooling.BuildAction;
 import org.gradle.tooling.BuildController;
 import org.gradle.tooling.model.gradle.GradleBuild;
 
 /**
- * Build action to query a model for all participants in a composite.
- *
- * @param <T> The requested model type
- * @author Donat Csikos
+ * Build action to query a set of models for all participants in a composite in a single Gradle
+ * invocation.
+ * <p/>
+ * The result maps the name of each requested model type to the models of the root projects, one
+ * element per build in the order the builds are visited (root build first). The {@link GradleBuild}
+ * models are traversed to find the included builds, so they are always part of the result.
+ * <p/>
+ * If the build controller can run nested actions in parallel, the models of the individual builds
+ * are queried concurrently. Otherwise the builds are queried one after the other. The applied
+ * strategy is stored in the result under the {@link #STRATEGY_KEY} key. If the builds are queried
+ * one after the other even though there are several of them, the reason is stored under the
+ * {@link #SERIAL_REASON_KEY} key.
+ * <p/>
+ * Note that the parallel path is currently inactive: {@code BuildController.run(Collection)} and
+ * {@code BuildController.getCanQueryProjectModelInParallel(Class)} were added in Tooling API 4.8,
+ * and the controller of the Tooling API version Buildship is built against (4.3) doesn't have
+ * them. The methods are therefore looked up reflectively and the builds are always queried
+ * serially until the Tooling API is upgraded, at which point the reflection should be replaced by
+ * direct calls behind a Gradle version check.
+ * <p/>
+ * The action is executed in the Gradle process, so its implementation and its result can only
+ * reference JDK and Tooling API types.
  */
-public final class CompositeModelQuery<T> implements BuildAction<Collection<T>> {
+public final class CompositeModelQuery implements BuildAction<Map<String, List<Object>>> {
 
     private static final long serialVersionUID = 1L;
 
-    private final Class<T> modelType;
+    public static final String STRATEGY_KEY = "strategy";
+    public static final String STRATEGY_PARALLEL = "parallel";
+    public static final String STRATEGY_SERIAL = "serial";
+    public static final String SERIAL_REASON_KEY = "serialReason";
 
-    public CompositeModelQuery(Class<T> modelType) {
-        this.modelType = modelType;
+    private final List<Class<?>> modelTypes;
+
+    public CompositeModelQuery(Collection<Class<?>> modelTypes) {
+        this.modelTypes = new ArrayList<Class<?>>(modelTypes);
     }
 
     @Override
-    public Collection<T> execute(BuildController controller) {
-        Collection<T> models = new ArrayList<T>();
-        collectRootModels(controller, controller.getBuildModel(), models);
+    public Map<String, List<Object>> execute(BuildController controller) {
+        List<GradleBuild> builds = new ArrayList<GradleBuild>();
+        collectBuilds(controller.getBuildModel(), builds);
+
+        Map<String, List<Object>> models = new LinkedHashMap<String, List<Object>>();
+        models.put(GradleBuild.class.getName(), new ArrayList<Object>(builds));
+        for (Class<?> modelType : this.modelTypes) {
+            if (!models.containsKey(modelType.getName())) {
+                models.put(modelType.getName(), new ArrayList<Object>());
+            }
+        }
+
+        List<List<Object>> rootModels = builds.size() > 1 ? queryRootModelsInParallel(controller, builds, models) : null;
+        if (rootModels == null) {
+            rootModels = new ArrayList<List<Object>>();
+            for (GradleBuild build : builds) {
+                rootModels.add(queryRootModels(controller, build, this.modelTypes));
+            }
+            models.put(STRATEGY_KEY, Collections.<Object>singletonList(STRATEGY_SERIAL));
+        } else {
+            models.put(STRATEGY_KEY, Collections.<Object>singletonList(STRATEGY_PARALLEL));
+        }
+
+        for (List<Object> buildModels : rootModels) {
+            int index = 0;
+            for (Class<?> modelType : this.modelTypes) {
+                if (modelType != GradleBuild.class) {
+                    models.get(modelType.getName()).add(buildModels.get(index++));
+                }
+            }
+        }
         return models;
     }
 
-    private void collectRootModels(BuildController controller, GradleBuild build, Collection<T> models) {
-        models.add(controller.getModel(build.getRootProject(), this.modelType));
-
+    private static void collectBuilds(GradleBuild build, List<GradleBuild> result) {
+        result.add(build);
         for (GradleBuild includedBuild : build.getIncludedBuilds()) {
-            collectRootModels(controller, includedBuild, models);
+            collectBuilds(includedBuild, result);
+        }
+    }
+
+    private static List<Object> queryRootModels(BuildController controller, GradleBuild build, List<Class<?>> modelTypes) {
+        List<Object> result = new ArrayList<Object>();
+        for (Class<?> modelType : modelTypes) {
+            if (modelType != GradleBuild.class) {
+                result.add(controller.getModel(build.getRootProject(), modelType));
+            }
+        }
+        return result;
+    }
+
+    /*
+     * BuildController.run(Collection<BuildAction>) is only available in newer Tooling API versions,
+     * hence the reflective lookup. Returns null if the controller cannot execute the queries in
+     * parallel; the reason is then stored in the result, since this code runs in the Gradle process
+     * and cannot log to Eclipse.
+     */
+    @SuppressWarnings("unchecked")
+    private List<List<Object>> queryRootModelsInParallel(BuildController controller, List<GradleBuild> builds, Map<String, List<Object>> result) {
+        try {
+            Method canQueryInParallel = controller.getClass().getMethod("getCanQueryProjectModelInParallel", Class.class);
+            for (Class<?> modelType : this.modelTypes) {
+                if (modelType != GradleBuild.class && !Boolean.TRUE.equals(canQueryInParallel.invoke(controller, modelType))) {
+                    result.put(SERIAL_REASON_KEY, Collections.<Object>singletonList(modelType.getName() + " can't be queried in parallel"));
+                    return null;
+                }
+            }
+            Method run = controller.getClass().getMethod("run", Collection.class);
+            List<BuildAction<List<Object>>> actions = new ArrayList<BuildAction<List<Object>>>();
+            for (GradleBuild build : builds) {
+                actions.add(new RootModelsQuery(build, this.modelTypes));
+            }
+            return (List<List<Object>>) run.invoke(controller, actions);
+        } catch (NoSuchMethodException e) {
+            result.put(SERIAL_REASON_KEY, Collections.<Object>singletonList("build controller doesn't support nested actions: " + e.getMessage()));
+            return null;
+        } catch (IllegalAccessException e) {
+            result.put(SERIAL_REASON_KEY, Collections.<Object>singletonList("build controller doesn't support nested actions: " + e.getMessage()));
+            return null;
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+
+    /**
+     * Nested action querying the root project models of a single build.
+     */
+    private static final class RootModelsQuery implements BuildAction<List<Object>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient GradleBuild build;
+        private final List<Class<?>> modelTypes;
+
+        private RootModelsQuery(GradleBuild build, List<Class<?>> modelTypes) {
+            this.build = build;
+            this.modelTypes = modelTypes;
+        }
+
+        @Override
+        public List<Object> execute(BuildController controller) {
+            return queryRootModels(controller, this.build, this.modelTypes);
         }
     }
 }
@@ -8,6 +8,7 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.lang.reflect.InvocationHandler;
@@ -17,12 +18,13 @@ import java.lang.reflect.Proxy;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import org.gradle.tooling.BuildAction;
 import org.gradle.tooling.BuildActionExecuter;
 import org.gradle.tooling.BuildLauncher;
 import org.gradle.tooling.GradleConnectionException;
-import org.gradle.tooling.GradleConnector;
 import org.gradle.tooling.LongRunningOperation;
 import org.gradle.tooling.ModelBuilder;
 import org.gradle.tooling.ProgressListener;
@@ -30,6 +32,7 @@ import org.gradle.tooling.ProjectConnection;
 import org.gradle.tooling.ResultHandler;
 import org.gradle.tooling.TestLauncher;
 import org.gradle.tooling.model.build.BuildEnvironment;
+import org.gradle.tooling.model.eclipse.EclipseProject;
 
 import com.gradleware.tooling.toolingmodel.repository.TransientRequestAttributes;
 
@@ -39,10 +42,11 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.configuration.GradleArguments;
+import org.eclipse.buildship.core.workspace.internal.ProjectConnectionPool.PooledConnection;
 
 /**
- * Provides long-running TAPI operation instances that close their project connection after the execution is
- * finished.
+ * Provides long-running TAPI operation instances that hand back their project connection to the
+ * {@link ProjectConnectionPool} after the execution is finished.
  *
  * @author Donat Csikos
  */
@@ -50,50 +54,87 @@ import org.eclipse.buildship.core.configuration.GradleArguments;
 final class ConnectionAwareLauncherProxy implements InvocationHandler {
 
     private final LongRunningOperation launcher;
-    private final ProjectConnection connection;
+    private final PooledConnection connection;
     private static URLClassLoader ideFriendlyCustomActionClassLoader;
 
-    private ConnectionAwareLauncherProxy(ProjectConnection connection, LongRunningOperation target) {
+    private ConnectionAwareLauncherProxy(PooledConnection connection, LongRunningOperation target) {
         this.connection = connection;
         this.launcher = target;
     }
 
     static <T> ModelBuilder<T> newModelBuilder(Class<T> model, GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
-        ProjectConnection connection = openConnection(gradleArguments);
-        ModelBuilder<T> builder = connection.model(model);
-        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
-        applyConfiguration(builder, gradleArguments, buildEnvironment, transientAttributes);
-        return (ModelBuilder<T>) newProxyInstance(connection, builder);
+        PooledConnection pooledConnection = CorePlugin.connectionPool().acquire(gradleArguments);
+        try {
+            ProjectConnection connection = pooledConnection.getConnection();
+            ModelBuilder<T> builder = connection.model(model);
+            BuildEnvironment buildEnvironment = CorePlugin.connectionPool().getBuildEnvironment(pooledConnection, gradleArguments, transientAttributes);
+            applyConfiguration(builder, gradleArguments, buildEnvironment, transientAttributes);
+            return (ModelBuilder<T>) newProxyInstance(pooledConnection, builder);
+        } catch (RuntimeException e) {
+            CorePlugin.connectionPool().release(pooledConnection);
+            throw e;
+        }
     }
 
-    static <T> BuildActionExecuter<Collection<T>> newCompositeModelQueryExecuter(Class<T> model, GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
-        ProjectConnection connection = openConnection(gradleArguments);
-        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
-        BuildActionExecuter<Collection<T>> executer = connection.action(compositeModelQuery(model));
-        applyConfiguration(executer, gradleArguments, buildEnvironment, transientAttributes);
-        return (BuildActionExecuter<Collection<T>>) newProxyInstance(connection, executer);
+    static BuildActionExecuter<Map<String, List<Object>>> newCompositeModelQueryExecuter(Collection<Class<?>> models, GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
+        BuildAction<Map<String, List<Object>>> action = newBuildAction(CompositeModelQuery.class, models);
+        return newBuildActionExecuter(action, gradleArguments, transientAttributes);
+    }
+
+    static BuildActionExecuter<List<EclipseProject>> newProjectModelQueryExecuter(Collection<File> projectDirectories, GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
+        BuildAction<List<EclipseProject>> action = newBuildAction(ProjectModelQuery.class, projectDirectories);
+        return newBuildActionExecuter(action, gradleArguments, transientAttributes);
+    }
+
+    private static <T> BuildActionExecuter<T> newBuildActionExecuter(BuildAction<T> action, GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
+        PooledConnection pooledConnection = CorePlugin.connectionPool().acquire(gradleArguments);
+        try {
+            ProjectConnection connection = pooledConnection.getConnection();
+            BuildEnvironment buildEnvironment = CorePlugin.connectionPool().getBuildEnvironment(pooledConnection, gradleArguments, transientAttributes);
+            BuildActionExecuter<T> executer = connection.action(action);
+            applyConfiguration(executer, gradleArguments, buildEnvironment, transientAttributes);
+            return (BuildActionExecuter<T>) newProxyInstance(pooledConnection, executer);
+        } catch (RuntimeException e) {
+            CorePlugin.connectionPool().release(pooledConnection);
+            throw e;
+        }
     }
 
     static BuildLauncher newBuildLauncher(GradleArguments gradleArguments, Writer configWriter, TransientRequestAttributes transientAttributes) {
-        ProjectConnection connection = openConnection(gradleArguments);
-        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
-        BuildLauncher launcher = connection.newBuild();
-        applyConfiguration(launcher, gradleArguments, buildEnvironment, configWriter, transientAttributes);
-        return (BuildLauncher) newProxyInstance(connection, launcher);
+        PooledConnection pooledConnection = CorePlugin.connectionPool().acquire(gradleArguments);
+        try {
+            ProjectConnection connection = pooledConnection.getConnection();
+            BuildEnvironment buildEnvironment = CorePlugin.connectionPool().getBuildEnvironment(pooledConnection, gradleArguments, transientAttributes);
+            BuildLauncher launcher = connection.newBuild();
+            applyConfiguration(launcher, gradleArguments, buildEnvironment, configWriter, transientAttributes);
+            return (BuildLauncher) newProxyInstance(pooledConnection, launcher);
+        } catch (RuntimeException e) {
+            CorePlugin.connectionPool().release(pooledConnection);
+            throw e;
+        }
     }
 
     static TestLauncher newTestLauncher(GradleArguments gradleArguments, Writer configWriter, TransientRequestAttributes transientAttributes) {
-        ProjectConnection connection = openConnection(gradleArguments);
-        BuildEnvironment buildEnvironment = connection.getModel(BuildEnvironment.class);
-        TestLauncher launcher = connection.newTestLauncher();
-        applyConfiguration(launcher, gradleArguments, buildEnvironment, configWriter, transientAttributes);
-        return (TestLauncher) newProxyInstance(connection, launcher);
+        PooledConnection pooledConnection = CorePlugin.connectionPool().acquire(gradleArguments);
+        try {
+            ProjectConnection connection = pooledConnection.getConnection();
+            BuildEnvironment buildEnvironment = CorePlugin.connectionPool().getBuildEnvironment(pooledConnection, gradleArguments, transientAttributes);
+            TestLauncher launcher = connection.newTestLauncher();
+            applyConfiguration(launcher, gradleArguments, buildEnvironment, configWriter, transientAttributes);
+            return (TestLauncher) newProxyInstance(pooledConnection, launcher);
+        } catch (RuntimeException e) {
+            CorePlugin.connectionPool().release(pooledConnection);
+            throw e;
+        }
     }
 
-    private static ProjectConnection openConnection(GradleArguments gradleArguments) {
-        GradleConnector connector = GradleConnector.newConnector();
-        gradleArguments.applyTo(connector);
-        return connector.connect();
+    static BuildEnvironment getBuildEnvironment(GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
+        PooledConnection pooledConnection = CorePlugin.connectionPool().acquire(gradleArguments);
+        try {
+            return CorePlugin.connectionPool().getBuildEnvironment(pooledConnection, gradleArguments, transientAttributes);
+        } finally {
+            CorePlugin.connectionPool().release(pooledConnection);
+        }
     }
 
     private static void applyConfiguration(LongRunningOperation operation, GradleArguments gradleArguments, BuildEnvironment buildEnvironment,
@@ -109,7 +150,7 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
         applyTransientAttributes(operation, transientAttributes);
     }
 
-    private static void applyTransientAttributes(LongRunningOperation operation, TransientRequestAttributes transientAttributes) {
+    static void applyTransientAttributes(LongRunningOperation operation, TransientRequestAttributes transientAttributes) {
         operation.setStandardOutput(transientAttributes.getStandardOutput());
         operation.setStandardError(transientAttributes.getStandardError());
         operation.setStandardInput(transientAttributes.getStandardInput());
@@ -119,15 +160,22 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
         operation.withCancellationToken(transientAttributes.getCancellationToken());
     }
 
-    private static <T> BuildAction<Collection<T>> compositeModelQuery(Class<T> model) {
+    /*
+     * Instantiates a build action through its constructor accepting a single collection.
+     */
+    private static <T> BuildAction<T> newBuildAction(Class<? extends BuildAction<T>> actionClass, Collection<?> argument) {
         if (Platform.inDevelopmentMode()) {
-            return ideFriendlyCompositeModelQuery(model);
+            return ideFriendlyBuildAction(actionClass, argument);
         } else {
-            return new CompositeModelQuery<>(model);
+            try {
+                return actionClass.getConstructor(Collection.class).newInstance(argument);
+            } catch (Exception e) {
+                throw new GradlePluginsRuntimeException(e);
+            }
         }
     }
 
-    private static <T> BuildAction<Collection<T>> ideFriendlyCompositeModelQuery(Class<T> model) {
+    private static <T> BuildAction<T> ideFriendlyBuildAction(Class<? extends BuildAction<T>> actionClass, Collection<?> argument) {
         // When Buildship is launched from the IDE - as an Eclipse application or as a plugin-in
         // test - the URLs returned by the Equinox class loader is incorrect. This means, the
         // Tooling API is unable to find the referenced build actions and fails with a CNF
@@ -138,14 +186,14 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
             ClassLoader tapiClassloader = ProjectConnection.class.getClassLoader();
             URL actionRootUrl = FileLocator.resolve(coreClassloader.getResource(""));
             ideFriendlyCustomActionClassLoader = new URLClassLoader(new URL[] { actionRootUrl }, tapiClassloader);
-            Class<?> actionClass = ideFriendlyCustomActionClassLoader.loadClass(CompositeModelQuery.class.getName());
-            return (BuildAction<Collection<T>>) actionClass.getConstructor(Class.class).newInstance(model);
+            Class<?> ideFriendlyActionClass = ideFriendlyCustomActionClassLoader.loadClass(actionClass.getName());
+            return (BuildAction<T>) ideFriendlyActionClass.getConstructor(Collection.class).newInstance(argument);
         } catch (Exception e) {
             throw new GradlePluginsRuntimeException(e);
         }
     }
 
-    private static Object newProxyInstance(ProjectConnection connection, LongRunningOperation launcher) {
+    private static Object newProxyInstance(PooledConnection connection, LongRunningOperation launcher) {
         return Proxy.newProxyInstance(launcher.getClass().getClassLoader(),
                                       launcher.getClass().getInterfaces(),
                                       new ConnectionAwareLauncherProxy(connection, launcher));
@@ -204,7 +252,7 @@ final class ConnectionAwareLauncherProxy implements InvocationHandler {
     }
 
     private void closeConnection() {
-        this.connection.close();
+        CorePlugin.connectionPool().release(this.connection);
         if (ideFriendlyCustomActionClassLoader != null) {
             try {
                 ideFriendlyCustomActionClassLoader.close();
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.gradle.tooling.CancellationTokenSource;
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ProgressListener;
+import org.gradle.tooling.model.build.BuildEnvironment;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import com.gradleware.tooling.toolingmodel.repository.TransientRequestAttributes;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.debug.core.ILaunchConfiguration;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.GradlePluginsRuntimeException;
+import org.eclipse.buildship.core.configuration.GradleArguments;
+import org.eclipse.buildship.core.console.ProcessStreams;
+import org.eclipse.buildship.core.event.Event;
+import org.eclipse.buildship.core.event.EventListener;
+import org.eclipse.buildship.core.preferences.internal.DefaultModelPersistence;
+import org.eclipse.buildship.core.util.preference.EclipsePreferencesUtils;
+import org.eclipse.buildship.core.workspace.DaemonWarmUp;
+import org.eclipse.buildship.core.workspace.GradleBuild;
+import org.eclipse.buildship.core.workspace.WorkbenchShutdownEvent;
+
+/**
+ * Default implementation of {@link DaemonWarmUp}.
+ * <p/>
+ * The daemons are started by requesting the {@link BuildEnvironment} model, which is cheap to
+ * build but requires a daemon compatible with the build's configuration. The model is requested
+ * through the {@link ProjectConnectionPool}, so the operations executed later reuse it. A build is
+ * warmed up again once the daemon may have stopped after being idle for the Gradle daemon's default
+ * idle timeout, and the workspace builds are warmed up periodically with the same period. The
+ * warm-up is disabled by default and can be enabled on the Gradle preference page, which stores the
+ * {@value #ENABLED_PREFERENCE} preference. Running warm-ups are cancelled when the workbench shuts
+ * down.
+ */
+public final class DefaultDaemonWarmUp implements DaemonWarmUp, EventListener {
+
+    public static final String ENABLED_PREFERENCE = "daemon.warmup.enabled";
+
+    private static final Object JOB_FAMILY = DefaultDaemonWarmUp.class;
+    private static final long DAEMON_IDLE_TIMEOUT_MILLIS = TimeUnit.HOURS.toMillis(3);
+
+    private final ConcurrentMap<GradleArguments, Long> warmUpTimes = Maps.newConcurrentMap();
+    private final WarmUpJob workspaceWarmUpJob = new WarmUpJob(null);
+
+    private DefaultDaemonWarmUp() {
+    }
+
+    @Override
+    public void warmUpWorkspaceBuilds() {
+        if (isEnabled()) {
+            this.workspaceWarmUpJob.schedule();
+        }
+    }
+
+    @Override
+    public void warmUp(ILaunchConfiguration launchConfiguration) {
+        if (isEnabled()) {
+            try {
+                GradleArguments gradleArguments = CorePlugin.configurationManager().loadRunConfiguration(launchConfiguration).toGradleArguments();
+                if (!isWarm(gradleArguments)) {
+                    new WarmUpJob(ImmutableSet.of(gradleArguments)).schedule();
+                }
+            } catch (RuntimeException e) {
+                CorePlugin.logger().debug("Can't warm up Gradle daemon for " + launchConfiguration.getName(), e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return getPreferences().getBoolean(ENABLED_PREFERENCE, false);
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        if (enabled == isEnabled()) {
+            return;
+        }
+
+        IEclipsePreferences preferences = getPreferences();
+        preferences.putBoolean(ENABLED_PREFERENCE, enabled);
+        try {
+            preferences.flush();
+        } catch (Exception e) {
+            throw new GradlePluginsRuntimeException("Cannot store daemon warm-up preference", e);
+        }
+
+        if (enabled) {
+            warmUpWorkspaceBuilds();
+        } else {
+            cancelAll();
+        }
+    }
+
+    private static IEclipsePreferences getPreferences() {
+        return EclipsePreferencesUtils.getInstanceScope().getNode(CorePlugin.PLUGIN_ID);
+    }
+
+    private boolean isWarm(GradleArguments build) {
+        Long warmUpTime = this.warmUpTimes.get(build);
+        return warmUpTime != null && System.currentTimeMillis() - warmUpTime < DAEMON_IDLE_TIMEOUT_MILLIS;
+    }
+
+    /**
+     * Marks the build as warm, unless it was already warmed up since the daemon's idle timeout.
+     *
+     * @return {@code true} if the caller should warm up the build
+     */
+    private synchronized boolean claim(GradleArguments build) {
+        if (isWarm(build)) {
+            return false;
+        }
+        this.warmUpTimes.put(build, System.currentTimeMillis());
+        return true;
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        if (event instanceof WorkbenchShutdownEvent) {
+            cancelAll();
+        }
+    }
+
+    private void cancelAll() {
+        Job.getJobManager().cancel(JOB_FAMILY);
+    }
+
+    public static DefaultDaemonWarmUp createAndRegister() {
+        DefaultDaemonWarmUp warmUp = new DefaultDaemonWarmUp();
+        CorePlugin.listenerRegistry().addEventListener(warmUp);
+        warmUp.warmUpWorkspaceBuilds();
+        return warmUp;
+    }
+
+    public void close() {
+        CorePlugin.listenerRegistry().removeEventListener(this);
+        cancelAll();
+    }
+
+    /**
+     * Requests the build environment of the target builds, or of all workspace builds if no
+     * builds are specified. Builds which were warmed up within the daemon idle timeout are
+     * skipped. The warm-up of the workspace builds is repeated after the idle timeout as long as
+     * the warm-up is enabled.
+     */
+    private final class WarmUpJob extends Job {
+
+        private final Set<GradleArguments> builds;
+        private volatile CancellationTokenSource tokenSource = GradleConnector.newCancellationTokenSource();
+
+        private WarmUpJob(Set<GradleArguments> builds) {
+            super("Start Gradle daemons");
+            this.builds = builds;
+            setSystem(true);
+            setPriority(Job.DECORATE);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            // the workspace warm-up job is rescheduled, so every run needs its own token
+            this.tokenSource = GradleConnector.newCancellationTokenSource();
+            try {
+                Collection<GradleArguments> builds = this.builds != null ? this.builds : collectWorkspaceBuilds(monitor);
+                SubMonitor progress = SubMonitor.convert(monitor, builds.size());
+                for (GradleArguments build : builds) {
+                    if (progress.isCanceled()) {
+                        return Status.CANCEL_STATUS;
+                    }
+                    if (build.getRootDir().isDirectory() && claim(build)) {
+                        warmUp(build, progress.newChild(1));
+                    } else {
+                        progress.worked(1);
+                    }
+                }
+                if (this.builds == null && isEnabled()) {
+                    schedule(DAEMON_IDLE_TIMEOUT_MILLIS);
+                }
+                return Status.OK_STATUS;
+            } catch (OperationCanceledException e) {
+                return Status.CANCEL_STATUS;
+            }
+        }
+
+        private Collection<GradleArguments> collectWorkspaceBuilds(IProgressMonitor monitor) {
+            try {
+                // don't compete with loading the persistent models on startup
+                Job.getJobManager().join(DefaultModelPersistence.PREFETCH_JOB_FAMILY, monitor);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OperationCanceledException();
+            }
+
+            Set<GradleArguments> result = Sets.newLinkedHashSet();
+            for (GradleBuild build : CorePlugin.gradleWorkspaceManager().getGradleBuilds().getGradleBuilds()) {
+                result.add(build.getBuildConfig().toGradleArguments());
+            }
+            return result;
+        }
+
+        private void warmUp(GradleArguments build, IProgressMonitor monitor) {
+            try {
+                ConnectionAwareLauncherProxy.getBuildEnvironment(build, getTransientRequestAttributes());
+                DefaultDaemonWarmUp.this.warmUpTimes.put(build, System.currentTimeMillis());
+                CorePlugin.logger().debug("Gradle daemon started for " + build.getRootDir());
+            } catch (RuntimeException e) {
+                DefaultDaemonWarmUp.this.warmUpTimes.remove(build);
+                CorePlugin.logger().debug("Can't warm up Gradle daemon for " + build.getRootDir(), e);
+            } finally {
+                monitor.done();
+            }
+        }
+
+        private TransientRequestAttributes getTransientRequestAttributes() {
+            ProcessStreams streams = CorePlugin.processStreamsProvider().getBackgroundJobProcessStreams();
+            List<ProgressListener> noProgressListeners = ImmutableList.of();
+            List<org.gradle.tooling.events.ProgressListener> noEventListeners = ImmutableList.of();
+            return new TransientRequestAttributes(false, streams.getOutput(), streams.getError(), streams.getInput(), noProgressListeners, noEventListeners, this.tokenSource.token());
+        }
+
+        @Override
+        protected void canceling() {
+            this.tokenSource.cancel();
+        }
+
+        @Override
+        public boolean belongsTo(Object family) {
+            return JOB_FAMILY == family;
+        }
+    }
+}
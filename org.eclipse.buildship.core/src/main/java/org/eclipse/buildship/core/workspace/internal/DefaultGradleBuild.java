@@ -9,15 +9,21 @@
 package org.eclipse.buildship.core.workspace.internal;
 
 import java.io.Writer;
+import java.util.Set;
 
 import org.gradle.tooling.BuildLauncher;
+import org.gradle.tooling.CancellationToken;
 import org.gradle.tooling.TestLauncher;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+import com.gradleware.tooling.toolingmodel.repository.FetchStrategy;
 import com.gradleware.tooling.toolingmodel.repository.TransientRequestAttributes;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.buildship.core.CorePlugin;
@@ -58,6 +64,13 @@ public class DefaultGradleBuild implements GradleBuild {
         SynchronizeGradleBuildsJob.forSingleGradleBuild(this, newProjectHandler, initializer).schedule();
     }
 
+    @Override
+    public String createSynchronizationReport(NewProjectHandler newProjectHandler, CancellationToken token, IProgressMonitor monitor) {
+        SubMonitor progress = SubMonitor.convert(monitor, 2);
+        Set<OmniEclipseProject> allProjects = this.modelProvider.fetchEclipseGradleProjects(FetchStrategy.LOAD_IF_NOT_CACHED, token, progress.newChild(1));
+        return new SynchronizationPlanner(allProjects, allProjects, this.buildConfig, newProjectHandler).plan(progress.newChild(1)).toReport();
+    }
+
     @Override
     public boolean isSyncRunning() {
         Job[] syncJobs = Job.getJobManager().find(CorePlugin.GRADLE_JOB_FAMILY);
@@ -8,27 +8,31 @@
  */
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.io.File;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
 
 import org.gradle.tooling.BuildActionExecuter;
 import org.gradle.tooling.CancellationToken;
 import org.gradle.tooling.GradleConnector;
 import org.gradle.tooling.ModelBuilder;
 import org.gradle.tooling.ProgressListener;
+import org.gradle.tooling.model.UnsupportedMethodException;
 import org.gradle.tooling.model.build.BuildEnvironment;
 import org.gradle.tooling.model.eclipse.EclipseProject;
 import org.gradle.tooling.model.gradle.GradleBuild;
 import org.gradle.util.GradleVersion;
 
-import com.google.common.base.Supplier;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import com.gradleware.tooling.toolingmodel.OmniBuildEnvironment;
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
@@ -40,12 +44,14 @@ import com.gradleware.tooling.toolingmodel.repository.internal.DefaultOmniEclips
 import com.gradleware.tooling.toolingmodel.repository.internal.DefaultOmniGradleBuild;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 
 import org.eclipse.buildship.core.CorePlugin;
-import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.configuration.BuildConfiguration;
+import org.eclipse.buildship.core.configuration.GradleArguments;
 import org.eclipse.buildship.core.console.ProcessStreams;
 import org.eclipse.buildship.core.util.progress.DelegatingProgressListener;
+import org.eclipse.buildship.core.util.progress.ThreadSafeProgressMonitor;
 import org.eclipse.buildship.core.workspace.ModelProvider;
 
 /**
@@ -55,30 +61,83 @@ import org.eclipse.buildship.core.workspace.ModelProvider;
  */
 final class DefaultModelProvider implements ModelProvider {
 
+    /*
+     * The models needed by the synchronization and the task view. The composite query always
+     * loads all of them, so requesting any of them fills the cache for the others.
+     */
+    private static final List<Class<?>> COMPOSITE_MODELS = ImmutableList.<Class<?>>of(EclipseProject.class, GradleBuild.class);
+
     private final BuildConfiguration buildConfiguration;
-    private final Cache<Object, Object> cache = CacheBuilder.newBuilder().build();
+    private final ModelCache cache;
 
     public DefaultModelProvider(BuildConfiguration buildConfiguration) {
+        this(buildConfiguration, CorePlugin.modelCache());
+    }
+
+    DefaultModelProvider(BuildConfiguration buildConfiguration, ModelCache cache) {
         this.buildConfiguration = buildConfiguration;
+        this.cache = cache;
     }
 
     @Override
-    public <T> T fetchModel(Class<T> model, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
-        TransientRequestAttributes transientAttributes = getTransientRequestAttributes(token, monitor);
-        ModelBuilder<T> builder = ConnectionAwareLauncherProxy.newModelBuilder(model, this.buildConfiguration.toGradleArguments(), transientAttributes);
-        return executeModelBuilder(builder, strategy, model);
+    public <T> T fetchModel(final Class<T> model, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
+        if (COMPOSITE_MODELS.contains(model)) {
+            // served from the composite query, the first model belongs to the root build
+            Collection<T> models = fetchModels(model, strategy, token, monitor);
+            return models == null ? null : models.iterator().next();
+        }
+
+        final IProgressMonitor sharedMonitor = threadSafe(monitor);
+        if (model == BuildEnvironment.class && FetchStrategy.FORCE_RELOAD != strategy) {
+            // the connection pool already holds the build environment of the connection
+            T cached = getCached(CacheKey.forRootBuild(model), strategy);
+            if (cached != null || FetchStrategy.FROM_CACHE_ONLY == strategy) {
+                return cached;
+            }
+            BuildEnvironment buildEnvironment = ConnectionAwareLauncherProxy.getBuildEnvironment(getGradleArguments(), getTransientRequestAttributes(token, sharedMonitor));
+            this.cache.put(getGradleArguments(), CacheKey.forRootBuild(model), buildEnvironment);
+            return model.cast(buildEnvironment);
+        }
+
+        return executeOperation(new Function<CancellationToken, T>() {
+
+            @Override
+            public T apply(CancellationToken sharedToken) {
+                TransientRequestAttributes transientAttributes = getTransientRequestAttributes(sharedToken, sharedMonitor);
+                ModelBuilder<T> builder = ConnectionAwareLauncherProxy.newModelBuilder(model, getGradleArguments(), transientAttributes);
+                return builder.get();
+            }
+        }, strategy, CacheKey.forRootBuild(model), token);
     }
 
     @Override
-    public <T> Collection<T> fetchModels(Class<T> model, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
-        TransientRequestAttributes transientAttributes = getTransientRequestAttributes(token, monitor);
-        if (supportsCompositeBuilds(token, monitor)) {
-            final BuildActionExecuter<Collection<T>> executer = ConnectionAwareLauncherProxy
-                    .newCompositeModelQueryExecuter(model, DefaultModelProvider.this.buildConfiguration.toGradleArguments(), transientAttributes);
-            return executeBuildActionExecuter(executer, strategy, model);
+    public <T> Collection<T> fetchModels(final Class<T> model, FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
+        if (FetchStrategy.FORCE_RELOAD != strategy) {
+            // serve cached and stored models without checking the Gradle version of the build
+            Collection<T> cached = getCached(CacheKey.forAllBuilds(model), strategy);
+            if (cached != null || FetchStrategy.FROM_CACHE_ONLY == strategy) {
+                return cached;
+            }
+        }
+
+        final IProgressMonitor sharedMonitor = threadSafe(monitor);
+        final BuildEnvironment buildEnvironment = ConnectionAwareLauncherProxy.getBuildEnvironment(getGradleArguments(), getTransientRequestAttributes(token, sharedMonitor));
+        if (supportsCompositeBuilds(buildEnvironment)) {
+            if (FetchStrategy.FORCE_RELOAD == strategy) {
+                invalidateCached(CacheKey.forAllBuilds(model));
+            }
+            Map<String, List<Object>> models = loadCompositeModels(model, buildEnvironment, strategy, token, sharedMonitor);
+            return getModels(models, model);
         } else {
-            ModelBuilder<T> builder = ConnectionAwareLauncherProxy.newModelBuilder(model, this.buildConfiguration.toGradleArguments(), transientAttributes);
-            return ImmutableList.of(executeModelBuilder(builder, strategy, model));
+            return executeOperation(new Function<CancellationToken, Collection<T>>() {
+
+                @Override
+                public Collection<T> apply(CancellationToken sharedToken) {
+                    TransientRequestAttributes transientAttributes = getTransientRequestAttributes(sharedToken, sharedMonitor);
+                    ModelBuilder<T> builder = ConnectionAwareLauncherProxy.newModelBuilder(model, getGradleArguments(), transientAttributes);
+                    return ImmutableList.<T>of(builder.get());
+                }
+            }, strategy, CacheKey.forAllBuilds(model), token);
         }
     }
 
@@ -96,7 +155,84 @@ final class DefaultModelProvider implements ModelProvider {
 
     @Override
     public Set<OmniEclipseProject> fetchEclipseGradleProjects(FetchStrategy strategy, CancellationToken token, IProgressMonitor monitor) {
+        CacheKey mergedProjectsKey = CacheKey.forAllBuilds(OmniEclipseProject.class);
+        if (FetchStrategy.FORCE_RELOAD == strategy) {
+            this.cache.invalidate(getGradleArguments(), mergedProjectsKey);
+        } else {
+            @SuppressWarnings("unchecked")
+            Set<OmniEclipseProject> mergedProjects = (Set<OmniEclipseProject>) this.cache.get(getGradleArguments(), mergedProjectsKey);
+            if (mergedProjects != null) {
+                return mergedProjects;
+            }
+        }
+
         Collection<EclipseProject> models = fetchModels(EclipseProject.class, strategy, token, monitor);
+        return models == null ? null : toOmniEclipseProjects(models);
+    }
+
+    @Override
+    public Optional<Set<OmniEclipseProject>> fetchEclipseGradleProjects(Set<File> projectDirectories, CancellationToken token, IProgressMonitor monitor) {
+        // the projects are about to be loaded, so the stored snapshot can be used as well
+        final Set<OmniEclipseProject> previousProjects = getCachedEclipseGradleProjects();
+        if (previousProjects == null) {
+            return Optional.absent();
+        }
+
+        final IProgressMonitor sharedMonitor = threadSafe(monitor);
+        BuildEnvironment buildEnvironment = ConnectionAwareLauncherProxy.getBuildEnvironment(getGradleArguments(), getTransientRequestAttributes(token, sharedMonitor));
+        if (!supportsCompositeBuilds(buildEnvironment)) {
+            return Optional.absent();
+        }
+
+        final Set<File> reloadedDirectories = DependentProjects.withDependents(previousProjects, projectDirectories);
+        // the projects are reloaded because they changed, so a running load of them might be outdated
+        return this.cache.reload(getGradleArguments(), CacheKey.forProjects(reloadedDirectories), token, new Function<CancellationToken, Optional<Set<OmniEclipseProject>>>() {
+
+            @Override
+            public Optional<Set<OmniEclipseProject>> apply(CancellationToken sharedToken) {
+                return reloadProjects(previousProjects, reloadedDirectories, getTransientRequestAttributes(sharedToken, sharedMonitor));
+            }
+        });
+    }
+
+    private Set<OmniEclipseProject> getCachedEclipseGradleProjects() {
+        @SuppressWarnings("unchecked")
+        Set<OmniEclipseProject> mergedProjects = (Set<OmniEclipseProject>) this.cache.get(getGradleArguments(), CacheKey.forAllBuilds(OmniEclipseProject.class));
+        if (mergedProjects != null) {
+            return mergedProjects;
+        }
+        Collection<EclipseProject> models = getCached(CacheKey.forAllBuilds(EclipseProject.class), FetchStrategy.LOAD_IF_NOT_CACHED);
+        return models == null ? null : toOmniEclipseProjects(models);
+    }
+
+    private Optional<Set<OmniEclipseProject>> reloadProjects(Set<OmniEclipseProject> previousProjects, Set<File> projectDirectories, TransientRequestAttributes transientAttributes) {
+        BuildActionExecuter<List<EclipseProject>> executer = ConnectionAwareLauncherProxy.newProjectModelQueryExecuter(projectDirectories,
+                getGradleArguments(), transientAttributes);
+        List<EclipseProject> models = executer.run();
+        if (models.size() != projectDirectories.size()) {
+            // some of the projects are no longer part of the build
+            return Optional.absent();
+        }
+
+        Map<File, OmniEclipseProject> mergedProjects = Maps.newLinkedHashMap();
+        for (OmniEclipseProject project : previousProjects) {
+            mergedProjects.put(project.getProjectDirectory(), project);
+        }
+        for (OmniEclipseProject project : toOmniEclipseProjects(models)) {
+            mergedProjects.put(project.getProjectDirectory(), project);
+        }
+        Set<OmniEclipseProject> result = ImmutableSet.copyOf(mergedProjects.values());
+        this.cache.put(getGradleArguments(), CacheKey.forAllBuilds(OmniEclipseProject.class), result);
+
+        // the reloaded projects can't be merged into the project hierarchies, so these are
+        // discarded and a restarted Eclipse loads the whole build again
+        CacheKey hierarchiesKey = CacheKey.forAllBuilds(EclipseProject.class);
+        this.cache.invalidate(getGradleArguments(), hierarchiesKey);
+        this.cache.getSnapshotStore().discard(getGradleArguments(), hierarchiesKey.getSnapshotName());
+        return Optional.of(result);
+    }
+
+    private static Set<OmniEclipseProject> toOmniEclipseProjects(Collection<EclipseProject> models) {
         ImmutableSet.Builder<OmniEclipseProject> result = ImmutableSet.builder();
         for (EclipseProject model : models) {
             result.addAll(DefaultOmniEclipseProject.from(model).getAll());
@@ -104,69 +240,216 @@ final class DefaultModelProvider implements ModelProvider {
         return result.build();
     }
 
-    private <T> T executeBuildActionExecuter(final BuildActionExecuter<T> executer, FetchStrategy fetchStrategy, Class<?> cacheKey) {
-        return executeOperation(new Supplier<T>() {
+    /*
+     * Loads the models of the composite query. Concurrent requests for any of the models needed
+     * by the synchronization and the task view share a single Gradle invocation.
+     */
+    private Map<String, List<Object>> loadCompositeModels(Class<?> model, final BuildEnvironment buildEnvironment, FetchStrategy strategy, CancellationToken token,
+                                                          final IProgressMonitor sharedMonitor) {
+        final List<Class<?>> modelTypes;
+        CacheKey queryKey;
+        if (COMPOSITE_MODELS.contains(model)) {
+            modelTypes = COMPOSITE_MODELS;
+            queryKey = CacheKey.forAllBuilds(CompositeModelQuery.class);
+        } else {
+            modelTypes = ImmutableList.<Class<?>>builder().addAll(COMPOSITE_MODELS).add(model).build();
+            queryKey = CacheKey.forAllBuilds(model);
+        }
+
+        Function<CancellationToken, Map<String, List<Object>>> load = new Function<CancellationToken, Map<String, List<Object>>>() {
 
             @Override
-            public T get() {
-                return executer.run();
+            public Map<String, List<Object>> apply(CancellationToken sharedToken) {
+                return executeCompositeModelQuery(modelTypes, buildEnvironment, getTransientRequestAttributes(sharedToken, sharedMonitor));
             }
-        }, fetchStrategy, cacheKey);
+        };
+        if (FetchStrategy.FORCE_RELOAD == strategy) {
+            return this.cache.reload(getGradleArguments(), queryKey, token, load);
+        } else {
+            return this.cache.load(getGradleArguments(), queryKey, token, load);
+        }
     }
 
-    private <T> T executeModelBuilder(final ModelBuilder<T> builder, FetchStrategy fetchStrategy, Class<?> cacheKey) {
-        return executeOperation(new Supplier<T>() {
+    /*
+     * Loads the requested models of all builds in one Gradle invocation and puts all of them into
+     * the cache, both for the root build and for all builds.
+     */
+    private Map<String, List<Object>> executeCompositeModelQuery(List<Class<?>> modelTypes, BuildEnvironment buildEnvironment, TransientRequestAttributes transientAttributes) {
+        BuildActionExecuter<Map<String, List<Object>>> executer = ConnectionAwareLauncherProxy.newCompositeModelQueryExecuter(modelTypes,
+                getGradleArguments(), transientAttributes);
+        Map<String, List<Object>> result = executer.run();
+        CorePlugin.logger().debug(String.format("Composite models of %s queried with %s strategy", this.buildConfiguration.getRootProjectDirectory(),
+                result.get(CompositeModelQuery.STRATEGY_KEY).get(0)));
+        List<Object> serialReason = result.get(CompositeModelQuery.SERIAL_REASON_KEY);
+        if (serialReason != null) {
+            CorePlugin.logger().debug("Included builds queried serially, " + serialReason.get(0));
+        }
 
-            @Override
-            public T get() {
-                return builder.get();
-            }
-        }, fetchStrategy, cacheKey);
+        putInCache(CacheKey.forRootBuild(BuildEnvironment.class), buildEnvironment);
+        for (Class<?> modelType : modelTypes) {
+            List<?> models = getModels(result, modelType);
+            putInCache(CacheKey.forAllBuilds(modelType), models);
+            putInCache(CacheKey.forRootBuild(modelType), models.get(0));
+        }
+        return result;
     }
 
-    private <T> T executeOperation(final Supplier<T> operation, FetchStrategy fetchStrategy, Class<?> cacheKey) {
-        if (FetchStrategy.FROM_CACHE_ONLY == fetchStrategy) {
-            @SuppressWarnings("unchecked")
-            T result = (T) this.cache.getIfPresent(cacheKey);
-            return result;
+    private static <T> List<T> getModels(Map<String, List<Object>> result, Class<T> model) {
+        ImmutableList.Builder<T> models = ImmutableList.builder();
+        for (Object element : result.get(model.getName())) {
+            models.add(model.cast(element));
         }
+        return models.build();
+    }
 
+    /*
+     * Concurrent requests loading the same model share a single Gradle invocation. A forced reload
+     * never joins a running invocation, since that might have been started before the build
+     * changed; it supersedes it instead. The loaded model is put into the cache by the invocation
+     * itself.
+     */
+    private <T> T executeOperation(final Function<CancellationToken, T> operation, FetchStrategy fetchStrategy, final CacheKey cacheKey, CancellationToken token) {
         if (FetchStrategy.FORCE_RELOAD == fetchStrategy) {
-            this.cache.invalidate(cacheKey);
+            invalidateCached(cacheKey);
+        } else {
+            T result = getCached(cacheKey, fetchStrategy);
+            if (result != null || FetchStrategy.FROM_CACHE_ONLY == fetchStrategy) {
+                return result;
+            }
         }
 
-        T value = getFromCache(cacheKey, new Callable<T>() {
+        Function<CancellationToken, T> load = new Function<CancellationToken, T>() {
 
             @Override
-            public T call() {
-                T model = operation.get();
+            public T apply(CancellationToken sharedToken) {
+                T model = operation.apply(sharedToken);
+                putInCache(cacheKey, model);
                 return model;
             }
-        });
+        };
+        if (FetchStrategy.FORCE_RELOAD == fetchStrategy) {
+            return this.cache.reload(getGradleArguments(), cacheKey, token, load);
+        } else {
+            return this.cache.load(getGradleArguments(), cacheKey, token, load);
+        }
+    }
+
+    /*
+     * Returns the model from the cache. The stored snapshot is only read if the model is going to
+     * be loaded anyway, so requests served from the cache only never access the disk.
+     */
+    private <T> T getCached(CacheKey cacheKey, FetchStrategy fetchStrategy) {
+        @SuppressWarnings("unchecked")
+        T result = (T) this.cache.get(getGradleArguments(), cacheKey);
+        if (result == null && FetchStrategy.LOAD_IF_NOT_CACHED == fetchStrategy) {
+            Optional<T> snapshot = loadSnapshot(cacheKey);
+            if (snapshot.isPresent()) {
+                result = snapshot.get();
+                putCached(cacheKey, result);
+            }
+        }
+        return result;
+    }
+
+    /*
+     * The projects merged by a partial reload are derived from the project hierarchies of all
+     * builds, so they become outdated whenever the hierarchies are replaced or invalidated.
+     */
+    private void putCached(CacheKey cacheKey, Object model) {
+        this.cache.put(getGradleArguments(), cacheKey, model);
+        invalidateMergedProjects(cacheKey);
+    }
+
+    private void invalidateCached(CacheKey cacheKey) {
+        this.cache.invalidate(getGradleArguments(), cacheKey);
+        invalidateMergedProjects(cacheKey);
+    }
+
+    private void invalidateMergedProjects(CacheKey cacheKey) {
+        if (cacheKey.equals(CacheKey.forAllBuilds(EclipseProject.class))) {
+            this.cache.invalidate(getGradleArguments(), CacheKey.forAllBuilds(OmniEclipseProject.class));
+        }
+    }
+
+    private GradleArguments getGradleArguments() {
+        return this.buildConfiguration.toGradleArguments();
+    }
+
+    private void putInCache(CacheKey cacheKey, Object model) {
+        putCached(cacheKey, model);
+        storeSnapshot(cacheKey, model);
+    }
+
+    private <T> Optional<T> loadSnapshot(CacheKey cacheKey) {
+        if (!cacheKey.isPersistent()) {
+            return Optional.absent();
+        }
+        @SuppressWarnings("unchecked")
+        Optional<T> snapshot = (Optional<T>) this.cache.getSnapshotStore().load(getGradleArguments(), cacheKey.getSnapshotName());
+        return snapshot;
+    }
+
+    private void storeSnapshot(CacheKey cacheKey, Object model) {
+        if (cacheKey.isPersistent()) {
+            this.cache.getSnapshotStore().store(getGradleArguments(), cacheKey.getSnapshotName(), model, cacheKey.model, collectBuildFiles(model));
+        }
+    }
 
-        return value;
+    /*
+     * Returns the files which define the structure and the configuration of the builds the model
+     * was loaded from: the settings, properties and wrapper files and the buildSrc folder of every
+     * build, plus the build scripts of the projects as reported by Gradle.
+     */
+    private Collection<File> collectBuildFiles(Object model) {
+        Set<File> buildDirs = Sets.newLinkedHashSet();
+        Set<File> buildScripts = Sets.newLinkedHashSet();
+        buildDirs.add(this.buildConfiguration.getRootProjectDirectory());
+        for (Object element : model instanceof Collection ? (Collection<?>) model : ImmutableList.of(model)) {
+            if (element instanceof EclipseProject) {
+                EclipseProject rootProject = (EclipseProject) element;
+                buildDirs.add(rootProject.getProjectDirectory());
+                collectBuildScripts(rootProject, buildScripts);
+            } else if (element instanceof GradleBuild) {
+                // the project structure is defined by the settings files only
+                buildDirs.add(((GradleBuild) element).getRootProject().getProjectDirectory());
+            }
+        }
+
+        List<File> result = Lists.newArrayList();
+        for (File buildDir : buildDirs) {
+            result.addAll(BuildFileHashes.rootProjectFiles(buildDir));
+        }
+        result.addAll(buildScripts);
+        return result;
     }
 
-    private <U> U getFromCache(Class<?> cacheKey, Callable<U> cacheValueLoader) {
+    private static void collectBuildScripts(EclipseProject project, Set<File> result) {
         try {
-            @SuppressWarnings("unchecked")
-            U result = (U) this.cache.get(cacheKey, cacheValueLoader);
-            return result;
-        } catch (Exception e) {
-            if (e instanceof UncheckedExecutionException && e.getCause() instanceof RuntimeException) {
-                throw (RuntimeException)e.getCause();
-            } else {
-                throw new GradlePluginsRuntimeException(e);
+            File buildScript = project.getGradleProject().getBuildScript().getSourceFile();
+            if (buildScript != null) {
+                result.add(buildScript);
             }
+        } catch (UnsupportedMethodException e) {
+            // the build script location is not available for older Gradle versions
+        }
+        for (EclipseProject child : project.getChildren()) {
+            collectBuildScripts(child, result);
         }
     }
 
-    private boolean supportsCompositeBuilds(CancellationToken token, IProgressMonitor monitor) {
-        BuildEnvironment buildEnvironment = fetchModel(BuildEnvironment.class, FetchStrategy.FORCE_RELOAD, token, monitor);
+    private static boolean supportsCompositeBuilds(BuildEnvironment buildEnvironment) {
         GradleVersion gradleVersion = GradleVersion.version(buildEnvironment.getGradle().getGradleVersion());
         return gradleVersion.getBaseVersion().compareTo(GradleVersion.version("3.3")) >= 0;
     }
 
+    /*
+     * The cached operations run on the threads of the model cache, so the monitor of the caller
+     * must be safe to use from a different thread.
+     */
+    private static IProgressMonitor threadSafe(IProgressMonitor monitor) {
+        return new ThreadSafeProgressMonitor(monitor != null ? monitor : new NullProgressMonitor());
+    }
+
     private static TransientRequestAttributes getTransientRequestAttributes(CancellationToken token, IProgressMonitor monitor) {
         ProcessStreams streams = CorePlugin.processStreamsProvider().getBackgroundJobProcessStreams();
         List<ProgressListener> progressListeners = ImmutableList.<ProgressListener>of(DelegatingProgressListener.withoutDuplicateLifecycleEvents(monitor));
@@ -176,4 +459,58 @@ final class DefaultModelProvider implements ModelProvider {
         }
         return new TransientRequestAttributes(false, streams.getOutput(), streams.getError(), streams.getInput(), progressListeners, noEventListeners, token);
     }
-}
\ No newline at end of file
+
+    /**
+     * Identifies a cached model. Models can be requested either for the root build only, for all
+     * builds participating in the composite or for selected projects.
+     */
+    private static final class CacheKey {
+
+        private final Class<?> model;
+        private final boolean allBuilds;
+        private final Set<File> projectDirectories;
+
+        private CacheKey(Class<?> model, boolean allBuilds, Set<File> projectDirectories) {
+            this.model = model;
+            this.allBuilds = allBuilds;
+            this.projectDirectories = projectDirectories;
+        }
+
+        static CacheKey forRootBuild(Class<?> model) {
+            return new CacheKey(model, false, ImmutableSet.<File>of());
+        }
+
+        static CacheKey forAllBuilds(Class<?> model) {
+            return new CacheKey(model, true, ImmutableSet.<File>of());
+        }
+
+        static CacheKey forProjects(Set<File> projectDirectories) {
+            return new CacheKey(OmniEclipseProject.class, true, ImmutableSet.copyOf(projectDirectories));
+        }
+
+        /*
+         * Only the models required by the task view and the project lookups are stored on disk.
+         */
+        boolean isPersistent() {
+            return this.projectDirectories.isEmpty() && (this.model == GradleBuild.class || (this.model == EclipseProject.class && this.allBuilds));
+        }
+
+        String getSnapshotName() {
+            return this.model.getSimpleName() + (this.allBuilds ? "-all" : "");
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof CacheKey) {
+                CacheKey other = (CacheKey) obj;
+                return this.model.equals(other.model) && this.allBuilds == other.allBuilds && this.projectDirectories.equals(other.projectDirectories);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.model, this.allBuilds, this.projectDirectories);
+        }
+    }
+}
@@ -12,7 +12,6 @@
 package org.eclipse.buildship.core.workspace.internal;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -21,8 +20,6 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Lists;
 
 import org.eclipse.core.resources.ICommand;
 import org.eclipse.core.resources.IProject;
@@ -37,6 +34,7 @@ import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SubMonitor;
 
+import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.GradlePluginsRuntimeException;
 import org.eclipse.buildship.core.UnsupportedConfigurationException;
 import org.eclipse.buildship.core.workspace.WorkspaceOperations;
@@ -53,17 +51,21 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
 
     @Override
     public Optional<IProject> findProjectByName(final String name) {
-        return FluentIterable.from(getAllProjects()).firstMatch(new Predicate<IProject>() {
-
-            @Override
-            public boolean apply(IProject project) {
-                return project.getName().equals(name);
-            }
-        });
+        // the workspace root already indexes the projects by name
+        if (name == null || !Path.ROOT.isValidSegment(name)) {
+            return Optional.absent();
+        }
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+        return project.exists() && project.getName().equals(name) ? Optional.of(project) : Optional.<IProject>absent();
     }
 
     @Override
     public Optional<IProject> findProjectByLocation(final File directory) {
+        ProjectLocationIndex index = CorePlugin.projectLocationIndex();
+        if (index != null) {
+            return index.find(directory);
+        }
+
         return FluentIterable.from(getAllProjects()).firstMatch(new Predicate<IProject>() {
 
             @Override
@@ -112,6 +114,7 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
             projectDescription.setComment(String.format("Project %s created by Buildship.", name));
             IProject project = workspace.getRoot().getProject(name);
             project.create(projectDescription, progress.newChild(1));
+            addToLocationIndex(project);
 
             // open the project
             project.open(IResource.NONE, progress.newChild(1));
@@ -144,6 +147,7 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
             IWorkspace workspace = ResourcesPlugin.getWorkspace();
             IProject project = workspace.getRoot().getProject(projectName);
             project.create(projectDescription, progress.newChild(1));
+            addToLocationIndex(project);
 
             // open the project
             project.open(IResource.NONE, progress.newChild(1));
@@ -206,21 +210,10 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
     public void addNature(IProject project, String natureId, IProgressMonitor monitor) {
         SubMonitor progress = SubMonitor.convert(monitor, 1);
         try {
-            // get the description
-            IProjectDescription description = project.getDescription();
-
-            // abort if the project already has the nature applied or the nature is not defined
-            List<String> currentNatureIds = ImmutableList.copyOf(description.getNatureIds());
-            if (currentNatureIds.contains(natureId) || !isNatureRecognizedByEclipse(natureId)) {
-                return;
-            }
-
-            // add the nature to the project
-            ImmutableList<String> newIds = ImmutableList.<String>builder().addAll(currentNatureIds).add(natureId).build();
-            description.setNatureIds(newIds.toArray(new String[newIds.size()]));
-
-            // save the updated description
-            project.setDescription(description, progress.newChild(1));
+            // the description is only saved if the nature is not yet applied and it is defined
+            ProjectDescriptionSession session = ProjectDescriptionSession.open(project);
+            session.addNature(natureId);
+            session.commit(progress.newChild(1));
         } catch (CoreException e) {
             String message = String.format("Cannot add nature %s to Eclipse project %s.", natureId, project.getName());
             throw new GradlePluginsRuntimeException(message, e);
@@ -238,22 +231,10 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
     public void removeNature(IProject project, String natureId, IProgressMonitor monitor) {
         SubMonitor progress = SubMonitor.convert(monitor, 1);
         try {
-            // get the description
-            IProjectDescription description = project.getDescription();
-
-            // abort if the project currently does not have the nature applied
-            List<String> currentNatureIds = ImmutableList.copyOf(description.getNatureIds());
-            if (!currentNatureIds.contains(natureId)) {
-                return;
-            }
-
-            // remove the nature from the project
-            List<String> newIds = new ArrayList<>(currentNatureIds);
-            newIds.remove(natureId);
-            description.setNatureIds(newIds.toArray(new String[newIds.size()]));
-
-            // save the updated description
-            project.setDescription(description, progress.newChild(1));
+            // the description is only saved if the project currently has the nature applied
+            ProjectDescriptionSession session = ProjectDescriptionSession.open(project);
+            session.removeNature(natureId);
+            session.commit(progress.newChild(1));
         } catch (CoreException e) {
             String message = String.format("Cannot remove nature %s from Eclipse project %s.", natureId, project.getName());
             throw new GradlePluginsRuntimeException(message, e);
@@ -264,42 +245,16 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
     public void addBuildCommand(IProject project, String name, Map<String, String> arguments, IProgressMonitor monitor) {
         SubMonitor progress = SubMonitor.convert(monitor, 1);
         try {
-            IProjectDescription description = project.getDescription();
-            List<ICommand> buildCommands = Lists.newArrayList(description.getBuildSpec());
-            for (int i = 0; i < buildCommands.size(); i++) {
-                ICommand buildCommand = buildCommands.get(i);
-                if (buildCommand.getBuilderName().equals(name)) {
-                    if (buildCommand.getArguments().equals(arguments)) {
-                        return;
-                    } else {
-                        buildCommands.set(i, createCommand(description, name, arguments));
-                        setNewBuildCommands(project, description, buildCommands, progress.newChild(1));
-                        return;
-                    }
-                }
-            }
-
-            // if the build command didn't exist before then create a new command instance and assign it to the project
-            buildCommands.add(createCommand(description, name, arguments));
-            setNewBuildCommands(project, description, buildCommands, progress.newChild(1));
+            // the description is only saved if the build command is new or its arguments changed
+            ProjectDescriptionSession session = ProjectDescriptionSession.open(project);
+            session.addBuildCommand(name, arguments);
+            session.commit(progress.newChild(1));
         } catch (CoreException e) {
             String message = String.format("Cannot add build command %s with arguments %s to Eclipse project %s.", name, arguments, project.getName());
             throw new GradlePluginsRuntimeException(message, e);
         }
     }
 
-    private ICommand createCommand(IProjectDescription description, String name, Map<String, String> arguments) {
-        ICommand command = description.newCommand();
-        command.setBuilderName(name);
-        command.setArguments(ImmutableMap.copyOf(arguments));
-        return command;
-    }
-
-    private void setNewBuildCommands(IProject project, IProjectDescription description, List<ICommand> buildCommands, IProgressMonitor monitor) throws CoreException {
-        description.setBuildSpec(buildCommands.toArray(new ICommand[buildCommands.size()]));
-        project.setDescription(description, monitor);
-    }
-
     @Override
     public void removeBuildCommand(IProject project, final String name, IProgressMonitor monitor) {
         SubMonitor progress = SubMonitor.convert(monitor, 1);
@@ -356,7 +311,26 @@ public class DefaultWorkspaceOperations implements WorkspaceOperations {
         } catch (CoreException e) {
             throw new GradlePluginsRuntimeException(e);
         }
-        return findProjectByName(newName).get();
+        IProject renamedProject = findProjectByName(newName).get();
+        removeFromLocationIndex(project);
+        addToLocationIndex(renamedProject);
+        return renamedProject;
+    }
+
+    // the resource change events are only sent at the end of the workspace operation, so
+    // the projects created by the synchronization have to be added to the index directly
+    private static void addToLocationIndex(IProject project) {
+        ProjectLocationIndex index = CorePlugin.projectLocationIndex();
+        if (index != null) {
+            index.add(project);
+        }
+    }
+
+    private static void removeFromLocationIndex(IProject project) {
+        ProjectLocationIndex index = CorePlugin.projectLocationIndex();
+        if (index != null) {
+            index.remove(project);
+        }
     }
 
     @Override
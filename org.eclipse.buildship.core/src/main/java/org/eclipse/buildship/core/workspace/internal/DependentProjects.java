@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProjectDependency;
+
+/**
+ * Finds the projects which depend on a set of projects, directly or through other projects.
+ * <p/>
+ * The classpath of a project contains the entries exported by its project dependencies, so when a
+ * project is reloaded, the projects depending on it have to be reloaded as well.
+ */
+final class DependentProjects {
+
+    private DependentProjects() {
+    }
+
+    /**
+     * Returns the directories of the selected projects along with the directories of all projects
+     * depending on them.
+     *
+     * @param allProjects all projects of the build
+     * @param projectDirectories the directories of the selected projects
+     * @return the directories of the selected and the dependent projects
+     */
+    static Set<File> withDependents(Set<OmniEclipseProject> allProjects, Set<File> projectDirectories) {
+        Set<File> result = Sets.newLinkedHashSet(projectDirectories);
+        Set<String> names = Sets.newHashSet();
+        for (OmniEclipseProject project : allProjects) {
+            if (result.contains(project.getProjectDirectory())) {
+                names.add(project.getName());
+            }
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (OmniEclipseProject project : allProjects) {
+                if (!result.contains(project.getProjectDirectory()) && dependsOnAny(project, names)) {
+                    result.add(project.getProjectDirectory());
+                    names.add(project.getName());
+                    changed = true;
+                }
+            }
+        }
+        return ImmutableSet.copyOf(result);
+    }
+
+    private static boolean dependsOnAny(OmniEclipseProject project, Set<String> names) {
+        for (OmniEclipseProjectDependency dependency : project.getProjectDependencies()) {
+            if (names.contains(dependency.getPath())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -22,6 +22,7 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
@@ -32,6 +33,7 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.IClasspathContainer;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
@@ -72,9 +74,9 @@ final class GradleClasspathContainerUpdater {
         }
     }
 
-    private void updateClasspathContainer(PersistentModelBuilder persistentModel, IProgressMonitor monitor) throws JavaModelException {
+    private void updateClasspathContainer(PersistentModelBuilder persistentModel, Batch batch) {
         ImmutableList<IClasspathEntry> containerEntries = collectClasspathContainerEntries();
-        setClasspathContainer(this.eclipseProject, containerEntries, monitor);
+        batch.add(this.eclipseProject, containerEntries);
         persistentModel.classpath(containerEntries);
     }
 
@@ -150,8 +152,18 @@ final class GradleClasspathContainerUpdater {
      * The container will be persisted so it does not have to be reloaded after the workbench is restarted.
      */
     public static void updateFromModel(IJavaProject eclipseProject, OmniEclipseProject gradleProject, Set<OmniEclipseProject> allGradleProjects, PersistentModelBuilder persistentModel, IProgressMonitor monitor) throws JavaModelException {
+        Batch batch = new Batch();
+        collectFromModel(eclipseProject, gradleProject, allGradleProjects, persistentModel, batch);
+        batch.apply(monitor);
+    }
+
+    /**
+     * Calculates the classpath container of the target project based on the given Gradle model
+     * and adds it to the batch. The container is only set when the batch is applied.
+     */
+    public static void collectFromModel(IJavaProject eclipseProject, OmniEclipseProject gradleProject, Set<OmniEclipseProject> allGradleProjects, PersistentModelBuilder persistentModel, Batch batch) {
         GradleClasspathContainerUpdater updater = new GradleClasspathContainerUpdater(eclipseProject, gradleProject, allGradleProjects);
-        updater.updateClasspathContainer(persistentModel, monitor);
+        updater.updateClasspathContainer(persistentModel, batch);
     }
 
     /**
@@ -175,8 +187,50 @@ final class GradleClasspathContainerUpdater {
     }
 
     private static void setClasspathContainer(IJavaProject eclipseProject, List<IClasspathEntry> classpathEntries, IProgressMonitor monitor) throws JavaModelException {
-        IClasspathContainer classpathContainer = GradleClasspathContainer.newInstance(classpathEntries);
-        JavaCore.setClasspathContainer(GradleClasspathContainer.CONTAINER_PATH, new IJavaProject[]{eclipseProject}, new IClasspathContainer[]{classpathContainer}, monitor);
+        Batch batch = new Batch();
+        batch.add(eclipseProject, classpathEntries);
+        batch.apply(monitor);
     }
 
+    /**
+     * Collects the classpath containers of multiple projects and sets them with a single call to
+     * {@link JavaCore#setClasspathContainer(IPath, IJavaProject[], IClasspathContainer[], IProgressMonitor)},
+     * so that JDT fires a single delta and re-resolves the classpaths only once. Very large batches are
+     * submitted in chunks of {@value #MAX_PROJECTS_PER_UPDATE} projects.
+     */
+    static final class Batch {
+
+        private static final int MAX_PROJECTS_PER_UPDATE = 500;
+
+        private final Map<IJavaProject, IClasspathContainer> containers = Maps.newLinkedHashMap();
+
+        void add(IJavaProject eclipseProject, List<IClasspathEntry> classpathEntries) {
+            this.containers.put(eclipseProject, GradleClasspathContainer.newInstance(classpathEntries));
+        }
+
+        boolean isEmpty() {
+            return this.containers.isEmpty();
+        }
+
+        void apply(IProgressMonitor monitor) throws JavaModelException {
+            List<IJavaProject> projects = FluentIterable.from(this.containers.keySet()).filter(new Predicate<IJavaProject>() {
+
+                @Override
+                public boolean apply(IJavaProject project) {
+                    // the project might have been closed or deleted since the container was added
+                    return project.getProject().isAccessible();
+                }
+            }).toList();
+
+            SubMonitor progress = SubMonitor.convert(monitor, (projects.size() + MAX_PROJECTS_PER_UPDATE - 1) / MAX_PROJECTS_PER_UPDATE);
+            for (List<IJavaProject> chunk : Lists.partition(projects, MAX_PROJECTS_PER_UPDATE)) {
+                IClasspathContainer[] chunkContainers = new IClasspathContainer[chunk.size()];
+                for (int i = 0; i < chunkContainers.length; i++) {
+                    chunkContainers[i] = this.containers.get(chunk.get(i));
+                }
+                JavaCore.setClasspathContainer(GradleClasspathContainer.CONTAINER_PATH, chunk.toArray(new IJavaProject[chunk.size()]), chunkContainers, progress.newChild(1));
+            }
+            this.containers.clear();
+        }
+    }
 }
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.gradle.tooling.BuildCancelledException;
+import org.gradle.tooling.CancellationToken;
+import org.gradle.tooling.CancellationTokenSource;
+import org.gradle.tooling.GradleConnector;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.eclipse.buildship.core.GradlePluginsRuntimeException;
+
+/**
+ * Coalesces concurrent requests with the same key into a single execution.
+ * <p/>
+ * The first request for a key starts the execution; requests arriving while it is still running
+ * wait for its result instead of starting their own. The execution receives its own cancellation
+ * token which is cancelled only if all waiting requests are cancelled. A cancelled request stops
+ * waiting immediately and fails with a {@link BuildCancelledException}. A request arriving after
+ * all waiting requests were cancelled starts a new execution.
+ * <p/>
+ * A request which must not receive the result of an execution started before it, e.g. a forced
+ * reload, {@link #executeSuperseding(Object, CancellationToken, Function) supersedes} the running
+ * execution instead: it always starts a new execution and cancels the running one, whose waiting
+ * requests then receive the result of the new execution.
+ * <p/>
+ * The executions run on a thread pool owned by this instance, which is shut down by
+ * {@link #close()}.
+ *
+ * @param <K> the type of the request keys
+ */
+final class InFlightRequests<K> {
+
+    private static final long CANCELLATION_POLL_INTERVAL_MILLIS = 100;
+
+    private final Map<K, Flight<?>> flights = Maps.newHashMap();
+    private final ExecutorService executor;
+
+    InFlightRequests() {
+        this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Buildship model request " + this.count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Executes the operation or joins the execution already running for the same key.
+     *
+     * @param key the key identifying the request
+     * @param token the cancellation token of the caller, can be null
+     * @param operation the operation to execute, receiving the shared cancellation token
+     * @return the result of the operation
+     */
+    <V> V execute(K key, CancellationToken token, Function<CancellationToken, V> operation) {
+        return await(join(key, token, operation, false), token);
+    }
+
+    /**
+     * Executes the operation, superseding the execution already running for the same key.
+     * Requests arriving later join the new execution.
+     *
+     * @param key the key identifying the request
+     * @param token the cancellation token of the caller, can be null
+     * @param operation the operation to execute, receiving the shared cancellation token
+     * @return the result of the operation
+     */
+    <V> V executeSuperseding(K key, CancellationToken token, Function<CancellationToken, V> operation) {
+        return await(join(key, token, operation, true), token);
+    }
+
+    private <V> V await(Flight<V> flight, CancellationToken token) {
+        try {
+            while (true) {
+                try {
+                    V result = flight.result.get(CANCELLATION_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    Flight<V> successor = moveToSuccessor(flight, token);
+                    if (successor == null) {
+                        return result;
+                    }
+                    flight = successor;
+                } catch (TimeoutException e) {
+                    if (token != null && token.isCancellationRequested()) {
+                        leave(flight, token);
+                        throw new BuildCancelledException("Model request cancelled");
+                    }
+                } catch (ExecutionException e) {
+                    Flight<V> successor = moveToSuccessor(flight, token);
+                    if (successor == null) {
+                        throw e;
+                    }
+                    flight = successor;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradlePluginsRuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new GradlePluginsRuntimeException(cause);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <V> Flight<V> join(final K key, CancellationToken token, final Function<CancellationToken, V> operation, boolean supersede) {
+        Flight<V> flight = (Flight<V>) this.flights.get(key);
+        if (flight != null && isAbandoned(flight)) {
+            // all waiters were cancelled but didn't notice it yet, the result is not needed anymore
+            flight.tokenSource.cancel();
+        }
+        if (flight == null || supersede || flight.tokenSource.token().isCancellationRequested()) {
+            final Flight<V> newFlight = new Flight<V>();
+            newFlight.result = this.executor.submit(new Callable<V>() {
+
+                @Override
+                public V call() {
+                    try {
+                        return operation.apply(newFlight.tokenSource.token());
+                    } finally {
+                        remove(key, newFlight);
+                    }
+                }
+            });
+            this.flights.put(key, newFlight);
+            if (flight != null && !flight.tokenSource.token().isCancellationRequested()) {
+                // the running execution might return an outdated result
+                flight.successor = newFlight;
+                flight.tokenSource.cancel();
+            }
+            flight = newFlight;
+        }
+        flight.waiters.add(token);
+        return flight;
+    }
+
+    /*
+     * Moves the request from a superseded execution to the one superseding it. Returns null if
+     * the execution was not superseded.
+     */
+    private synchronized <V> Flight<V> moveToSuccessor(Flight<V> flight, CancellationToken token) {
+        Flight<V> successor = flight.successor;
+        if (successor != null) {
+            flight.waiters.remove(token);
+            successor.waiters.add(token);
+        }
+        return successor;
+    }
+
+    private synchronized void leave(Flight<?> flight, CancellationToken token) {
+        flight.waiters.remove(token);
+        if (isAbandoned(flight)) {
+            flight.tokenSource.cancel();
+        }
+    }
+
+    private static boolean isAbandoned(Flight<?> flight) {
+        for (CancellationToken waiter : flight.waiters) {
+            if (waiter == null || !waiter.isCancellationRequested()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized void remove(K key, Flight<?> flight) {
+        if (this.flights.get(key) == flight) {
+            this.flights.remove(key);
+        }
+    }
+
+    synchronized int getInFlightCount() {
+        return this.flights.size();
+    }
+
+    /**
+     * Cancels the running executions and shuts down the thread pool.
+     */
+    synchronized void close() {
+        for (Flight<?> flight : this.flights.values()) {
+            flight.tokenSource.cancel();
+        }
+        this.flights.clear();
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * A running execution along with the tokens of the requests waiting for it and the execution
+     * superseding it, if any.
+     */
+    private static final class Flight<V> {
+
+        private final CancellationTokenSource tokenSource = GradleConnector.newCancellationTokenSource();
+        private final List<CancellationToken> waiters = Lists.newArrayList();
+        private volatile Future<V> result;
+        private volatile Flight<V> successor;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+
+import org.gradle.tooling.CancellationToken;
+import org.gradle.tooling.model.DomainObjectSet;
+import org.gradle.tooling.model.eclipse.EclipseProject;
+import org.gradle.tooling.model.gradle.GradleBuild;
+
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.Maps;
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.GradleArguments;
+import org.eclipse.buildship.core.util.preference.EclipsePreferencesUtils;
+
+/**
+ * Workspace-wide cache of the models loaded from Gradle builds.
+ * <p/>
+ * Entries are identified by the Gradle arguments the model was loaded with and by a model key
+ * defined by the caller, so models loaded with different settings never collide. The size of the
+ * cache is bounded by the approximate size of the models; the limit can be configured via the
+ * {@value #MAXIMUM_WEIGHT_PREFERENCE} preference. Once a build is loaded with different arguments,
+ * the entries and the {@link ModelSnapshotStore snapshots} loaded with the previous arguments are
+ * discarded.
+ * <p/>
+ * Concurrent loads of the same entry share a single Gradle invocation, unless the entry is
+ * reloaded.
+ */
+public final class ModelCache {
+
+    public static final String MAXIMUM_WEIGHT_PREFERENCE = "model.cache.maximum.weight";
+    private static final long DEFAULT_MAXIMUM_WEIGHT = 2000000;
+
+    private final Cache<Key, Object> cache;
+    private final InFlightRequests<Key> inFlightRequests = new InFlightRequests<Key>();
+    private final Map<File, GradleArguments> latestArguments = Maps.newHashMap();
+    private final ModelSnapshotStore snapshotStore;
+
+    ModelCache(long maximumWeight, ModelSnapshotStore snapshotStore) {
+        this.cache = CacheBuilder.newBuilder().maximumWeight(maximumWeight).weigher(new ModelWeigher()).recordStats().build();
+        this.snapshotStore = snapshotStore;
+    }
+
+    ModelSnapshotStore getSnapshotStore() {
+        return this.snapshotStore;
+    }
+
+    public Object get(GradleArguments gradleArguments, Object modelKey) {
+        return this.cache.getIfPresent(new Key(gradleArguments, modelKey));
+    }
+
+    public void put(GradleArguments gradleArguments, Object modelKey, Object model) {
+        invalidateIfChanged(gradleArguments);
+        this.cache.put(new Key(gradleArguments, modelKey), model);
+    }
+
+    public void invalidate(GradleArguments gradleArguments, Object modelKey) {
+        this.cache.invalidate(new Key(gradleArguments, modelKey));
+    }
+
+    /**
+     * Loads an entry or joins the load already running for the same entry. The operation is
+     * responsible for putting the result into the cache.
+     *
+     * @param gradleArguments the arguments the model is loaded with
+     * @param modelKey the model key
+     * @param token the cancellation token of the caller
+     * @param operation the operation loading the model
+     * @return the loaded model
+     */
+    public <V> V load(GradleArguments gradleArguments, Object modelKey, CancellationToken token, Function<CancellationToken, V> operation) {
+        return this.inFlightRequests.execute(new Key(gradleArguments, modelKey), token, operation);
+    }
+
+    /**
+     * Loads an entry, superseding the load already running for the same entry, as its result
+     * might be outdated. The requests waiting for the superseded load receive the new result. The
+     * operation is responsible for putting the result into the cache.
+     *
+     * @param gradleArguments the arguments the model is loaded with
+     * @param modelKey the model key
+     * @param token the cancellation token of the caller
+     * @param operation the operation loading the model
+     * @return the loaded model
+     */
+    public <V> V reload(GradleArguments gradleArguments, Object modelKey, CancellationToken token, Function<CancellationToken, V> operation) {
+        return this.inFlightRequests.executeSuperseding(new Key(gradleArguments, modelKey), token, operation);
+    }
+
+    /**
+     * Discards the entries and the snapshots of the build if they were loaded with different
+     * arguments. The first time a build is seen in the session, the snapshots stored with different
+     * arguments in earlier sessions are discarded.
+     *
+     * @param gradleArguments the current arguments of the build
+     */
+    public void invalidateIfChanged(GradleArguments gradleArguments) {
+        GradleArguments previousArguments;
+        synchronized (this.latestArguments) {
+            previousArguments = this.latestArguments.put(gradleArguments.getRootDir(), gradleArguments);
+        }
+        if (previousArguments == null) {
+            this.snapshotStore.discardOtherThan(gradleArguments);
+        } else if (!previousArguments.equals(gradleArguments)) {
+            for (Key key : this.cache.asMap().keySet()) {
+                if (key.gradleArguments.equals(previousArguments)) {
+                    this.cache.invalidate(key);
+                }
+            }
+            this.snapshotStore.discardOtherThan(gradleArguments);
+            CorePlugin.logger().debug("Discarded cached models of " + gradleArguments.getRootDir() + " due to configuration change");
+        }
+    }
+
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    public CacheStats getStats() {
+        return this.cache.stats();
+    }
+
+    public static ModelCache create() {
+        long maximumWeight = EclipsePreferencesUtils.getInstanceScope().getNode(CorePlugin.PLUGIN_ID).getLong(MAXIMUM_WEIGHT_PREFERENCE, DEFAULT_MAXIMUM_WEIGHT);
+        return new ModelCache(Math.max(0, maximumWeight), ModelSnapshotStore.create());
+    }
+
+    public void close() {
+        CorePlugin.logger().debug("Model cache closed " + getStats());
+        invalidateAll();
+        this.inFlightRequests.close();
+        this.snapshotStore.close();
+    }
+
+    /**
+     * Identifies a cache entry.
+     */
+    private static final class Key {
+
+        private final GradleArguments gradleArguments;
+        private final Object modelKey;
+
+        private Key(GradleArguments gradleArguments, Object modelKey) {
+            this.gradleArguments = gradleArguments;
+            this.modelKey = modelKey;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Key) {
+                Key other = (Key) obj;
+                return this.gradleArguments.equals(other.gradleArguments) && this.modelKey.equals(other.modelKey);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.gradleArguments, this.modelKey);
+        }
+    }
+
+    /**
+     * Estimates the size of a model by the number of projects and classpath entries it contains.
+     */
+    private static final class ModelWeigher implements Weigher<Key, Object> {
+
+        @Override
+        public int weigh(Key key, Object model) {
+            return (int) Math.min(Integer.MAX_VALUE, weigh(model));
+        }
+
+        private static long weigh(Object model) {
+            if (model instanceof Collection) {
+                long weight = 1;
+                for (Object element : (Collection<?>) model) {
+                    weight += weigh(element);
+                }
+                return weight;
+            } else if (model instanceof EclipseProject) {
+                EclipseProject project = (EclipseProject) model;
+                long weight = 1 + size(project.getClasspath()) + size(project.getProjectDependencies()) + size(project.getSourceDirectories());
+                for (EclipseProject child : project.getChildren()) {
+                    weight += weigh(child);
+                }
+                return weight;
+            } else if (model instanceof OmniEclipseProject) {
+                OmniEclipseProject project = (OmniEclipseProject) model;
+                return 1 + project.getExternalDependencies().size() + project.getProjectDependencies().size() + project.getSourceDirectories().size();
+            } else if (model instanceof GradleBuild) {
+                return 1 + size(((GradleBuild) model).getProjects());
+            } else {
+                return 1;
+            }
+        }
+
+        private static int size(DomainObjectSet<?> set) {
+            return set.size();
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.gradle.tooling.model.DomainObjectSet;
+import org.gradle.tooling.model.UnsupportedMethodException;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.eclipse.buildship.core.GradlePluginsRuntimeException;
+
+/**
+ * Serializable copy of a Tooling API model graph.
+ * <p/>
+ * The Tooling API models are views on objects loaded from the target Gradle distribution, so they
+ * can't be deserialized in a new Eclipse session. This class copies the values of all getters
+ * declared on the model interfaces into a plain object graph. When the snapshot is restored, the
+ * model interfaces are implemented by proxies returning the copied values. Getters which were not
+ * supported by the target Gradle version keep throwing {@link UnsupportedMethodException}.
+ */
+final class ModelSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<ObjectNode> nodes;
+    private final Object root;
+
+    private ModelSnapshot(List<ObjectNode> nodes, Object root) {
+        this.nodes = nodes;
+        this.root = root;
+    }
+
+    /**
+     * Captures a model or a collection of models.
+     *
+     * @param model the model to capture
+     * @param modelType the Tooling API interface of the model or the elements of the collection
+     * @return the snapshot
+     */
+    static ModelSnapshot capture(Object model, Class<?> modelType) {
+        Capturer capturer = new Capturer();
+        Object root;
+        if (model instanceof Collection) {
+            List<Object> elements = Lists.newArrayList();
+            for (Object element : (Collection<?>) model) {
+                elements.add(capturer.capture(element, modelType));
+            }
+            root = new ListValue(elements, false);
+        } else {
+            root = capturer.capture(model, modelType);
+        }
+        return new ModelSnapshot(capturer.nodes, root);
+    }
+
+    /**
+     * Recreates the model graph from this snapshot.
+     *
+     * @return the restored model or the restored list of models
+     */
+    Object restore() {
+        List<Object> proxies = Lists.newArrayListWithCapacity(this.nodes.size());
+        for (ObjectNode node : this.nodes) {
+            proxies.add(node.newProxy(proxies));
+        }
+        return resolve(this.root, proxies);
+    }
+
+    private static Object resolve(Object value, List<Object> proxies) {
+        if (value instanceof ObjectRef) {
+            return proxies.get(((ObjectRef) value).id);
+        } else if (value instanceof ListValue) {
+            ListValue listValue = (ListValue) value;
+            List<Object> elements = Lists.newArrayListWithCapacity(listValue.elements.size());
+            for (Object element : listValue.elements) {
+                elements.add(resolve(element, proxies));
+            }
+            return listValue.domainObjectSet ? newDomainObjectSet(elements) : elements;
+        } else if (value instanceof SetValue) {
+            Set<Object> elements = new LinkedHashSet<Object>();
+            for (Object element : ((SetValue) value).elements) {
+                elements.add(resolve(element, proxies));
+            }
+            return elements;
+        } else {
+            return value;
+        }
+    }
+
+    private static Object newDomainObjectSet(final List<Object> elements) {
+        return Proxy.newProxyInstance(ModelSnapshot.class.getClassLoader(), new Class<?>[] { DomainObjectSet.class }, new InvocationHandler() {
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.equals("getAll")) {
+                    return elements;
+                } else if (name.equals("getAt")) {
+                    return elements.get((Integer) args[0]);
+                } else if (name.equals("equals")) {
+                    return proxy == args[0];
+                } else if (name.equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                }
+                try {
+                    return List.class.getMethod(name, method.getParameterTypes()).invoke(elements, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        });
+    }
+
+    /**
+     * Copies model objects into nodes, preserving the identity of objects referenced multiple
+     * times (e.g. parent and child projects).
+     */
+    private static final class Capturer {
+
+        private final List<ObjectNode> nodes = Lists.newArrayList();
+        private final Map<Object, ObjectRef> references = new IdentityHashMap<Object, ObjectRef>();
+
+        private Object capture(Object model, Class<?> modelType) {
+            if (model == null) {
+                return null;
+            }
+
+            ObjectRef reference = this.references.get(model);
+            if (reference != null) {
+                return reference;
+            }
+
+            reference = new ObjectRef(this.nodes.size());
+            this.references.put(model, reference);
+            ObjectNode node = new ObjectNode(modelType.getName());
+            this.nodes.add(node);
+
+            for (Method getter : getters(modelType).values()) {
+                try {
+                    Object value = getter.invoke(model);
+                    node.properties.put(getter.getName(), captureValue(value, getter.getReturnType(), getter.getGenericReturnType()));
+                } catch (InvocationTargetException e) {
+                    node.unsupported.add(getter.getName());
+                } catch (IllegalAccessException e) {
+                    node.unsupported.add(getter.getName());
+                } catch (UnsupportedValueException e) {
+                    node.unsupported.add(getter.getName());
+                }
+            }
+            return reference;
+        }
+
+        private Object captureValue(Object value, Class<?> type, Type genericType) {
+            if (value == null) {
+                return null;
+            } else if (DomainObjectSet.class.isAssignableFrom(type) || List.class.isAssignableFrom(type)) {
+                List<Object> elements = Lists.newArrayList();
+                for (Object element : (Iterable<?>) value) {
+                    elements.add(captureElement(element, genericType));
+                }
+                return new ListValue(elements, DomainObjectSet.class.isAssignableFrom(type));
+            } else if (Set.class.isAssignableFrom(type)) {
+                List<Object> elements = Lists.newArrayList();
+                for (Object element : (Iterable<?>) value) {
+                    elements.add(captureElement(element, genericType));
+                }
+                return new SetValue(elements);
+            } else if (type.isInterface() && !Map.class.isAssignableFrom(type) && !Collection.class.isAssignableFrom(type)) {
+                return capture(value, type);
+            } else if (value instanceof Serializable) {
+                return value;
+            } else {
+                throw new UnsupportedValueException();
+            }
+        }
+
+        private Object captureElement(Object element, Type collectionType) {
+            Class<?> elementType = elementType(collectionType);
+            if (element == null) {
+                return null;
+            } else if (elementType.isInterface()) {
+                return capture(element, elementType);
+            } else if (element instanceof Serializable) {
+                return element;
+            } else {
+                throw new UnsupportedValueException();
+            }
+        }
+
+        private static Class<?> elementType(Type collectionType) {
+            if (collectionType instanceof ParameterizedType) {
+                Type argument = ((ParameterizedType) collectionType).getActualTypeArguments()[0];
+                if (argument instanceof WildcardType) {
+                    argument = ((WildcardType) argument).getUpperBounds()[0];
+                }
+                if (argument instanceof Class) {
+                    return (Class<?>) argument;
+                } else if (argument instanceof ParameterizedType) {
+                    return (Class<?>) ((ParameterizedType) argument).getRawType();
+                }
+            }
+            return Object.class;
+        }
+
+        /*
+         * Returns the public no-arg getters of the model type. If a getter is declared with
+         * different return types in the type hierarchy, the most specific one is used.
+         */
+        private static Map<String, Method> getters(Class<?> modelType) {
+            Map<String, Method> getters = Maps.newTreeMap();
+            for (Method method : modelType.getMethods()) {
+                String name = method.getName();
+                boolean getter = (name.startsWith("get") && name.length() > 3) || (name.startsWith("is") && name.length() > 2);
+                if (!getter || method.getParameterTypes().length > 0 || method.getReturnType() == void.class
+                        || method.getDeclaringClass() == Object.class || method.isBridge() || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                Method existing = getters.get(name);
+                if (existing == null || existing.getReturnType().isAssignableFrom(method.getReturnType())) {
+                    getters.put(name, method);
+                }
+            }
+            return getters;
+        }
+    }
+
+    /**
+     * The copied values of a single model object.
+     */
+    private static final class ObjectNode implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String type;
+        private final Map<String, Object> properties = new LinkedHashMap<String, Object>();
+        private final Set<String> unsupported = new LinkedHashSet<String>();
+
+        private ObjectNode(String type) {
+            this.type = type;
+        }
+
+        private Object newProxy(final List<Object> proxies) {
+            Class<?> modelType;
+            try {
+                modelType = Class.forName(this.type, false, ModelSnapshot.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new GradlePluginsRuntimeException(e);
+            }
+
+            return Proxy.newProxyInstance(modelType.getClassLoader(), new Class<?>[] { modelType }, new InvocationHandler() {
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name = method.getName();
+                    if (name.equals("equals") && args != null && args.length == 1) {
+                        return proxy == args[0];
+                    } else if (name.equals("hashCode") && args == null) {
+                        return System.identityHashCode(proxy);
+                    } else if (name.equals("toString") && args == null) {
+                        return "Snapshot of " + ObjectNode.this.type;
+                    } else if (args == null && ObjectNode.this.properties.containsKey(name)) {
+                        return resolve(ObjectNode.this.properties.get(name), proxies);
+                    } else {
+                        throw new UnsupportedMethodException(String.format("Method %s is not available on the stored %s model", name, ObjectNode.this.type));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Reference to another node of the snapshot.
+     */
+    private static final class ObjectRef implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int id;
+
+        private ObjectRef(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * A captured list or domain object set.
+     */
+    private static final class ListValue implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<Object> elements;
+        private final boolean domainObjectSet;
+
+        private ListValue(List<Object> elements, boolean domainObjectSet) {
+            this.elements = new ArrayList<Object>(elements);
+            this.domainObjectSet = domainObjectSet;
+        }
+    }
+
+    /**
+     * A captured set.
+     */
+    private static final class SetValue implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<Object> elements;
+
+        private SetValue(List<Object> elements) {
+            this.elements = new ArrayList<Object>(elements);
+        }
+    }
+
+    /**
+     * Thrown if a getter returns a value that can't be stored.
+     */
+    private static final class UnsupportedValueException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+    }
+}
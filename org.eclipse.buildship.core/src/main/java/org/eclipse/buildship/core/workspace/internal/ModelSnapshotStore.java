@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.GradleArguments;
+
+/**
+ * Stores snapshots of the models fetched for the Gradle builds in the plugin state location, so
+ * that they are available right after Eclipse is restarted.
+ * <p/>
+ * Snapshots are identified by the root directory of the build, by the digest of the Gradle
+ * arguments the model was loaded with and by a model name. Every snapshot records a fingerprint of
+ * the build files (settings, properties, wrapper properties, build scripts and the contents of the
+ * {@code buildSrc} folder) that existed when the model was loaded.
+ * A snapshot is discarded if any of these files changed. Snapshots written by a different format
+ * version are discarded as well.
+ * <p/>
+ * Snapshots are serialized and written by a background job, so storing a model doesn't delay the
+ * caller. Until it is written, a snapshot is served from memory.
+ */
+final class ModelSnapshotStore {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final File baseDirectory;
+    private final Map<File, PendingSnapshot> pendingSnapshots = Maps.newLinkedHashMap();
+    private final Set<File> discardedSnapshots = Sets.newLinkedHashSet();
+    private final Map<File, String> retainedDigests = Maps.newLinkedHashMap();
+    private final Object storeLock = new Object();
+    private final WriteJob writeJob = new WriteJob();
+
+    ModelSnapshotStore(File baseDirectory) {
+        this.baseDirectory = baseDirectory;
+    }
+
+    /**
+     * Loads the model stored under the given name.
+     *
+     * @param gradleArguments the arguments the model was loaded with
+     * @param name the name of the model
+     * @return the restored model or {@link Optional#absent()} if there is no up-to-date snapshot
+     */
+    Optional<Object> load(GradleArguments gradleArguments, String name) {
+        File file = snapshotFile(gradleArguments, name);
+        synchronized (this.pendingSnapshots) {
+            PendingSnapshot pending = this.pendingSnapshots.get(file);
+            if (pending != null) {
+                return Optional.of(pending.model);
+            } else if (this.discardedSnapshots.contains(file)) {
+                return Optional.absent();
+            }
+        }
+
+        synchronized (this.storeLock) {
+            return read(file, gradleArguments.getRootDir(), name);
+        }
+    }
+
+    private static Optional<Object> read(File file, File rootDir, String name) {
+        if (!file.isFile()) {
+            return Optional.absent();
+        }
+
+        try (ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != FORMAT_VERSION) {
+                file.delete();
+                return Optional.absent();
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, String> fingerprints = (Map<String, String>) input.readObject();
+            for (Map.Entry<String, String> fingerprint : fingerprints.entrySet()) {
+                if (!fingerprint(new File(fingerprint.getKey())).equals(fingerprint.getValue())) {
+                    CorePlugin.logger().debug(String.format("Model snapshot %s of %s is out of date", name, rootDir));
+                    file.delete();
+                    return Optional.absent();
+                }
+            }
+            ModelSnapshot snapshot = (ModelSnapshot) input.readObject();
+            return Optional.of(snapshot.restore());
+        } catch (Exception e) {
+            CorePlugin.logger().warn(String.format("Can't load model snapshot %s of %s", name, rootDir), e);
+            file.delete();
+            return Optional.absent();
+        }
+    }
+
+    /**
+     * Schedules a model to be stored under the given name. The build files are fingerprinted
+     * immediately, so that changes made before the snapshot is written invalidate it.
+     *
+     * @param gradleArguments the arguments the model was loaded with
+     * @param name the name of the model
+     * @param model the model or the collection of models to store
+     * @param modelType the Tooling API interface of the model
+     * @param buildFiles the files which invalidate the snapshot when they change
+     */
+    void store(GradleArguments gradleArguments, String name, Object model, Class<?> modelType, Collection<File> buildFiles) {
+        Map<String, String> fingerprints = new LinkedHashMap<String, String>();
+        for (File buildFile : buildFiles) {
+            fingerprints.put(buildFile.getAbsolutePath(), fingerprint(buildFile));
+        }
+
+        File file = snapshotFile(gradleArguments, name);
+        synchronized (this.pendingSnapshots) {
+            this.discardedSnapshots.remove(file);
+            this.pendingSnapshots.remove(file);
+            this.pendingSnapshots.put(file, new PendingSnapshot(gradleArguments, name, model, modelType, fingerprints));
+        }
+        this.writeJob.schedule();
+    }
+
+    /**
+     * Schedules the snapshot stored under the given name to be deleted.
+     *
+     * @param gradleArguments the arguments the model was loaded with
+     * @param name the name of the model
+     */
+    void discard(GradleArguments gradleArguments, String name) {
+        File file = snapshotFile(gradleArguments, name);
+        synchronized (this.pendingSnapshots) {
+            this.pendingSnapshots.remove(file);
+            this.discardedSnapshots.add(file);
+        }
+        this.writeJob.schedule();
+    }
+
+    /**
+     * Schedules the snapshots of the build loaded with other than the given arguments to be
+     * deleted.
+     *
+     * @param gradleArguments the current arguments of the build
+     */
+    void discardOtherThan(GradleArguments gradleArguments) {
+        File buildDirectory = buildDirectory(gradleArguments.getRootDir());
+        String digest = gradleArguments.getDigest();
+        synchronized (this.pendingSnapshots) {
+            Iterator<PendingSnapshot> iterator = this.pendingSnapshots.values().iterator();
+            while (iterator.hasNext()) {
+                GradleArguments pendingArguments = iterator.next().gradleArguments;
+                if (pendingArguments.getRootDir().equals(gradleArguments.getRootDir()) && !pendingArguments.getDigest().equals(digest)) {
+                    iterator.remove();
+                }
+            }
+            this.retainedDigests.put(buildDirectory, digest);
+        }
+        this.writeJob.schedule();
+    }
+
+    /**
+     * Deletes the discarded snapshots and writes the pending ones.
+     */
+    void flush() {
+        synchronized (this.storeLock) {
+            List<File> discardedSnapshots;
+            Map<File, String> retainedDigests;
+            synchronized (this.pendingSnapshots) {
+                discardedSnapshots = ImmutableList.copyOf(this.discardedSnapshots);
+                retainedDigests = Maps.newLinkedHashMap(this.retainedDigests);
+                this.retainedDigests.clear();
+            }
+            for (File file : discardedSnapshots) {
+                file.delete();
+            }
+            for (Map.Entry<File, String> retained : retainedDigests.entrySet()) {
+                deleteOtherThan(retained.getKey(), retained.getValue());
+            }
+            synchronized (this.pendingSnapshots) {
+                this.discardedSnapshots.removeAll(discardedSnapshots);
+            }
+        }
+
+        while (true) {
+            synchronized (this.storeLock) {
+                Map.Entry<File, PendingSnapshot> next;
+                synchronized (this.pendingSnapshots) {
+                    Iterator<Map.Entry<File, PendingSnapshot>> iterator = this.pendingSnapshots.entrySet().iterator();
+                    if (!iterator.hasNext()) {
+                        return;
+                    }
+                    next = iterator.next();
+                }
+                write(next.getKey(), next.getValue());
+                synchronized (this.pendingSnapshots) {
+                    // keep the snapshot pending if the model was stored again in the meantime
+                    if (this.pendingSnapshots.get(next.getKey()) == next.getValue()) {
+                        this.pendingSnapshots.remove(next.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+    private static void write(File file, PendingSnapshot snapshot) {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            Files.createParentDirs(tempFile);
+            try (ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                output.writeInt(FORMAT_VERSION);
+                output.writeObject(snapshot.fingerprints);
+                output.writeObject(ModelSnapshot.capture(snapshot.model, snapshot.modelType));
+            }
+            Files.move(tempFile, file);
+        } catch (Exception e) {
+            CorePlugin.logger().warn(String.format("Can't store model snapshot %s of %s", snapshot.name, snapshot.gradleArguments.getRootDir()), e);
+            tempFile.delete();
+        }
+    }
+
+    private static void deleteOtherThan(File buildDirectory, String digest) {
+        File[] children = buildDirectory.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (!child.getName().equals(digest)) {
+                delete(child);
+            }
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    void close() {
+        this.writeJob.cancel();
+        flush();
+    }
+
+    private File snapshotFile(GradleArguments gradleArguments, String name) {
+        return new File(new File(buildDirectory(gradleArguments.getRootDir()), gradleArguments.getDigest()), name);
+    }
+
+    private File buildDirectory(File rootDir) {
+        String buildId = Hashing.sha1().hashString(rootDir.getAbsolutePath(), Charsets.UTF_8).toString();
+        return new File(this.baseDirectory, buildId);
+    }
+
+    private static String fingerprint(File file) {
+        if (file.isDirectory()) {
+            long[] summary = new long[3];
+            summarizeDirectory(file, summary, true);
+            return summary[0] + ":" + summary[1] + ":" + summary[2];
+        }
+        return file.exists() ? file.lastModified() + ":" + file.length() : "";
+    }
+
+    /*
+     * Summarizes the number of files, their latest modification time and their total size. The
+     * build output of the buildSrc folder is ignored.
+     */
+    private static void summarizeDirectory(File directory, long[] summary, boolean isRoot) {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                if (!(isRoot && BuildFileHashes.EXCLUDED_BUILD_SRC_FOLDERS.contains(child.getName()))) {
+                    summarizeDirectory(child, summary, false);
+                }
+            } else {
+                summary[0]++;
+                summary[1] = Math.max(summary[1], child.lastModified());
+                summary[2] += child.length();
+            }
+        }
+    }
+
+    static ModelSnapshotStore create() {
+        return new ModelSnapshotStore(CorePlugin.getInstance().getStateLocation().append("model-snapshots").toFile());
+    }
+
+    /**
+     * A model which is not yet written to disk.
+     */
+    private static final class PendingSnapshot {
+
+        private final GradleArguments gradleArguments;
+        private final String name;
+        private final Object model;
+        private final Class<?> modelType;
+        private final Map<String, String> fingerprints;
+
+        private PendingSnapshot(GradleArguments gradleArguments, String name, Object model, Class<?> modelType, Map<String, String> fingerprints) {
+            this.gradleArguments = gradleArguments;
+            this.name = name;
+            this.model = model;
+            this.modelType = modelType;
+            this.fingerprints = fingerprints;
+        }
+    }
+
+    /**
+     * Writes the pending snapshots to disk.
+     */
+    private final class WriteJob extends Job {
+
+        private WriteJob() {
+            super("Store model snapshots of Gradle builds");
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            flush();
+            return Status.OK_STATUS;
+        }
+    }
+}
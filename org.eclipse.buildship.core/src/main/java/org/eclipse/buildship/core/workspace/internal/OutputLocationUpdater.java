@@ -12,10 +12,7 @@ import com.google.common.base.Optional;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseOutputLocation;
 
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.jdt.core.IJavaProject;
 
 /**
  * Updates the output location of the current project.
@@ -24,11 +21,11 @@ import org.eclipse.jdt.core.IJavaProject;
  */
 final class OutputLocationUpdater {
 
-    public static void update(IJavaProject project, Optional<OmniEclipseOutputLocation> outputLocation, IProgressMonitor monitor) throws CoreException {
+    public static void update(RawClasspath classpath, Optional<OmniEclipseOutputLocation> outputLocation) {
         if (outputLocation.isPresent()) {
-            IPath projectPath = project.getProject().getFullPath();
+            IPath projectPath = classpath.getProject().getProject().getFullPath();
             String outputPath = outputLocation.get().getPath();
-            project.setOutputLocation(projectPath.append(outputPath), monitor);
+            classpath.setOutputLocation(projectPath.append(outputPath));
         }
     }
 }
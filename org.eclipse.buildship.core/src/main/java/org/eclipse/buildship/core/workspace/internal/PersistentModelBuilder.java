@@ -37,6 +37,7 @@ public final class PersistentModelBuilder {
     private Collection<IPath> linkedResources;
     private Collection<String> managedNatures;
     private Collection<ICommand> managedBuilders;
+    private String fingerprint;
 
     public PersistentModelBuilder(PersistentModel previous) {
         this.previous = Preconditions.checkNotNull(previous);
@@ -49,6 +50,7 @@ public final class PersistentModelBuilder {
             this.linkedResources = previous.getLinkedResources();
             this.managedNatures = previous.getManagedNatures();
             this.managedBuilders = previous.getManagedBuilders();
+            this.fingerprint = previous.getFingerprint();
         }
     }
 
@@ -92,11 +94,24 @@ public final class PersistentModelBuilder {
         return this;
     }
 
+    public PersistentModelBuilder fingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+        return this;
+    }
+
     public PersistentModel getPrevious() {
         return this.previous;
     }
 
+    public Collection<IPath> getDerivedResources() {
+        return this.derivedResources;
+    }
+
+    public Collection<IPath> getLinkedResources() {
+        return this.linkedResources;
+    }
+
     public PersistentModel build() {
-        return new DefaultPersistentModel(this.previous.getProject(), this.buildDir, this.buildScriptPath, this.subprojectPaths, this.classpath, this.derivedResources, this.linkedResources, this.managedNatures, this.managedBuilders);
+        return new DefaultPersistentModel(this.previous.getProject(), this.buildDir, this.buildScriptPath, this.subprojectPaths, this.classpath, this.derivedResources, this.linkedResources, this.managedNatures, this.managedBuilders, this.fingerprint);
     }
 }
\ No newline at end of file
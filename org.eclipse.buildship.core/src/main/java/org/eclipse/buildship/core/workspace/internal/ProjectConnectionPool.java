@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ModelBuilder;
+import org.gradle.tooling.ProjectConnection;
+import org.gradle.tooling.model.build.BuildEnvironment;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+import com.gradleware.tooling.toolingclient.GradleDistribution;
+import com.gradleware.tooling.toolingmodel.repository.TransientRequestAttributes;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.GradleArguments;
+import org.eclipse.buildship.core.event.Event;
+import org.eclipse.buildship.core.event.EventListener;
+import org.eclipse.buildship.core.util.preference.EclipsePreferencesUtils;
+import org.eclipse.buildship.core.workspace.WorkbenchShutdownEvent;
+
+/**
+ * Keeps Tooling API project connections open between operations executed on the same Gradle build.
+ * <p/>
+ * Connections are identified by the root project directory, the Gradle distribution and the Gradle
+ * user home; all other arguments are applied on the individual operations. A connection is leased
+ * for the lifetime of an operation via {@link #acquire(GradleArguments)} and has to be handed back
+ * via {@link #release(PooledConnection)}. Connections without active leases are closed once they
+ * were idle for longer than the timeout defined in the {@value #IDLE_TIMEOUT_PREFERENCE}
+ * preference (in seconds). The idle connections are looked for every few seconds and the timeout is
+ * read on every check, so changes of the preference apply without a restart. All connections are
+ * closed when the workbench shuts down.
+ * <p/>
+ * The pool also caches the {@link BuildEnvironment} of each build so that the operations don't
+ * have to query it before every execution. As the Java home and the JVM arguments determine the
+ * daemon the model is loaded from, they are part of the cache key. Concurrent requests for the same
+ * key wait for a single fetch, and the cached models are discarded along with their connection.
+ */
+public final class ProjectConnectionPool implements EventListener {
+
+    public static final String IDLE_TIMEOUT_PREFERENCE = "connection.pool.idle.timeout";
+    private static final long DEFAULT_IDLE_TIMEOUT_SECONDS = 180;
+    private static final long EVICTION_PERIOD_SECONDS = 5;
+
+    private final Map<ConnectionKey, PooledConnection> connections = Maps.newHashMap();
+    private final ConcurrentMap<BuildEnvironmentKey, CachedBuildEnvironment> buildEnvironments = Maps.newConcurrentMap();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final ScheduledExecutorService evictionExecutor;
+
+    private ProjectConnectionPool() {
+        this.evictionExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Buildship project connection eviction");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.evictionExecutor.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                evictIdleConnections();
+            }
+        }, EVICTION_PERIOD_SECONDS, EVICTION_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns an open connection for the target build. The caller must call
+     * {@link #release(PooledConnection)} once the connection is no longer used.
+     *
+     * @param gradleArguments the arguments identifying the build
+     * @return the leased connection
+     */
+    public synchronized PooledConnection acquire(GradleArguments gradleArguments) {
+        ConnectionKey key = new ConnectionKey(gradleArguments);
+        PooledConnection pooledConnection = this.connections.get(key);
+        if (pooledConnection == null) {
+            this.missCount.incrementAndGet();
+            GradleConnector connector = GradleConnector.newConnector();
+            gradleArguments.applyTo(connector);
+            pooledConnection = new PooledConnection(key, connector.connect());
+            this.connections.put(key, pooledConnection);
+        } else {
+            this.hitCount.incrementAndGet();
+        }
+        pooledConnection.leaseCount++;
+        pooledConnection.lastUsed = System.currentTimeMillis();
+        return pooledConnection;
+    }
+
+    /**
+     * Hands back a connection obtained via {@link #acquire(GradleArguments)}.
+     *
+     * @param pooledConnection the connection to release
+     */
+    public synchronized void release(PooledConnection pooledConnection) {
+        Preconditions.checkState(pooledConnection.leaseCount > 0, "Connection is not leased");
+        pooledConnection.leaseCount--;
+        pooledConnection.lastUsed = System.currentTimeMillis();
+        if (pooledConnection.leaseCount == 0 && this.connections.get(pooledConnection.key) != pooledConnection) {
+            // the connection was discarded while it was in use
+            pooledConnection.connection.close();
+        }
+    }
+
+    /**
+     * Returns the build environment of the build the connection belongs to. The model is fetched
+     * once per build, Java home and JVM arguments and reused until the Gradle wrapper properties of
+     * the build change.
+     *
+     * @param pooledConnection the connection to use if the model has to be fetched
+     * @param gradleArguments the arguments the connection was acquired with
+     * @param transientAttributes the output streams, progress listeners and cancellation token to
+     *            use if the model has to be fetched
+     * @return the build environment, never null
+     */
+    public BuildEnvironment getBuildEnvironment(PooledConnection pooledConnection, GradleArguments gradleArguments, TransientRequestAttributes transientAttributes) {
+        BuildEnvironmentKey key = new BuildEnvironmentKey(pooledConnection.key, gradleArguments);
+        CachedBuildEnvironment cached = this.buildEnvironments.get(key);
+        if (cached == null) {
+            CachedBuildEnvironment created = new CachedBuildEnvironment();
+            cached = this.buildEnvironments.putIfAbsent(key, created);
+            if (cached == null) {
+                cached = created;
+            }
+        }
+
+        // callers of the same key wait for the running fetch instead of starting their own
+        synchronized (cached) {
+            String wrapperFingerprint = wrapperFingerprint(key.connectionKey.rootDir);
+            if (cached.buildEnvironment != null && cached.wrapperFingerprint.equals(wrapperFingerprint)) {
+                return cached.buildEnvironment;
+            }
+
+            ModelBuilder<BuildEnvironment> builder = pooledConnection.connection.model(BuildEnvironment.class);
+            builder.setJavaHome(key.javaHome);
+            builder.setJvmArguments(key.jvmArguments);
+            ConnectionAwareLauncherProxy.applyTransientAttributes(builder, transientAttributes);
+            cached.buildEnvironment = builder.get();
+            cached.wrapperFingerprint = wrapperFingerprint;
+            return cached.buildEnvironment;
+        }
+    }
+
+    private static String wrapperFingerprint(File rootDir) {
+        File wrapperProperties = new File(rootDir, "gradle/wrapper/gradle-wrapper.properties");
+        return wrapperProperties.exists() ? wrapperProperties.lastModified() + ":" + wrapperProperties.length() : "";
+    }
+
+    /**
+     * Closes all connections which are not in use and discards the ones that are. Discarded connections
+     * are closed when their last lease is released.
+     */
+    public synchronized void closeAll() {
+        Iterator<PooledConnection> iterator = this.connections.values().iterator();
+        while (iterator.hasNext()) {
+            PooledConnection pooledConnection = iterator.next();
+            iterator.remove();
+            if (pooledConnection.leaseCount == 0) {
+                pooledConnection.connection.close();
+            }
+        }
+        this.buildEnvironments.clear();
+        CorePlugin.logger().debug(String.format("Project connection pool closed (hits: %d, misses: %d)", getHitCount(), getMissCount()));
+    }
+
+    public long getHitCount() {
+        return this.hitCount.get();
+    }
+
+    public long getMissCount() {
+        return this.missCount.get();
+    }
+
+    synchronized int getOpenConnectionCount() {
+        return this.connections.size();
+    }
+
+    int getCachedBuildEnvironmentCount() {
+        return this.buildEnvironments.size();
+    }
+
+    synchronized void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        long idleTimeout = getIdleTimeoutMillis();
+        Iterator<PooledConnection> iterator = this.connections.values().iterator();
+        while (iterator.hasNext()) {
+            PooledConnection pooledConnection = iterator.next();
+            if (pooledConnection.leaseCount == 0 && now - pooledConnection.lastUsed >= idleTimeout) {
+                iterator.remove();
+                pooledConnection.connection.close();
+                discardBuildEnvironments(pooledConnection.key);
+                CorePlugin.logger().debug("Closed idle project connection for " + pooledConnection.key.rootDir);
+            }
+        }
+    }
+
+    private void discardBuildEnvironments(ConnectionKey connectionKey) {
+        Iterator<BuildEnvironmentKey> iterator = this.buildEnvironments.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().connectionKey.equals(connectionKey)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static long getIdleTimeoutMillis() {
+        long seconds = EclipsePreferencesUtils.getInstanceScope().getNode(CorePlugin.PLUGIN_ID).getLong(IDLE_TIMEOUT_PREFERENCE, DEFAULT_IDLE_TIMEOUT_SECONDS);
+        return TimeUnit.SECONDS.toMillis(Math.max(0, seconds));
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        if (event instanceof WorkbenchShutdownEvent) {
+            closeAll();
+        }
+    }
+
+    public static ProjectConnectionPool createAndRegister() {
+        ProjectConnectionPool pool = new ProjectConnectionPool();
+        CorePlugin.listenerRegistry().addEventListener(pool);
+        return pool;
+    }
+
+    public void close() {
+        CorePlugin.listenerRegistry().removeEventListener(this);
+        this.evictionExecutor.shutdownNow();
+        closeAll();
+    }
+
+    /**
+     * A project connection leased from the pool.
+     */
+    public static final class PooledConnection {
+
+        private final ConnectionKey key;
+        private final ProjectConnection connection;
+        private int leaseCount;
+        private long lastUsed;
+
+        private PooledConnection(ConnectionKey key, ProjectConnection connection) {
+            this.key = key;
+            this.connection = connection;
+        }
+
+        public ProjectConnection getConnection() {
+            return this.connection;
+        }
+    }
+
+    /**
+     * A build environment along with the state of the wrapper properties it was loaded with. The
+     * fields are guarded by the instance's monitor, which is held while the model is fetched.
+     */
+    private static final class CachedBuildEnvironment {
+
+        private BuildEnvironment buildEnvironment;
+        private String wrapperFingerprint;
+    }
+
+    /**
+     * The connection-relevant subset of the Gradle arguments.
+     */
+    private static final class ConnectionKey {
+
+        private final File rootDir;
+        private final GradleDistribution gradleDistribution;
+        private final File gradleUserHome;
+
+        private ConnectionKey(GradleArguments gradleArguments) {
+            this.rootDir = gradleArguments.getRootDir();
+            this.gradleDistribution = gradleArguments.getGradleDistribution();
+            this.gradleUserHome = gradleArguments.getGradleUserHome();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof ConnectionKey) {
+                ConnectionKey other = (ConnectionKey) obj;
+                return Objects.equal(this.rootDir, other.rootDir)
+                        && Objects.equal(this.gradleDistribution, other.gradleDistribution)
+                        && Objects.equal(this.gradleUserHome, other.gradleUserHome);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.rootDir, this.gradleDistribution, this.gradleUserHome);
+        }
+    }
+
+    /**
+     * The connection key along with the arguments which select the daemon the build environment is
+     * loaded from.
+     */
+    private static final class BuildEnvironmentKey {
+
+        private final ConnectionKey connectionKey;
+        private final File javaHome;
+        private final List<String> jvmArguments;
+
+        private BuildEnvironmentKey(ConnectionKey connectionKey, GradleArguments gradleArguments) {
+            this.connectionKey = connectionKey;
+            this.javaHome = gradleArguments.getJavaHome();
+            this.jvmArguments = gradleArguments.getJvmArguments();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof BuildEnvironmentKey) {
+                BuildEnvironmentKey other = (BuildEnvironmentKey) obj;
+                return Objects.equal(this.connectionKey, other.connectionKey)
+                        && Objects.equal(this.javaHome, other.javaHome)
+                        && Objects.equal(this.jvmArguments, other.jvmArguments);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.connectionKey, this.javaHome, this.jvmArguments);
+        }
+    }
+}
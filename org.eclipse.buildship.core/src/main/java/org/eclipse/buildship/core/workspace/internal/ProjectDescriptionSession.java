@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+import org.eclipse.core.resources.ICommand;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.eclipse.buildship.core.CorePlugin;
+
+/**
+ * Accumulates changes to the description of a project and writes them at once.
+ * <p/>
+ * Every {@link IProject#setDescription(IProjectDescription, IProgressMonitor)} call writes the
+ * {@code .project} file and triggers a resource change event. The session collects the nature,
+ * build command and comment changes of the synchronization and applies them with a single call in
+ * {@link #commit(IProgressMonitor)}. If the description did not change, nothing is written.
+ */
+final class ProjectDescriptionSession {
+
+    private final IProject project;
+    private final IProjectDescription description;
+    private final String[] originalNatureIds;
+    private final ICommand[] originalBuildSpec;
+    private final String originalComment;
+
+    private ProjectDescriptionSession(IProject project, IProjectDescription description) {
+        this.project = Preconditions.checkNotNull(project);
+        this.description = Preconditions.checkNotNull(description);
+        this.originalNatureIds = description.getNatureIds();
+        this.originalBuildSpec = description.getBuildSpec();
+        this.originalComment = description.getComment();
+    }
+
+    IProject getProject() {
+        return this.project;
+    }
+
+    IProjectDescription getDescription() {
+        return this.description;
+    }
+
+    String[] getNatureIds() {
+        return this.description.getNatureIds();
+    }
+
+    void setNatureIds(String[] natureIds) {
+        this.description.setNatureIds(natureIds);
+    }
+
+    /**
+     * Adds a nature if it is not already present and if it is recognized by Eclipse.
+     *
+     * @param natureId the nature to add
+     */
+    void addNature(String natureId) {
+        List<String> natureIds = Lists.newArrayList(this.description.getNatureIds());
+        if (!natureIds.contains(natureId) && CorePlugin.workspaceOperations().isNatureRecognizedByEclipse(natureId)) {
+            natureIds.add(natureId);
+            setNatureIds(natureIds.toArray(new String[natureIds.size()]));
+        }
+    }
+
+    void removeNature(String natureId) {
+        List<String> natureIds = Lists.newArrayList(this.description.getNatureIds());
+        if (natureIds.remove(natureId)) {
+            setNatureIds(natureIds.toArray(new String[natureIds.size()]));
+        }
+    }
+
+    ICommand[] getBuildSpec() {
+        return this.description.getBuildSpec();
+    }
+
+    void setBuildSpec(ICommand[] buildSpec) {
+        this.description.setBuildSpec(buildSpec);
+    }
+
+    /**
+     * Adds a build command or replaces the arguments of the existing command with the same name.
+     *
+     * @param name the name of the builder
+     * @param arguments the arguments of the builder
+     */
+    void addBuildCommand(String name, Map<String, String> arguments) {
+        List<ICommand> buildCommands = Lists.newArrayList(this.description.getBuildSpec());
+        for (int i = 0; i < buildCommands.size(); i++) {
+            ICommand buildCommand = buildCommands.get(i);
+            if (buildCommand.getBuilderName().equals(name)) {
+                if (!buildCommand.getArguments().equals(arguments)) {
+                    buildCommands.set(i, newCommand(name, arguments));
+                    setBuildSpec(buildCommands.toArray(new ICommand[buildCommands.size()]));
+                }
+                return;
+            }
+        }
+        buildCommands.add(newCommand(name, arguments));
+        setBuildSpec(buildCommands.toArray(new ICommand[buildCommands.size()]));
+    }
+
+    ICommand newCommand(String name, Map<String, String> arguments) {
+        ICommand command = this.description.newCommand();
+        command.setBuilderName(name);
+        command.setArguments(ImmutableMap.copyOf(arguments));
+        return command;
+    }
+
+    void setComment(String comment) {
+        this.description.setComment(comment);
+    }
+
+    boolean isChanged() {
+        return !Arrays.equals(this.originalNatureIds, this.description.getNatureIds())
+                || !Arrays.equals(this.originalBuildSpec, this.description.getBuildSpec())
+                || !Objects.equal(this.originalComment, this.description.getComment());
+    }
+
+    /**
+     * Writes the description to the project if it was changed during the session.
+     *
+     * @param monitor the monitor to report progress on
+     * @throws CoreException if the description can't be set
+     */
+    void commit(IProgressMonitor monitor) throws CoreException {
+        if (isChanged()) {
+            this.project.setDescription(this.description, monitor);
+        }
+    }
+
+    static ProjectDescriptionSession open(IProject project) throws CoreException {
+        return new ProjectDescriptionSession(project, project.getDescription());
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import com.gradleware.tooling.toolingmodel.OmniClasspathAttribute;
+import com.gradleware.tooling.toolingmodel.OmniClasspathEntry;
+import com.gradleware.tooling.toolingmodel.OmniEclipseBuildCommand;
+import com.gradleware.tooling.toolingmodel.OmniEclipseClasspathContainer;
+import com.gradleware.tooling.toolingmodel.OmniEclipseLinkedResource;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProjectDependency;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProjectNature;
+import com.gradleware.tooling.toolingmodel.OmniEclipseSourceDirectory;
+import com.gradleware.tooling.toolingmodel.OmniExternalDependency;
+import com.gradleware.tooling.toolingmodel.OmniGradleScript;
+import com.gradleware.tooling.toolingmodel.OmniJavaSourceSettings;
+import com.gradleware.tooling.toolingmodel.util.Maybe;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IAccessRule;
+import org.eclipse.jdt.core.IClasspathAttribute;
+
+import org.eclipse.buildship.core.preferences.PersistentModel;
+import org.eclipse.buildship.core.util.classpath.ClasspathUtils;
+
+/**
+ * Fingerprint of the state a workspace project is synchronized from.
+ * <p/>
+ * The fingerprint combines a hash of all parts of the {@link OmniEclipseProject} model that are
+ * applied to the workspace project with the modification stamps of the project's metadata files
+ * and the state of the derived and linked resources managed by the synchronization. If the
+ * fingerprint didn't change since the last synchronization then synchronizing the project again
+ * would not change anything.
+ */
+final class ProjectFingerprint {
+
+    // increase if the synchronization starts to depend on new model elements
+    private static final int VERSION = 1;
+
+    private static final String[] METADATA_FILES = { ".project", ".classpath", ".settings/org.eclipse.jdt.core.prefs" };
+
+    private final HashCode modelHash;
+
+    private ProjectFingerprint(HashCode modelHash) {
+        this.modelHash = modelHash;
+    }
+
+    /**
+     * Calculates the fingerprint for the current state of the workspace project.
+     *
+     * @param workspaceProject the workspace project synchronized with the model
+     * @param derivedResources the resources marked as derived by the synchronization
+     * @param linkedResources the linked resources created by the synchronization
+     * @return the fingerprint
+     */
+    String calculate(IProject workspaceProject, Collection<IPath> derivedResources, Collection<IPath> linkedResources) {
+        Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putBytes(this.modelHash.asBytes());
+        hasher.putString(workspaceProject.getName(), Charsets.UTF_8);
+        for (String file : METADATA_FILES) {
+            hasher.putLong(workspaceProject.getFile(file).getModificationStamp());
+        }
+        // e.g. a build folder recreated outside of Eclipse is no longer marked as derived
+        for (IPath path : derivedResources) {
+            IResource resource = workspaceProject.findMember(path);
+            putString(hasher, path.toPortableString());
+            hasher.putBoolean(resource != null && resource.isDerived());
+        }
+        for (IPath path : linkedResources) {
+            IResource resource = workspaceProject.findMember(path);
+            putString(hasher, path.toPortableString());
+            hasher.putBoolean(resource != null && resource.isLinked());
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Returns {@code true} if the fingerprint of the current state of the workspace project
+     * matches the given one.
+     *
+     * @param previousModel the model persisted after the last synchronization
+     * @param workspaceProject the workspace project
+     * @return whether the fingerprints match
+     */
+    boolean matches(PersistentModel previousModel, IProject workspaceProject) {
+        String fingerprint = previousModel.getFingerprint();
+        return fingerprint != null && fingerprint.equals(calculate(workspaceProject, previousModel.getDerivedResources(), previousModel.getLinkedResources()));
+    }
+
+    static ProjectFingerprint of(OmniEclipseProject project) {
+        Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putInt(VERSION);
+        putString(hasher, project.getName());
+        putFile(hasher, project.getProjectDirectory());
+        putBuildScript(hasher, project.getGradleProject().getBuildScript());
+        for (OmniEclipseProject child : project.getAll()) {
+            putFile(hasher, child.getProjectDirectory());
+            putFile(hasher, child.getGradleProject().getBuildDirectory());
+        }
+        for (OmniEclipseLinkedResource linkedResource : project.getLinkedResources()) {
+            putString(hasher, linkedResource.getName());
+            putString(hasher, linkedResource.getType());
+            putString(hasher, linkedResource.getLocation());
+        }
+        putNatures(hasher, project.getProjectNatures());
+        putBuildCommands(hasher, project.getBuildCommands());
+        putJavaSettings(hasher, project);
+        return new ProjectFingerprint(hasher.hash());
+    }
+
+    private static void putBuildScript(Hasher hasher, Maybe<OmniGradleScript> buildScript) {
+        hasher.putBoolean(buildScript.isPresent());
+        if (buildScript.isPresent() && buildScript.get() != null) {
+            putFile(hasher, buildScript.get().getSourceFile());
+        }
+    }
+
+    private static void putNatures(Hasher hasher, Optional<List<OmniEclipseProjectNature>> natures) {
+        hasher.putBoolean(natures.isPresent());
+        if (natures.isPresent()) {
+            for (OmniEclipseProjectNature nature : natures.get()) {
+                putString(hasher, nature.getId());
+            }
+        }
+    }
+
+    private static void putBuildCommands(Hasher hasher, Optional<List<OmniEclipseBuildCommand>> buildCommands) {
+        hasher.putBoolean(buildCommands.isPresent());
+        if (buildCommands.isPresent()) {
+            for (OmniEclipseBuildCommand buildCommand : buildCommands.get()) {
+                putString(hasher, buildCommand.getName());
+                putString(hasher, String.valueOf(buildCommand.getArguments()));
+            }
+        }
+    }
+
+    private static void putJavaSettings(Hasher hasher, OmniEclipseProject project) {
+        Optional<OmniJavaSourceSettings> sourceSettings = project.getJavaSourceSettings();
+        hasher.putBoolean(sourceSettings.isPresent());
+        if (!sourceSettings.isPresent()) {
+            return;
+        }
+
+        putString(hasher, sourceSettings.get().getSourceLanguageLevel().getName());
+        putString(hasher, sourceSettings.get().getTargetBytecodeLevel().getName());
+        putFile(hasher, sourceSettings.get().getTargetRuntime().getHomeDirectory());
+
+        if (project.getOutputLocation().isPresent()) {
+            putString(hasher, project.getOutputLocation().get().getPath());
+        }
+
+        for (OmniEclipseSourceDirectory sourceDirectory : project.getSourceDirectories()) {
+            putString(hasher, sourceDirectory.getPath());
+            putFile(hasher, sourceDirectory.getDirectory());
+            Maybe<String> output = sourceDirectory.getOutput();
+            putString(hasher, output.isPresent() ? output.get() : null);
+            putString(hasher, String.valueOf(sourceDirectory.getIncludes().orNull()));
+            putString(hasher, String.valueOf(sourceDirectory.getExcludes().orNull()));
+            Optional<List<OmniClasspathAttribute>> attributes = sourceDirectory.getClasspathAttributes();
+            hasher.putBoolean(attributes.isPresent());
+            if (attributes.isPresent()) {
+                for (OmniClasspathAttribute attribute : attributes.get()) {
+                    putString(hasher, attribute.getName());
+                    putString(hasher, attribute.getValue());
+                }
+            }
+        }
+
+        Optional<List<OmniEclipseClasspathContainer>> containers = project.getClasspathContainers();
+        hasher.putBoolean(containers.isPresent());
+        if (containers.isPresent()) {
+            for (OmniEclipseClasspathContainer container : containers.get()) {
+                putString(hasher, container.getPath());
+                putClasspathEntry(hasher, container, container.isExported());
+            }
+        }
+
+        for (OmniExternalDependency dependency : project.getExternalDependencies()) {
+            File file = dependency.getFile();
+            putFile(hasher, file);
+            // the classpath entry depends on the file type and on whether the file exists
+            hasher.putBoolean(file.exists());
+            hasher.putBoolean(file.isDirectory());
+            putFile(hasher, dependency.getSource());
+            putClasspathEntry(hasher, dependency, dependency.isExported());
+        }
+
+        for (OmniEclipseProjectDependency dependency : project.getProjectDependencies()) {
+            putString(hasher, dependency.getPath());
+            putClasspathEntry(hasher, dependency, dependency.isExported());
+        }
+    }
+
+    private static void putClasspathEntry(Hasher hasher, OmniClasspathEntry entry, boolean exported) {
+        hasher.putBoolean(exported);
+        for (IAccessRule rule : ClasspathUtils.createAccessRules(entry)) {
+            putString(hasher, rule.getPattern().toPortableString());
+            hasher.putInt(rule.getKind());
+        }
+        for (IClasspathAttribute attribute : ClasspathUtils.createClasspathAttributes(entry)) {
+            putString(hasher, attribute.getName());
+            putString(hasher, attribute.getValue());
+        }
+    }
+
+    private static void putFile(Hasher hasher, Maybe<File> file) {
+        putFile(hasher, file.isPresent() ? file.get() : null);
+    }
+
+    private static void putFile(Hasher hasher, File file) {
+        putString(hasher, file != null ? file.getAbsolutePath() : null);
+    }
+
+    private static void putString(Hasher hasher, String value) {
+        if (value == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(value.length());
+            hasher.putString(value, Charsets.UTF_8);
+        }
+    }
+}
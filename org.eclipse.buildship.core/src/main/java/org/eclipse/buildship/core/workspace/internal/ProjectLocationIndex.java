@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.event.Event;
+import org.eclipse.buildship.core.event.EventListener;
+import org.eclipse.buildship.core.workspace.ProjectCreatedEvent;
+import org.eclipse.buildship.core.workspace.ProjectDeletedEvent;
+import org.eclipse.buildship.core.workspace.ProjectMovedEvent;
+
+/**
+ * Index of the workspace projects by their location.
+ * <p/>
+ * The index is built on the first lookup and then maintained from the project created, deleted
+ * and moved events. As these events are only sent once the current workspace operation ends, the
+ * {@link DefaultWorkspaceOperations} also updates the index directly when it creates or renames a
+ * project. Every hit is verified, and if the project no longer exists at the indexed location, then
+ * the index is rebuilt. A miss doesn't read the project locations: the index is only rebuilt if the
+ * workspace contains projects the index wasn't notified about, e.g. ones created by another plug-in
+ * in the current workspace operation. That way the workspace is scanned at most once per unnoticed
+ * change. The locations are stored in their canonical form.
+ */
+public final class ProjectLocationIndex implements EventListener {
+
+    private final Map<File, IProject> projectsByLocation = Maps.newHashMap();
+    private final Set<IProject> indexedProjects = Sets.newHashSet();
+    private boolean initialized = false;
+    private int scanCount = 0;
+
+    private ProjectLocationIndex() {
+    }
+
+    /**
+     * Returns the workspace project at the given location.
+     *
+     * @param location the location of the project
+     * @return the project or {@link Optional#absent()} if there is no project at the location
+     */
+    public synchronized Optional<IProject> find(File location) {
+        if (!this.initialized) {
+            rebuild();
+        }
+
+        File key = canonicalize(location);
+        IProject project = this.projectsByLocation.get(key);
+        if (project != null && !isAt(project, key)) {
+            rebuild();
+            project = this.projectsByLocation.get(key);
+        }
+        if (project == null && hasUnindexedProjects()) {
+            rebuild();
+            project = this.projectsByLocation.get(key);
+        }
+        return Optional.fromNullable(project);
+    }
+
+    synchronized void add(IProject project) {
+        if (this.initialized) {
+            this.indexedProjects.add(project);
+            IPath location = project.getLocation();
+            // since Eclipse 3.4 projects can be non-local and they could return null locations
+            if (location != null) {
+                this.projectsByLocation.put(canonicalize(location.toFile()), project);
+            }
+        }
+    }
+
+    synchronized void remove(IProject project) {
+        this.indexedProjects.remove(project);
+        Iterator<IProject> iterator = this.projectsByLocation.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().equals(project)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void rebuild() {
+        this.projectsByLocation.clear();
+        this.indexedProjects.clear();
+        this.initialized = true;
+        this.scanCount++;
+        for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+            add(project);
+        }
+    }
+
+    /*
+     * Only compares the project handles, so unlike the rebuild it doesn't access the file system.
+     */
+    private boolean hasUnindexedProjects() {
+        IProject[] projects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
+        if (projects.length != this.indexedProjects.size()) {
+            return true;
+        }
+        for (IProject project : projects) {
+            if (!this.indexedProjects.contains(project)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized int getScanCount() {
+        return this.scanCount;
+    }
+
+    private static boolean isAt(IProject project, File canonicalLocation) {
+        IPath location = project.exists() ? project.getLocation() : null;
+        return location != null && canonicalize(location.toFile()).equals(canonicalLocation);
+    }
+
+    private static File canonicalize(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        if (event instanceof ProjectCreatedEvent) {
+            add(((ProjectCreatedEvent) event).getProject());
+        } else if (event instanceof ProjectDeletedEvent) {
+            remove(((ProjectDeletedEvent) event).getProject());
+        } else if (event instanceof ProjectMovedEvent) {
+            ProjectMovedEvent movedEvent = (ProjectMovedEvent) event;
+            remove(ResourcesPlugin.getWorkspace().getRoot().getProject(movedEvent.getPreviousName()));
+            add(movedEvent.getProject());
+        }
+    }
+
+    public static ProjectLocationIndex createAndRegister() {
+        ProjectLocationIndex index = new ProjectLocationIndex();
+        CorePlugin.listenerRegistry().addEventListener(index);
+        return index;
+    }
+
+    public synchronized void close() {
+        CorePlugin.listenerRegistry().removeEventListener(this);
+        this.projectsByLocation.clear();
+        this.indexedProjects.clear();
+        this.initialized = false;
+    }
+}
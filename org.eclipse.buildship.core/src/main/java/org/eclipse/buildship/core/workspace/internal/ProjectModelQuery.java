@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.gradle.tooling.BuildAction;
+import org.gradle.tooling.BuildController;
+import org.gradle.tooling.model.eclipse.EclipseProject;
+import org.gradle.tooling.model.gradle.BasicGradleProject;
+import org.gradle.tooling.model.gradle.GradleBuild;
+
+/**
+ * Build action to query the {@link EclipseProject} models of selected projects only.
+ * <p/>
+ * The projects are identified by their project directories and are searched in the root build and
+ * in all included builds. The result contains one model per project found, in the order the
+ * projects are visited.
+ * <p/>
+ * The action is executed in the Gradle process, so its implementation and its result can only
+ * reference JDK and Tooling API types.
+ */
+public final class ProjectModelQuery implements BuildAction<List<EclipseProject>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Set<File> projectDirectories;
+
+    public ProjectModelQuery(Collection<File> projectDirectories) {
+        this.projectDirectories = new HashSet<File>(projectDirectories);
+    }
+
+    @Override
+    public List<EclipseProject> execute(BuildController controller) {
+        List<EclipseProject> result = new ArrayList<EclipseProject>();
+        collectProjectModels(controller, controller.getBuildModel(), result);
+        return result;
+    }
+
+    private void collectProjectModels(BuildController controller, GradleBuild build, List<EclipseProject> result) {
+        for (BasicGradleProject project : build.getProjects()) {
+            if (this.projectDirectories.contains(project.getProjectDirectory())) {
+                result.add(controller.getModel(project, EclipseProject.class));
+            }
+        }
+
+        for (GradleBuild includedBuild : build.getIncludedBuilds()) {
+            collectProjectModels(controller, includedBuild, result);
+        }
+    }
+}
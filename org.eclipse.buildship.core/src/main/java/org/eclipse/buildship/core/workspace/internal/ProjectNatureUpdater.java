@@ -21,7 +21,6 @@ import com.google.common.collect.Sets;
 import com.gradleware.tooling.toolingmodel.OmniEclipseProjectNature;
 
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 
@@ -39,17 +38,21 @@ final class ProjectNatureUpdater {
     }
 
     public static void update(IProject project, Optional<List<OmniEclipseProjectNature>> projectNatures, PersistentModelBuilder persistentModel, IProgressMonitor monitor) throws CoreException {
+        ProjectDescriptionSession session = ProjectDescriptionSession.open(project);
+        update(session, projectNatures, persistentModel);
+        session.commit(monitor);
+    }
+
+    public static void update(ProjectDescriptionSession session, Optional<List<OmniEclipseProjectNature>> projectNatures, PersistentModelBuilder persistentModel) {
         PersistentModel previousPersistentModel = persistentModel.getPrevious();
         Set<String> managedNatures = previousPersistentModel.isPresent() ? Sets.newLinkedHashSet(previousPersistentModel.getManagedNatures()) : Sets.<String>newLinkedHashSet();
 
         Set<String> modelNatures = toNatures(projectNatures);
-        IProjectDescription description = project.getDescription();
-        Set<String> existingNatures = Sets.newLinkedHashSet(Arrays.asList(description.getNatureIds()));
+        Set<String> existingNatures = Sets.newLinkedHashSet(Arrays.asList(session.getNatureIds()));
 
         Result<String> result = ManagedModelMergingStrategy.calculate(existingNatures, modelNatures, managedNatures);
 
-        description.setNatureIds(result.getNextElements().toArray(new String[0]));
-        project.setDescription(description, monitor);
+        session.setNatureIds(result.getNextElements().toArray(new String[0]));
         persistentModel.managedNatures(result.getNextManaged());
     }
 
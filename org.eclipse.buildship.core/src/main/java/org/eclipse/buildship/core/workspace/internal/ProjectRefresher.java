@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+import com.gradleware.tooling.toolingmodel.OmniEclipseSourceDirectory;
+import com.gradleware.tooling.toolingmodel.OmniExternalDependency;
+import com.gradleware.tooling.toolingmodel.util.Maybe;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.SubMonitor;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.GradlePluginsRuntimeException;
+import org.eclipse.buildship.core.util.file.RelativePathUtils;
+import org.eclipse.buildship.core.util.preference.EclipsePreferencesUtils;
+
+/**
+ * Refreshes the resources of a project before the synchronization reads and modifies them.
+ * <p/>
+ * Refreshing the whole project is expensive if it contains large build output or dependency
+ * folders. By default, only the resources used by the updaters are refreshed: the direct children
+ * of the project, the {@code .settings} folder, the source folders, the libraries and source
+ * archives stored inside the project, e.g. in a {@code libs} folder, and the derived folders. The
+ * content of the derived folders is not refreshed. The full refresh can be enabled with the
+ * {@link #FULL_REFRESH_PREFERENCE} preference, see the FAQ in the user documentation.
+ */
+final class ProjectRefresher {
+
+    public static final String FULL_REFRESH_PREFERENCE = "synchronization.full.refresh";
+
+    private static final String DEFAULT_BUILD_DIR_NAME = "build";
+
+    private ProjectRefresher() {
+    }
+
+    /**
+     * Refreshes the resources of the project which are read or modified during the
+     * synchronization.
+     *
+     * @param project the project to refresh
+     * @param model the Gradle model of the project
+     * @param monitor the monitor to report progress on
+     */
+    static void refresh(IProject project, OmniEclipseProject model, IProgressMonitor monitor) {
+        if (isFullRefreshEnabled() || project.getLocation() == null) {
+            CorePlugin.workspaceOperations().refreshProject(project, monitor);
+        } else {
+            Set<IPath> sourceFolders = sourceFolderPaths(model);
+            Set<IPath> libraries = localLibraryPaths(project, model);
+            Set<IPath> derivedFolders = derivedFolderPaths(project, model);
+            SubMonitor progress = SubMonitor.convert(monitor, 2 + sourceFolders.size() + libraries.size() + derivedFolders.size());
+            refreshMetadata(project, progress.newChild(2));
+            for (IPath sourceFolder : sourceFolders) {
+                refreshFolder(project, sourceFolder, IResource.DEPTH_INFINITE, progress.newChild(1));
+            }
+            for (IPath library : libraries) {
+                refreshLibrary(project, library, progress.newChild(1));
+            }
+            for (IPath derivedFolder : derivedFolders) {
+                refreshFolder(project, derivedFolder, IResource.DEPTH_ZERO, progress.newChild(1));
+            }
+        }
+    }
+
+    /**
+     * Refreshes the project descriptor and the project preferences.
+     *
+     * @param project the project to refresh
+     * @param monitor the monitor to report progress on
+     */
+    static void refreshMetadata(IProject project, IProgressMonitor monitor) {
+        if (isFullRefreshEnabled()) {
+            CorePlugin.workspaceOperations().refreshProject(project, monitor);
+        } else {
+            SubMonitor progress = SubMonitor.convert(monitor, 2);
+            try {
+                project.refreshLocal(IResource.DEPTH_ONE, progress.newChild(1));
+                project.getFolder(".settings").refreshLocal(IResource.DEPTH_INFINITE, progress.newChild(1));
+            } catch (CoreException e) {
+                throw new GradlePluginsRuntimeException(e);
+            }
+        }
+    }
+
+    private static void refreshFolder(IProject project, IPath path, int depth, SubMonitor progress) {
+        refreshResource(project, project.getFolder(path), depth, progress);
+    }
+
+    private static void refreshLibrary(IProject project, IPath path, SubMonitor progress) {
+        // class folders are refreshed with their content, archives by themselves
+        if (project.getLocation().append(path).toFile().isDirectory()) {
+            refreshResource(project, project.getFolder(path), IResource.DEPTH_INFINITE, progress);
+        } else {
+            refreshResource(project, project.getFile(path), IResource.DEPTH_ZERO, progress);
+        }
+    }
+
+    private static void refreshResource(IProject project, IResource resource, int depth, SubMonitor progress) {
+        IPath path = resource.getProjectRelativePath();
+        progress.setWorkRemaining(path.segmentCount());
+        try {
+            // make sure the parent folders are known to the workspace, without refreshing their content
+            for (int i = 1; i < path.segmentCount(); i++) {
+                project.getFolder(path.uptoSegment(i)).refreshLocal(IResource.DEPTH_ZERO, progress.newChild(1));
+            }
+            resource.refreshLocal(depth, progress.newChild(1));
+        } catch (CoreException e) {
+            throw new GradlePluginsRuntimeException(e);
+        }
+    }
+
+    private static Set<IPath> sourceFolderPaths(OmniEclipseProject model) {
+        Set<IPath> result = Sets.newLinkedHashSet();
+        for (OmniEclipseSourceDirectory sourceDirectory : model.getSourceDirectories()) {
+            addIfRelative(result, new Path(sourceDirectory.getPath()));
+        }
+        return result;
+    }
+
+    private static Set<IPath> localLibraryPaths(IProject project, OmniEclipseProject model) {
+        Set<IPath> result = Sets.newLinkedHashSet();
+        IPath projectLocation = project.getLocation();
+        for (OmniExternalDependency dependency : model.getExternalDependencies()) {
+            addIfInsideProject(result, projectLocation, dependency.getFile());
+            addIfInsideProject(result, projectLocation, dependency.getSource());
+        }
+        return result;
+    }
+
+    private static void addIfInsideProject(Set<IPath> paths, IPath projectLocation, File file) {
+        if (file != null) {
+            IPath location = Path.fromOSString(file.getAbsolutePath());
+            if (projectLocation.isPrefixOf(location)) {
+                addIfRelative(paths, RelativePathUtils.getRelativePath(projectLocation, location));
+            }
+        }
+    }
+
+    private static Set<IPath> derivedFolderPaths(IProject project, OmniEclipseProject model) {
+        Set<IPath> result = Sets.newLinkedHashSet();
+        result.add(new Path(".gradle"));
+        IPath projectLocation = project.getLocation();
+        for (OmniEclipseProject current : model.getAll()) {
+            IPath currentLocation = Path.fromOSString(current.getProjectDirectory().getPath());
+            if (projectLocation.isPrefixOf(currentLocation)) {
+                IPath relativePath = RelativePathUtils.getRelativePath(projectLocation, currentLocation);
+                Maybe<File> buildDirectory = current.getGradleProject().getBuildDirectory();
+                IPath buildDirLocation = buildDirectory.isPresent() && buildDirectory.get() != null
+                        ? Path.fromOSString(buildDirectory.get().getPath())
+                        : currentLocation.append(DEFAULT_BUILD_DIR_NAME);
+                if (projectLocation.isPrefixOf(buildDirLocation)) {
+                    addIfRelative(result, RelativePathUtils.getRelativePath(projectLocation, buildDirLocation));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void addIfRelative(Set<IPath> paths, IPath path) {
+        if (!path.isAbsolute() && path.segmentCount() > 0 && !"..".equals(path.segment(0))) {
+            paths.add(path);
+        }
+    }
+
+    private static boolean isFullRefreshEnabled() {
+        return EclipsePreferencesUtils.getInstanceScope().getNode(CorePlugin.PLUGIN_ID).getBoolean(FULL_REFRESH_PREFERENCE, false);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Working copy of the raw classpath and the default output location of a Java project.
+ * <p/>
+ * The classpath updaters modify the working copy instead of the project. The result is written
+ * with a single call to {@link IJavaProject#setRawClasspath(IClasspathEntry[], IPath, IProgressMonitor)},
+ * and only if it differs from the current state of the project. This way the {@code .classpath}
+ * file is written and validated by JDT at most once per synchronization.
+ */
+final class RawClasspath {
+
+    private final IJavaProject project;
+    private final IClasspathEntry[] originalEntries;
+    private final IPath originalOutputLocation;
+    private final List<IClasspathEntry> entries;
+    private IPath outputLocation;
+
+    private RawClasspath(IJavaProject project, IClasspathEntry[] entries, IPath outputLocation) {
+        this.project = Preconditions.checkNotNull(project);
+        this.originalEntries = entries;
+        this.originalOutputLocation = outputLocation;
+        this.entries = Lists.newArrayList(entries);
+        this.outputLocation = outputLocation;
+    }
+
+    IJavaProject getProject() {
+        return this.project;
+    }
+
+    /**
+     * Returns the mutable list of classpath entries.
+     *
+     * @return the classpath entries
+     */
+    List<IClasspathEntry> getEntries() {
+        return this.entries;
+    }
+
+    IPath getOutputLocation() {
+        return this.outputLocation;
+    }
+
+    void setOutputLocation(IPath outputLocation) {
+        this.outputLocation = Preconditions.checkNotNull(outputLocation);
+    }
+
+    boolean isChanged() {
+        return !Objects.equal(this.outputLocation, this.originalOutputLocation) || !Arrays.equals(this.originalEntries, toArray());
+    }
+
+    /**
+     * Writes the classpath and the output location to the project if they were changed.
+     *
+     * @param monitor the monitor to report progress on
+     * @throws JavaModelException if the classpath modification fails
+     */
+    void save(IProgressMonitor monitor) throws JavaModelException {
+        if (isChanged()) {
+            this.project.setRawClasspath(toArray(), this.outputLocation, monitor);
+        }
+    }
+
+    private IClasspathEntry[] toArray() {
+        return this.entries.toArray(new IClasspathEntry[this.entries.size()]);
+    }
+
+    static RawClasspath load(IJavaProject project) throws JavaModelException {
+        return new RawClasspath(project, project.getRawClasspath(), project.getOutputLocation());
+    }
+}
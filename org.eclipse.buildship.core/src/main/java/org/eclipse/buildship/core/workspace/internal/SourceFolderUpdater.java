@@ -17,7 +17,6 @@ import java.util.Map;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import com.gradleware.tooling.toolingmodel.OmniClasspathAttribute;
@@ -65,11 +64,9 @@ final class SourceFolderUpdater {
         }
     }
 
-    private void updateSourceFolders(IProgressMonitor monitor) throws JavaModelException {
-        List<IClasspathEntry> classpath = Lists.newArrayList(this.project.getRawClasspath());
+    private void updateSourceFolders(List<IClasspathEntry> classpath) {
         updateExistingSourceFolders(classpath);
         addNewSourceFolders(classpath);
-        this.project.setRawClasspath(classpath.toArray(new IClasspathEntry[0]), monitor);
     }
 
     private void updateExistingSourceFolders(List<IClasspathEntry> classpath) {
@@ -170,8 +167,21 @@ final class SourceFolderUpdater {
      * @throws JavaModelException if the classpath modification fails
      */
     public static void update(IJavaProject project, List<OmniEclipseSourceDirectory> sourceFolders, IProgressMonitor monitor) throws JavaModelException {
-        SourceFolderUpdater updater = new SourceFolderUpdater(project, sourceFolders);
-        updater.updateSourceFolders(monitor);
+        RawClasspath classpath = RawClasspath.load(project);
+        update(classpath, sourceFolders);
+        classpath.save(monitor);
+    }
+
+    /**
+     * Updates the source folders in the classpath working copy.
+     *
+     * @param classpath the classpath of the target project
+     * @param sourceFolders the list of source folders from the Gradle model to assign to the
+     *            project
+     */
+    public static void update(RawClasspath classpath, List<OmniEclipseSourceDirectory> sourceFolders) {
+        SourceFolderUpdater updater = new SourceFolderUpdater(classpath.getProject(), sourceFolders);
+        updater.updateSourceFolders(classpath.getEntries());
     }
 
     /**
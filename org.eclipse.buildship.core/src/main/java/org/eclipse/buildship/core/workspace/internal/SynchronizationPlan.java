@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Sets;
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+
+import org.eclipse.core.resources.IProject;
+
+/**
+ * Describes the changes a synchronization applies to the workspace.
+ * <p/>
+ * The plan is calculated by the {@link SynchronizationPlanner} without holding any scheduling rule
+ * and it is then applied by the {@link SynchronizeGradleBuildOperation}. As the workspace can change
+ * in between, the apply phase re-validates every project change before executing it. The plan can
+ * also be rendered as a report, e.g. to show what a synchronization would do without executing it.
+ * <p/>
+ * Besides the decision for each project, the plan contains the expected differences of the
+ * dependencies, the source folders and the linked resources. These are only used for the report,
+ * the actual changes are still calculated by the updaters in the apply phase.
+ */
+final class SynchronizationPlan {
+
+    /**
+     * The action to be taken for a single project.
+     */
+    enum Action {
+        UNCOUPLE("uncouple"),
+        SYNCHRONIZE("synchronize"),
+        UP_TO_DATE("up to date"),
+        SKIP_CLOSED("skip closed"),
+        IMPORT_EXISTING("import existing"),
+        CREATE("create"),
+        IGNORE("ignore");
+
+        private final String label;
+
+        private Action(String label) {
+            this.label = label;
+        }
+    }
+
+    private final File rootProjectDirectory;
+    private final List<IProject> projectsToUncouple;
+    private final List<ProjectChange> projectChanges;
+
+    SynchronizationPlan(File rootProjectDirectory, List<IProject> projectsToUncouple, List<ProjectChange> projectChanges) {
+        this.rootProjectDirectory = Preconditions.checkNotNull(rootProjectDirectory);
+        this.projectsToUncouple = ImmutableList.copyOf(projectsToUncouple);
+        this.projectChanges = ImmutableList.copyOf(projectChanges);
+    }
+
+    List<IProject> getProjectsToUncouple() {
+        return this.projectsToUncouple;
+    }
+
+    List<ProjectChange> getProjectChanges() {
+        return this.projectChanges;
+    }
+
+    /**
+     * Renders the plan in a human-readable form.
+     *
+     * @return the report
+     */
+    String toReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Synchronization plan for Gradle build at %s", this.rootProjectDirectory));
+        for (IProject project : this.projectsToUncouple) {
+            appendLine(report, Action.UNCOUPLE, project.getName(), ImmutableList.<String>of());
+        }
+        for (ProjectChange change : this.projectChanges) {
+            appendLine(report, change.getAction(), change.getProject().getName(), change.getDetails());
+            appendDifference(report, "dependency", change.getClasspathDifference());
+            appendDifference(report, "source folder", change.getSourceFolderDifference());
+            appendDifference(report, "linked resource", change.getLinkedResourceDifference());
+        }
+        return report.toString();
+    }
+
+    private static void appendLine(StringBuilder report, Action action, String projectName, List<String> details) {
+        report.append(String.format("%n  %-16s%s", action.label, projectName));
+        if (!details.isEmpty()) {
+            report.append(" (").append(Joiner.on("; ").join(details)).append(')');
+        }
+    }
+
+    private static void appendDifference(StringBuilder report, String name, Difference difference) {
+        for (String added : difference.getAdded()) {
+            report.append(String.format("%n    + %s %s", name, added));
+        }
+        for (String removed : difference.getRemoved()) {
+            report.append(String.format("%n    - %s %s", name, removed));
+        }
+    }
+
+    /**
+     * The entries added to and removed from a set of project elements, e.g. the dependencies.
+     */
+    static final class Difference {
+
+        static final Difference NONE = new Difference(ImmutableSortedSet.<String>of(), ImmutableSortedSet.<String>of());
+
+        private final Set<String> added;
+        private final Set<String> removed;
+
+        private Difference(Set<String> added, Set<String> removed) {
+            this.added = added;
+            this.removed = removed;
+        }
+
+        Set<String> getAdded() {
+            return this.added;
+        }
+
+        Set<String> getRemoved() {
+            return this.removed;
+        }
+
+        boolean isEmpty() {
+            return this.added.isEmpty() && this.removed.isEmpty();
+        }
+
+        static Difference between(Set<String> current, Set<String> next) {
+            return new Difference(ImmutableSortedSet.copyOf(Sets.difference(next, current)), ImmutableSortedSet.copyOf(Sets.difference(current, next)));
+        }
+    }
+
+    /**
+     * The planned change for a single Gradle project.
+     */
+    static final class ProjectChange {
+
+        private final OmniEclipseProject project;
+        private final Action action;
+        private final ProjectFingerprint fingerprint;
+        private final List<String> details;
+        private final Difference classpathDifference;
+        private final Difference sourceFolderDifference;
+        private final Difference linkedResourceDifference;
+
+        ProjectChange(OmniEclipseProject project, Action action, ProjectFingerprint fingerprint, List<String> details) {
+            this(project, action, fingerprint, details, Difference.NONE, Difference.NONE, Difference.NONE);
+        }
+
+        ProjectChange(OmniEclipseProject project, Action action, ProjectFingerprint fingerprint, List<String> details,
+                      Difference classpathDifference, Difference sourceFolderDifference, Difference linkedResourceDifference) {
+            this.project = Preconditions.checkNotNull(project);
+            this.action = Preconditions.checkNotNull(action);
+            this.fingerprint = Preconditions.checkNotNull(fingerprint);
+            this.details = ImmutableList.copyOf(details);
+            this.classpathDifference = Preconditions.checkNotNull(classpathDifference);
+            this.sourceFolderDifference = Preconditions.checkNotNull(sourceFolderDifference);
+            this.linkedResourceDifference = Preconditions.checkNotNull(linkedResourceDifference);
+        }
+
+        OmniEclipseProject getProject() {
+            return this.project;
+        }
+
+        Action getAction() {
+            return this.action;
+        }
+
+        ProjectFingerprint getFingerprint() {
+            return this.fingerprint;
+        }
+
+        List<String> getDetails() {
+            return this.details;
+        }
+
+        Difference getClasspathDifference() {
+            return this.classpathDifference;
+        }
+
+        Difference getSourceFolderDifference() {
+            return this.sourceFolderDifference;
+        }
+
+        Difference getLinkedResourceDifference() {
+            return this.linkedResourceDifference;
+        }
+
+        /**
+         * Returns {@code true} if the project should be imported in case it's not present in the
+         * workspace when the plan is applied.
+         *
+         * @return whether the project can be imported
+         */
+        boolean isImportAllowed() {
+            return this.action == Action.CREATE || this.action == Action.IMPORT_EXISTING;
+        }
+    }
+}
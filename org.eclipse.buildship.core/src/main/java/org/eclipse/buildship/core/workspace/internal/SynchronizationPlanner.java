@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.core.workspace.internal;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import com.gradleware.tooling.toolingmodel.OmniEclipseLinkedResource;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
+import com.gradleware.tooling.toolingmodel.OmniEclipseProjectDependency;
+import com.gradleware.tooling.toolingmodel.OmniEclipseSourceDirectory;
+import com.gradleware.tooling.toolingmodel.OmniExternalDependency;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.BuildConfiguration;
+import org.eclipse.buildship.core.configuration.GradleProjectNature;
+import org.eclipse.buildship.core.configuration.ProjectConfiguration;
+import org.eclipse.buildship.core.preferences.PersistentModel;
+import org.eclipse.buildship.core.workspace.NewProjectHandler;
+import org.eclipse.buildship.core.workspace.internal.SynchronizationPlan.Action;
+import org.eclipse.buildship.core.workspace.internal.SynchronizationPlan.Difference;
+import org.eclipse.buildship.core.workspace.internal.SynchronizationPlan.ProjectChange;
+
+/**
+ * Calculates the {@link SynchronizationPlan} for a Gradle build.
+ * <p/>
+ * The planner only reads the workspace and the persisted models, so it can be executed without
+ * holding any scheduling rule. The {@link NewProjectHandler} is asked once for every Gradle project
+ * not yet present in the workspace.
+ */
+final class SynchronizationPlanner {
+
+    private final Set<OmniEclipseProject> allProjects;
+    private final Set<OmniEclipseProject> projectsToSynchronize;
+    private final BuildConfiguration buildConfig;
+    private final NewProjectHandler newProjectHandler;
+
+    SynchronizationPlanner(Set<OmniEclipseProject> allProjects, Set<OmniEclipseProject> projectsToSynchronize, BuildConfiguration buildConfig, NewProjectHandler newProjectHandler) {
+        this.allProjects = allProjects;
+        this.projectsToSynchronize = projectsToSynchronize;
+        this.buildConfig = buildConfig;
+        this.newProjectHandler = newProjectHandler;
+    }
+
+    SynchronizationPlan plan(IProgressMonitor monitor) {
+        SubMonitor progress = SubMonitor.convert(monitor, this.projectsToSynchronize.size() + 1);
+        progress.subTask(String.format("Calculating changes for Gradle build at %s", this.buildConfig.getRootProjectDirectory()));
+
+        List<IProject> projectsToUncouple = isPartialSynchronization() ? ImmutableList.<IProject>of() : getOpenWorkspaceProjectsRemovedFromGradleBuild();
+        progress.worked(1);
+
+        List<ProjectChange> projectChanges = Lists.newArrayList();
+        for (OmniEclipseProject project : this.projectsToSynchronize) {
+            projectChanges.add(planProject(project, progress.newChild(1)));
+        }
+        return new SynchronizationPlan(this.buildConfig.getRootProjectDirectory(), projectsToUncouple, projectChanges);
+    }
+
+    private boolean isPartialSynchronization() {
+        return this.projectsToSynchronize.size() < this.allProjects.size();
+    }
+
+    private List<IProject> getOpenWorkspaceProjectsRemovedFromGradleBuild() {
+        // in the workspace, find all projects with a Gradle nature that belong to the same Gradle build (based on the root project directory) but
+        // which do not match the location of one of the Gradle projects of that build
+        final Set<File> gradleProjectDirectories = getProjectDirectories(this.allProjects);
+        ImmutableList<IProject> allWorkspaceProjects = CorePlugin.workspaceOperations().getAllProjects();
+
+        return FluentIterable.from(allWorkspaceProjects).filter(new Predicate<IProject>() {
+
+            @Override
+            public boolean apply(IProject project) {
+                return isRemovedFromGradleBuild(project, SynchronizationPlanner.this.buildConfig.getRootProjectDirectory(), gradleProjectDirectories);
+            }
+        }).toList();
+    }
+
+    static Set<File> getProjectDirectories(Set<OmniEclipseProject> gradleProjects) {
+        return FluentIterable.from(gradleProjects).transform(new Function<OmniEclipseProject, File>() {
+
+            @Override
+            public File apply(OmniEclipseProject gradleProject) {
+                return gradleProject.getProjectDirectory();
+            }
+        }).toSet();
+    }
+
+    /**
+     * Returns {@code true} if the workspace project is an open Gradle project of the given build
+     * but is not located at the directory of any of the build's Gradle projects.
+     *
+     * @param project the workspace project
+     * @param rootProjectDirectory the root directory of the Gradle build
+     * @param gradleProjectDirectories the directories of all Gradle projects of the build
+     * @return whether the project has to be uncoupled from the build
+     */
+    static boolean isRemovedFromGradleBuild(IProject project, File rootProjectDirectory, Set<File> gradleProjectDirectories) {
+        if (!project.isAccessible() || !GradleProjectNature.isPresentOn(project)) {
+            return false;
+        }
+        ProjectConfiguration projectConfiguration = CorePlugin.configurationManager().tryLoadProjectConfiguration(project);
+        if (projectConfiguration != null) {
+            BuildConfiguration buildConfiguration = projectConfiguration.getBuildConfiguration();
+            return buildConfiguration.getRootProjectDirectory().equals(rootProjectDirectory)
+                    && (project.getLocation() == null || !gradleProjectDirectories.contains(project.getLocation().toFile()));
+        } else {
+            return false;
+        }
+    }
+
+    private ProjectChange planProject(OmniEclipseProject project, SubMonitor progress) {
+        ProjectFingerprint fingerprint = ProjectFingerprint.of(project);
+        Optional<IProject> workspaceProject = CorePlugin.workspaceOperations().findProjectByLocation(project.getProjectDirectory());
+        if (workspaceProject.isPresent()) {
+            IProject existingProject = workspaceProject.get();
+            if (!existingProject.isAccessible()) {
+                return new ProjectChange(project, Action.SKIP_CLOSED, fingerprint, ImmutableList.<String>of());
+            } else {
+                return planOpenWorkspaceProject(project, existingProject, fingerprint);
+            }
+        } else if (!project.getProjectDirectory().exists()) {
+            return new ProjectChange(project, Action.IGNORE, fingerprint, ImmutableList.of("project directory does not exist"));
+        } else if (!this.newProjectHandler.shouldImport(project)) {
+            return new ProjectChange(project, Action.IGNORE, fingerprint, ImmutableList.of("not imported"));
+        } else {
+            Optional<IProjectDescription> description = CorePlugin.workspaceOperations().findProjectDescriptor(project.getProjectDirectory(), progress);
+            Action action = description.isPresent() ? Action.IMPORT_EXISTING : Action.CREATE;
+            List<String> details = ImmutableList.of(String.format("at %s", project.getProjectDirectory()));
+            if (project.getJavaSourceSettings().isPresent()) {
+                IPath projectPath = new Path("/" + project.getName());
+                return new ProjectChange(project, action, fingerprint, details,
+                        Difference.between(ImmutableSet.<String>of(), dependencyPaths(project)),
+                        Difference.between(ImmutableSet.<String>of(), sourceFolderPaths(projectPath, project)),
+                        Difference.between(ImmutableSet.<String>of(), linkedResourcePaths(project)));
+            } else {
+                return new ProjectChange(project, action, fingerprint, details,
+                        Difference.NONE, Difference.NONE, Difference.between(ImmutableSet.<String>of(), linkedResourcePaths(project)));
+            }
+        }
+    }
+
+    private ProjectChange planOpenWorkspaceProject(OmniEclipseProject project, IProject workspaceProject, ProjectFingerprint fingerprint) {
+        List<String> details = Lists.newArrayList();
+        if (!workspaceProject.getName().equals(project.getName())) {
+            details.add(String.format("rename from %s", workspaceProject.getName()));
+        }
+
+        PersistentModel previousModel = CorePlugin.modelPersistence().loadModel(workspaceProject);
+        if (details.isEmpty() && previousModel.isPresent() && GradleProjectNature.isPresentOn(workspaceProject)
+                && fingerprint.matches(previousModel, workspaceProject)) {
+            return new ProjectChange(project, Action.UP_TO_DATE, fingerprint, details);
+        }
+
+        Difference linkedResourceDifference = linkedResourceDifference(previousModel, project);
+        if (project.getJavaSourceSettings().isPresent()) {
+            return new ProjectChange(project, Action.SYNCHRONIZE, fingerprint, details,
+                    classpathDifference(previousModel, project), sourceFolderDifference(workspaceProject, project), linkedResourceDifference);
+        } else {
+            return new ProjectChange(project, Action.SYNCHRONIZE, fingerprint, details, Difference.NONE, Difference.NONE, linkedResourceDifference);
+        }
+    }
+
+    /**
+     * Compares the classpath persisted by the last synchronization with the dependencies of the
+     * Gradle model.
+     *
+     * @param previousModel the model persisted by the last synchronization
+     * @param project the Gradle project
+     * @return the difference of the dependency paths
+     */
+    static Difference classpathDifference(PersistentModel previousModel, OmniEclipseProject project) {
+        Set<String> current = previousModel.isPresent() ? toPaths(previousModel.getClasspath()) : ImmutableSet.<String>of();
+        return Difference.between(current, dependencyPaths(project));
+    }
+
+    /**
+     * Compares the source folders on the raw classpath of the workspace project with the source
+     * directories of the Gradle model.
+     *
+     * @param workspaceProject the workspace project
+     * @param project the Gradle project
+     * @return the difference of the source folder paths
+     */
+    static Difference sourceFolderDifference(IProject workspaceProject, OmniEclipseProject project) {
+        return Difference.between(currentSourceFolderPaths(workspaceProject), sourceFolderPaths(workspaceProject.getFullPath(), project));
+    }
+
+    /**
+     * Compares the linked resources created by the last synchronization with the linked resources
+     * of the Gradle model.
+     *
+     * @param previousModel the model persisted by the last synchronization
+     * @param project the Gradle project
+     * @return the difference of the project-relative linked resource paths
+     */
+    static Difference linkedResourceDifference(PersistentModel previousModel, OmniEclipseProject project) {
+        Set<String> current = previousModel.isPresent() ? toPortableStrings(previousModel.getLinkedResources()) : ImmutableSet.<String>of();
+        return Difference.between(current, linkedResourcePaths(project));
+    }
+
+    private static Set<String> toPaths(List<IClasspathEntry> entries) {
+        Set<String> result = Sets.newHashSet();
+        for (IClasspathEntry entry : entries) {
+            result.add(entry.getPath().toPortableString());
+        }
+        return result;
+    }
+
+    private static Set<String> dependencyPaths(OmniEclipseProject project) {
+        Set<String> result = Sets.newHashSet();
+        for (OmniExternalDependency dependency : project.getExternalDependencies()) {
+            result.add(Path.fromOSString(dependency.getFile().getAbsolutePath()).toPortableString());
+        }
+        for (OmniEclipseProjectDependency dependency : project.getProjectDependencies()) {
+            result.add(new Path("/" + dependency.getPath()).toPortableString());
+        }
+        return result;
+    }
+
+    private static Set<String> currentSourceFolderPaths(IProject workspaceProject) {
+        Set<String> result = Sets.newHashSet();
+        try {
+            if (workspaceProject.hasNature(JavaCore.NATURE_ID)) {
+                for (IClasspathEntry entry : JavaCore.create(workspaceProject).getRawClasspath()) {
+                    if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE) {
+                        result.add(entry.getPath().toPortableString());
+                    }
+                }
+            }
+        } catch (CoreException e) {
+            CorePlugin.logger().debug("Can't read the source folders of " + workspaceProject.getName(), e);
+        }
+        return result;
+    }
+
+    private static Set<String> sourceFolderPaths(IPath projectPath, OmniEclipseProject project) {
+        Set<String> result = Sets.newHashSet();
+        for (OmniEclipseSourceDirectory sourceDirectory : project.getSourceDirectories()) {
+            result.add(projectPath.append(sourceDirectory.getPath()).toPortableString());
+        }
+        return result;
+    }
+
+    private static Set<String> linkedResourcePaths(OmniEclipseProject project) {
+        Set<String> result = Sets.newHashSet();
+        for (OmniEclipseLinkedResource linkedResource : project.getLinkedResources()) {
+            // same filter as in the LinkedResourcesUpdater
+            if (linkedResource.getLocation() != null) {
+                result.add(new Path(linkedResource.getName()).toPortableString());
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> toPortableStrings(Collection<IPath> paths) {
+        Set<String> result = Sets.newHashSet();
+        for (IPath path : paths) {
+            result.add(path.toPortableString());
+        }
+        return result;
+    }
+}
@@ -16,21 +16,22 @@ import java.io.File;
 import java.util.List;
 import java.util.Set;
 
-import com.google.common.base.Function;
 import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
-import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
@@ -41,7 +42,11 @@ import org.eclipse.buildship.core.configuration.BuildConfiguration;
 import org.eclipse.buildship.core.configuration.ConfigurationManager;
 import org.eclipse.buildship.core.configuration.GradleProjectNature;
 import org.eclipse.buildship.core.configuration.ProjectConfiguration;
+import org.eclipse.buildship.core.preferences.PersistentModel;
+import org.eclipse.buildship.core.util.trace.Trace;
+import org.eclipse.buildship.core.util.trace.Trace.Span;
 import org.eclipse.buildship.core.workspace.NewProjectHandler;
+import org.eclipse.buildship.core.workspace.internal.SynchronizationPlan.ProjectChange;
 
 /**
  * Synchronizes the given Gradle build with the Eclipse workspace. The algorithm is as follows:
@@ -64,6 +69,7 @@ import org.eclipse.buildship.core.workspace.NewProjectHandler;
  * <ul>
  * <li>the project name is updated</li>
  * <li>the Gradle settings file is written</li>
+ * <li>if neither the Gradle project nor the workspace project, including the derived and linked resources, changed since the last synchronization, the remaining steps are skipped</li>
  * <li>the linked resources are set</li>
  * <li>the derived resources are marked</li>
  * <li>the project natures and build commands are set</li>
@@ -72,7 +78,7 @@ import org.eclipse.buildship.core.workspace.NewProjectHandler;
  * <li>the Java nature is added </li>
  * <li>the source compatibility settings are updated</li>
  * <li>the set of source folders is updated</li>
- * <li>the Gradle classpath container is updated</li>
+ * <li>the Gradle classpath container is calculated</li>
  * </ul>
  * </li>
  * </ul>
@@ -90,132 +96,217 @@ import org.eclipse.buildship.core.workspace.NewProjectHandler;
  * </li>
  * </ul>
  * </li>
+ * <li>Set the Gradle classpath containers of all synchronized Java projects with a single JDT operation</li>
  * </ol>
  *
  * <p/>
- * This operation changes resources. It will acquire the workspace scheduling rule to ensure an atomic operation.
- *
+ * If only a subset of the projects is selected for synchronization, then only these projects are
+ * synchronized and no projects are uncoupled. The remaining projects are only used to resolve
+ * names and references.
+ * <p/>
+ * The projects to uncouple and the decisions about importing new projects are taken from the
+ * {@link SynchronizationPlan}, which is calculated upfront without holding any scheduling rule.
+ * Every planned change is checked again against the current state of the workspace before it is
+ * applied.
+ * <p/>
+ * The operation is applied in two phases. {@link #prepareProjects(IProgressMonitor)} uncouples the
+ * removed projects, refreshes and renames the existing projects and creates or imports the new
+ * ones. These changes affect the workspace root, so the phase requires the workspace rule.
+ * {@link #updateProjects(IProgressMonitor)} then runs the updaters on the prepared projects and
+ * only requires the rule returned by {@link #getUpdateRule()}, so the updates of independent builds
+ * can run in parallel.
+ * <p/>
+ * Every project and every updater is recorded as a span in the given {@link Trace}.
  */
-final class SynchronizeGradleBuildOperation implements IWorkspaceRunnable {
+final class SynchronizeGradleBuildOperation {
 
+    private final SynchronizationPlan plan;
     private final Set<OmniEclipseProject> allProjects;
     private final BuildConfiguration buildConfig;
     private final NewProjectHandler newProjectHandler;
+    private final Trace trace;
+    private final List<PreparedProject> preparedProjects = Lists.newArrayList();
+    private final GradleClasspathContainerUpdater.Batch classpathContainers = new GradleClasspathContainerUpdater.Batch();
 
-    SynchronizeGradleBuildOperation(Set<OmniEclipseProject> allProjects, BuildConfiguration buildConfig, NewProjectHandler newProjectHandler) {
+    SynchronizeGradleBuildOperation(SynchronizationPlan plan, Set<OmniEclipseProject> allProjects, BuildConfiguration buildConfig, NewProjectHandler newProjectHandler, Trace trace) {
+        this.plan = plan;
         this.allProjects = allProjects;
         this.buildConfig = buildConfig;
         this.newProjectHandler = newProjectHandler;
+        this.trace = trace;
     }
 
-    @Override
-    public void run(IProgressMonitor monitor) throws CoreException {
-        SubMonitor progress = SubMonitor.convert(monitor);
+    /**
+     * Uncouples the removed projects and creates, imports, refreshes and renames the projects to
+     * synchronize. The caller must hold the workspace rule.
+     *
+     * @param monitor the monitor to report progress on
+     * @throws CoreException if the workspace can't be modified
+     */
+    void prepareProjects(IProgressMonitor monitor) throws CoreException {
+        List<IProject> decoupledWorkspaceProjects = this.plan.getProjectsToUncouple();
+        List<ProjectChange> projectChanges = this.plan.getProjectChanges();
+        SubMonitor progress = SubMonitor.convert(monitor, decoupledWorkspaceProjects.size() + projectChanges.size());
         progress.setTaskName(String.format("Synchronizing Gradle build at %s", this.buildConfig.getRootProjectDirectory()));
-        synchronizeProjectsWithWorkspace(progress);
-    }
 
-    private void synchronizeProjectsWithWorkspace(SubMonitor progress) throws CoreException {
-        // collect Gradle projects and Eclipse workspace projects to sync
-        List<IProject> decoupledWorkspaceProjects = getOpenWorkspaceProjectsRemovedFromGradleBuild();
-        progress.setWorkRemaining(decoupledWorkspaceProjects.size() + this.allProjects.size());
-
-
-        // uncouple the open workspace projects that do not have a corresponding Gradle project anymore
+        // uncouple the open workspace projects that do not have a corresponding Gradle project anymore;
+        // the project might have been moved or reconfigured since the plan was calculated
+        Set<File> gradleProjectDirectories = SynchronizationPlanner.getProjectDirectories(this.allProjects);
         for (IProject project : decoupledWorkspaceProjects) {
-            uncoupleWorkspaceProjectFromGradle(project, progress.newChild(1));
+            if (SynchronizationPlanner.isRemovedFromGradleBuild(project, this.buildConfig.getRootProjectDirectory(), gradleProjectDirectories)) {
+                try (Span span = this.trace.begin("project", "Uncouple " + project.getName())) {
+                    uncoupleWorkspaceProjectFromGradle(project, progress.newChild(1));
+                }
+            } else {
+                progress.worked(1);
+            }
         }
 
-        // synchronize the Gradle projects with their corresponding workspace projects
-        for (final OmniEclipseProject gradleProject : this.allProjects) {
+        // bring the workspace projects in place for the Gradle projects
+        this.preparedProjects.clear();
+        for (final ProjectChange projectChange : projectChanges) {
             ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
                 @Override
                 public void run(IProgressMonitor monitor) throws CoreException {
-                    synchronizeGradleProjectWithWorkspaceProject(gradleProject, SubMonitor.convert(monitor));
+                    try (Span span = SynchronizeGradleBuildOperation.this.trace.begin("project", "Prepare " + projectChange.getProject().getName())) {
+                        span.argument("action", projectChange.getAction());
+                        prepareProject(projectChange, SubMonitor.convert(monitor));
+                    }
                 }
             }, progress.newChild(1));
         }
-    }
-
-    private List<IProject> getOpenWorkspaceProjectsRemovedFromGradleBuild() {
-        // in the workspace, find all projects with a Gradle nature that belong to the same Gradle build (based on the root project directory) but
-        // which do not match the location of one of the Gradle projects of that build
-        final Set<File> gradleProjectDirectories = FluentIterable.from(this.allProjects).transform(new Function<OmniEclipseProject, File>() {
 
-            @Override
-            public File apply(OmniEclipseProject gradleProject) {
-                return gradleProject.getProjectDirectory();
+        // a later step might have moved an already prepared project out of the way
+        List<PreparedProject> preparedProjects = ImmutableList.copyOf(this.preparedProjects);
+        this.preparedProjects.clear();
+        for (PreparedProject preparedProject : preparedProjects) {
+            Optional<IProject> workspaceProject = CorePlugin.workspaceOperations().findProjectByLocation(preparedProject.project.getProjectDirectory());
+            if (workspaceProject.isPresent() && workspaceProject.get().isAccessible()) {
+                this.preparedProjects.add(new PreparedProject(preparedProject.project, workspaceProject.get(), preparedProject.fingerprint, preparedProject.imported));
             }
-        }).toSet();
+        }
+    }
 
-        ImmutableList<IProject> allWorkspaceProjects = CorePlugin.workspaceOperations().getAllProjects();
+    /**
+     * Returns the rule required to update the projects prepared by
+     * {@link #prepareProjects(IProgressMonitor)}.
+     *
+     * @return the rule combining the prepared projects, or {@code null} if there is nothing to update
+     */
+    ISchedulingRule getUpdateRule() {
+        List<ISchedulingRule> rules = Lists.newArrayList();
+        for (PreparedProject preparedProject : this.preparedProjects) {
+            rules.add(preparedProject.workspaceProject);
+        }
+        return rules.isEmpty() ? null : MultiRule.combine(rules.toArray(new ISchedulingRule[rules.size()]));
+    }
 
-        return FluentIterable.from(allWorkspaceProjects).filter(GradleProjectNature.isPresentOn()).filter(new Predicate<IProject>() {
+    /**
+     * Synchronizes the prepared projects with their Gradle counterparts. The caller must hold the
+     * rule returned by {@link #getUpdateRule()}.
+     *
+     * @param monitor the monitor to report progress on
+     * @throws CoreException if the workspace can't be modified
+     */
+    void updateProjects(IProgressMonitor monitor) throws CoreException {
+        SubMonitor progress = SubMonitor.convert(monitor, this.preparedProjects.size() + 1);
+        progress.setTaskName(String.format("Synchronizing Gradle build at %s", this.buildConfig.getRootProjectDirectory()));
 
-            @Override
-            public boolean apply(IProject project) {
-                    ProjectConfiguration projectConfiguration = CorePlugin.configurationManager().tryLoadProjectConfiguration(project);
-                    if (projectConfiguration != null) {
-                        BuildConfiguration buildConfiguration = projectConfiguration.getBuildConfiguration();
-                        return buildConfiguration.getRootProjectDirectory().equals(SynchronizeGradleBuildOperation.this.buildConfig.getRootProjectDirectory())
-                                && (project.getLocation() == null || !gradleProjectDirectories.contains(project.getLocation().toFile()));
-                    } else {
-                        return false;
+        // synchronize the Gradle projects with their corresponding workspace projects
+        for (final PreparedProject preparedProject : this.preparedProjects) {
+            ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+                @Override
+                public void run(IProgressMonitor monitor) throws CoreException {
+                    try (Span span = SynchronizeGradleBuildOperation.this.trace.begin("project", "Synchronize " + preparedProject.project.getName())) {
+                        updateProject(preparedProject, SubMonitor.convert(monitor));
                     }
-            }
-        }).toList();
+                }
+            }, preparedProject.workspaceProject, IWorkspace.AVOID_UPDATE, progress.newChild(1));
+        }
+
+        // set the classpath containers of all synchronized Java projects at once
+        try (Span span = this.trace.begin("updater", "GradleClasspathContainerUpdater")) {
+            this.classpathContainers.apply(progress.newChild(1));
+        }
     }
 
-    private void synchronizeGradleProjectWithWorkspaceProject(OmniEclipseProject project, SubMonitor progress) throws CoreException {
-        progress.setWorkRemaining(1);
+    private void prepareProject(ProjectChange projectChange, SubMonitor progress) throws CoreException {
+        OmniEclipseProject project = projectChange.getProject();
+        progress.setWorkRemaining(2);
         progress.subTask(String.format("Synchronize Gradle project %s with workspace project", project.getName()));
-        // check if a project already exists in the workspace at the location of the Gradle project to import
+        // the workspace might have changed since the plan was calculated, or a previous step of the
+        // synchronization might have renamed the project, so look up the workspace project again
         Optional<IProject> workspaceProject = CorePlugin.workspaceOperations().findProjectByLocation(project.getProjectDirectory());
-        SubMonitor childProgress = progress.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS);
         if (workspaceProject.isPresent()) {
-            synchronizeWorkspaceProject(project, workspaceProject.get(), childProgress);
-        } else {
-            if (project.getProjectDirectory().exists() && this.newProjectHandler.shouldImport(project)) {
-                synchronizeNonWorkspaceProject(project, childProgress);
+            // do not modify closed projects
+            if (workspaceProject.get().isAccessible()) {
+                // the updaters assume that the resources they read and modify are in sync with the file system
+                try (Span span = this.trace.begin("refresh", "Refresh")) {
+                    ProjectRefresher.refresh(workspaceProject.get(), project, progress.newChild(1));
+                }
+                IProject renamedProject;
+                try (Span span = this.trace.begin("updater", "ProjectNameUpdater")) {
+                    renamedProject = ProjectNameUpdater.updateProjectName(workspaceProject.get(), project, this.allProjects, progress.newChild(1));
+                }
+                this.preparedProjects.add(new PreparedProject(project, renamedProject, projectChange.getFingerprint(), false));
             }
+        } else if (project.getProjectDirectory().exists() && projectChange.isImportAllowed()) {
+            IProject importedProject = addProjectToWorkspace(project, progress.newChild(2));
+            this.preparedProjects.add(new PreparedProject(project, importedProject, projectChange.getFingerprint(), true));
         }
     }
 
-    private void synchronizeWorkspaceProject(OmniEclipseProject project, IProject workspaceProject, SubMonitor progress) throws CoreException {
-        if (workspaceProject.isAccessible()) {
-            synchronizeOpenWorkspaceProject(project, workspaceProject, true, progress);
-        } else {
-            synchronizeClosedWorkspaceProject(progress);
+    private void updateProject(PreparedProject preparedProject, SubMonitor progress) throws CoreException {
+        progress.setWorkRemaining(1);
+        progress.subTask(String.format("Synchronize Gradle project %s with workspace project", preparedProject.project.getName()));
+        synchronizeOpenWorkspaceProject(preparedProject.project, preparedProject.workspaceProject, preparedProject.fingerprint, progress.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
+        if (preparedProject.imported) {
+            this.newProjectHandler.afterImport(preparedProject.workspaceProject, preparedProject.project);
         }
     }
 
-    private void synchronizeOpenWorkspaceProject(OmniEclipseProject project, IProject workspaceProject, boolean refreshNeeded, SubMonitor progress) throws CoreException {
-        progress.setWorkRemaining(10);
-
-        //currently lots of our synchronization logic assumes that the whole resource tree is readable.
-        if (refreshNeeded) {
-            CorePlugin.workspaceOperations().refreshProject(workspaceProject, progress.newChild(1));
-        } else {
-            progress.worked(1);
-        }
+    private void synchronizeOpenWorkspaceProject(OmniEclipseProject project, IProject workspaceProject, ProjectFingerprint fingerprint, SubMonitor progress) throws CoreException {
+        progress.setWorkRemaining(8);
 
         // save the project configuration; has to be called after workspace project is in sync with the file system
         // otherwise the Eclipse preferences API will throw BackingStoreException
-        ConfigurationManager configManager = CorePlugin.configurationManager();
-        ProjectConfiguration projectConfig = configManager.createProjectConfiguration(this.buildConfig, project.getProjectDirectory());
-        configManager.saveProjectConfiguration(projectConfig);
+        try (Span span = this.trace.begin("updater", "ProjectConfiguration")) {
+            ConfigurationManager configManager = CorePlugin.configurationManager();
+            ProjectConfiguration projectConfig = configManager.createProjectConfiguration(this.buildConfig, project.getProjectDirectory());
+            configManager.saveProjectConfiguration(projectConfig);
+        }
 
-        workspaceProject = ProjectNameUpdater.updateProjectName(workspaceProject, project, this.allProjects, progress.newChild(1));
+        // skip the updaters if neither the model nor the project changed since the last synchronization
+        PersistentModel previousModel = CorePlugin.modelPersistence().loadModel(workspaceProject);
+        if (previousModel.isPresent() && GradleProjectNature.isPresentOn(workspaceProject) && fingerprint.matches(previousModel, workspaceProject)) {
+            return;
+        }
 
-        CorePlugin.workspaceOperations().addNature(workspaceProject, GradleProjectNature.ID, progress.newChild(1));
+        PersistentModelBuilder persistentModel = new PersistentModelBuilder(previousModel);
 
-        PersistentModelBuilder persistentModel = new PersistentModelBuilder(CorePlugin.modelPersistence().loadModel(workspaceProject));
+        try (Span span = this.trace.begin("updater", "BuildScriptLocationUpdater")) {
+            BuildScriptLocationUpdater.update(project, persistentModel, progress.newChild(1));
+        }
+        try (Span span = this.trace.begin("updater", "LinkedResourcesUpdater")) {
+            LinkedResourcesUpdater.update(workspaceProject, project.getLinkedResources(), persistentModel, progress.newChild(1));
+        }
+        try (Span span = this.trace.begin("updater", "GradleFolderUpdater")) {
+            GradleFolderUpdater.update(workspaceProject, project, persistentModel, progress.newChild(1));
+        }
 
-        BuildScriptLocationUpdater.update(project, persistentModel, progress.newChild(1));
-        LinkedResourcesUpdater.update(workspaceProject, project.getLinkedResources(), persistentModel, progress.newChild(1));
-        GradleFolderUpdater.update(workspaceProject, project, persistentModel, progress.newChild(1));
-        ProjectNatureUpdater.update(workspaceProject, project.getProjectNatures(), persistentModel, progress.newChild(1));
-        BuildCommandUpdater.update(workspaceProject, project.getBuildCommands(), persistentModel, progress.newChild(1));
+        // the natures and build commands are collected and written to the project description at once;
+        // the session is opened only after the linked resources are updated as they are part of the description
+        try (Span span = this.trace.begin("updater", "ProjectDescription")) {
+            ProjectDescriptionSession description = ProjectDescriptionSession.open(workspaceProject);
+            description.addNature(GradleProjectNature.ID);
+            ProjectNatureUpdater.update(description, project.getProjectNatures(), persistentModel);
+            BuildCommandUpdater.update(description, project.getBuildCommands(), persistentModel);
+            if (isJavaProject(project)) {
+                //old Gradle versions did not expose natures, so we need to add the Java nature explicitly
+                description.addNature(JavaCore.NATURE_ID);
+            }
+            description.commit(progress.newChild(1));
+        }
 
         if (isJavaProject(project)) {
             synchronizeJavaProject(project, workspaceProject, persistentModel, progress);
@@ -223,78 +314,98 @@ final class SynchronizeGradleBuildOperation implements IWorkspaceRunnable {
             persistentModel.classpath(ImmutableList.<IClasspathEntry>of());
         }
 
-        CorePlugin.modelPersistence().saveModel(persistentModel.build());
+        try (Span span = this.trace.begin("updater", "PersistentModel")) {
+            persistentModel.fingerprint(fingerprint.calculate(workspaceProject, persistentModel.getDerivedResources(), persistentModel.getLinkedResources()));
+            CorePlugin.modelPersistence().saveModel(persistentModel.build());
+        }
     }
 
     private void synchronizeJavaProject(final OmniEclipseProject project, final IProject workspaceProject, final PersistentModelBuilder persistentModel, SubMonitor progress) throws CoreException {
+        // the classpath operations don't require more than the project rule held by the caller
         JavaCore.run(new IWorkspaceRunnable() {
             @Override
             public void run(IProgressMonitor monitor) throws CoreException {
                 SubMonitor progress = SubMonitor.convert(monitor);
                 synchronizeJavaProjectInTransaction(project, workspaceProject, persistentModel, progress);
             }
-        }, progress.newChild(1));
+        }, workspaceProject, progress.newChild(1));
     }
 
     private void synchronizeJavaProjectInTransaction(final OmniEclipseProject project, final IProject workspaceProject, PersistentModelBuilder persistentModel, SubMonitor progress) throws JavaModelException, CoreException {
-        progress.setWorkRemaining(8);
-        //old Gradle versions did not expose natures, so we need to add the Java nature explicitly
-        CorePlugin.workspaceOperations().addNature(workspaceProject, JavaCore.NATURE_ID, progress.newChild(1));
+        progress.setWorkRemaining(3);
         IJavaProject javaProject = JavaCore.create(workspaceProject);
-        OutputLocationUpdater.update(javaProject, project.getOutputLocation(), progress.newChild(1));
-        SourceFolderUpdater.update(javaProject, project.getSourceDirectories(), progress.newChild(1));
-        LibraryFilter.update(javaProject, project, progress.newChild(1));
-        ClasspathContainerUpdater.update(javaProject, project.getClasspathContainers(), project.getJavaSourceSettings().get(), progress.newChild(1));
-        JavaSourceSettingsUpdater.update(javaProject, project, progress.newChild(1));
-        GradleClasspathContainerUpdater.updateFromModel(javaProject, project, SynchronizeGradleBuildOperation.this.allProjects, persistentModel, progress.newChild(1));
-        WtpClasspathUpdater.update(javaProject, project, progress.newChild(1));
+
+        // the updaters modify a working copy of the classpath which is written only once at the end
+        RawClasspath classpath = RawClasspath.load(javaProject);
+        try (Span span = this.trace.begin("updater", "OutputLocationUpdater")) {
+            OutputLocationUpdater.update(classpath, project.getOutputLocation());
+        }
+        try (Span span = this.trace.begin("updater", "SourceFolderUpdater")) {
+            SourceFolderUpdater.update(classpath, project.getSourceDirectories());
+        }
+        try (Span span = this.trace.begin("updater", "LibraryFilter")) {
+            LibraryFilter.update(classpath, project);
+        }
+        try (Span span = this.trace.begin("updater", "ClasspathContainerUpdater")) {
+            ClasspathContainerUpdater.update(classpath, project.getClasspathContainers(), project.getJavaSourceSettings().get());
+        }
+        try (Span span = this.trace.begin("updater", "WtpClasspathUpdater")) {
+            WtpClasspathUpdater.update(classpath, project);
+        }
+        try (Span span = this.trace.begin("updater", "RawClasspath")) {
+            classpath.save(progress.newChild(1));
+        }
+
+        try (Span span = this.trace.begin("updater", "JavaSourceSettingsUpdater")) {
+            JavaSourceSettingsUpdater.update(javaProject, project, progress.newChild(1));
+        }
+        try (Span span = this.trace.begin("updater", "GradleClasspathContainerUpdater")) {
+            GradleClasspathContainerUpdater.collectFromModel(javaProject, project, SynchronizeGradleBuildOperation.this.allProjects, persistentModel, this.classpathContainers);
+        }
+        progress.worked(1);
     }
 
     private boolean isJavaProject(OmniEclipseProject project) {
         return project.getJavaSourceSettings().isPresent();
     }
 
-    private void synchronizeClosedWorkspaceProject(SubMonitor childProgress) {
-        // do not modify closed projects
-    }
-
-    private void synchronizeNonWorkspaceProject(OmniEclipseProject project, SubMonitor progress) throws CoreException {
-        progress.setWorkRemaining(2);
-        IProject workspaceProject;
+    private IProject addProjectToWorkspace(OmniEclipseProject project, SubMonitor progress) throws CoreException {
+        progress.setWorkRemaining(3);
+        ProjectNameUpdater.ensureProjectNameIsFree(project, this.allProjects, progress.newChild(1));
 
         // check if an Eclipse project already exists at the location of the Gradle project to import
         Optional<IProjectDescription> projectDescription = CorePlugin.workspaceOperations().findProjectDescriptor(project.getProjectDirectory(), progress.newChild(1));
         if (projectDescription.isPresent()) {
-            workspaceProject = addExistingEclipseProjectToWorkspace(project, projectDescription.get(), progress.newChild(1));
+            return CorePlugin.workspaceOperations().includeProject(projectDescription.get(), ImmutableList.<String>of(), progress.newChild(1));
         } else {
-            workspaceProject = addNewEclipseProjectToWorkspace(project, progress.newChild(1));
+            return CorePlugin.workspaceOperations().createProject(project.getName(), project.getProjectDirectory(), ImmutableList.<String>of(), progress.newChild(1));
         }
-
-        this.newProjectHandler.afterImport(workspaceProject, project);
-    }
-
-    private IProject addExistingEclipseProjectToWorkspace(OmniEclipseProject project, IProjectDescription projectDescription, SubMonitor progress) throws CoreException {
-        progress.setWorkRemaining(3);
-        ProjectNameUpdater.ensureProjectNameIsFree(project, this.allProjects, progress.newChild(1));
-        IProject workspaceProject = CorePlugin.workspaceOperations().includeProject(projectDescription, ImmutableList.<String>of(), progress.newChild(1));
-        synchronizeOpenWorkspaceProject(project, workspaceProject, false, progress.newChild(1));
-        return workspaceProject;
-    }
-
-    private IProject addNewEclipseProjectToWorkspace(OmniEclipseProject project, SubMonitor progress) throws CoreException {
-        progress.setWorkRemaining(3);
-        ProjectNameUpdater.ensureProjectNameIsFree(project, this.allProjects, progress.newChild(1));
-        IProject workspaceProject = CorePlugin.workspaceOperations().createProject(project.getName(), project.getProjectDirectory(), ImmutableList.<String>of(), progress.newChild(1));
-        synchronizeOpenWorkspaceProject(project, workspaceProject, false, progress.newChild(1));
-        return workspaceProject;
     }
 
     private void uncoupleWorkspaceProjectFromGradle(IProject workspaceProject, SubMonitor monitor) {
         monitor.setWorkRemaining(3);
         monitor.subTask(String.format("Uncouple workspace project %s from Gradle", workspaceProject.getName()));
-        CorePlugin.workspaceOperations().refreshProject(workspaceProject, monitor.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
+        ProjectRefresher.refreshMetadata(workspaceProject, monitor.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
         CorePlugin.workspaceOperations().removeNature(workspaceProject, GradleProjectNature.ID, monitor.newChild(1, SubMonitor.SUPPRESS_ALL_LABELS));
         CorePlugin.modelPersistence().deleteModel(workspaceProject);
         CorePlugin.configurationManager().deleteProjectConfiguration(workspaceProject);
     }
+
+    /**
+     * A workspace project prepared for the synchronization with a Gradle project.
+     */
+    private static final class PreparedProject {
+
+        private final OmniEclipseProject project;
+        private final IProject workspaceProject;
+        private final ProjectFingerprint fingerprint;
+        private final boolean imported;
+
+        private PreparedProject(OmniEclipseProject project, IProject workspaceProject, ProjectFingerprint fingerprint, boolean imported) {
+            this.project = project;
+            this.workspaceProject = workspaceProject;
+            this.fingerprint = fingerprint;
+            this.imported = imported;
+        }
+    }
 }
@@ -8,26 +8,50 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.io.File;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.gradle.tooling.BuildCancelledException;
 
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 
 import com.gradleware.tooling.toolingmodel.OmniEclipseProject;
 import com.gradleware.tooling.toolingmodel.repository.FetchStrategy;
 
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.core.runtime.jobs.MultiRule;
 
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.configuration.BuildConfiguration;
 import org.eclipse.buildship.core.util.progress.AsyncHandler;
+import org.eclipse.buildship.core.util.progress.ThreadSafeProgressMonitor;
 import org.eclipse.buildship.core.util.progress.ToolingApiJob;
+import org.eclipse.buildship.core.util.trace.Trace;
+import org.eclipse.buildship.core.util.trace.Trace.Span;
+import org.eclipse.buildship.core.util.trace.TraceFiles;
 import org.eclipse.buildship.core.workspace.GradleBuild;
 import org.eclipse.buildship.core.workspace.GradleBuilds;
 import org.eclipse.buildship.core.workspace.ModelProvider;
@@ -35,16 +59,48 @@ import org.eclipse.buildship.core.workspace.NewProjectHandler;
 
 /**
  * Synchronizes each of the given Gradle builds with the workspace.
+ * <p/>
+ * The builds are loaded and applied concurrently on a bounded thread pool. The models are loaded
+ * without holding any scheduling rule; only the on-import tasks hold the rules of the projects they
+ * run for. The apply phase of a build holds the workspace rule only while projects are created,
+ * imported, renamed and uncoupled. The projects are then updated under a rule combining the
+ * affected projects, so that independent builds update their projects in parallel.
+ * <p/>
+ * Since jobs don't hold a scheduling rule while loading, several jobs for the same build can run at
+ * the same time. Their apply phases are ordered by {@link ApplyOrder}, so the builds are applied in
+ * the order the jobs were scheduled and an older model never overwrites a newer one.
+ * <p/>
+ * If the job is restricted to a set of project directories, only the models of these projects are
+ * reloaded and synchronized. If that is not possible then the whole build is synchronized.
+ * <p/>
+ * The duration of each phase is recorded in a {@link Trace} which is saved in the plugin state
+ * location when the job finishes.
+ * <p/>
+ * While the models are loaded, the job can be superseded by a newer job which covers it, see
+ * {@link #shouldSchedule()}. The superseded job is cancelled and waits for the newer job to finish
+ * before it completes, so that anyone joining or listening to the superseded job is only notified
+ * once the newer models are synchronized.
  */
 public final class SynchronizeGradleBuildsJob extends ToolingApiJob {
 
+    private static final int MAX_CONCURRENT_BUILDS = 4;
+    private static final long CANCELLATION_POLL_INTERVAL_MILLIS = 100;
+    private static final ApplyOrder APPLY_ORDER = new ApplyOrder();
+
     private final ImmutableSet<GradleBuild> builds;
+    private final ImmutableSet<File> projectDirectories;
     private final NewProjectHandler newProjectHandler;
     private final AsyncHandler initializer;
 
-    private SynchronizeGradleBuildsJob(Set<GradleBuild> builds, NewProjectHandler newProjectHandler, AsyncHandler initializer) {
+    private final Object supersessionLock = new Object();
+    private boolean loadingModels;
+    private SynchronizeGradleBuildsJob successor;
+    private Long applyTicket;
+
+    private SynchronizeGradleBuildsJob(Set<GradleBuild> builds, Set<File> projectDirectories, NewProjectHandler newProjectHandler, AsyncHandler initializer) {
         super("Synchronize Gradle projects with workspace", true);
         this.builds = ImmutableSet.copyOf(builds);
+        this.projectDirectories = ImmutableSet.copyOf(projectDirectories);
         this.newProjectHandler = Preconditions.checkNotNull(newProjectHandler);
         this.initializer = Preconditions.checkNotNull(initializer);
 
@@ -52,8 +108,14 @@ public final class SynchronizeGradleBuildsJob extends ToolingApiJob {
         // process
         setUser(true);
 
-        // guarantee sequential order of synchronize jobs
-        setRule(ResourcesPlugin.getWorkspace().getRoot());
+        // also called if the job is cancelled before it runs
+        addJobChangeListener(new JobChangeAdapter() {
+
+            @Override
+            public void done(IJobChangeEvent event) {
+                releaseApplyTicket();
+            }
+        });
     }
 
     Set<GradleBuild> getBuilds() {
@@ -62,27 +124,322 @@ public final class SynchronizeGradleBuildsJob extends ToolingApiJob {
 
     @Override
     protected void runToolingApiJob(IProgressMonitor monitor) throws Exception {
-        final SubMonitor progress = SubMonitor.convert(monitor, this.builds.size() + 1);
+        final SubMonitor progress = SubMonitor.convert(monitor, 2 * this.builds.size() + 1);
+        Trace trace = new Trace("synchronization");
+        try (Span span = trace.begin("job", getName()).argument("builds", this.builds.size())) {
+            try (Span initializerSpan = trace.begin("job", "Initialize")) {
+                // the initializer might create or modify arbitrary projects
+                ISchedulingRule rule = ResourcesPlugin.getWorkspace().getRoot();
+                try {
+                    Job.getJobManager().beginRule(rule, progress.newChild(0));
+                    this.initializer.run(progress.newChild(1), getToken());
+                } finally {
+                    Job.getJobManager().endRule(rule);
+                }
+            }
 
-        this.initializer.run(progress.newChild(1), getToken());
+            beginLoadingModels();
+            if (this.builds.size() == 1) {
+                GradleBuild build = this.builds.iterator().next();
+                applyBuild(loadBuild(build, trace, progress.newChild(1)), trace, progress.newChild(1));
+            } else {
+                synchronizeBuildsConcurrently(trace, progress);
+            }
+        } catch (Exception e) {
+            // only the cancellation caused by the supersession is expected, other failures are reported
+            SynchronizeGradleBuildsJob successor = getSuccessor();
+            if (successor == null || !isCancellation(e)) {
+                throw e;
+            }
+            // the successor can only apply the builds after this job
+            releaseApplyTicket();
+            try (Span span = trace.begin("job", "Wait for superseding job")) {
+                successor.join();
+            }
+        } finally {
+            TraceFiles.save(trace);
+        }
+    }
 
+    private static boolean isCancellation(Throwable failure) {
+        // the model provider might wrap the failure of the Tooling API request
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof OperationCanceledException || t instanceof BuildCancelledException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Set<File> getRootDirectories() {
+        ImmutableSet.Builder<File> result = ImmutableSet.builder();
         for (GradleBuild build : this.builds) {
-            if (monitor.isCanceled()) {
+            result.add(build.getBuildConfig().getRootProjectDirectory());
+        }
+        return result.build();
+    }
+
+    private void registerApplyTicket() {
+        synchronized (this.supersessionLock) {
+            if (this.applyTicket == null) {
+                this.applyTicket = APPLY_ORDER.register(getRootDirectories());
+            }
+        }
+    }
+
+    private Long getApplyTicket() {
+        synchronized (this.supersessionLock) {
+            return this.applyTicket;
+        }
+    }
+
+    private void releaseApplyTicket() {
+        synchronized (this.supersessionLock) {
+            if (this.applyTicket != null) {
+                APPLY_ORDER.release(getRootDirectories(), this.applyTicket);
+                this.applyTicket = null;
+            }
+        }
+    }
+
+    private void beginLoadingModels() {
+        synchronized (this.supersessionLock) {
+            this.loadingModels = true;
+        }
+    }
+
+    private void endLoadingModels() {
+        synchronized (this.supersessionLock) {
+            if (this.successor != null) {
                 throw new OperationCanceledException();
             }
-            synchronizeBuild(build, progress.newChild(1));
+            this.loadingModels = false;
+        }
+    }
+
+    private SynchronizeGradleBuildsJob getSuccessor() {
+        synchronized (this.supersessionLock) {
+            return this.successor;
+        }
+    }
+
+    boolean isSuperseded() {
+        return getSuccessor() != null;
+    }
+
+    private boolean isSupersedable() {
+        synchronized (this.supersessionLock) {
+            return this.loadingModels && this.successor == null;
+        }
+    }
+
+    /**
+     * Cancels this job if it still loads the models.
+     *
+     * @param successor the job synchronizing the same builds with newer models
+     * @return {@code true} if this job was superseded
+     */
+    private boolean supersedeWith(SynchronizeGradleBuildsJob successor) {
+        synchronized (this.supersessionLock) {
+            if (!this.loadingModels || this.successor != null) {
+                return false;
+            }
+            this.successor = successor;
+        }
+        // also cancels the Tooling API requests via the cancellation token
+        cancel();
+        return true;
+    }
+
+    private void synchronizeBuildsConcurrently(final Trace trace, SubMonitor progress) throws Exception {
+        // the builds report their progress from the pool threads, each phase to its own child monitor
+        final ThreadSafeProgressMonitor buildsProgress = new ThreadSafeProgressMonitor(progress.newChild(2 * this.builds.size()));
+        buildsProgress.beginTask("", 2 * this.builds.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.builds.size(), MAX_CONCURRENT_BUILDS));
+        try {
+            List<Future<Void>> synchronizedBuilds = Lists.newArrayList();
+            for (final GradleBuild build : this.builds) {
+                final IProgressMonitor loadProgress = buildsProgress.newChild(1);
+                final IProgressMonitor applyProgress = buildsProgress.newChild(1);
+                synchronizedBuilds.add(executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws Exception {
+                        LoadedBuild loadedBuild = loadBuild(build, trace, SubMonitor.convert(loadProgress));
+                        applyBuild(loadedBuild, trace, SubMonitor.convert(applyProgress));
+                        return null;
+                    }
+                }));
+            }
+
+            // let the other builds finish their apply phase before reporting a failure
+            Exception failure = null;
+            for (Future<Void> synchronizedBuild : synchronizedBuilds) {
+                try {
+                    await(synchronizedBuild, buildsProgress);
+                } catch (OperationCanceledException e) {
+                    throw e;
+                } catch (Exception e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(Future<Void> future, IProgressMonitor progress) throws Exception {
+        try {
+            while (true) {
+                if (progress.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                try {
+                    future.get(CANCELLATION_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    // check for cancellation again
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else {
+                throw (Error) cause;
+            }
         }
     }
 
-    private void synchronizeBuild(GradleBuild build, SubMonitor progress) throws CoreException {
+    private LoadedBuild loadBuild(GradleBuild build, Trace trace, SubMonitor progress) throws CoreException {
         BuildConfiguration buildConfig = build.getBuildConfig();
-        progress.setTaskName((String.format("Synchronizing Gradle build at %s with workspace", buildConfig.getRootProjectDirectory())));
+        progress.setTaskName((String.format("Loading Gradle build at %s", buildConfig.getRootProjectDirectory())));
         progress.setWorkRemaining(4);
-        Set<OmniEclipseProject> allProjects = fetchEclipseProjects(build, progress.newChild(1));
-        new ValidateProjectLocationOperation(allProjects).run(progress.newChild(1));
-        new SynchronizeBuildConfigurationOperation(buildConfig).run(progress.newChild(1), getToken());
-        new RunOnImportTasksOperation(allProjects, buildConfig).run(progress.newChild(1), getToken());
-        new SynchronizeGradleBuildOperation(allProjects, buildConfig, SynchronizeGradleBuildsJob.this.newProjectHandler).run(progress.newChild(1));
+        try (Span span = trace.begin("load", "Load build").argument("rootProjectDirectory", buildConfig.getRootProjectDirectory())) {
+            // hash the build files before fetching, so that changes made during the synchronization aren't lost
+            BuildFileHashes.Snapshot buildFiles = CorePlugin.buildFileHashes().snapshot(buildConfig.getRootProjectDirectory());
+            Set<OmniEclipseProject> allProjects;
+            Set<OmniEclipseProject> projectsToSynchronize;
+            try (Span fetchSpan = trace.begin("load", "Fetch models")) {
+                Optional<Set<OmniEclipseProject>> mergedProjects = fetchSelectedEclipseProjects(build, progress.newChild(1));
+                if (mergedProjects.isPresent()) {
+                    allProjects = mergedProjects.get();
+                    final Set<File> reloadedDirectories = DependentProjects.withDependents(allProjects, this.projectDirectories);
+                    projectsToSynchronize = FluentIterable.from(allProjects).filter(new Predicate<OmniEclipseProject>() {
+
+                        @Override
+                        public boolean apply(OmniEclipseProject project) {
+                            return reloadedDirectories.contains(project.getProjectDirectory());
+                        }
+                    }).toSet();
+                } else {
+                    allProjects = fetchEclipseProjects(build, progress.newChild(1));
+                    projectsToSynchronize = allProjects;
+                }
+                fetchSpan.argument("projects", allProjects.size());
+            }
+            try (Span validateSpan = trace.begin("load", "Validate project locations")) {
+                new ValidateProjectLocationOperation(allProjects).run(progress.newChild(1));
+            }
+            try (Span tasksSpan = trace.begin("load", "Run on-import tasks")) {
+                // the tasks write the Eclipse settings of the projects
+                ISchedulingRule rule = projectRule(projectsToSynchronize);
+                try {
+                    Job.getJobManager().beginRule(rule, progress.newChild(0));
+                    new RunOnImportTasksOperation(projectsToSynchronize, buildConfig).run(progress.newChild(1), getToken());
+                } finally {
+                    Job.getJobManager().endRule(rule);
+                }
+            }
+            return new LoadedBuild(buildConfig, allProjects, projectsToSynchronize, buildFiles);
+        }
+    }
+
+    private static ISchedulingRule projectRule(Set<OmniEclipseProject> projects) {
+        List<ISchedulingRule> rules = Lists.newArrayList();
+        for (OmniEclipseProject project : projects) {
+            Optional<IProject> workspaceProject = CorePlugin.workspaceOperations().findProjectByLocation(project.getProjectDirectory());
+            rules.add(workspaceProject.isPresent() ? workspaceProject.get() : ResourcesPlugin.getWorkspace().getRoot().getProject(project.getName()));
+        }
+        return rules.isEmpty() ? null : MultiRule.combine(rules.toArray(new ISchedulingRule[rules.size()]));
+    }
+
+    private void applyBuild(LoadedBuild build, Trace trace, SubMonitor progress) throws CoreException {
+        File rootDir = build.buildConfig.getRootProjectDirectory();
+        Long ticket = getApplyTicket();
+        if (ticket != null) {
+            try (Span span = trace.begin("apply", "Wait for earlier synchronizations").argument("rootProjectDirectory", rootDir)) {
+                APPLY_ORDER.awaitTurn(rootDir, ticket, progress);
+            }
+        }
+        try {
+            doApplyBuild(build, trace, progress);
+        } finally {
+            if (ticket != null) {
+                APPLY_ORDER.release(ImmutableSet.of(rootDir), ticket);
+            }
+        }
+    }
+
+    private void doApplyBuild(LoadedBuild build, Trace trace, SubMonitor progress) throws CoreException {
+        // once the workspace is modified the job can't be superseded anymore
+        endLoadingModels();
+        progress.setTaskName((String.format("Synchronizing Gradle build at %s with workspace", build.buildConfig.getRootProjectDirectory())));
+        progress.setWorkRemaining(6);
+
+        try (Span span = trace.begin("apply", "Apply build").argument("rootProjectDirectory", build.buildConfig.getRootProjectDirectory())) {
+            // calculate the changes without blocking the workspace
+            SynchronizationPlan plan;
+            try (Span planSpan = trace.begin("apply", "Calculate plan")) {
+                plan = new SynchronizationPlanner(build.allProjects, build.projectsToSynchronize, build.buildConfig, this.newProjectHandler).plan(progress.newChild(1));
+            }
+            CorePlugin.logger().debug(plan.toReport());
+
+            // creating, importing, renaming and uncoupling projects requires the workspace rule
+            SynchronizeGradleBuildOperation operation = new SynchronizeGradleBuildOperation(plan, build.allProjects, build.buildConfig, this.newProjectHandler, trace);
+            ISchedulingRule workspaceRule = ResourcesPlugin.getWorkspace().getRoot();
+            try {
+                try (Span ruleSpan = trace.begin("apply", "Acquire workspace rule")) {
+                    Job.getJobManager().beginRule(workspaceRule, progress.newChild(1));
+                }
+                try (Span configurationSpan = trace.begin("apply", "Synchronize build configuration")) {
+                    new SynchronizeBuildConfigurationOperation(build.buildConfig).run(progress.newChild(1), getToken());
+                }
+                try (Span prepareSpan = trace.begin("apply", "Prepare projects")) {
+                    operation.prepareProjects(progress.newChild(1));
+                }
+            } finally {
+                Job.getJobManager().endRule(workspaceRule);
+            }
+
+            // updating the projects only requires their own rules
+            ISchedulingRule projectsRule = operation.getUpdateRule();
+            try {
+                try (Span ruleSpan = trace.begin("apply", "Acquire project rules")) {
+                    Job.getJobManager().beginRule(projectsRule, progress.newChild(1));
+                }
+                operation.updateProjects(progress.newChild(1));
+            } finally {
+                Job.getJobManager().endRule(projectsRule);
+            }
+
+            // the automatic synchronization compares the build files against the synchronized state
+            CorePlugin.buildFileHashes().record(build.buildFiles, build.projectsToSynchronize);
+        }
+    }
+
+    private Optional<Set<OmniEclipseProject>> fetchSelectedEclipseProjects(GradleBuild build, SubMonitor progress) {
+        if (this.projectDirectories.isEmpty()) {
+            return Optional.absent();
+        }
+        progress.setTaskName("Loading Gradle project models");
+        ModelProvider modelProvider = build.getModelProvider();
+        return modelProvider.fetchEclipseGradleProjects(this.projectDirectories, getToken(), progress);
     }
 
     private Set<OmniEclipseProject> fetchEclipseProjects(GradleBuild build, SubMonitor progress) {
@@ -93,11 +450,14 @@ public final class SynchronizeGradleBuildsJob extends ToolingApiJob {
 
     /**
      * A {@link SynchronizeGradleBuildsJob} is only scheduled if there is not already another one that
-     * fully covers it.
+     * fully covers it. Jobs which are still loading the models are not considered, since their
+     * models might be outdated. Instead, these jobs are superseded if they are fully covered by the
+     * new job.
      * <p/>
      * A job A fully covers a job B if all of these conditions are met:
      * <ul>
      * <li>A synchronizes the same Gradle builds as B</li>
+     * <li>A synchronizes all projects of the builds or at least the projects selected in B</li>
      * <li>A and B have the same {@link NewProjectHandler} or B's {@link NewProjectHandler} is a
      * no-op</li>
      * <li>A and B have the same {@link AsyncHandler} or B's {@link AsyncHandler} is a no-op</li>
@@ -105,8 +465,29 @@ public final class SynchronizeGradleBuildsJob extends ToolingApiJob {
      */
     @Override
     public boolean shouldSchedule() {
+        if (!shouldScheduleIfNotCovered()) {
+            return false;
+        }
+        registerApplyTicket();
+        return true;
+    }
+
+    private boolean shouldScheduleIfNotCovered() {
+        List<SynchronizeGradleBuildsJob> jobsToSupersede = Lists.newArrayList();
         for (Job job : Job.getJobManager().find(CorePlugin.GRADLE_JOB_FAMILY)) {
-            if (job instanceof SynchronizeGradleBuildsJob && isCoveredBy((SynchronizeGradleBuildsJob) job)) {
+            if (job instanceof SynchronizeGradleBuildsJob) {
+                SynchronizeGradleBuildsJob other = (SynchronizeGradleBuildsJob) job;
+                if (other.isSupersedable() && other.isCoveredBy(this)) {
+                    jobsToSupersede.add(other);
+                } else if (!other.isSuperseded() && isCoveredBy(other)) {
+                    return false;
+                }
+            }
+        }
+
+        for (SynchronizeGradleBuildsJob other : jobsToSupersede) {
+            // the other job might have started to apply its models in the meantime
+            if (!other.supersedeWith(this) && isCoveredBy(other)) {
                 return false;
             }
         }
@@ -114,16 +495,40 @@ public final class SynchronizeGradleBuildsJob extends ToolingApiJob {
     }
 
     private boolean isCoveredBy(SynchronizeGradleBuildsJob other) {
-        return Objects.equal(this.builds, other.builds) && (this.newProjectHandler == NewProjectHandler.NO_OP || Objects.equal(this.newProjectHandler, other.newProjectHandler))
+        boolean projectsCovered = other.projectDirectories.isEmpty() || (!this.projectDirectories.isEmpty() && other.projectDirectories.containsAll(this.projectDirectories));
+        return Objects.equal(this.builds, other.builds) && projectsCovered && (this.newProjectHandler == NewProjectHandler.NO_OP || Objects.equal(this.newProjectHandler, other.newProjectHandler))
                 && (this.initializer == AsyncHandler.NO_OP || Objects.equal(this.initializer, other.initializer));
     }
 
+    /**
+     * The models loaded for a Gradle build, ready to be applied to the workspace.
+     */
+    private static final class LoadedBuild {
+
+        private final BuildConfiguration buildConfig;
+        private final Set<OmniEclipseProject> allProjects;
+        private final Set<OmniEclipseProject> projectsToSynchronize;
+        private final BuildFileHashes.Snapshot buildFiles;
+
+        private LoadedBuild(BuildConfiguration buildConfig, Set<OmniEclipseProject> allProjects, Set<OmniEclipseProject> projectsToSynchronize, BuildFileHashes.Snapshot buildFiles) {
+            this.buildConfig = buildConfig;
+            this.allProjects = allProjects;
+            this.projectsToSynchronize = projectsToSynchronize;
+            this.buildFiles = buildFiles;
+        }
+    }
+
     public static SynchronizeGradleBuildsJob forSingleGradleBuild(GradleBuild build, NewProjectHandler newProjectHandler, AsyncHandler initializer) {
-        return new SynchronizeGradleBuildsJob(ImmutableSet.of(build), newProjectHandler, initializer);
+        return new SynchronizeGradleBuildsJob(ImmutableSet.of(build), ImmutableSet.<File>of(), newProjectHandler, initializer);
+    }
+
+    public static SynchronizeGradleBuildsJob forProjectsOfGradleBuild(GradleBuild build, Set<File> projectDirectories) {
+        Preconditions.checkArgument(!projectDirectories.isEmpty(), "No projects selected");
+        return new SynchronizeGradleBuildsJob(ImmutableSet.of(build), projectDirectories, NewProjectHandler.NO_OP, AsyncHandler.NO_OP);
     }
 
     public static SynchronizeGradleBuildsJob forMultipleGradleBuilds(GradleBuilds builds, NewProjectHandler newProjectHandler, AsyncHandler initializer) {
-        return new SynchronizeGradleBuildsJob(builds.getGradleBuilds(), newProjectHandler, initializer);
+        return new SynchronizeGradleBuildsJob(builds.getGradleBuilds(), ImmutableSet.<File>of(), newProjectHandler, initializer);
     }
 
 }
@@ -8,8 +8,15 @@
 
 package org.eclipse.buildship.core.workspace.internal;
 
+import java.io.File;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import org.eclipse.core.resources.IProject;
@@ -22,22 +29,45 @@ import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.configuration.BuildConfiguration;
 import org.eclipse.buildship.core.configuration.GradleProjectNature;
 import org.eclipse.buildship.core.configuration.ProjectConfiguration;
 import org.eclipse.buildship.core.preferences.PersistentModel;
+import org.eclipse.buildship.core.workspace.GradleBuild;
+import org.eclipse.buildship.core.workspace.NewProjectHandler;
 
 /**
  * Executes project synchronization if the corresponding preference is enabled and the user changes
- * the build script.
+ * the build configuration.
+ * <p/>
+ * The build configuration consists of the build scripts, and for the root project the settings
+ * file, the {@code gradle.properties} file, the wrapper properties and the {@code buildSrc}
+ * sources. A change is only considered if the content differs from the hash recorded in
+ * {@link BuildFileHashes} by the last synchronization, so touching or saving a file without
+ * modifying it doesn't trigger a synchronization. The resource change listener only collects the
+ * changed files; they are hashed when the delayed job runs.
+ * <p/>
+ * If only the build scripts of subprojects changed then only these projects are synchronized. A
+ * change in the build script of a root project synchronizes the whole build.
+ * <p/>
+ * The synchronization doesn't start immediately. The changes are collected until no build script
+ * changed for the auto sync delay defined in the {@link org.eclipse.buildship.core.configuration.WorkspaceConfiguration}.
+ * Then all builds whose root project changed are synchronized with a single job. This way, changing
+ * many build scripts at once, e.g. by switching a branch, results in a single synchronization.
  *
  * @author Donat Csikos
  */
 public final class SynchronizingBuildScriptUpdateListener implements IResourceChangeListener {
 
+    private final List<BuildFileChange> pendingChanges = Lists.newArrayList();
+    private final DelayedSynchronizationJob synchronizationJob = new DelayedSynchronizationJob();
+
     private SynchronizingBuildScriptUpdateListener() {
     }
 
@@ -47,7 +77,14 @@ public final class SynchronizingBuildScriptUpdateListener implements IResourceCh
         IResourceDelta delta = event.getDelta();
         if (delta != null) {
             try {
-                visitDelta(delta);
+                List<BuildFileChange> changes = Lists.newArrayList();
+                visitDelta(delta, changes);
+                if (!changes.isEmpty()) {
+                    synchronized (this.pendingChanges) {
+                        this.pendingChanges.addAll(changes);
+                    }
+                    this.synchronizationJob.postpone(CorePlugin.configurationManager().loadWorkspaceConfiguration().getAutoSyncDelay());
+                }
             } catch (CoreException e) {
                 CorePlugin.logger().warn("Failed to detect project changes", e);
             }
@@ -59,13 +96,13 @@ public final class SynchronizingBuildScriptUpdateListener implements IResourceCh
         return configuration.getBuildConfiguration().isAutoSync();
     }
 
-    private void visitDelta(IResourceDelta delta) throws CoreException {
+    private void visitDelta(IResourceDelta delta, final List<BuildFileChange> changes) throws CoreException {
         delta.accept(new IResourceDeltaVisitor() {
 
             @Override
             public boolean visit(IResourceDelta delta) throws CoreException {
                 try {
-                    return doVisitDelta(delta);
+                    return doVisitDelta(delta, changes);
                 } catch (Exception e) {
                     throw new CoreException(new Status(IStatus.WARNING, CorePlugin.PLUGIN_ID, "SynchronizingBuildScriptUpdateListener failed", e));
                 }
@@ -73,12 +110,12 @@ public final class SynchronizingBuildScriptUpdateListener implements IResourceCh
         });
     }
 
-    private boolean doVisitDelta(IResourceDelta delta) throws Exception {
+    private boolean doVisitDelta(IResourceDelta delta, List<BuildFileChange> changes) throws Exception {
         IResource resource = delta.getResource();
         if (resource instanceof IProject) {
             IProject project = (IProject) resource;
             if (GradleProjectNature.isPresentOn(project) && isEnabledInPreferences(project)) {
-                executeSyncIfBuildScriptChanged(project, delta);
+                collectBuildFileChange(project, delta, changes);
             }
             return false;
         } else {
@@ -86,21 +123,33 @@ public final class SynchronizingBuildScriptUpdateListener implements IResourceCh
         }
     }
 
-    private void executeSyncIfBuildScriptChanged(IProject project, IResourceDelta delta) {
-        if (hasBuildScriptFileChanged(project, delta.getAffectedChildren())) {
-            CorePlugin.gradleWorkspaceManager().getGradleBuild(project).get().synchronize();
+    private void collectBuildFileChange(IProject project, IResourceDelta delta, List<BuildFileChange> changes) {
+        Optional<GradleBuild> gradleBuild = CorePlugin.gradleWorkspaceManager().getGradleBuild(project);
+        PersistentModel model = CorePlugin.modelPersistence().loadModel(project);
+        IPath location = project.getLocation();
+        if (gradleBuild.isPresent() && model.isPresent() && location != null) {
+            Set<File> candidates = collectChangedBuildFiles(location.toFile(), model.getbuildScriptPath(), gradleBuild.get(), collectAffectedResourcePaths(delta.getAffectedChildren()));
+            if (!candidates.isEmpty()) {
+                changes.add(new BuildFileChange(gradleBuild.get(), project, candidates));
+            }
         }
     }
 
-    private boolean hasBuildScriptFileChanged(IProject project, IResourceDelta[] deltas) {
-        PersistentModel model = CorePlugin.modelPersistence().loadModel(project);
-        if (!model.isPresent())  {
-            return false;
-        } else {
-            IPath buildScriptPath = model.getbuildScriptPath();
-            Set<IPath> affectedResourcePaths  = collectAffectedResourcePaths(deltas);
-            return affectedResourcePaths.contains(buildScriptPath);
+    private Set<File> collectChangedBuildFiles(File projectDir, IPath buildScriptPath, GradleBuild gradleBuild, Set<IPath> affectedResourcePaths) {
+        Set<File> result = Sets.newLinkedHashSet();
+        if (buildScriptPath != null && affectedResourcePaths.contains(buildScriptPath)) {
+            result.add(new File(projectDir, buildScriptPath.toOSString()));
         }
+        if (projectDir.equals(gradleBuild.getBuildConfig().getRootProjectDirectory())) {
+            for (IPath path : affectedResourcePaths) {
+                if (BuildFileHashes.isBuildSrcFile(path)) {
+                    result.add(new File(projectDir, BuildFileHashes.BUILD_SRC));
+                } else if (BuildFileHashes.isRootProjectFile(path)) {
+                    result.add(new File(projectDir, path.toOSString()));
+                }
+            }
+        }
+        return result;
     }
 
     private Set<IPath> collectAffectedResourcePaths(IResourceDelta[] children) {
@@ -124,5 +173,129 @@ public final class SynchronizingBuildScriptUpdateListener implements IResourceCh
 
     public void close() {
         ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        this.synchronizationJob.cancel();
+    }
+
+    /**
+     * Synchronizes the changes collected until the job runs.
+     */
+    private final class DelayedSynchronizationJob extends Job {
+
+        private DelayedSynchronizationJob() {
+            super("Schedule Gradle project synchronization");
+            setSystem(true);
+        }
+
+        /*
+         * Job.schedule() does nothing if the job is already waiting or sleeping, so the pending run
+         * is cancelled first to restart the delay from the latest change. A running job is left
+         * alone; scheduling it makes it run again after the delay.
+         */
+        synchronized void postpone(long delay) {
+            if (getState() != Job.RUNNING) {
+                cancel();
+            }
+            schedule(delay);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            List<BuildFileChange> changes;
+            synchronized (SynchronizingBuildScriptUpdateListener.this.pendingChanges) {
+                changes = ImmutableList.copyOf(SynchronizingBuildScriptUpdateListener.this.pendingChanges);
+                SynchronizingBuildScriptUpdateListener.this.pendingChanges.clear();
+            }
+
+            // the hashes are only compared here; they are recorded once the synchronization succeeded
+            ChangedBuilds changedBuilds = new ChangedBuilds();
+            Map<File, Boolean> checkedFiles = Maps.newHashMap();
+            for (BuildFileChange change : changes) {
+                if (change.hasChanged(checkedFiles)) {
+                    changedBuilds.add(change.build, change.project);
+                }
+            }
+            changedBuilds.synchronize();
+            return Status.OK_STATUS;
+        }
+
+        @Override
+        public boolean belongsTo(Object family) {
+            return CorePlugin.GRADLE_JOB_FAMILY.equals(family);
+        }
+    }
+
+    /**
+     * The build files of a project which were modified in the workspace.
+     */
+    private static final class BuildFileChange {
+
+        private final GradleBuild build;
+        private final IProject project;
+        private final Set<File> files;
+
+        private BuildFileChange(GradleBuild build, IProject project, Set<File> files) {
+            this.build = build;
+            this.project = project;
+            this.files = files;
+        }
+
+        boolean hasChanged(Map<File, Boolean> checkedFiles) {
+            boolean changed = false;
+            for (File file : this.files) {
+                Boolean fileChanged = checkedFiles.get(file);
+                if (fileChanged == null) {
+                    fileChanged = CorePlugin.buildFileHashes().hasChanged(file);
+                    checkedFiles.put(file, fileChanged);
+                }
+                changed |= fileChanged;
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * Collects the projects with changed build scripts per Gradle build.
+     */
+    private static final class ChangedBuilds {
+
+        private final Map<GradleBuild, Set<File>> changedProjects = Maps.newLinkedHashMap();
+        private final Set<GradleBuild> changedRootProjects = Sets.newHashSet();
+
+        void add(GradleBuild build, IProject project) {
+            File projectDir = project.getLocation() == null ? null : project.getLocation().toFile();
+            if (projectDir == null || projectDir.equals(build.getBuildConfig().getRootProjectDirectory())) {
+                this.changedRootProjects.add(build);
+            }
+
+            Set<File> projectDirs = getProjectDirs(build);
+            if (projectDir != null) {
+                projectDirs.add(projectDir);
+            }
+        }
+
+        private Set<File> getProjectDirs(GradleBuild build) {
+            Set<File> projectDirs = this.changedProjects.get(build);
+            if (projectDirs == null) {
+                projectDirs = Sets.newLinkedHashSet();
+                this.changedProjects.put(build, projectDirs);
+            }
+            return projectDirs;
+        }
+
+        void synchronize() {
+            // the builds with a changed root project are synchronized together in a single job
+            Set<BuildConfiguration> buildsToSynchronize = Sets.newLinkedHashSet();
+            for (Map.Entry<GradleBuild, Set<File>> entry : this.changedProjects.entrySet()) {
+                GradleBuild build = entry.getKey();
+                if (this.changedRootProjects.contains(build)) {
+                    buildsToSynchronize.add(build.getBuildConfig());
+                } else {
+                    SynchronizeGradleBuildsJob.forProjectsOfGradleBuild(build, entry.getValue()).schedule();
+                }
+            }
+            if (!buildsToSynchronize.isEmpty()) {
+                new DefaultGradleBuilds(buildsToSynchronize).synchronize(NewProjectHandler.NO_OP);
+            }
+        }
     }
 }
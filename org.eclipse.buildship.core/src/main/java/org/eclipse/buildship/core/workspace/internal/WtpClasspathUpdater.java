@@ -15,12 +15,9 @@ import java.util.ListIterator;
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.UnsupportedConfigurationException;
 import org.eclipse.buildship.core.workspace.GradleClasspathContainer;
-import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.IClasspathAttribute;
 import org.eclipse.jdt.core.IClasspathEntry;
-import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.core.JavaModelException;
 
 import com.google.common.collect.Lists;
 import com.gradleware.tooling.toolingmodel.OmniClasspathAttribute;
@@ -40,14 +37,14 @@ final class WtpClasspathUpdater {
     private static final String DEPLOYMENT_ATTRIBUTE = "org.eclipse.jst.component.dependency";
     private static final String NON_DEPLOYMENT_ATTRIBUTE = "org.eclipse.jst.component.nondependency";
 
-    public static void update(IJavaProject javaProject, OmniEclipseProject project, SubMonitor progress) throws JavaModelException {
+    public static void update(RawClasspath classpath, OmniEclipseProject project) {
         if (CorePlugin.workspaceOperations().isWtpInstalled()) {
             List<OmniExternalDependency> dependencies = project.getExternalDependencies();
             String deploymentPath = getDeploymentPath(dependencies);
             if (deploymentPath != null) {
-                updateDeploymentPath(javaProject, deploymentPath, progress);
+                updateDeploymentPath(classpath.getEntries(), deploymentPath);
             } else if (hasNonDeploymentAttributes(dependencies)) {
-                markAsNonDeployed(javaProject, progress);
+                markAsNonDeployed(classpath.getEntries());
             }
         }
     }
@@ -82,27 +79,23 @@ final class WtpClasspathUpdater {
         return false;
     }
 
-    private static void updateDeploymentPath(IJavaProject javaProject, String deploymentPath, SubMonitor progress) throws JavaModelException {
-        replaceGradleClasspathContainerAttribute(javaProject, DEPLOYMENT_ATTRIBUTE, deploymentPath, NON_DEPLOYMENT_ATTRIBUTE, progress);
+    private static void updateDeploymentPath(List<IClasspathEntry> classpath, String deploymentPath) {
+        replaceGradleClasspathContainerAttribute(classpath, DEPLOYMENT_ATTRIBUTE, deploymentPath, NON_DEPLOYMENT_ATTRIBUTE);
     }
 
-    private static void markAsNonDeployed(IJavaProject javaProject, SubMonitor progress) throws JavaModelException {
-        replaceGradleClasspathContainerAttribute(javaProject, NON_DEPLOYMENT_ATTRIBUTE, "", DEPLOYMENT_ATTRIBUTE, progress);
+    private static void markAsNonDeployed(List<IClasspathEntry> classpath) {
+        replaceGradleClasspathContainerAttribute(classpath, NON_DEPLOYMENT_ATTRIBUTE, "", DEPLOYMENT_ATTRIBUTE);
     }
 
-    private static void replaceGradleClasspathContainerAttribute(IJavaProject project, String plusKey, String plusValue, String minusKey, SubMonitor progress) throws JavaModelException {
-        IClasspathEntry[] oldClasspath = project.getRawClasspath();
-        IClasspathEntry[] newClasspath = new IClasspathEntry[oldClasspath.length];
-        for (int i = 0; i < oldClasspath.length; i++) {
-            IClasspathEntry entry = oldClasspath[i];
+    private static void replaceGradleClasspathContainerAttribute(List<IClasspathEntry> classpath, String plusKey, String plusValue, String minusKey) {
+        ListIterator<IClasspathEntry> iterator = classpath.listIterator();
+        while (iterator.hasNext()) {
+            IClasspathEntry entry = iterator.next();
             if (isGradleClasspathContainer(entry)) {
                 IClasspathAttribute[] attributes = replaceClasspathAttribute(entry.getExtraAttributes(), plusKey, plusValue, minusKey);
-                newClasspath[i] = JavaCore.newContainerEntry(entry.getPath(), entry.getAccessRules(), attributes, entry.isExported());
-            } else {
-                newClasspath[i] = entry;
+                iterator.set(JavaCore.newContainerEntry(entry.getPath(), entry.getAccessRules(), attributes, entry.isExported()));
             }
         }
-        project.setRawClasspath(newClasspath, progress);
     }
 
     private static boolean isGradleClasspathContainer(IClasspathEntry entry) {
@@ -11,11 +11,14 @@
 
 package org.eclipse.buildship.ui.launch;
 
+import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.ui.AbstractLaunchConfigurationTabGroup;
 import org.eclipse.debug.ui.CommonTab;
 import org.eclipse.debug.ui.ILaunchConfigurationDialog;
 import org.eclipse.debug.ui.ILaunchConfigurationTab;
 
+import org.eclipse.buildship.core.CorePlugin;
+
 /**
  * Provides the tabs shown in the <i>Gradle Run Configuration</i> view.
  */
@@ -35,4 +38,11 @@ public final class GradleRunConfigurationTabGroup extends AbstractLaunchConfigur
         // @formatter:on
     }
 
+    @Override
+    public void initializeFrom(ILaunchConfiguration configuration) {
+        super.initializeFrom(configuration);
+        // the launch is likely to be executed soon
+        CorePlugin.daemonWarmUp().warmUp(configuration);
+    }
+
 }
@@ -10,10 +10,14 @@ package org.eclipse.buildship.ui.preferences;
 
 import java.io.File;
 
+import com.google.common.base.Optional;
+
 import com.gradleware.tooling.toolingclient.GradleDistribution;
 import com.gradleware.tooling.toolingutils.binding.Validator;
 
 import org.eclipse.jface.preference.PreferencePage;
+import org.eclipse.swt.events.ModifyEvent;
+import org.eclipse.swt.events.ModifyListener;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
@@ -27,8 +31,8 @@ import org.eclipse.buildship.core.util.binding.Validators;
 import org.eclipse.buildship.core.util.gradle.GradleDistributionValidator;
 import org.eclipse.buildship.core.util.gradle.GradleDistributionWrapper;
 import org.eclipse.buildship.ui.util.font.FontUtils;
+import org.eclipse.buildship.ui.util.widget.GradleDistributionGroup.DistributionChangedListener;
 import org.eclipse.buildship.ui.util.widget.GradleProjectSettingsComposite;
-import org.eclipse.buildship.ui.util.widget.GradleUserHomeGroup;
 
 /**
  * The main workspace preference page for Buildship. Currently only used to configure the Gradle
@@ -54,6 +58,8 @@ public final class GradleWorkbenchPreferencePage extends PreferencePage implemen
     protected Control createContents(Composite parent) {
         this.gradleProjectSettingsComposite = GradleProjectSettingsComposite.builder(parent)
                 .withAutoSyncCheckbox()
+                .withAutoSyncDelayText()
+                .withDaemonWarmUpCheckbox()
                 .build();
 
         initValues();
@@ -73,12 +79,50 @@ public final class GradleWorkbenchPreferencePage extends PreferencePage implemen
         this.gradleProjectSettingsComposite.getOfflineModeCheckbox().setSelection(config.isOffline());
         this.gradleProjectSettingsComposite.getBuildScansCheckbox().setSelection(config.isBuildScansEnabled());
         this.gradleProjectSettingsComposite.getAutoSyncCheckbox().setSelection(config.isAutoSync());
+        this.gradleProjectSettingsComposite.getAutoSyncDelayText().setText(String.valueOf(config.getAutoSyncDelay()));
+        this.gradleProjectSettingsComposite.getDaemonWarmUpCheckbox().setSelection(CorePlugin.daemonWarmUp().isEnabled());
     }
 
     private void addListeners() {
-        GradleUserHomeGroup gradleUserHomeGroup = this.gradleProjectSettingsComposite.getGradleUserHomeGroup();
-        gradleUserHomeGroup.getGradleUserHomeText().addModifyListener(new GradleUserHomeValidatingListener(this, gradleUserHomeGroup, this.gradleUserHomeValidator));
-        this.gradleProjectSettingsComposite.getGradleDistributionGroup().addDistributionChangedListener(new GradleDistributionValidatingListener(this, this.gradleDistributionValidator));
+        ModifyListener validatingListener = new ModifyListener() {
+
+            @Override
+            public void modifyText(ModifyEvent e) {
+                updateValidation();
+            }
+        };
+        this.gradleProjectSettingsComposite.getGradleUserHomeGroup().getGradleUserHomeText().addModifyListener(validatingListener);
+        this.gradleProjectSettingsComposite.getAutoSyncDelayText().addModifyListener(validatingListener);
+        this.gradleProjectSettingsComposite.getGradleDistributionGroup().addDistributionChangedListener(new DistributionChangedListener() {
+
+            @Override
+            public void distributionUpdated(GradleDistributionWrapper distribution) {
+                updateValidation();
+            }
+        });
+    }
+
+    /**
+     * Validates all fields, so fixing one field doesn't hide the error of another.
+     */
+    private void updateValidation() {
+        Optional<String> error = this.gradleUserHomeValidator.validate(this.gradleProjectSettingsComposite.getGradleUserHomeGroup().getGradleUserHome());
+        if (!error.isPresent()) {
+            error = this.gradleDistributionValidator.validate(this.gradleProjectSettingsComposite.getGradleDistributionGroup().getGradleDistribution());
+        }
+        if (!error.isPresent() && parseAutoSyncDelay() < 0) {
+            error = Optional.of(CoreMessages.Preference_Label_AutoSyncDelayInvalid);
+        }
+        setErrorMessage(error.orNull());
+        setValid(!error.isPresent());
+    }
+
+    private long parseAutoSyncDelay() {
+        try {
+            return Long.parseLong(this.gradleProjectSettingsComposite.getAutoSyncDelayText().getText().trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
     @Override
@@ -89,8 +133,10 @@ public final class GradleWorkbenchPreferencePage extends PreferencePage implemen
         boolean offlineMode = this.gradleProjectSettingsComposite.getOfflineModeCheckbox().getSelection();
         boolean buildScansEnabled = this.gradleProjectSettingsComposite.getBuildScansCheckbox().getSelection();
         boolean autoSync = this.gradleProjectSettingsComposite.getAutoSyncCheckbox().getSelection();
-        WorkspaceConfiguration workspaceConfig = new WorkspaceConfiguration(distribution, gradleUserHome, offlineMode, buildScansEnabled, autoSync);
+        long autoSyncDelay = Math.max(0, parseAutoSyncDelay());
+        WorkspaceConfiguration workspaceConfig = new WorkspaceConfiguration(distribution, gradleUserHome, offlineMode, buildScansEnabled, autoSync, autoSyncDelay);
         CorePlugin.configurationManager().saveWorkspaceConfiguration(workspaceConfig);
+        CorePlugin.daemonWarmUp().setEnabled(this.gradleProjectSettingsComposite.getDaemonWarmUpCheckbox().getSelection());
         return super.performOk();
     }
 
@@ -98,6 +144,8 @@ public final class GradleWorkbenchPreferencePage extends PreferencePage implemen
     protected void performDefaults() {
         this.gradleProjectSettingsComposite.getGradleUserHomeGroup().getGradleUserHomeText().setText("");
         this.gradleProjectSettingsComposite.getGradleDistributionGroup().setGradleDistribution(GradleDistributionWrapper.from(GradleDistribution.fromBuild()));
+        this.gradleProjectSettingsComposite.getAutoSyncDelayText().setText(String.valueOf(WorkspaceConfiguration.DEFAULT_AUTO_SYNC_DELAY));
+        this.gradleProjectSettingsComposite.getDaemonWarmUpCheckbox().setSelection(false);
         super.performDefaults();
     }
 
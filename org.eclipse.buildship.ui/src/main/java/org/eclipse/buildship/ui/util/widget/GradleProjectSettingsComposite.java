@@ -21,6 +21,7 @@ import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Link;
+import org.eclipse.swt.widgets.Text;
 
 import org.eclipse.buildship.core.CorePlugin;
 import org.eclipse.buildship.core.i18n.CoreMessages;
@@ -32,6 +33,8 @@ import org.eclipse.buildship.core.i18n.CoreMessages;
  * <li>Gradle user home</li>
  * <li>Build scans enablement</li>
  * <li>Offline mode enablement</li>
+ * <li>Automatic synchronization enablement and delay (optional)</li>
+ * <li>Daemon warm-up enablement (optional)</li>
  * </ul>
  *
  * @author Donat Csikos
@@ -48,8 +51,11 @@ public final class GradleProjectSettingsComposite extends Composite {
     private Button offlineModeCheckbox;
     private Button buildScansCheckbox;
     private Button autoSyncCheckbox;
+    private Text autoSyncDelayText;
+    private Button daemonWarmUpCheckbox;
 
-    private GradleProjectSettingsComposite(Composite parent, boolean hasOverrideCheckbox, String overrideCheckboxLabel, String configureParentPrefsLinkLabel, boolean hasAutoSyncCheckbox) {
+    private GradleProjectSettingsComposite(Composite parent, boolean hasOverrideCheckbox, String overrideCheckboxLabel, String configureParentPrefsLinkLabel, boolean hasAutoSyncCheckbox,
+            boolean hasAutoSyncDelayText, boolean hasDaemonWarmUpCheckbox) {
         super(parent, SWT.NONE);
 
         this.overrideCheckboxLabel = overrideCheckboxLabel;
@@ -69,6 +75,12 @@ public final class GradleProjectSettingsComposite extends Composite {
         if (hasAutoSyncCheckbox) {
             createAutoSyncCheckbox(this);
         }
+        if (hasAutoSyncDelayText) {
+            createAutoSyncDelayText(this);
+        }
+        if (hasDaemonWarmUpCheckbox) {
+            createDaemonWarmUpCheckbox(this);
+        }
 
         addListeners();
 
@@ -123,6 +135,22 @@ public final class GradleProjectSettingsComposite extends Composite {
         HoverText.createAndAttach(this.autoSyncCheckbox, CoreMessages.Preference_Label_AutoSyncHover);
     }
 
+    private void createAutoSyncDelayText(Composite parent) {
+        Label autoSyncDelayLabel = new Label(parent, SWT.NONE);
+        autoSyncDelayLabel.setText(CoreMessages.Preference_Label_AutoSyncDelay);
+        GridDataFactory.swtDefaults().applyTo(autoSyncDelayLabel);
+        this.autoSyncDelayText = new Text(parent, SWT.BORDER);
+        GridDataFactory.swtDefaults().hint(80, SWT.DEFAULT).applyTo(this.autoSyncDelayText);
+        HoverText.createAndAttach(this.autoSyncDelayText, CoreMessages.Preference_Label_AutoSyncDelayHover);
+    }
+
+    private void createDaemonWarmUpCheckbox(Composite parent) {
+        this.daemonWarmUpCheckbox = new Button(parent, SWT.CHECK);
+        this.daemonWarmUpCheckbox.setText(CoreMessages.Preference_Label_DaemonWarmUp);
+        GridDataFactory.swtDefaults().align(SWT.FILL, SWT.CENTER).grab(true, false).span(2, 1).applyTo(this.daemonWarmUpCheckbox);
+        HoverText.createAndAttach(this.daemonWarmUpCheckbox, CoreMessages.Preference_Label_DaemonWarmUpHover);
+    }
+
     private void addListeners() {
         if (this.overrideSettingsCheckbox != null) {
             this.overrideSettingsCheckbox.addSelectionListener(new SelectionListener() {
@@ -150,6 +178,9 @@ public final class GradleProjectSettingsComposite extends Composite {
             if (this.autoSyncCheckbox != null) {
                 this.autoSyncCheckbox.setEnabled(enabled);
             }
+            if (this.autoSyncDelayText != null) {
+                this.autoSyncDelayText.setEnabled(enabled);
+            }
         }
     }
 
@@ -186,6 +217,14 @@ public final class GradleProjectSettingsComposite extends Composite {
         return this.autoSyncCheckbox;
     }
 
+    public Text getAutoSyncDelayText() {
+        return this.autoSyncDelayText;
+    }
+
+    public Button getDaemonWarmUpCheckbox() {
+        return this.daemonWarmUpCheckbox;
+    }
+
     public static final GradleProjectSettingsCompositeBuilder builder(Composite parent) {
         return new GradleProjectSettingsCompositeBuilder(parent);
     }
@@ -199,6 +238,8 @@ public final class GradleProjectSettingsComposite extends Composite {
     public static class GradleProjectSettingsCompositeBuilder {
         private Maybe<Pair<String, String>> overrideCheckbox = Maybe.absent();
         private boolean autoSyncCheckbox = false;
+        private boolean autoSyncDelayText = false;
+        private boolean daemonWarmUpCheckbox = false;
         private Composite parent;
         private GradleProjectSettingsCompositeBuilder(Composite parent) {
             this.parent = parent;
@@ -211,11 +252,20 @@ public final class GradleProjectSettingsComposite extends Composite {
             this.autoSyncCheckbox = true;
             return this;
         }
+        public GradleProjectSettingsCompositeBuilder withAutoSyncDelayText() {
+            this.autoSyncDelayText = true;
+            return this;
+        }
+        public GradleProjectSettingsCompositeBuilder withDaemonWarmUpCheckbox() {
+            this.daemonWarmUpCheckbox = true;
+            return this;
+        }
         public GradleProjectSettingsComposite build() {
             if (this.overrideCheckbox.isPresent()) {
-                return new GradleProjectSettingsComposite(this.parent, true, this.overrideCheckbox.get().getFirst(), this.overrideCheckbox.get().getSecond(), this.autoSyncCheckbox);
+                return new GradleProjectSettingsComposite(this.parent, true, this.overrideCheckbox.get().getFirst(), this.overrideCheckbox.get().getSecond(), this.autoSyncCheckbox,
+                        this.autoSyncDelayText, this.daemonWarmUpCheckbox);
             } else {
-                return new GradleProjectSettingsComposite(this.parent, false, null, null, this.autoSyncCheckbox);
+                return new GradleProjectSettingsComposite(this.parent, false, null, null, this.autoSyncCheckbox, this.autoSyncDelayText, this.daemonWarmUpCheckbox);
             }
         }
     }
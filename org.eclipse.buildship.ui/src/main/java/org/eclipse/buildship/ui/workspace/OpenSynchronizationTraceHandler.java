@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.ui.workspace;
+
+import java.io.File;
+
+import com.google.common.base.Optional;
+
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.ui.handlers.HandlerUtil;
+
+import org.eclipse.buildship.core.util.trace.TraceFiles;
+import org.eclipse.buildship.ui.util.editor.EditorUtils;
+
+/**
+ * Opens the trace of the latest project synchronization in an editor. The trace is in the Chrome
+ * trace event format and can be loaded in {@code chrome://tracing} for visualization.
+ */
+public final class OpenSynchronizationTraceHandler extends AbstractHandler {
+
+    @Override
+    public Object execute(ExecutionEvent event) throws ExecutionException {
+        Optional<File> trace = TraceFiles.findLatest();
+        if (trace.isPresent()) {
+            EditorUtils.openInInternalEditor(trace.get(), true);
+        } else {
+            MessageDialog.openInformation(HandlerUtil.getActiveShell(event), WorkspaceMessages.Title_OpenSynchronizationTrace, WorkspaceMessages.Message_NoSynchronizationTrace);
+        }
+        return null;
+    }
+}
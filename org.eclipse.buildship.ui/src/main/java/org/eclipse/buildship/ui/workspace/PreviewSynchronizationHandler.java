@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2017 the original author or authors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.buildship.ui.workspace;
+
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.PlatformUI;
+
+import org.eclipse.buildship.core.CorePlugin;
+import org.eclipse.buildship.core.util.progress.ToolingApiJob;
+import org.eclipse.buildship.core.workspace.GradleBuild;
+import org.eclipse.buildship.core.workspace.NewProjectHandler;
+
+/**
+ * Shows what the synchronization of the selected projects' Gradle builds would change in the
+ * workspace, without changing anything.
+ *
+ * @see GradleBuild#createSynchronizationReport(NewProjectHandler, org.gradle.tooling.CancellationToken, IProgressMonitor)
+ */
+public final class PreviewSynchronizationHandler extends AbstractHandler {
+
+    @Override
+    public Object execute(ExecutionEvent event) throws ExecutionException {
+        Set<IProject> selectedProjects = ProjectSynchronizer.collectSelectedProjects(event);
+        if (!selectedProjects.isEmpty()) {
+            Set<GradleBuild> gradleBuilds = CorePlugin.gradleWorkspaceManager().getGradleBuilds(selectedProjects).getGradleBuilds();
+            new PreviewSynchronizationJob(gradleBuilds).schedule();
+        }
+        return null;
+    }
+
+    /**
+     * Creates the synchronization reports and shows them in a dialog.
+     */
+    private static final class PreviewSynchronizationJob extends ToolingApiJob {
+
+        private final Set<GradleBuild> gradleBuilds;
+
+        private PreviewSynchronizationJob(Set<GradleBuild> gradleBuilds) {
+            super("Calculating Gradle project synchronization");
+            this.gradleBuilds = ImmutableSet.copyOf(Preconditions.checkNotNull(gradleBuilds));
+        }
+
+        @Override
+        protected void runToolingApiJob(IProgressMonitor monitor) throws Exception {
+            SubMonitor progress = SubMonitor.convert(monitor, this.gradleBuilds.size());
+            StringBuilder report = new StringBuilder();
+            for (GradleBuild gradleBuild : this.gradleBuilds) {
+                if (report.length() > 0) {
+                    report.append(String.format("%n%n"));
+                }
+                // the same handler as used by the 'Refresh Gradle Project' command
+                report.append(gradleBuild.createSynchronizationReport(NewProjectHandler.IMPORT_AND_MERGE, getToken(), progress.newChild(1)));
+            }
+            showReport(report.toString());
+        }
+
+        private void showReport(final String report) {
+            final Display display = PlatformUI.getWorkbench().getDisplay();
+            display.asyncExec(new Runnable() {
+
+                @Override
+                public void run() {
+                    MessageDialog.openInformation(display.getActiveShell(), WorkspaceMessages.Title_PreviewSynchronization, report);
+                }
+            });
+        }
+    }
+}
@@ -53,7 +53,7 @@ public final class ProjectSynchronizer {
         gradleBuilds.synchronize(NewProjectHandler.IMPORT_AND_MERGE);
     }
 
-    private static Set<IProject> collectSelectedProjects(ExecutionEvent event) {
+    static Set<IProject> collectSelectedProjects(ExecutionEvent event) {
         ISelection currentSelection = HandlerUtil.getCurrentSelection(event);
         if (currentSelection instanceof IStructuredSelection) {
             IStructuredSelection selection = (IStructuredSelection) currentSelection;